@@ -1,7 +1,10 @@
 package com.custos.demo;
 
+import com.custos.oauth.client.ClientSecretVerifier;
+import com.custos.oauth.scope.ScopeRegistry;
 import com.custos.oauth.service.ClientRegistrationService;
 import com.custos.oauth.service.ClientRegistrationServiceImpl;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
@@ -34,6 +37,8 @@ public class DemoApplication {
         http
             .authorizeHttpRequests(authorize -> authorize
                 .requestMatchers("/", "/register", "/css/**", "/js/**", "/login", "/oauth2/**", "/callback").permitAll()
+                // Bearer tokens on the API are checked by the resource server filter
+                .requestMatchers("/api/**").permitAll()
                 .anyRequest().authenticated()
             )
             .exceptionHandling(exception -> exception
@@ -72,8 +77,11 @@ public class DemoApplication {
     }
 
     @Bean
-    public ClientRegistrationService clientRegistrationService() {
-        return new ClientRegistrationServiceImpl();
+    public ClientRegistrationService clientRegistrationService(
+        @Value("${jwt.expiration:3600}") long accessTokenLifetime,
+        @Value("${jwt.refresh-token.expiration:604800}") long refreshTokenLifetime) {
+        return new ClientRegistrationServiceImpl(new ScopeRegistry(), new ClientSecretVerifier(),
+            accessTokenLifetime, refreshTokenLifetime);
     }
 
     @Bean
@@ -0,0 +1,46 @@
+package com.custos.demo.config;
+
+import com.custos.resource.BearerTokenFilter;
+import com.custos.resource.JwkSetCache;
+import com.custos.resource.JwtValidator;
+import com.custos.resource.ResourceServerSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.URI;
+
+/**
+ * Protects the demo's API with locally validated Custos access tokens.
+ */
+@Configuration
+public class ResourceServerConfig {
+
+    @Bean
+    public ResourceServerSettings resourceServerSettings(
+        @Value("${custos.resource-server.jwks-uri}") String jwksUri,
+        @Value("${custos.resource-server.issuer}") String issuer) {
+        return ResourceServerSettings.builder()
+            .jwksUri(URI.create(jwksUri))
+            .issuer(issuer)
+            .build();
+    }
+
+    @Bean(destroyMethod = "close")
+    public JwkSetCache jwkSetCache(ResourceServerSettings settings) {
+        return new JwkSetCache(settings);
+    }
+
+    @Bean
+    public JwtValidator jwtValidator(ResourceServerSettings settings, JwkSetCache jwkSetCache) {
+        return new JwtValidator(settings, jwkSetCache);
+    }
+
+    @Bean
+    public FilterRegistrationBean<BearerTokenFilter> bearerTokenFilter(JwtValidator jwtValidator) {
+        FilterRegistrationBean<BearerTokenFilter> registration = new FilterRegistrationBean<>(new BearerTokenFilter(jwtValidator));
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+}
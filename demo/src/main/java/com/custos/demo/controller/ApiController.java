@@ -0,0 +1,24 @@
+package com.custos.demo.controller;
+
+import com.custos.resource.BearerTokenFilter;
+import com.nimbusds.jwt.JWTClaimsSet;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * Sample API protected by bearer tokens.
+ */
+@RestController
+@RequestMapping("/api")
+public class ApiController {
+
+    @GetMapping("/me")
+    public Map<String, Object> me(HttpServletRequest request) {
+        JWTClaimsSet claims = BearerTokenFilter.claims(request);
+        return claims.toJSONObject();
+    }
+}
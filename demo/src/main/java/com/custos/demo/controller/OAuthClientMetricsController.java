@@ -0,0 +1,22 @@
+package com.custos.demo.controller;
+
+import com.custos.demo.http.OAuthHttpClient;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+public class OAuthClientMetricsController {
+
+    private final OAuthHttpClient oauthHttpClient;
+
+    public OAuthClientMetricsController(OAuthHttpClient oauthHttpClient) {
+        this.oauthHttpClient = oauthHttpClient;
+    }
+
+    @GetMapping("/oauth-client/metrics")
+    public Map<String, Object> metrics() {
+        return oauthHttpClient.getMetrics().snapshot();
+    }
+}
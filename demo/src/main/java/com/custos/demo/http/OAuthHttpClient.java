@@ -0,0 +1,364 @@
+package com.custos.demo.http;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * HTTP client for the authorization server's token, introspection and revocation endpoints.
+ * <p>
+ * A single JDK {@link HttpClient} is shared by all calls, so connections are pooled and kept
+ * alive between requests. HTTP/2 is negotiated where the server supports it, in which case
+ * concurrent introspections are multiplexed over one connection; the number in flight is capped
+ * and further requests queue without blocking the caller. Every call is idempotent from the
+ * server's point of view, so attempts that fail with an I/O error, a 429 or a 5xx response are
+ * retried with exponential backoff.
+ */
+@Component
+public class OAuthHttpClient {
+
+    private static final String FORM_CONTENT_TYPE = "application/x-www-form-urlencoded";
+
+    private final OAuthHttpClientProperties properties;
+    private final ObjectMapper objectMapper;
+    private final String clientId;
+    private final String clientSecret;
+    private final ExecutorService executor;
+    private final HttpClient httpClient;
+    private final OAuthHttpClientMetrics metrics = new OAuthHttpClientMetrics();
+
+    private final Semaphore introspectionPermits;
+    private final Queue<Runnable> queuedIntrospections = new ConcurrentLinkedQueue<>();
+
+    private final URI tokenUri;
+    private final URI introspectionUri;
+    private final URI revocationUri;
+
+    @Autowired
+    public OAuthHttpClient(OAuthHttpClientProperties properties, ObjectMapper objectMapper,
+                           @Value("${oauth2.client.registration.client-id}") String clientId,
+                           @Value("${oauth2.client.registration.client-secret}") String clientSecret) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.clientId = clientId;
+        this.clientSecret = clientSecret;
+
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "oauth-http-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        OAuthHttpClientProperties.Http http = properties.getHttp();
+        this.httpClient = HttpClient.newBuilder()
+            .version(http.isHttp2() ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+            .connectTimeout(http.getConnectTimeout())
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .executor(executor)
+            .build();
+        this.introspectionPermits = new Semaphore(http.getMaxConcurrentIntrospections());
+
+        this.tokenUri = URI.create(properties.getBaseUrl() + properties.getTokenEndpoint());
+        this.introspectionUri = URI.create(properties.getBaseUrl() + properties.getIntrospectionEndpoint());
+        this.revocationUri = URI.create(properties.getBaseUrl() + properties.getRevocationEndpoint());
+    }
+
+    /**
+     * Requests an access token with the client credentials grant from the configured token endpoint.
+     *
+     * @param clientId The client identifier
+     * @param clientSecret The client secret
+     * @param scope The space-delimited scope, or null for the client's default scope
+     * @return The token response
+     * @throws OAuthHttpClientException if the request fails
+     */
+    public TokenResult requestClientCredentialsToken(String clientId, String clientSecret, String scope) {
+        return requestClientCredentialsToken(tokenUri, clientId, clientSecret, scope);
+    }
+
+    /**
+     * Requests an access token with the client credentials grant.
+     *
+     * @param tokenUri The token endpoint
+     * @param clientId The client identifier
+     * @param clientSecret The client secret
+     * @param scope The space-delimited scope, or null for the client's default scope
+     * @return The token response
+     * @throws OAuthHttpClientException if the request fails
+     */
+    public TokenResult requestClientCredentialsToken(URI tokenUri, String clientId, String clientSecret, String scope) {
+        StringBuilder form = new StringBuilder("grant_type=client_credentials");
+        if (scope != null && !scope.isEmpty()) {
+            appendParameter(form, "scope", scope);
+        }
+        return join(send(post(tokenUri, form, clientId, clientSecret), TokenResult.class));
+    }
+
+    /**
+     * Introspects a token, waiting for the result.
+     *
+     * @param token The token to introspect
+     * @return The introspection response
+     * @throws OAuthHttpClientException if the request fails
+     */
+    public IntrospectionResult introspect(String token) {
+        return join(introspectAsync(token));
+    }
+
+    /**
+     * Introspects a token without blocking. Requests beyond the concurrency limit are queued
+     * and sent as earlier ones complete.
+     *
+     * @param token The token to introspect
+     * @return A future for the introspection response
+     */
+    public CompletableFuture<IntrospectionResult> introspectAsync(String token) {
+        StringBuilder form = new StringBuilder();
+        appendParameter(form, "token", token);
+        appendParameter(form, "token_type_hint", "access_token");
+        HttpRequest request = post(introspectionUri, form, clientId, clientSecret);
+
+        CompletableFuture<IntrospectionResult> result = new CompletableFuture<>();
+        metrics.introspectionQueued();
+        queuedIntrospections.add(() -> {
+            metrics.introspectionDequeued();
+            send(request, IntrospectionResult.class).whenComplete((response, error) -> {
+                introspectionPermits.release();
+                drainIntrospections();
+                if (error != null) {
+                    result.completeExceptionally(error);
+                } else {
+                    result.complete(response);
+                }
+            });
+        });
+        drainIntrospections();
+        return result;
+    }
+
+    /**
+     * Introspects several tokens concurrently and returns the results in the same order.
+     *
+     * @param tokens The tokens to introspect
+     * @return The introspection responses
+     * @throws OAuthHttpClientException if any request fails
+     */
+    public List<IntrospectionResult> introspectAll(Collection<String> tokens) {
+        List<CompletableFuture<IntrospectionResult>> futures = new ArrayList<>(tokens.size());
+        for (String token : tokens) {
+            futures.add(introspectAsync(token));
+        }
+        List<IntrospectionResult> results = new ArrayList<>(futures.size());
+        for (CompletableFuture<IntrospectionResult> future : futures) {
+            results.add(join(future));
+        }
+        return results;
+    }
+
+    /**
+     * Revokes a token.
+     *
+     * @param token The token to revoke
+     * @param tokenTypeHint The token type hint, may be null
+     * @throws OAuthHttpClientException if the request fails
+     */
+    public void revoke(String token, String tokenTypeHint) {
+        StringBuilder form = new StringBuilder();
+        appendParameter(form, "token", token);
+        if (tokenTypeHint != null) {
+            appendParameter(form, "token_type_hint", tokenTypeHint);
+        }
+        join(send(post(revocationUri, form, clientId, clientSecret), response -> null));
+    }
+
+    public OAuthHttpClientMetrics getMetrics() {
+        return metrics;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void drainIntrospections() {
+        while (!queuedIntrospections.isEmpty() && introspectionPermits.tryAcquire()) {
+            Runnable next = queuedIntrospections.poll();
+            if (next == null) {
+                introspectionPermits.release();
+                return;
+            }
+            next.run();
+        }
+    }
+
+    private HttpRequest post(URI uri, CharSequence form, String clientId, String clientSecret) {
+        return HttpRequest.newBuilder(uri)
+            .timeout(properties.getHttp().getRequestTimeout())
+            .header("Content-Type", FORM_CONTENT_TYPE)
+            .header("Accept", "application/json")
+            .header("Authorization", basicAuthorization(clientId, clientSecret))
+            .POST(HttpRequest.BodyPublishers.ofString(form.toString()))
+            .build();
+    }
+
+    private <T> CompletableFuture<T> send(HttpRequest request, Class<T> type) {
+        return send(request, body -> objectMapper.readValue(body, type));
+    }
+
+    private <T> CompletableFuture<T> send(HttpRequest request, BodyReader<T> reader) {
+        return attempt(request, 0).thenApply(response -> {
+            if (response.statusCode() / 100 != 2) {
+                throw errorFor(response);
+            }
+            try {
+                return reader.read(response.body());
+            } catch (IOException e) {
+                throw new OAuthHttpClientException("Malformed response from " + request.uri(), e);
+            }
+        });
+    }
+
+    private CompletableFuture<HttpResponse<byte[]>> attempt(HttpRequest request, int retry) {
+        long start = System.nanoTime();
+        metrics.attemptStarted();
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+            .handle((response, error) -> {
+                if (error == null) {
+                    metrics.attemptFinished(start, response.statusCode(), response.version());
+                } else {
+                    metrics.attemptFailed(start);
+                }
+
+                if (isRetryable(response, error) && retry < properties.getHttp().getMaxRetries()) {
+                    metrics.retried();
+                    long delay = properties.getHttp().getRetryBackoff().toMillis() << retry;
+                    return CompletableFuture.supplyAsync(() -> null,
+                            CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS, executor))
+                        .thenCompose(ignored -> attempt(request, retry + 1));
+                }
+                if (error != null) {
+                    metrics.failed();
+                    Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                    return CompletableFuture.<HttpResponse<byte[]>>failedFuture(
+                        new OAuthHttpClientException("Request to " + request.uri() + " failed", cause));
+                }
+                if (response.statusCode() / 100 != 2) {
+                    metrics.failed();
+                }
+                return CompletableFuture.completedFuture(response);
+            })
+            .thenCompose(Function.identity());
+    }
+
+    private static boolean isRetryable(HttpResponse<?> response, Throwable error) {
+        if (error != null) {
+            Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+            return cause instanceof IOException || cause instanceof HttpTimeoutException;
+        }
+        return response.statusCode() == 429 || response.statusCode() >= 500;
+    }
+
+    private OAuthHttpClientException errorFor(HttpResponse<byte[]> response) {
+        String error = null;
+        String description = null;
+        try {
+            JsonNode body = objectMapper.readTree(response.body());
+            if (body != null) {
+                error = body.path("error").asText(null);
+                description = body.path("error_description").asText(null);
+            }
+        } catch (IOException e) {
+            // Not a JSON error body; report the status alone
+        }
+        return new OAuthHttpClientException(response.statusCode(), error,
+            "Authorization server returned " + response.statusCode()
+                + (description != null ? ": " + description : error != null ? ": " + error : ""));
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof OAuthHttpClientException cause) {
+                throw cause;
+            }
+            throw new OAuthHttpClientException("Request failed", e.getCause());
+        }
+    }
+
+    /**
+     * Builds an HTTP Basic header with the client ID and secret form-encoded first,
+     * as required by RFC 6749 section 2.3.1.
+     */
+    private static String basicAuthorization(String clientId, String clientSecret) {
+        String credentials = URLEncoder.encode(clientId, StandardCharsets.UTF_8) + ":"
+            + URLEncoder.encode(clientSecret, StandardCharsets.UTF_8);
+        return "Basic " + Base64.getEncoder().encodeToString(credentials.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void appendParameter(StringBuilder form, String name, String value) {
+        if (form.length() > 0) {
+            form.append('&');
+        }
+        form.append(name).append('=').append(URLEncoder.encode(value, StandardCharsets.UTF_8));
+    }
+
+    @FunctionalInterface
+    private interface BodyReader<T> {
+        T read(byte[] body) throws IOException;
+    }
+
+    /**
+     * Successful token endpoint response.
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record TokenResult(
+        @JsonProperty("access_token") String accessToken,
+        @JsonProperty("token_type") String tokenType,
+        @JsonProperty("expires_in") Long expiresIn,
+        @JsonProperty("refresh_token") String refreshToken,
+        @JsonProperty("scope") String scope) {
+    }
+
+    /**
+     * Token introspection response (RFC 7662).
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record IntrospectionResult(
+        @JsonProperty("active") boolean active,
+        @JsonProperty("scope") String scope,
+        @JsonProperty("client_id") String clientId,
+        @JsonProperty("username") String username,
+        @JsonProperty("sub") String sub,
+        @JsonProperty("exp") Long exp) {
+    }
+}
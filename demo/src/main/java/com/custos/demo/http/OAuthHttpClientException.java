@@ -0,0 +1,36 @@
+package com.custos.demo.http;
+
+/**
+ * Thrown when the authorization server cannot be reached or rejects a request.
+ */
+public class OAuthHttpClientException extends RuntimeException {
+
+    private final int status;
+    private final String error;
+
+    public OAuthHttpClientException(String message, Throwable cause) {
+        super(message, cause);
+        this.status = 0;
+        this.error = null;
+    }
+
+    public OAuthHttpClientException(int status, String error, String message) {
+        super(message);
+        this.status = status;
+        this.error = error;
+    }
+
+    /**
+     * Returns the HTTP status, or 0 if no response was received.
+     */
+    public int getStatus() {
+        return status;
+    }
+
+    /**
+     * Returns the OAuth error code from the response body, if any.
+     */
+    public String getError() {
+        return error;
+    }
+}
@@ -0,0 +1,117 @@
+package com.custos.demo.http;
+
+import java.net.http.HttpClient;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters for the traffic sent by {@link OAuthHttpClient}.
+ * The JDK client does not expose its connection pool, so connection reuse is observed through
+ * the protocol each response arrived on and the number of requests in flight.
+ */
+public class OAuthHttpClientMetrics {
+
+    private final LongAdder attempts = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder ioErrors = new LongAdder();
+    private final LongAdder responses2xx = new LongAdder();
+    private final LongAdder responses4xx = new LongAdder();
+    private final LongAdder responses5xx = new LongAdder();
+    private final LongAdder http2Responses = new LongAdder();
+    private final LongAdder http1Responses = new LongAdder();
+    private final LongAdder latencyNanos = new LongAdder();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger introspectionsQueued = new AtomicInteger();
+
+    void attemptStarted() {
+        attempts.increment();
+        inFlight.incrementAndGet();
+    }
+
+    void attemptFinished(long startNanos, int status, HttpClient.Version version) {
+        inFlight.decrementAndGet();
+        latencyNanos.add(System.nanoTime() - startNanos);
+        if (status >= 500) {
+            responses5xx.increment();
+        } else if (status >= 400) {
+            responses4xx.increment();
+        } else {
+            responses2xx.increment();
+        }
+        if (version == HttpClient.Version.HTTP_2) {
+            http2Responses.increment();
+        } else {
+            http1Responses.increment();
+        }
+    }
+
+    void attemptFailed(long startNanos) {
+        inFlight.decrementAndGet();
+        latencyNanos.add(System.nanoTime() - startNanos);
+        ioErrors.increment();
+    }
+
+    void retried() {
+        retries.increment();
+    }
+
+    void failed() {
+        failures.increment();
+    }
+
+    void introspectionQueued() {
+        introspectionsQueued.incrementAndGet();
+    }
+
+    void introspectionDequeued() {
+        introspectionsQueued.decrementAndGet();
+    }
+
+    public long getAttempts() {
+        return attempts.sum();
+    }
+
+    public long getRetries() {
+        return retries.sum();
+    }
+
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getHttp2Responses() {
+        return http2Responses.sum();
+    }
+
+    public long getHttp1Responses() {
+        return http1Responses.sum();
+    }
+
+    /**
+     * Returns all counters, in a form suitable for rendering as JSON.
+     */
+    public Map<String, Object> snapshot() {
+        long completed = attempts.sum() - inFlight.get();
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("attempts", attempts.sum());
+        snapshot.put("retries", retries.sum());
+        snapshot.put("failures", failures.sum());
+        snapshot.put("ioErrors", ioErrors.sum());
+        snapshot.put("responses2xx", responses2xx.sum());
+        snapshot.put("responses4xx", responses4xx.sum());
+        snapshot.put("responses5xx", responses5xx.sum());
+        snapshot.put("http2Responses", http2Responses.sum());
+        snapshot.put("http1Responses", http1Responses.sum());
+        snapshot.put("inFlight", inFlight.get());
+        snapshot.put("introspectionsQueued", introspectionsQueued.get());
+        snapshot.put("meanLatencyMillis", completed == 0 ? 0.0 : latencyNanos.sum() / (completed * 1_000_000.0));
+        return snapshot;
+    }
+}
@@ -0,0 +1,141 @@
+package com.custos.demo.http;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Endpoints of the authorization server and transport settings for {@link OAuthHttpClient}.
+ */
+@Component
+@ConfigurationProperties(prefix = "oauth2.authorization-server")
+public class OAuthHttpClientProperties {
+
+    private String baseUrl = "http://localhost:9000";
+    private String tokenEndpoint = "/oauth2/token";
+    private String introspectionEndpoint = "/oauth2/introspect";
+    private String revocationEndpoint = "/oauth2/revoke";
+
+    private final Http http = new Http();
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public void setBaseUrl(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    public String getTokenEndpoint() {
+        return tokenEndpoint;
+    }
+
+    public void setTokenEndpoint(String tokenEndpoint) {
+        this.tokenEndpoint = tokenEndpoint;
+    }
+
+    public String getIntrospectionEndpoint() {
+        return introspectionEndpoint;
+    }
+
+    public void setIntrospectionEndpoint(String introspectionEndpoint) {
+        this.introspectionEndpoint = introspectionEndpoint;
+    }
+
+    public String getRevocationEndpoint() {
+        return revocationEndpoint;
+    }
+
+    public void setRevocationEndpoint(String revocationEndpoint) {
+        this.revocationEndpoint = revocationEndpoint;
+    }
+
+    public Http getHttp() {
+        return http;
+    }
+
+    /**
+     * Transport settings.
+     */
+    public static class Http {
+
+        /**
+         * Time allowed to establish a connection.
+         */
+        private Duration connectTimeout = Duration.ofSeconds(2);
+
+        /**
+         * Time allowed for a single attempt, from sending the request to receiving the response headers.
+         */
+        private Duration requestTimeout = Duration.ofSeconds(5);
+
+        /**
+         * Attempts made after the first one fails with an I/O error, a 429 or a 5xx response.
+         */
+        private int maxRetries = 2;
+
+        /**
+         * Delay before the first retry; doubled for each further retry.
+         */
+        private Duration retryBackoff = Duration.ofMillis(200);
+
+        /**
+         * Introspection requests allowed in flight at once. Over HTTP/2 they share one connection.
+         */
+        private int maxConcurrentIntrospections = 32;
+
+        /**
+         * Prefer HTTP/2, falling back to HTTP/1.1 keep-alive when the server does not support it.
+         */
+        private boolean http2 = true;
+
+        public Duration getConnectTimeout() {
+            return connectTimeout;
+        }
+
+        public void setConnectTimeout(Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+        }
+
+        public Duration getRequestTimeout() {
+            return requestTimeout;
+        }
+
+        public void setRequestTimeout(Duration requestTimeout) {
+            this.requestTimeout = requestTimeout;
+        }
+
+        public int getMaxRetries() {
+            return maxRetries;
+        }
+
+        public void setMaxRetries(int maxRetries) {
+            this.maxRetries = maxRetries;
+        }
+
+        public Duration getRetryBackoff() {
+            return retryBackoff;
+        }
+
+        public void setRetryBackoff(Duration retryBackoff) {
+            this.retryBackoff = retryBackoff;
+        }
+
+        public int getMaxConcurrentIntrospections() {
+            return maxConcurrentIntrospections;
+        }
+
+        public void setMaxConcurrentIntrospections(int maxConcurrentIntrospections) {
+            this.maxConcurrentIntrospections = maxConcurrentIntrospections;
+        }
+
+        public boolean isHttp2() {
+            return http2;
+        }
+
+        public void setHttp2(boolean http2) {
+            this.http2 = http2;
+        }
+    }
+}
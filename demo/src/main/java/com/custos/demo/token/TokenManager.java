@@ -0,0 +1,287 @@
+package com.custos.demo.token;
+
+import com.custos.demo.http.OAuthHttpClient;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Client-side cache of access tokens obtained with the client credentials grant, kept per
+ * client registration and scope.
+ * <p>
+ * Tokens are refreshed in the background once most of their lifetime has passed, with random
+ * jitter so that tokens obtained together are not all refreshed together. Concurrent requests
+ * for a token that is missing or expired share a single call to the token endpoint.
+ * Tokens that have not been asked for during a whole lifetime are dropped instead of refreshed.
+ */
+@Component
+public class TokenManager {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenManager.class);
+
+    /**
+     * Fraction of a token's lifetime after which it is refreshed, before jitter.
+     */
+    private static final double REFRESH_RATIO = 0.8;
+
+    /**
+     * Largest random shift of the refresh time, as a fraction of the lifetime.
+     */
+    private static final double REFRESH_JITTER = 0.1;
+
+    /**
+     * Tokens closer than this to expiry are not handed out.
+     */
+    private static final Duration EXPIRY_SKEW = Duration.ofSeconds(10);
+
+    private static final Duration RETRY_DELAY = Duration.ofSeconds(5);
+
+    private final ClientRegistrationRepository clientRegistrationRepository;
+    private final TokenFetcher tokenFetcher;
+    private final ScheduledExecutorService scheduler;
+    private final Clock clock;
+
+    private final Map<TokenKey, CachedToken> tokens = new ConcurrentHashMap<>();
+    private final Map<TokenKey, CompletableFuture<CachedToken>> inFlight = new ConcurrentHashMap<>();
+
+    @Autowired
+    public TokenManager(ClientRegistrationRepository clientRegistrationRepository, OAuthHttpClient httpClient) {
+        this(clientRegistrationRepository, clientCredentialsFetcher(httpClient),
+            Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "token-refresh");
+                thread.setDaemon(true);
+                return thread;
+            }),
+            Clock.systemUTC());
+    }
+
+    TokenManager(ClientRegistrationRepository clientRegistrationRepository, TokenFetcher tokenFetcher,
+                 ScheduledExecutorService scheduler, Clock clock) {
+        this.clientRegistrationRepository = clientRegistrationRepository;
+        this.tokenFetcher = tokenFetcher;
+        this.scheduler = scheduler;
+        this.clock = clock;
+    }
+
+    /**
+     * Returns a valid access token for the registration and scope, fetching one if none is cached.
+     *
+     * @param registrationId The client registration id
+     * @param scope The space-delimited scope, or null for the registration's default scope
+     * @return The access token value
+     */
+    public String getAccessToken(String registrationId, String scope) {
+        TokenKey key = new TokenKey(registrationId, normalize(scope));
+        Instant now = clock.instant();
+
+        CachedToken token = tokens.get(key);
+        if (token != null && token.isUsable(now)) {
+            token.touch(now);
+            return token.value();
+        }
+
+        try {
+            return refresh(key).join().value();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    /**
+     * Drops all cached tokens for a registration, for example after its credentials changed.
+     */
+    public void evict(String registrationId) {
+        tokens.keySet().removeIf(key -> key.registrationId().equals(registrationId));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Starts a fetch for the key unless one is already running, and returns the shared result.
+     */
+    private CompletableFuture<CachedToken> refresh(TokenKey key) {
+        CompletableFuture<CachedToken> created = new CompletableFuture<>();
+        CompletableFuture<CachedToken> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            return existing;
+        }
+
+        try {
+            CachedToken token = fetch(key);
+            tokens.put(key, token);
+            scheduleRefresh(key, token);
+            created.complete(token);
+        } catch (RuntimeException e) {
+            created.completeExceptionally(e);
+        } finally {
+            inFlight.remove(key, created);
+        }
+        return created;
+    }
+
+    private CachedToken fetch(TokenKey key) {
+        ClientRegistration registration = clientRegistrationRepository.findByRegistrationId(key.registrationId());
+        if (registration == null) {
+            throw new IllegalArgumentException("Unknown client registration: " + key.registrationId());
+        }
+
+        OAuth2AccessToken accessToken = tokenFetcher.fetch(registration, key.scopes());
+        Instant issuedAt = accessToken.getIssuedAt() != null ? accessToken.getIssuedAt() : clock.instant();
+        Instant expiresAt = accessToken.getExpiresAt();
+        if (expiresAt == null) {
+            throw new IllegalStateException("Token endpoint did not return expires_in for " + key.registrationId());
+        }
+
+        long lifetimeMillis = Duration.between(issuedAt, expiresAt).toMillis();
+        double jitter = ThreadLocalRandom.current().nextDouble(-REFRESH_JITTER, REFRESH_JITTER);
+        Instant refreshAt = issuedAt.plusMillis((long) (lifetimeMillis * (REFRESH_RATIO + jitter)));
+
+        log.debug("Fetched token for {} {}, refreshing at {}", key.registrationId(), key.scopes(), refreshAt);
+        return new CachedToken(accessToken.getTokenValue(), expiresAt, refreshAt, clock.instant());
+    }
+
+    private void scheduleRefresh(TokenKey key, CachedToken token) {
+        long delay = Math.max(0, Duration.between(clock.instant(), token.refreshAt()).toMillis());
+        scheduler.schedule(() -> backgroundRefresh(key, token), delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void backgroundRefresh(TokenKey key, CachedToken scheduled) {
+        // Skip if the token was replaced or evicted since this refresh was scheduled
+        if (tokens.get(key) != scheduled) {
+            return;
+        }
+
+        Instant now = clock.instant();
+        Duration lifetime = Duration.between(scheduled.fetchedAt(), scheduled.expiresAt());
+        if (scheduled.lastUsed().plus(lifetime).isBefore(now)) {
+            tokens.remove(key, scheduled);
+            return;
+        }
+
+        try {
+            refresh(key).join();
+        } catch (CompletionException e) {
+            // Keep serving the current token while it lasts and try again shortly
+            log.warn("Background token refresh failed for {}: {}", key.registrationId(), e.getCause().getMessage());
+            if (scheduled.expiresAt().isAfter(now.plus(RETRY_DELAY))) {
+                scheduler.schedule(() -> backgroundRefresh(key, scheduled), RETRY_DELAY.toMillis(), TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * Fetches tokens with the client credentials grant from the registration's token endpoint.
+     * The registration's credentials are used whatever flow it was set up for.
+     */
+    private static TokenFetcher clientCredentialsFetcher(OAuthHttpClient httpClient) {
+        return (registration, scopes) -> {
+            Instant issuedAt = Instant.now();
+            OAuthHttpClient.TokenResult result = httpClient.requestClientCredentialsToken(
+                URI.create(registration.getProviderDetails().getTokenUri()),
+                registration.getClientId(),
+                registration.getClientSecret(),
+                scopes.isEmpty() ? null : String.join(" ", scopes));
+            Instant expiresAt = result.expiresIn() == null ? null : issuedAt.plusSeconds(result.expiresIn());
+            return new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER, result.accessToken(), issuedAt, expiresAt,
+                result.scope() == null ? scopes : Set.copyOf(Arrays.asList(result.scope().split(" "))));
+        };
+    }
+
+    /**
+     * Sorts and deduplicates a scope so that equivalent requests share a cache entry.
+     */
+    private static Set<String> normalize(String scope) {
+        if (scope == null || scope.isBlank()) {
+            return Set.of();
+        }
+        return Arrays.stream(scope.trim().split("\\s+"))
+            .collect(Collectors.toCollection(TreeSet::new));
+    }
+
+    /**
+     * Obtains an access token from the authorization server.
+     */
+    @FunctionalInterface
+    public interface TokenFetcher {
+
+        /**
+         * @param registration The client registration
+         * @param scopes The scopes to request, empty for the registration's default scope
+         * @return The access token
+         */
+        OAuth2AccessToken fetch(ClientRegistration registration, Set<String> scopes);
+    }
+
+    private record TokenKey(String registrationId, Set<String> scopes) {
+    }
+
+    private static final class CachedToken {
+
+        private final String value;
+        private final Instant expiresAt;
+        private final Instant refreshAt;
+        private final Instant fetchedAt;
+        private volatile Instant lastUsed;
+
+        CachedToken(String value, Instant expiresAt, Instant refreshAt, Instant fetchedAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+            this.refreshAt = refreshAt;
+            this.fetchedAt = fetchedAt;
+            this.lastUsed = fetchedAt;
+        }
+
+        boolean isUsable(Instant now) {
+            return now.plus(EXPIRY_SKEW).isBefore(expiresAt);
+        }
+
+        void touch(Instant now) {
+            lastUsed = now;
+        }
+
+        String value() {
+            return value;
+        }
+
+        Instant expiresAt() {
+            return expiresAt;
+        }
+
+        Instant refreshAt() {
+            return refreshAt;
+        }
+
+        Instant fetchedAt() {
+            return fetchedAt;
+        }
+
+        Instant lastUsed() {
+            return lastUsed;
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.custos.demo.http;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Exercises the client against a local stub of the authorization server.
+ */
+class OAuthHttpClientTest {
+
+    private HttpServer server;
+    private OAuthHttpClient client;
+
+    private final List<Map<String, String>> tokenRequests = new CopyOnWriteArrayList<>();
+    private final List<String> authorizations = new CopyOnWriteArrayList<>();
+    private final AtomicInteger introspectFailuresLeft = new AtomicInteger();
+    private final AtomicInteger introspectInFlight = new AtomicInteger();
+    private final AtomicInteger introspectMaxInFlight = new AtomicInteger();
+    private final Map<String, Boolean> revoked = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newFixedThreadPool(16));
+        server.createContext("/oauth2/token", exchange -> {
+            authorizations.add(exchange.getRequestHeaders().getFirst("Authorization"));
+            Map<String, String> form = readForm(exchange);
+            tokenRequests.add(form);
+            if (form.containsKey("scope") && form.get("scope").contains("admin")) {
+                respond(exchange, 400, "{\"error\":\"invalid_scope\",\"error_description\":\"Scope not allowed: admin\"}");
+                return;
+            }
+            respond(exchange, 200, "{\"access_token\":\"token-" + tokenRequests.size()
+                + "\",\"token_type\":\"Bearer\",\"expires_in\":3600,\"scope\":\"" + form.getOrDefault("scope", "") + "\"}");
+        });
+        server.createContext("/oauth2/introspect", exchange -> {
+            Map<String, String> form = readForm(exchange);
+            if (introspectFailuresLeft.getAndDecrement() > 0) {
+                respond(exchange, 503, "");
+                return;
+            }
+            int inFlight = introspectInFlight.incrementAndGet();
+            introspectMaxInFlight.accumulateAndGet(inFlight, Math::max);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            introspectInFlight.decrementAndGet();
+            String token = form.get("token");
+            boolean active = !revoked.containsKey(token);
+            respond(exchange, 200, active
+                ? "{\"active\":true,\"sub\":\"" + token + "\",\"client_id\":\"test-client\",\"exp\":1700000000}"
+                : "{\"active\":false}");
+        });
+        server.createContext("/oauth2/revoke", exchange -> {
+            revoked.put(readForm(exchange).get("token"), true);
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        });
+        server.start();
+
+        client = newClient(properties -> { });
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.shutdown();
+        server.stop(0);
+    }
+
+    @Test
+    void requestClientCredentialsToken_SendsFormWithBasicAuthorization() {
+        OAuthHttpClient.TokenResult result = client.requestClientCredentialsToken("my client", "s3cr:t", "read write");
+
+        assertEquals("token-1", result.accessToken());
+        assertEquals(3600L, result.expiresIn().longValue());
+        assertEquals("read write", result.scope());
+        assertEquals(Map.of("grant_type", "client_credentials", "scope", "read write"), tokenRequests.get(0));
+
+        String credentials = new String(Base64.getDecoder().decode(authorizations.get(0).substring("Basic ".length())),
+            StandardCharsets.UTF_8);
+        assertEquals("my+client:s3cr%3At", credentials);
+    }
+
+    @Test
+    void requestClientCredentialsToken_ErrorResponse_IsNotRetried() {
+        OAuthHttpClientException e = assertThrows(OAuthHttpClientException.class,
+            () -> client.requestClientCredentialsToken("test-client", "test-secret", "admin"));
+
+        assertEquals(400, e.getStatus());
+        assertEquals("invalid_scope", e.getError());
+        assertEquals(1, tokenRequests.size());
+        assertEquals(0, client.getMetrics().getRetries());
+    }
+
+    @Test
+    void introspect_ServiceUnavailable_IsRetried() {
+        introspectFailuresLeft.set(2);
+
+        OAuthHttpClient.IntrospectionResult result = client.introspect("abc");
+
+        assertTrue(result.active());
+        assertEquals("abc", result.sub());
+        assertEquals(2, client.getMetrics().getRetries());
+        assertEquals(3, client.getMetrics().getAttempts());
+    }
+
+    @Test
+    void introspect_RetriesExhausted_Throws() {
+        introspectFailuresLeft.set(10);
+
+        OAuthHttpClientException e = assertThrows(OAuthHttpClientException.class, () -> client.introspect("abc"));
+
+        assertEquals(503, e.getStatus());
+        assertEquals(3, client.getMetrics().getAttempts());
+        assertEquals(1, client.getMetrics().getFailures());
+    }
+
+    @Test
+    void introspectAll_RunsConcurrentlyWithinLimit() {
+        client.shutdown();
+        client = newClient(properties -> properties.getHttp().setMaxConcurrentIntrospections(4));
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            tokens.add("token-" + i);
+        }
+
+        List<OAuthHttpClient.IntrospectionResult> results = client.introspectAll(tokens);
+
+        for (int i = 0; i < tokens.size(); i++) {
+            assertEquals(tokens.get(i), results.get(i).sub());
+        }
+        assertTrue(introspectMaxInFlight.get() > 1, "requests should overlap");
+        assertTrue(introspectMaxInFlight.get() <= 4, "at most 4 requests in flight");
+        assertEquals(0, client.getMetrics().getInFlight());
+    }
+
+    @Test
+    void revoke_ThenIntrospect_IsInactive() {
+        client.revoke("abc", "access_token");
+
+        assertFalse(client.introspect("abc").active());
+        assertEquals(2L, client.getMetrics().snapshot().get("responses2xx"));
+    }
+
+    @Test
+    void unreachableServer_FailsAfterRetries() {
+        server.stop(0);
+
+        assertThrows(OAuthHttpClientException.class, () -> client.introspect("abc"));
+        assertEquals(3, client.getMetrics().getAttempts());
+    }
+
+    private OAuthHttpClient newClient(java.util.function.Consumer<OAuthHttpClientProperties> customizer) {
+        OAuthHttpClientProperties properties = new OAuthHttpClientProperties();
+        properties.setBaseUrl("http://127.0.0.1:" + server.getAddress().getPort());
+        properties.getHttp().setRetryBackoff(Duration.ofMillis(10));
+        properties.getHttp().setRequestTimeout(Duration.ofSeconds(2));
+        customizer.accept(properties);
+        return new OAuthHttpClient(properties, new ObjectMapper(), "test-client", "test-secret");
+    }
+
+    private static Map<String, String> readForm(HttpExchange exchange) throws IOException {
+        String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        Map<String, String> form = new ConcurrentHashMap<>();
+        for (String pair : body.split("&")) {
+            int separator = pair.indexOf('=');
+            if (separator > 0) {
+                form.put(URLDecoder.decode(pair.substring(0, separator), StandardCharsets.UTF_8),
+                    URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return form;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
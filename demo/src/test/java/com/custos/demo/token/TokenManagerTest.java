@@ -0,0 +1,168 @@
+package com.custos.demo.token;
+
+import com.custos.demo.MutableClock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.client.registration.InMemoryClientRegistrationRepository;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class TokenManagerTest {
+
+    private static final Duration LIFETIME = Duration.ofSeconds(3600);
+
+    private final MutableClock clock = new MutableClock();
+    private final AtomicInteger fetches = new AtomicInteger();
+    private final List<Set<String>> requestedScopes = new ArrayList<>();
+
+    private ScheduledExecutorService scheduler;
+    private TokenManager tokenManager;
+
+    @BeforeEach
+    void setUp() {
+        ClientRegistration registration = ClientRegistration.withRegistrationId("custos")
+            .clientId("test-client")
+            .clientSecret("test-secret")
+            .authorizationGrantType(AuthorizationGrantType.CLIENT_CREDENTIALS)
+            .tokenUri("http://localhost:9000/oauth2/token")
+            .build();
+        scheduler = mock(ScheduledExecutorService.class);
+        tokenManager = new TokenManager(new InMemoryClientRegistrationRepository(registration),
+            (reg, scopes) -> {
+                requestedScopes.add(scopes);
+                return token("token-" + fetches.incrementAndGet());
+            },
+            scheduler, clock);
+    }
+
+    @Test
+    void getAccessToken_CachesPerRegistrationAndScope() {
+        String first = tokenManager.getAccessToken("custos", "read write");
+        String reordered = tokenManager.getAccessToken("custos", "write  read");
+        String narrower = tokenManager.getAccessToken("custos", "read");
+
+        assertEquals(first, reordered);
+        assertNotEquals(first, narrower);
+        assertEquals(2, fetches.get());
+        assertEquals(Set.of("read", "write"), requestedScopes.get(0));
+    }
+
+    @Test
+    void getAccessToken_SchedulesJitteredRefreshAheadOfExpiry() {
+        tokenManager.getAccessToken("custos", "read");
+
+        ArgumentCaptor<Long> delay = ArgumentCaptor.forClass(Long.class);
+        verify(scheduler).schedule(any(Runnable.class), delay.capture(), eq(TimeUnit.MILLISECONDS));
+        assertTrue(delay.getValue() >= LIFETIME.toMillis() * 0.7);
+        assertTrue(delay.getValue() <= LIFETIME.toMillis() * 0.9);
+    }
+
+    @Test
+    void backgroundRefresh_ReplacesTokenInUse() {
+        String first = tokenManager.getAccessToken("custos", "read");
+        Runnable refresh = capturedRefresh();
+
+        clock.advance(Duration.ofMinutes(50));
+        tokenManager.getAccessToken("custos", "read");
+        refresh.run();
+
+        assertEquals(2, fetches.get());
+        assertNotEquals(first, tokenManager.getAccessToken("custos", "read"));
+    }
+
+    @Test
+    void backgroundRefresh_DropsUnusedToken() {
+        tokenManager.getAccessToken("custos", "read");
+        Runnable refresh = capturedRefresh();
+
+        clock.advance(LIFETIME.plusSeconds(1));
+        refresh.run();
+
+        assertEquals(1, fetches.get());
+        tokenManager.getAccessToken("custos", "read");
+        assertEquals(2, fetches.get());
+    }
+
+    @Test
+    void getAccessToken_ExpiredToken_IsFetchedAgain() {
+        String first = tokenManager.getAccessToken("custos", null);
+
+        clock.advance(LIFETIME);
+
+        assertNotEquals(first, tokenManager.getAccessToken("custos", null));
+    }
+
+    @Test
+    void getAccessToken_ConcurrentMisses_ShareOneFetch() throws Exception {
+        CountDownLatch fetchStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger slowFetches = new AtomicInteger();
+        TokenManager manager = new TokenManager(
+            new InMemoryClientRegistrationRepository(ClientRegistration.withRegistrationId("custos")
+                .clientId("test-client")
+                .authorizationGrantType(AuthorizationGrantType.CLIENT_CREDENTIALS)
+                .tokenUri("http://localhost:9000/oauth2/token")
+                .build()),
+            (reg, scopes) -> {
+                slowFetches.incrementAndGet();
+                fetchStarted.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return token("shared");
+            },
+            scheduler, clock);
+
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            results.add(callers.submit(() -> manager.getAccessToken("custos", "read")));
+            fetchStarted.await(5, TimeUnit.SECONDS);
+            for (int i = 1; i < 8; i++) {
+                results.add(callers.submit(() -> manager.getAccessToken("custos", "read")));
+            }
+            Thread.sleep(100);
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertEquals("shared", result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, slowFetches.get());
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    private Runnable capturedRefresh() {
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        verify(scheduler, atLeastOnce()).schedule(task.capture(), anyLong(), eq(TimeUnit.MILLISECONDS));
+        return task.getValue();
+    }
+
+    private OAuth2AccessToken token(String value) {
+        Instant now = clock.instant();
+        return new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER, value, now, now.plus(LIFETIME));
+    }
+}
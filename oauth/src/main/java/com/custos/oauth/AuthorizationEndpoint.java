@@ -17,10 +17,13 @@
 package com.custos.oauth;
 
 import com.custos.oauth.exception.OAuthException;
+import com.custos.oauth.logging.RequestLog;
 import com.custos.oauth.model.AuthorizationRequest;
 import com.custos.oauth.model.AuthorizationResponse;
+import com.custos.oauth.par.PushedAuthorizationStore;
 import com.custos.oauth.service.Authenticator;
 import com.custos.oauth.service.ClientRegistrationService;
+import com.custos.oauth.service.ConsentService;
 import com.custos.oauth.service.JwtTokenService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -32,12 +35,15 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.ModelAndView;
 import org.springframework.web.servlet.view.RedirectView;
 
 import java.net.URI;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -53,40 +59,65 @@ public class AuthorizationEndpoint {
     private final ClientRegistrationService clientRegistrationService;
     private final JwtTokenService jwtTokenService;
     private final Authenticator authenticator;
+    private final ConsentService consentService;
+    private final PushedAuthorizationStore pushedAuthorizationStore;
 
     /**
      * Handles GET requests to the authorization endpoint.
      * This is the initial request from the client to start the authorization flow.
+     * A request carrying a {@code request_uri} refers to a request pushed earlier, which has
+     * already been validated. If the user has already granted the client every requested scope,
+     * the code is issued straight away.
      *
-     * @param request The authorization request parameters
-     * @return Redirect to login page if not authenticated, or consent page if authenticated
+     * @param clientId The client_id parameter
+     * @param responseType The response_type parameter
+     * @param redirectUri The redirect_uri parameter
+     * @param scope The scope parameter
+     * @param state The state parameter
+     * @param codeChallenge The code_challenge parameter
+     * @param codeChallengeMethod The code_challenge_method parameter
+     * @param requestUri The request_uri parameter
+     * @return Redirect to login page if not authenticated, to the consent page if consent is
+     *         needed, or to the client with an authorization code
      */
     @GetMapping
-    public ResponseEntity<?> handleAuthorizationRequest(AuthorizationRequest request) {
-        log.info("Received authorization request: {}", request);
+    public ResponseEntity<?> handleAuthorizationRequest(
+        @RequestParam(value = "client_id", required = false) String clientId,
+        @RequestParam(value = "response_type", required = false) String responseType,
+        @RequestParam(value = "redirect_uri", required = false) String redirectUri,
+        @RequestParam(value = "scope", required = false) String scope,
+        @RequestParam(value = "state", required = false) String state,
+        @RequestParam(value = "code_challenge", required = false) String codeChallenge,
+        @RequestParam(value = "code_challenge_method", required = false) String codeChallengeMethod,
+        @RequestParam(value = "request_uri", required = false) String requestUri) {
+        return authorize(AuthorizationRequest.builder()
+            .clientId(clientId)
+            .responseType(responseType)
+            .redirectUri(redirectUri)
+            .scope(scope)
+            .state(state)
+            .codeChallenge(codeChallenge)
+            .codeChallengeMethod(codeChallengeMethod)
+            .requestUri(requestUri)
+            .build());
+    }
+
+    /**
+     * Handles an authorization request once its parameters are bound.
+     */
+    ResponseEntity<?> authorize(AuthorizationRequest request) {
+        log.debug("Received authorization request for client: {}", request.getClientId());
+        RequestLog.clientId(request.getClientId());
+        
+        String requestUri = request.getRequestUri();
+        request = resolve(request);
+        if (request == null) {
+            return invalidRequestUri();
+        }
         
         try {
-            // Validate required parameters
-            if (request.getClientId() == null || request.getClientId().trim().isEmpty()) {
-                throw new OAuthException("invalid_request", "client_id is required");
-            }
-            
-            if (request.getRedirectUri() == null || request.getRedirectUri().trim().isEmpty()) {
-                throw new OAuthException("invalid_request", "redirect_uri is required");
-            }
-            
-            // Validate client
-            clientRegistrationService.validateClient(request.getClientId(), request.getRedirectUri());
-            
-            // Validate response type
-            if (!"code".equals(request.getResponseType())) {
-                throw new OAuthException("unsupported_response_type", 
-                    "Only 'code' response type is supported");
-            }
-            
-            // Validate scope if provided
-            if (request.getScope() != null && !request.getScope().trim().isEmpty()) {
-                clientRegistrationService.validateScope(request.getClientId(), request.getScope());
+            if (requestUri == null) {
+                validate(clientRegistrationService, request);
             }
             
             // Check if user is authenticated
@@ -96,15 +127,20 @@ public class AuthorizationEndpoint {
             if (!isAuthenticated) {
                 // Build login URL with parameters
                 StringBuilder loginUrl = new StringBuilder("/login?")
-                    .append("client_id=").append(encode(request.getClientId()))
-                    .append("&redirect_uri=").append(encode(request.getRedirectUri()));
-                
-                if (request.getState() != null && !request.getState().trim().isEmpty()) {
-                    loginUrl.append("&state=").append(encode(request.getState()));
-                }
+                    .append("client_id=").append(encode(request.getClientId()));
                 
-                if (request.getScope() != null && !request.getScope().trim().isEmpty()) {
-                    loginUrl.append("&scope=").append(encode(request.getScope()));
+                if (requestUri != null) {
+                    loginUrl.append("&request_uri=").append(encode(requestUri));
+                } else {
+                    loginUrl.append("&redirect_uri=").append(encode(request.getRedirectUri()));
+                    
+                    if (request.getState() != null && !request.getState().trim().isEmpty()) {
+                        loginUrl.append("&state=").append(encode(request.getState()));
+                    }
+                    
+                    if (request.getScope() != null && !request.getScope().trim().isEmpty()) {
+                        loginUrl.append("&scope=").append(encode(request.getScope()));
+                    }
                 }
                 
                 return ResponseEntity.status(HttpStatus.FOUND)
@@ -112,43 +148,91 @@ public class AuthorizationEndpoint {
                     .build();
             }
             
-            // Generate authorization code
-            String code = jwtTokenService.generateAuthorizationCode(
-                request.getClientId(),
-                authentication.getName(),
-                request.getRedirectUri(),
-                request.getScope(),
-                request.getCodeChallenge(),
-                request.getCodeChallengeMethod()
-            );
-            
-            // Build redirect URI with authorization code
-            StringBuilder redirectUri = new StringBuilder(request.getRedirectUri())
-                .append("?code=").append(encode(code));
-                
-            if (request.getState() != null && !request.getState().trim().isEmpty()) {
-                redirectUri.append("&state=").append(encode(request.getState()));
+            // Ask for consent unless the user has already granted these scopes
+            if (!consentService.isGranted(authentication.getName(), request.getClientId(), request.getScope())) {
+                // The consent page only carries a handle to the validated request, which only
+                // this user can answer; a pushed request URI is replaced by it
+                String handle = pushedAuthorizationStore.park(request, authentication.getName());
+                if (requestUri != null) {
+                    pushedAuthorizationStore.consume(requestUri);
+                }
+                String consentUrl = "authorize/consent?client_id=" + encode(request.getClientId())
+                    + "&request_uri=" + encode(handle);
+                return ResponseEntity.status(HttpStatus.FOUND)
+                    .header(HttpHeaders.LOCATION, consentUrl)
+                    .build();
             }
             
-            return ResponseEntity.status(HttpStatus.FOUND)
-                .header(HttpHeaders.LOCATION, redirectUri.toString())
-                .build();
+            return issueCode(request, requestUri, authentication.getName());
             
         } catch (OAuthException e) {
-            log.error("Authorization request failed: {}", e.getMessage());
-            
-            // Build error redirect URI
-            StringBuilder redirectUri = new StringBuilder(request.getRedirectUri())
-                .append("?error=").append(encode(e.getErrorCode()))
-                .append("&error_description=").append(encode(e.getMessage()));
-                
-            if (request.getState() != null && !request.getState().trim().isEmpty()) {
-                redirectUri.append("&state=").append(encode(request.getState()));
-            }
-            
-            return ResponseEntity.status(HttpStatus.FOUND)
-                .header(HttpHeaders.LOCATION, redirectUri.toString())
-                .build();
+            log.debug("Authorization request failed: {}", e.getMessage());
+            RequestLog.error(e.getErrorCode());
+            return errorRedirect(request, e.getErrorCode(), e.getMessage());
+        }
+    }
+
+    /**
+     * Shows the consent page for a request waiting for the user's consent.
+     *
+     * @param clientId The client
+     * @param requestUri The handle of the validated request
+     * @return The consent page
+     */
+    @GetMapping("/consent")
+    public ModelAndView showConsent(@RequestParam("client_id") String clientId,
+                                    @RequestParam("request_uri") String requestUri) {
+        ModelAndView page = new ModelAndView("consent");
+        AuthorizationRequest request = findParked(requestUri, clientId);
+        if (request == null) {
+            page.setStatus(HttpStatus.BAD_REQUEST);
+            page.addObject("error", "This authorization request has expired. Please start again.");
+            return page;
+        }
+        
+        String clientName = null;
+        try {
+            clientName = clientRegistrationService.getClient(clientId).getClientName();
+        } catch (OAuthException e) {
+            log.debug("Client lookup failed: {}", e.getMessage());
+        }
+        page.addObject("clientId", clientId);
+        page.addObject("clientName", clientName != null ? clientName : clientId);
+        page.addObject("requestUri", requestUri);
+        page.addObject("scopes", request.getScope() == null
+            ? List.of() : List.of(request.getScope().trim().split(" +")));
+        return page;
+    }
+
+    /**
+     * Validates an authorization request for its client: the redirect URI, the response type and
+     * the scope. Used for requests made directly and for requests pushed in advance.
+     *
+     * @throws OAuthException if the request is not valid
+     */
+    static void validate(ClientRegistrationService clientRegistrationService, AuthorizationRequest request)
+        throws OAuthException {
+        // Validate required parameters
+        if (request.getClientId() == null || request.getClientId().trim().isEmpty()) {
+            throw new OAuthException("invalid_request", "client_id is required");
+        }
+        
+        if (request.getRedirectUri() == null || request.getRedirectUri().trim().isEmpty()) {
+            throw new OAuthException("invalid_request", "redirect_uri is required");
+        }
+        
+        // Validate client
+        clientRegistrationService.validateClient(request.getClientId(), request.getRedirectUri());
+        
+        // Validate response type
+        if (!"code".equals(request.getResponseType())) {
+            throw new OAuthException("unsupported_response_type", 
+                "Only 'code' response type is supported");
+        }
+        
+        // Validate scope if provided
+        if (request.getScope() != null && !request.getScope().trim().isEmpty()) {
+            clientRegistrationService.validateScope(request.getClientId(), request.getScope());
         }
     }
 
@@ -162,54 +246,140 @@ public class AuthorizationEndpoint {
     /**
      * Handles POST requests to the consent endpoint.
      * This is called after the user has authenticated and consented to the authorization request.
+     * The granted scopes are recorded so that later requests for them skip the consent page.
      *
-     * @param request The authorization request parameters
+     * @param clientId The client
+     * @param requestUri The handle of the validated request, as shown on the consent page
      * @return Redirect to client's redirect URI with authorization code
      */
     @PostMapping("/consent")
-    public ResponseEntity<?> handleConsent(AuthorizationRequest request) {
-        log.info("Received consent request: {}", request);
+    public ResponseEntity<?> handleConsent(@RequestParam("client_id") String clientId,
+                                           @RequestParam("request_uri") String requestUri) {
+        log.debug("Received consent request for client: {}", clientId);
+        RequestLog.clientId(clientId);
+        
+        AuthorizationRequest request = findParked(requestUri, clientId);
+        if (request == null) {
+            return invalidRequestUri();
+        }
         
         try {
-            // Validate client
-            clientRegistrationService.validateClient(request.getClientId(), request.getRedirectUri());
-            
-            // TODO: Get authenticated user from session
-            String userId = "user123"; // Replace with actual user ID
-            
-            // Generate authorization code
-            String code = jwtTokenService.generateAuthorizationCode(
-                request.getClientId(),
-                userId,
-                request.getRedirectUri(),
-                request.getScope(),
-                request.getCodeChallenge(),
-                request.getCodeChallengeMethod()
-            );
-            
-            // Build redirect URI with authorization code
-            String redirectUri = String.format("%s?code=%s&state=%s",
-                request.getRedirectUri(),
-                URLEncoder.encode(code, StandardCharsets.UTF_8),
-                URLEncoder.encode(request.getState(), StandardCharsets.UTF_8));
-            
-            return ResponseEntity.status(HttpStatus.FOUND)
-                .header(HttpHeaders.LOCATION, redirectUri)
-                .build();
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            consentService.grant(authentication.getName(), request.getClientId(), request.getScope());
+            return issueCode(request, requestUri, authentication.getName());
             
         } catch (OAuthException e) {
-            log.error("Consent request failed: {}", e.getMessage());
+            log.debug("Consent request failed: {}", e.getMessage());
+            RequestLog.error(e.getErrorCode());
+            return errorRedirect(request, e.getErrorCode(), e.getMessage());
+        }
+    }
+
+    /**
+     * Handles a consent form submitted with the deny button.
+     *
+     * @param clientId The client
+     * @param requestUri The handle of the validated request, as shown on the consent page
+     * @return Redirect to client's redirect URI with an access_denied error
+     */
+    @PostMapping(path = "/consent", params = "deny")
+    public ResponseEntity<?> handleConsentDenied(@RequestParam("client_id") String clientId,
+                                                 @RequestParam("request_uri") String requestUri) {
+        log.debug("User denied consent for client: {}", clientId);
+        RequestLog.clientId(clientId);
+        
+        AuthorizationRequest request = findParked(requestUri, clientId);
+        if (request == null) {
+            return invalidRequestUri();
+        }
+        
+        pushedAuthorizationStore.consume(requestUri);
+        RequestLog.error("access_denied");
+        return errorRedirect(request, "access_denied", "The user denied the request");
+    }
+
+    /**
+     * Returns the pushed request a request carrying a {@code request_uri} refers to, or the
+     * request itself if it carries none.
+     *
+     * @return The request, or null if the request URI is unknown, expired or was pushed by
+     *         another client
+     */
+    private AuthorizationRequest resolve(AuthorizationRequest request) {
+        String requestUri = request.getRequestUri();
+        return requestUri == null ? request : pushedAuthorizationStore.find(requestUri, request.getClientId());
+    }
+
+    /**
+     * Returns the request parked for the signed-in user's consent.
+     *
+     * @return The request, or null if no user is signed in or the handle is unknown, expired or
+     *         belongs to another user
+     */
+    private AuthorizationRequest findParked(String requestUri, String clientId) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String username = authentication != null && authentication.isAuthenticated() ? authentication.getName() : null;
+        return pushedAuthorizationStore.findParked(requestUri, clientId, username);
+    }
+
+    private ResponseEntity<?> issueCode(AuthorizationRequest request, String requestUri, String username)
+        throws OAuthException {
+        // Generate authorization code
+        String code = jwtTokenService.generateAuthorizationCode(
+            request.getClientId(),
+            username,
+            request.getRedirectUri(),
+            request.getScope(),
+            request.getCodeChallenge(),
+            request.getCodeChallengeMethod()
+        );
+        if (requestUri != null) {
+            pushedAuthorizationStore.consume(requestUri);
+        }
+        
+        // Build redirect URI with authorization code
+        StringBuilder redirectUri = new StringBuilder(request.getRedirectUri())
+            .append("?code=").append(encode(code));
             
-            // Build error redirect URI
-            String redirectUri = String.format("%s?error=%s&error_description=%s&state=%s",
-                request.getRedirectUri(),
-                URLEncoder.encode(e.getErrorCode(), StandardCharsets.UTF_8),
-                URLEncoder.encode(e.getMessage(), StandardCharsets.UTF_8),
-                URLEncoder.encode(request.getState(), StandardCharsets.UTF_8));
+        if (request.getState() != null && !request.getState().trim().isEmpty()) {
+            redirectUri.append("&state=").append(encode(request.getState()));
+        }
+        
+        return ResponseEntity.status(HttpStatus.FOUND)
+            .header(HttpHeaders.LOCATION, redirectUri.toString())
+            .build();
+    }
+
+    private ResponseEntity<?> errorRedirect(AuthorizationRequest request, String error, String description) {
+        // An error about the client or its redirect URI must not be sent to that redirect URI
+        if (request.getClientId() == null || request.getRedirectUri() == null
+            || "invalid_client".equals(error) || "invalid_redirect_uri".equals(error)) {
+            return ResponseEntity.badRequest()
+                .body(AuthorizationResponse.builder()
+                    .error(error)
+                    .errorDescription(description)
+                    .build());
+        }
+        StringBuilder redirectUri = new StringBuilder(request.getRedirectUri())
+            .append("?error=").append(encode(error))
+            .append("&error_description=").append(encode(description));
             
-            return ResponseEntity.status(HttpStatus.FOUND)
-                .header(HttpHeaders.LOCATION, redirectUri)
-                .build();
+        if (request.getState() != null && !request.getState().trim().isEmpty()) {
+            redirectUri.append("&state=").append(encode(request.getState()));
         }
+        
+        return ResponseEntity.status(HttpStatus.FOUND)
+            .header(HttpHeaders.LOCATION, redirectUri.toString())
+            .build();
+    }
+
+    private static ResponseEntity<?> invalidRequestUri() {
+        // Without a trusted redirect URI the error cannot be sent back to the client
+        RequestLog.error("invalid_request_uri");
+        return ResponseEntity.badRequest()
+            .body(AuthorizationResponse.builder()
+                .error("invalid_request_uri")
+                .errorDescription("Unknown or expired request_uri")
+                .build());
     }
-} 
\ No newline at end of file
+}
@@ -1,25 +1,36 @@
 package com.custos.oauth;
 
+import com.custos.oauth.client.ClientBulkTransfer;
+import com.custos.oauth.client.ClientMetadataValidator;
 import com.custos.oauth.exception.OAuthException;
 import com.custos.oauth.model.ClientRegistrationRequest;
 import com.custos.oauth.model.ClientRegistrationResponse;
 import com.custos.oauth.service.ClientRegistrationService;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
+
 /**
  * OAuth 2.1 Dynamic Client Registration Endpoint implementation.
  * Handles client registration requests and responses according to RFC 7591.
+ * Registration is an administrative operation, so the endpoint is only created on first use.
  */
 @Slf4j
+@Lazy
 @RestController
 @RequestMapping("/oauth2/register")
 @RequiredArgsConstructor
 public class ClientRegistrationEndpoint {
 
     private final ClientRegistrationService clientRegistrationService;
+    private final ClientBulkTransfer clientBulkTransfer;
 
     /**
      * Registers a new client dynamically.
@@ -29,11 +40,11 @@ public class ClientRegistrationEndpoint {
      */
     @PostMapping
     public ResponseEntity<ClientRegistrationResponse> registerClient(@RequestBody ClientRegistrationRequest request) {
-        log.info("Received client registration request: {}", request);
+        log.info("Received client registration request: {}", request.getClientName());
         
         try {
             // Validate required fields
-            validateRegistrationRequest(request);
+            ClientMetadataValidator.validate(request);
             
             // Register the client
             ClientRegistrationResponse response = clientRegistrationService.registerClient(request);
@@ -49,6 +60,42 @@ public class ClientRegistrationEndpoint {
         }
     }
 
+    /**
+     * Registers many clients at once, such as when migrating from another server. The body holds
+     * one registration per line and may carry each client's existing client_id and secret.
+     * The response is streamed as the import proceeds, with one result per registration.
+     * Registrations for a client_id already in use are rejected unless overwriting is asked for.
+     *
+     * @param overwrite Whether registrations replace the clients with the same client_id
+     * @param body The registrations as newline-delimited JSON
+     * @param response The response the results are written to as newline-delimited JSON
+     * @throws IOException If the body cannot be read or the response written
+     */
+    @PostMapping(path = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public void importClients(@RequestParam(value = "overwrite", defaultValue = "false") boolean overwrite,
+                              InputStream body, HttpServletResponse response) throws IOException {
+        log.info("Received client import request, overwrite={}", overwrite);
+        
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        clientBulkTransfer.importClients(body, response.getOutputStream(), overwrite);
+    }
+
+    /**
+     * Streams every registered client, with the salted hash of its secret but not the secret
+     * itself, in the format the import accepts.
+     *
+     * @param response The response the registrations are written to as newline-delimited JSON
+     * @throws IOException If the response cannot be written
+     */
+    @GetMapping(path = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void exportClients(HttpServletResponse response) throws IOException {
+        log.info("Exporting clients");
+        
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        long exported = clientBulkTransfer.exportClients(response.getOutputStream());
+        log.info("Exported {} clients", exported);
+    }
+
     /**
      * Retrieves a registered client's information.
      *
@@ -57,7 +104,7 @@ public class ClientRegistrationEndpoint {
      */
     @GetMapping("/{clientId}")
     public ResponseEntity<ClientRegistrationResponse> getClient(@PathVariable String clientId) {
-        log.info("Retrieving client information for: {}", clientId);
+        log.debug("Retrieving client information for: {}", clientId);
         
         try {
             ClientRegistrationResponse response = clientRegistrationService.getClient(clientId);
@@ -88,7 +135,7 @@ public class ClientRegistrationEndpoint {
         
         try {
             // Validate required fields
-            validateRegistrationRequest(request);
+            ClientMetadataValidator.validate(request);
             
             ClientRegistrationResponse response = clientRegistrationService.updateClient(clientId, request);
             return ResponseEntity.ok(response);
@@ -103,6 +150,30 @@ public class ClientRegistrationEndpoint {
         }
     }
 
+    /**
+     * Issues a new secret to a registered client, replacing the current one.
+     *
+     * @param clientId The client identifier
+     * @return ResponseEntity containing the client registration response with the new secret
+     */
+    @PostMapping("/{clientId}/secret")
+    public ResponseEntity<ClientRegistrationResponse> rotateClientSecret(@PathVariable String clientId) {
+        log.info("Rotating client secret for: {}", clientId);
+
+        try {
+            ClientRegistrationResponse response = clientRegistrationService.rotateClientSecret(clientId);
+            return ResponseEntity.ok(response);
+
+        } catch (OAuthException e) {
+            log.error("Failed to rotate client secret: {}", e.getMessage());
+            return ResponseEntity.badRequest()
+                .body(ClientRegistrationResponse.builder()
+                    .error(e.getErrorCode())
+                    .errorDescription(e.getMessage())
+                    .build());
+        }
+    }
+
     /**
      * Deletes a registered client.
      *
@@ -122,57 +193,4 @@ public class ClientRegistrationEndpoint {
             return ResponseEntity.badRequest().build();
         }
     }
-
-    /**
-     * Validates the client registration request.
-     *
-     * @param request The client registration request
-     * @throws OAuthException if the request is invalid
-     */
-    private void validateRegistrationRequest(ClientRegistrationRequest request) throws OAuthException {
-        if (request.getClientName() == null || request.getClientName().isEmpty()) {
-            throw new OAuthException("invalid_client_metadata", "client_name is required");
-        }
-        
-        if (request.getClientType() == null || request.getClientType().isEmpty()) {
-            throw new OAuthException("invalid_client_metadata", "client_type is required");
-        }
-        
-        if (!"public".equals(request.getClientType()) && !"confidential".equals(request.getClientType())) {
-            throw new OAuthException("invalid_client_metadata", "client_type must be either 'public' or 'confidential'");
-        }
-        
-        if (request.getGrantTypes() == null || request.getGrantTypes().length == 0) {
-            throw new OAuthException("invalid_client_metadata", "grant_types is required");
-        }
-        
-        // Validate redirect URIs if required for the grant types
-        boolean requiresRedirectUri = false;
-        for (String grantType : request.getGrantTypes()) {
-            if ("authorization_code".equals(grantType) || "implicit".equals(grantType)) {
-                requiresRedirectUri = true;
-                break;
-            }
-        }
-        
-        if (requiresRedirectUri && (request.getRedirectUris() == null || request.getRedirectUris().length == 0)) {
-            throw new OAuthException("invalid_client_metadata", "redirect_uris is required for authorization_code and implicit grant types");
-        }
-        
-        // Validate response types if required
-        if (request.getResponseTypes() != null && request.getResponseTypes().length > 0) {
-            for (String responseType : request.getResponseTypes()) {
-                if (!"code".equals(responseType) && !"token".equals(responseType)) {
-                    throw new OAuthException("invalid_client_metadata", "Unsupported response_type: " + responseType);
-                }
-            }
-        }
-        
-        // Validate JWT-based client authentication
-        if ("confidential".equals(request.getClientType())) {
-            if (request.getJwksUri() == null && request.getJwks() == null) {
-                throw new OAuthException("invalid_client_metadata", "Either jwks_uri or jwks is required for confidential clients");
-            }
-        }
-    }
 } 
\ No newline at end of file
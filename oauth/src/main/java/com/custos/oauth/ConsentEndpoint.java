@@ -0,0 +1,53 @@
+package com.custos.oauth;
+
+import com.custos.oauth.service.ConsentService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * Lets a signed-in user review and revoke the consents they have granted to clients.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/oauth2/consents")
+@RequiredArgsConstructor
+public class ConsentEndpoint {
+
+    private final ConsentService consentService;
+
+    /**
+     * Lists the consents of the signed-in user.
+     *
+     * @param authentication The signed-in user
+     * @return The granted scopes by client ID
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, String>> listConsents(Authentication authentication) {
+        return ResponseEntity.ok(consentService.getGrants(authentication.getName()));
+    }
+
+    /**
+     * Revokes the signed-in user's consent for a client. The client's next authorization request
+     * shows the consent page again; tokens already issued are not affected.
+     *
+     * @param clientId The client
+     * @param authentication The signed-in user
+     * @return 204 if a consent was revoked, 404 if there was none
+     */
+    @DeleteMapping("/{clientId}")
+    public ResponseEntity<Void> revokeConsent(@PathVariable String clientId, Authentication authentication) {
+        log.debug("Revoking consent of {} for client: {}", authentication.getName(), clientId);
+        return consentService.revoke(authentication.getName(), clientId)
+            ? ResponseEntity.noContent().build()
+            : ResponseEntity.notFound().build();
+    }
+}
@@ -0,0 +1,90 @@
+package com.custos.oauth;
+
+import com.custos.oauth.client.ClientAuthenticator;
+import com.custos.oauth.device.DeviceAuthorization;
+import com.custos.oauth.device.DeviceAuthorizationStore;
+import com.custos.oauth.exception.OAuthException;
+import com.custos.oauth.logging.RequestLog;
+import com.custos.oauth.model.DeviceAuthorizationRequest;
+import com.custos.oauth.model.DeviceAuthorizationResponse;
+import com.custos.oauth.service.ClientRegistrationService;
+import com.custos.oauth.service.JwtTokenService;
+import com.custos.oauth.web.OAuthForms;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * OAuth 2.0 Device Authorization Endpoint implementation.
+ * Handles device authorization requests according to RFC 8628: a device without a browser gets a
+ * device code to poll the token endpoint with, and a user code for the user to enter on the
+ * verification page from another device.
+ */
+@Slf4j
+@RestController
+@RequestMapping(DeviceAuthorizationEndpoint.PATH)
+@RequiredArgsConstructor
+public class DeviceAuthorizationEndpoint {
+
+    static final String PATH = "/oauth2/device_authorization";
+
+    private final ClientRegistrationService clientRegistrationService;
+    private final JwtTokenService jwtTokenService;
+    private final DeviceAuthorizationStore deviceAuthorizationStore;
+    private final ClientAuthenticator clientAuthenticator;
+
+    /**
+     * Handles form-encoded device authorization requests.
+     * Client credentials may be supplied in the body or with HTTP Basic authentication.
+     *
+     * @param servletRequest The HTTP request carrying the form body
+     * @return ResponseEntity containing the device code, user code and verification URI
+     */
+    @PostMapping(consumes = MediaType.APPLICATION_FORM_URLENCODED_VALUE)
+    public ResponseEntity<DeviceAuthorizationResponse> handleDeviceAuthorizationRequest(
+        HttpServletRequest servletRequest) {
+        try {
+            DeviceAuthorizationRequest request = OAuthForms.readDeviceAuthorizationRequest(servletRequest);
+            log.debug("Received device authorization request for client: {}", request.getClientId());
+            RequestLog.clientId(request.getClientId());
+
+            String clientId = clientAuthenticator.authenticate(request.getClientId(), request.getClientSecret(),
+                request.getClientAssertionType(), request.getClientAssertion(), PATH).clientId();
+            if (request.getScope() != null && !request.getScope().trim().isEmpty()) {
+                clientRegistrationService.validateScope(clientId, request.getScope());
+            }
+
+            DeviceAuthorization authorization = deviceAuthorizationStore.create(clientId, request.getScope());
+            String userCode = DeviceAuthorizationStore.format(authorization.getUserCode());
+            String verificationUri = jwtTokenService.getIssuer() + DeviceVerificationEndpoint.PATH;
+            return ResponseEntity.ok(DeviceAuthorizationResponse.builder()
+                .deviceCode(authorization.getDeviceCode())
+                .userCode(userCode)
+                .verificationUri(verificationUri)
+                .verificationUriComplete(verificationUri + "?user_code=" + URLEncoder.encode(userCode, StandardCharsets.UTF_8))
+                .expiresIn(deviceAuthorizationStore.getLifetimeSeconds())
+                .interval(authorization.getInterval())
+                .build());
+
+        } catch (OAuthException e) {
+            log.debug("Device authorization request failed: {}", e.getMessage());
+            RequestLog.error(e.getErrorCode());
+            HttpStatus status = "invalid_client".equals(e.getErrorCode())
+                ? HttpStatus.UNAUTHORIZED : HttpStatus.BAD_REQUEST;
+            return ResponseEntity.status(status)
+                .body(DeviceAuthorizationResponse.builder()
+                    .error(e.getErrorCode())
+                    .errorDescription(e.getMessage())
+                    .build());
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.custos.oauth;
+
+import com.custos.oauth.device.DeviceAuthorization;
+import com.custos.oauth.device.DeviceAuthorizationStore;
+import com.custos.oauth.exception.OAuthException;
+import com.custos.oauth.service.ClientRegistrationService;
+import com.custos.oauth.service.ConsentService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.ModelAndView;
+
+import java.util.List;
+
+/**
+ * The verification page of the device authorization grant (RFC 8628), where a signed-in user
+ * enters the code shown on their device and approves or denies its request. A decision is handed
+ * to a device waiting at the token endpoint straight away. The decision is a form posted from the
+ * user's session, so it carries a CSRF token.
+ */
+@Slf4j
+@RestController
+@RequestMapping(DeviceVerificationEndpoint.PATH)
+@RequiredArgsConstructor
+public class DeviceVerificationEndpoint {
+
+    static final String PATH = "/device";
+
+    private final DeviceAuthorizationStore deviceAuthorizationStore;
+    private final ClientRegistrationService clientRegistrationService;
+    private final ConsentService consentService;
+
+    /**
+     * Shows the form to enter a user code or, once a code is given, the request to approve.
+     *
+     * @param userCode The code shown on the device, if already entered
+     * @return The verification page
+     */
+    @GetMapping
+    public ModelAndView showVerification(@RequestParam(name = "user_code", required = false) String userCode) {
+        ModelAndView page = new ModelAndView("device");
+        if (userCode == null || userCode.isBlank()) {
+            return page;
+        }
+        DeviceAuthorization authorization = deviceAuthorizationStore.findByUserCode(userCode);
+        if (authorization == null || authorization.getStatus() != DeviceAuthorization.Status.PENDING) {
+            return invalidCode(page);
+        }
+
+        String clientName = null;
+        try {
+            clientName = clientRegistrationService.getClient(authorization.getClientId()).getClientName();
+        } catch (OAuthException e) {
+            log.debug("Client lookup failed: {}", e.getMessage());
+        }
+        page.addObject("userCode", DeviceAuthorizationStore.format(authorization.getUserCode()));
+        page.addObject("clientName", clientName != null ? clientName : authorization.getClientId());
+        page.addObject("scopes", authorization.getScope() == null
+            ? List.of() : List.of(authorization.getScope().trim().split(" +")));
+        return page;
+    }
+
+    /**
+     * Approves or denies the request of a device for the signed-in user.
+     *
+     * @param userCode The code shown on the device
+     * @param deny Present if the user pressed the deny button
+     * @param authentication The signed-in user
+     * @return The verification page, telling the user to return to their device
+     */
+    @PostMapping
+    public ModelAndView decide(@RequestParam("user_code") String userCode,
+                               @RequestParam(name = "deny", required = false) String deny,
+                               Authentication authentication) {
+        ModelAndView page = new ModelAndView("device");
+        DeviceAuthorization authorization = deviceAuthorizationStore.findByUserCode(userCode);
+        if (authorization == null) {
+            return invalidCode(page);
+        }
+
+        boolean approved = deny == null;
+        boolean decided = approved ? authorization.approve(authentication.getName()) : authorization.deny();
+        if (!decided) {
+            return invalidCode(page);
+        }
+        if (approved) {
+            // So that the client's next authorization for these scopes skips the consent page
+            consentService.grant(authentication.getName(), authorization.getClientId(), authorization.getScope());
+        }
+        log.debug("Device request for client {} {}", authorization.getClientId(), approved ? "approved" : "denied");
+        page.addObject("message", approved
+            ? "Your device is now connected. You can return to it."
+            : "The request was denied. You can return to your device.");
+        return page;
+    }
+
+    private static ModelAndView invalidCode(ModelAndView page) {
+        page.setStatus(HttpStatus.BAD_REQUEST);
+        page.addObject("error", "That code is not valid or has expired. Check the code on your device.");
+        return page;
+    }
+}
@@ -0,0 +1,212 @@
+package com.custos.oauth;
+
+import com.custos.oauth.cache.ExpiringCache;
+import com.custos.oauth.client.ClientAuthenticator;
+import com.custos.oauth.service.JwtTokenService;
+import com.custos.oauth.tenant.TenantContext;
+import com.custos.oauth.tenant.TenantContextHolder;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Authorization server metadata (RFC 8414) and OpenID Connect discovery endpoints.
+ * <p>
+ * Endpoint locations are read from the {@link RequestMapping} of the endpoint classes and the
+ * grant types from the token endpoint, so the documents cannot drift from what is actually served.
+ * Both documents are serialized once per issuer, at startup for the default issuer and on first
+ * use for a tenant, and served as the same bytes with a strong ETag.
+ */
+@RestController
+public class DiscoveryEndpoint {
+
+    /**
+     * Metadata names of the advertised endpoints, mapped to the class that serves each one.
+     */
+    private static final Map<String, Class<?>> ENDPOINTS = new LinkedHashMap<>();
+
+    static {
+        ENDPOINTS.put("authorization_endpoint", AuthorizationEndpoint.class);
+        ENDPOINTS.put("token_endpoint", TokenEndpoint.class);
+        ENDPOINTS.put("introspection_endpoint", TokenIntrospectionEndpoint.class);
+        ENDPOINTS.put("revocation_endpoint", TokenRevocationEndpoint.class);
+        ENDPOINTS.put("pushed_authorization_request_endpoint", PushedAuthorizationEndpoint.class);
+        ENDPOINTS.put("device_authorization_endpoint", DeviceAuthorizationEndpoint.class);
+        ENDPOINTS.put("registration_endpoint", ClientRegistrationEndpoint.class);
+        ENDPOINTS.put("userinfo_endpoint", UserInfoEndpoint.class);
+        ENDPOINTS.put("jwks_uri", JwksEndpoint.class);
+    }
+
+    private static final List<String> CLIENT_AUTH_METHODS = List.of(
+        "client_secret_basic", "client_secret_post", ClientAuthenticator.PRIVATE_KEY_JWT);
+
+    /**
+     * Client certificates are only read at the token endpoint.
+     */
+    private static final List<String> TOKEN_ENDPOINT_AUTH_METHODS = List.of(
+        "client_secret_basic", "client_secret_post", ClientAuthenticator.PRIVATE_KEY_JWT,
+        ClientAuthenticator.TLS_CLIENT_AUTH, ClientAuthenticator.SELF_SIGNED_TLS_CLIENT_AUTH);
+
+    /**
+     * Algorithms clients may sign client assertions and DPoP proofs with.
+     */
+    private static final List<String> CLIENT_SIGNING_ALGORITHMS = List.of(
+        "RS256", "RS384", "RS512", "PS256", "PS384", "PS512", "ES256", "ES384", "ES512");
+
+    private static final CacheControl CACHE_CONTROL = CacheControl.maxAge(Duration.ofHours(1)).cachePublic();
+
+    private static final int TENANT_DOCUMENT_CACHE_SIZE = 1_000;
+    private static final Duration TENANT_DOCUMENT_TTL = Duration.ofHours(1);
+
+    private final ObjectMapper objectMapper;
+    private final Set<String> grantTypes;
+    private final Documents defaultDocuments;
+    private final ExpiringCache<String, Documents> tenantDocuments =
+        new ExpiringCache<>(TENANT_DOCUMENT_CACHE_SIZE, TENANT_DOCUMENT_TTL);
+
+    public DiscoveryEndpoint(JwtTokenService jwtTokenService, TokenEndpoint tokenEndpoint, ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.grantTypes = tokenEndpoint.getSupportedGrantTypes();
+        this.defaultDocuments = build(jwtTokenService.getIssuer());
+    }
+
+    /**
+     * Returns the OAuth 2.0 authorization server metadata (RFC 8414).
+     *
+     * @param ifNoneMatch The ETags the client already holds, if any
+     * @return The metadata, or 304 if the client's copy is current
+     */
+    @GetMapping("/.well-known/oauth-authorization-server")
+    public ResponseEntity<byte[]> authorizationServerMetadata(
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return documents().authorizationServerMetadata().serve(ifNoneMatch);
+    }
+
+    /**
+     * Returns the OpenID Connect provider configuration.
+     *
+     * @param ifNoneMatch The ETags the client already holds, if any
+     * @return The configuration, or 304 if the client's copy is current
+     */
+    @GetMapping("/.well-known/openid-configuration")
+    public ResponseEntity<byte[]> openidConfiguration(
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return documents().openidConfiguration().serve(ifNoneMatch);
+    }
+
+    /**
+     * Returns the documents for the tenant bound to the current request. Tenant documents differ
+     * only in their issuer and are built on first use.
+     */
+    private Documents documents() {
+        TenantContext tenant = TenantContextHolder.get();
+        if (tenant == null) {
+            return defaultDocuments;
+        }
+        Documents documents = tenantDocuments.get(tenant.getIssuer());
+        if (documents == null) {
+            documents = build(tenant.getIssuer());
+            tenantDocuments.put(tenant.getIssuer(), documents);
+        }
+        return documents;
+    }
+
+    private Documents build(String issuer) {
+        Map<String, Object> metadata = new LinkedHashMap<>();
+        metadata.put("issuer", issuer);
+        ENDPOINTS.forEach((name, endpoint) -> metadata.put(name, issuer + path(endpoint)));
+        metadata.put("response_types_supported", List.of("code"));
+        metadata.put("grant_types_supported", grantTypes);
+        metadata.put("token_endpoint_auth_methods_supported", TOKEN_ENDPOINT_AUTH_METHODS);
+        metadata.put("token_endpoint_auth_signing_alg_values_supported", CLIENT_SIGNING_ALGORITHMS);
+        metadata.put("introspection_endpoint_auth_methods_supported", CLIENT_AUTH_METHODS);
+        metadata.put("revocation_endpoint_auth_methods_supported", CLIENT_AUTH_METHODS);
+        metadata.put("code_challenge_methods_supported", List.of("S256", "plain"));
+        metadata.put("require_pushed_authorization_requests", false);
+        metadata.put("tls_client_certificate_bound_access_tokens", true);
+        metadata.put("dpop_signing_alg_values_supported", CLIENT_SIGNING_ALGORITHMS);
+        Snapshot authorizationServerMetadata = Snapshot.of(objectMapper, metadata);
+
+        metadata.put("subject_types_supported", List.of("public"));
+        metadata.put("id_token_signing_alg_values_supported", List.of("RS256"));
+        return new Documents(authorizationServerMetadata, Snapshot.of(objectMapper, metadata));
+    }
+
+    private static String path(Class<?> endpoint) {
+        RequestMapping mapping = AnnotatedElementUtils.findMergedAnnotation(endpoint, RequestMapping.class);
+        if (mapping == null || mapping.path().length == 0) {
+            throw new IllegalStateException(endpoint.getSimpleName() + " has no request mapping");
+        }
+        return mapping.path()[0];
+    }
+
+    /**
+     * The two discovery documents of one issuer.
+     */
+    private record Documents(Snapshot authorizationServerMetadata, Snapshot openidConfiguration) {
+    }
+
+    /**
+     * A serialized document and its ETag.
+     */
+    private record Snapshot(byte[] body, String etag) {
+
+        static Snapshot of(ObjectMapper objectMapper, Map<String, Object> document) {
+            try {
+                byte[] body = objectMapper.writeValueAsBytes(document);
+                byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+                String etag = "\"" + Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(Arrays.copyOf(digest, 16)) + "\"";
+                return new Snapshot(body, etag);
+            } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+                throw new IllegalStateException("Failed to build discovery document", e);
+            }
+        }
+
+        ResponseEntity<byte[]> serve(String ifNoneMatch) {
+            if (matches(ifNoneMatch)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(CACHE_CONTROL)
+                    .build();
+            }
+            return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(etag)
+                .cacheControl(CACHE_CONTROL)
+                .body(body);
+        }
+
+        private boolean matches(String ifNoneMatch) {
+            if (ifNoneMatch == null) {
+                return false;
+            }
+            for (String candidate : ifNoneMatch.split(",")) {
+                String tag = candidate.trim();
+                if (tag.equals("*") || tag.equals(etag) || tag.equals("W/" + etag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.custos.oauth;
+
+import com.custos.oauth.service.JwtTokenService;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+
+/**
+ * Publishes the public keys used to sign tokens, so that resource servers can verify
+ * tokens locally instead of introspecting them.
+ */
+@RestController
+@RequestMapping("/oauth2/jwks")
+public class JwksEndpoint {
+
+    private final JwtTokenService jwtTokenService;
+
+    public JwksEndpoint(JwtTokenService jwtTokenService) {
+        this.jwtTokenService = jwtTokenService;
+    }
+
+    /**
+     * Returns the JWK Set of the current tenant. Each key ring serializes its set once.
+     *
+     * @return ResponseEntity containing the JWK Set
+     */
+    @GetMapping
+    public ResponseEntity<String> jwks() {
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .cacheControl(CacheControl.maxAge(Duration.ofMinutes(5)).cachePublic())
+            .body(jwtTokenService.getJwkSet());
+    }
+}
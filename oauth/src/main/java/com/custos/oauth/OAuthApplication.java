@@ -1,9 +1,12 @@
 package com.custos.oauth;
 
+import com.custos.oauth.config.OAuthRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 @SpringBootApplication
+@ImportRuntimeHints(OAuthRuntimeHints.class)
 public class OAuthApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,83 @@
+package com.custos.oauth;
+
+import com.custos.oauth.client.ClientAuthenticator;
+import com.custos.oauth.exception.OAuthException;
+import com.custos.oauth.logging.RequestLog;
+import com.custos.oauth.model.AuthorizationRequest;
+import com.custos.oauth.model.PushedAuthorizationRequest;
+import com.custos.oauth.model.PushedAuthorizationResponse;
+import com.custos.oauth.par.PushedAuthorizationStore;
+import com.custos.oauth.service.ClientRegistrationService;
+import com.custos.oauth.web.OAuthForms;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * OAuth 2.0 Pushed Authorization Request Endpoint implementation.
+ * Handles pushed authorization requests according to RFC 9126: the client sends the
+ * authorization request over the back channel and gets a short request_uri to use at the
+ * authorization endpoint instead.
+ */
+@Slf4j
+@RestController
+@RequestMapping(PushedAuthorizationEndpoint.PATH)
+@RequiredArgsConstructor
+public class PushedAuthorizationEndpoint {
+
+    static final String PATH = "/oauth2/par";
+
+    private final ClientRegistrationService clientRegistrationService;
+    private final PushedAuthorizationStore pushedAuthorizationStore;
+    private final ClientAuthenticator clientAuthenticator;
+
+    /**
+     * Handles form-encoded pushed authorization requests.
+     * Client credentials may be supplied in the body or with HTTP Basic authentication.
+     *
+     * @param servletRequest The HTTP request carrying the form body
+     * @return ResponseEntity containing the request URI and its lifetime
+     */
+    @PostMapping(consumes = MediaType.APPLICATION_FORM_URLENCODED_VALUE)
+    public ResponseEntity<PushedAuthorizationResponse> handlePushedAuthorizationRequest(
+        HttpServletRequest servletRequest) {
+        try {
+            PushedAuthorizationRequest request = OAuthForms.readPushedAuthorizationRequest(servletRequest);
+            log.debug("Received pushed authorization request for client: {}", request.getClientId());
+            RequestLog.clientId(request.getClientId());
+
+            clientAuthenticator.authenticate(request.getClientId(), request.getClientSecret(),
+                request.getClientAssertionType(), request.getClientAssertion(), PATH);
+
+            AuthorizationRequest authorizationRequest = request.getAuthorizationRequest();
+            if (authorizationRequest.getRequestUri() != null) {
+                throw new OAuthException("invalid_request", "request_uri cannot be pushed");
+            }
+            AuthorizationEndpoint.validate(clientRegistrationService, authorizationRequest);
+
+            String requestUri = pushedAuthorizationStore.push(authorizationRequest);
+            return ResponseEntity.status(HttpStatus.CREATED)
+                .body(PushedAuthorizationResponse.builder()
+                    .requestUri(requestUri)
+                    .expiresIn(pushedAuthorizationStore.getLifetimeSeconds())
+                    .build());
+
+        } catch (OAuthException e) {
+            log.debug("Pushed authorization request failed: {}", e.getMessage());
+            RequestLog.error(e.getErrorCode());
+            HttpStatus status = "invalid_client".equals(e.getErrorCode())
+                ? HttpStatus.UNAUTHORIZED : HttpStatus.BAD_REQUEST;
+            return ResponseEntity.status(status)
+                .body(PushedAuthorizationResponse.builder()
+                    .error(e.getErrorCode())
+                    .errorDescription(e.getMessage())
+                    .build());
+        }
+    }
+}
@@ -1,25 +1,42 @@
 package com.custos.oauth;
 
+import com.custos.oauth.client.ClientAuthenticator;
+import com.custos.oauth.client.ClientCertificate;
+import com.custos.oauth.device.DeviceAuthorization;
+import com.custos.oauth.device.DeviceAuthorizationStore;
+import com.custos.oauth.dpop.DPoPProofVerifier;
 import com.custos.oauth.exception.OAuthException;
-import com.custos.oauth.grant.ClientCredentialsGrantHandler;
+import com.custos.oauth.grant.DeviceCodeGrantHandler;
 import com.custos.oauth.grant.GrantHandler;
-import com.custos.oauth.grant.PasswordGrantHandler;
-import com.custos.oauth.grant.RefreshTokenGrantHandler;
-import com.custos.oauth.grant.AuthorizationCodeGrantHandler;
+import com.custos.oauth.logging.RequestLog;
 import com.custos.oauth.model.TokenRequest;
 import com.custos.oauth.model.TokenResponse;
-import com.custos.oauth.service.Authenticator;
-import com.custos.oauth.service.ClientRegistrationService;
 import com.custos.oauth.service.JwtTokenService;
+import com.custos.oauth.tenant.TenantContext;
+import com.custos.oauth.tenant.TenantContextHolder;
+import com.custos.oauth.tracing.Spans;
+import com.custos.oauth.web.OAuthForms;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.context.Context;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
 
 /**
  * OAuth 2.1 Token Endpoint implementation.
@@ -27,30 +44,109 @@ import java.util.Map;
  */
 @Slf4j
 @RestController
-@RequestMapping("/oauth2/token")
+@RequestMapping(TokenEndpoint.PATH)
 public class TokenEndpoint {
 
-    private final ClientRegistrationService clientRegistrationService;
+    static final String PATH = "/oauth2/token";
+
+    private static final String PREFERENCE_APPLIED = "Preference-Applied";
+    private static final long ASYNC_TIMEOUT_MARGIN_MILLIS = 5_000;
+
     private final JwtTokenService jwtTokenService;
-    private final Authenticator authenticator;
+    private final ClientAuthenticator clientAuthenticator;
+    private final DPoPProofVerifier dpopProofVerifier;
+    private final DeviceAuthorizationStore deviceAuthorizationStore;
+    private final DeviceCodeGrantHandler deviceCodeGrantHandler;
     
     private final Map<String, GrantHandler> grantHandlers = new HashMap<>();
-    
+
     /**
-     * Initializes the grant handlers.
+     * Creates the endpoint over the grant handlers of the application context.
+     *
+     * @param deviceCodeGrantHandler The device code handler, which also serves held polls; it is
+     *                               registered for its grant type if the handlers leave it out
+     * @param grantHandlers The handlers, one per grant type
+     * @throws IllegalStateException if two handlers claim the same grant type
      */
-    public TokenEndpoint(ClientRegistrationService clientRegistrationService,
-                        JwtTokenService jwtTokenService,
-                        Authenticator authenticator) {
-        this.clientRegistrationService = clientRegistrationService;
+    public TokenEndpoint(JwtTokenService jwtTokenService,
+                         ClientAuthenticator clientAuthenticator,
+                         DPoPProofVerifier dpopProofVerifier,
+                         DeviceAuthorizationStore deviceAuthorizationStore,
+                         DeviceCodeGrantHandler deviceCodeGrantHandler,
+                         List<GrantHandler> grantHandlers) {
         this.jwtTokenService = jwtTokenService;
-        this.authenticator = authenticator;
-        
-        // Register grant handlers
-        grantHandlers.put("password", new PasswordGrantHandler(authenticator, jwtTokenService));
-        grantHandlers.put("client_credentials", new ClientCredentialsGrantHandler(clientRegistrationService, jwtTokenService));
-        grantHandlers.put("refresh_token", new RefreshTokenGrantHandler(jwtTokenService));
-        grantHandlers.put("authorization_code", new AuthorizationCodeGrantHandler(jwtTokenService));
+        this.clientAuthenticator = clientAuthenticator;
+        this.dpopProofVerifier = dpopProofVerifier;
+        this.deviceAuthorizationStore = deviceAuthorizationStore;
+        this.deviceCodeGrantHandler = deviceCodeGrantHandler;
+        for (GrantHandler handler : grantHandlers) {
+            if (this.grantHandlers.putIfAbsent(handler.getGrantType(), handler) != null) {
+                throw new IllegalStateException("Several handlers for grant type " + handler.getGrantType());
+            }
+        }
+        this.grantHandlers.putIfAbsent(DeviceCodeGrantHandler.GRANT_TYPE, deviceCodeGrantHandler);
+    }
+
+    /**
+     * Returns the grant types this endpoint accepts.
+     *
+     * @return The grant type identifiers, sorted
+     */
+    public Set<String> getSupportedGrantTypes() {
+        return new TreeSet<>(grantHandlers.keySet());
+    }
+
+    /**
+     * Handles form-encoded token requests as sent by standard OAuth clients.
+     * Clients authenticate with a secret in the body or with HTTP Basic authentication, with a
+     * signed client assertion, or with the certificate presented on the TLS connection. A DPoP
+     * header binds the issued tokens to the key that signed the proof.
+     *
+     * @param servletRequest The HTTP request carrying the form body
+     * @return ResponseEntity containing the token response
+     */
+    @PostMapping(consumes = MediaType.APPLICATION_FORM_URLENCODED_VALUE)
+    public ResponseEntity<TokenResponse> handleFormTokenRequest(HttpServletRequest servletRequest) {
+        TokenRequest request;
+        try {
+            request = OAuthForms.readTokenRequest(servletRequest);
+        } catch (OAuthException e) {
+            log.debug("Token request failed: {}", e.getMessage());
+            RequestLog.error(e.getErrorCode());
+            return errorResponse(e);
+        }
+        return handleTokenRequest(request);
+    }
+
+    /**
+     * Handles form-encoded token requests that carry a {@code Prefer: wait=<seconds>} header
+     * (RFC 7240). A device code poll for a request the user has not decided yet is held open until
+     * the user decides or the wait is over, instead of being answered with
+     * {@code authorization_pending} straight away. No thread is held while waiting. Other requests
+     * are answered immediately.
+     *
+     * @param servletRequest The HTTP request carrying the form body
+     * @param servletResponse The HTTP response, which reports the wait applied
+     * @param prefer The Prefer header
+     * @return The token response, once it is known
+     */
+    @PostMapping(consumes = MediaType.APPLICATION_FORM_URLENCODED_VALUE, headers = "Prefer")
+    public DeferredResult<ResponseEntity<TokenResponse>> handleWaitingTokenRequest(HttpServletRequest servletRequest,
+                                                                                  HttpServletResponse servletResponse,
+                                                                                  @RequestHeader("Prefer") String prefer) {
+        long waitSeconds = Math.min(preferredWaitSeconds(prefer), deviceAuthorizationStore.getMaxWait().toSeconds());
+        TokenRequest request;
+        try {
+            request = OAuthForms.readTokenRequest(servletRequest);
+        } catch (OAuthException e) {
+            log.debug("Token request failed: {}", e.getMessage());
+            RequestLog.error(e.getErrorCode());
+            return completed(errorResponse(e));
+        }
+        if (waitSeconds <= 0 || !DeviceCodeGrantHandler.GRANT_TYPE.equals(request.getGrantType())) {
+            return completed(handleTokenRequest(request));
+        }
+        return pollAndWait(request, waitSeconds, servletResponse);
     }
 
     /**
@@ -61,11 +157,14 @@ public class TokenEndpoint {
      */
     @PostMapping
     public ResponseEntity<TokenResponse> handleTokenRequest(@RequestBody TokenRequest request) {
-        log.info("Received token request with grant type: {}", request.getGrantType());
+        log.debug("Received token request with grant type: {}", request.getGrantType());
+        RequestLog.clientId(request.getClientId());
+        RequestLog.grantType(request.getGrantType());
         
         try {
-            // Validate client credentials
-            clientRegistrationService.validateClient(request.getClientId(), request.getClientSecret());
+            Span.current().setAttribute("oauth.grant_type", String.valueOf(request.getGrantType()));
+
+            authenticateClient(request);
             
             // Get the appropriate grant handler
             GrantHandler handler = grantHandlers.get(request.getGrantType());
@@ -75,16 +174,144 @@ public class TokenEndpoint {
             }
             
             // Handle the token request
-            TokenResponse response = handler.handle(request);
-            return ResponseEntity.ok(response);
+            TokenResponse response = Spans.call("grant " + request.getGrantType(), () -> handler.handle(request));
+            return ResponseEntity.ok(withTokenType(request, response));
             
         } catch (OAuthException e) {
-            log.error("Token request failed: {}", e.getMessage());
-            return ResponseEntity.badRequest()
-                .body(TokenResponse.builder()
-                    .error(e.getErrorCode())
-                    .errorDescription(e.getMessage())
-                    .build());
+            log.debug("Token request failed: {}", e.getMessage());
+            RequestLog.error(e.getErrorCode());
+            return errorResponse(e);
         }
     }
+
+    /**
+     * Authenticates the client and puts the authenticated client_id on the request, as clients
+     * using an assertion or certificate may leave it out, along with the keys the tokens to issue
+     * are bound to: the client's certificate, and the key of a valid DPoP proof.
+     */
+    private void authenticateClient(TokenRequest request) {
+        ClientAuthenticator.AuthenticatedClient client = Spans.call("client.authenticate",
+            () -> clientAuthenticator.authenticate(request.getClientId(), request.getClientSecret(),
+                request.getClientAssertionType(), request.getClientAssertion(), request.getClientCertificate(), PATH));
+        request.setClientId(client.clientId());
+        RequestLog.clientId(client.clientId());
+
+        Map<String, Object> confirmation = new HashMap<>();
+        if (client.certificateThumbprint() != null) {
+            confirmation.put(ClientCertificate.CONFIRMATION_METHOD, client.certificateThumbprint());
+        }
+        if (request.getDpopProof() != null) {
+            String keyThumbprint = Spans.call("dpop.verify", () -> dpopProofVerifier.verify(
+                request.getDpopProof(), "POST", jwtTokenService.getIssuer() + PATH));
+            confirmation.put(DPoPProofVerifier.CONFIRMATION_METHOD, keyThumbprint);
+            // RFC 9449 section 5: refresh tokens of public clients are bound to the key as well
+            if (!client.isConfidential()) {
+                request.setRefreshTokenConfirmation(Map.of(DPoPProofVerifier.CONFIRMATION_METHOD, keyThumbprint));
+            }
+        }
+        if (!confirmation.isEmpty()) {
+            request.setConfirmation(Map.copyOf(confirmation));
+        }
+
+        // RFC 6749 section 4.4: only confidential clients may use the client credentials grant
+        if ("client_credentials".equals(request.getGrantType()) && !client.isConfidential()) {
+            throw new OAuthException("unauthorized_client", "Public clients cannot use the client_credentials grant");
+        }
+    }
+
+    private DeferredResult<ResponseEntity<TokenResponse>> pollAndWait(TokenRequest request, long waitSeconds,
+                                                                      HttpServletResponse servletResponse) {
+        RequestLog.clientId(request.getClientId());
+        RequestLog.grantType(request.getGrantType());
+        DeviceAuthorization authorization;
+        try {
+            Span.current().setAttribute("oauth.grant_type", request.getGrantType());
+            authenticateClient(request);
+            authorization = deviceCodeGrantHandler.poll(request);
+        } catch (OAuthException e) {
+            log.debug("Token request failed: {}", e.getMessage());
+            RequestLog.error(e.getErrorCode());
+            return completed(errorResponse(e));
+        }
+
+        servletResponse.setHeader(PREFERENCE_APPLIED, "wait=" + waitSeconds);
+        return waitForDecision(request, authorization, waitSeconds);
+    }
+
+    private DeferredResult<ResponseEntity<TokenResponse>> waitForDecision(TokenRequest request,
+                                                                          DeviceAuthorization authorization,
+                                                                          long waitSeconds) {
+        // The servlet container's own timeout only applies if the wait below somehow never ends
+        DeferredResult<ResponseEntity<TokenResponse>> result =
+            new DeferredResult<>(TimeUnit.SECONDS.toMillis(waitSeconds) + ASYNC_TIMEOUT_MARGIN_MILLIS);
+        Context context = Context.current();
+        TenantContext tenant = TenantContextHolder.get();
+        // The decision future is shared by every poll of this device code, so the timeout goes on a copy
+        authorization.getDecision().copy()
+            .completeOnTimeout(null, waitSeconds, TimeUnit.SECONDS)
+            .thenRunAsync(context.wrap(() -> {
+                TenantContextHolder.set(tenant);
+                try {
+                    result.setResult(completeDeviceGrant(request, authorization));
+                } catch (RuntimeException e) {
+                    result.setErrorResult(e);
+                } finally {
+                    TenantContextHolder.clear();
+                }
+            }));
+        return result;
+    }
+
+    private ResponseEntity<TokenResponse> completeDeviceGrant(TokenRequest request, DeviceAuthorization authorization) {
+        try {
+            TokenResponse response = Spans.call("grant " + request.getGrantType(),
+                () -> deviceCodeGrantHandler.complete(request, authorization));
+            return ResponseEntity.ok(withTokenType(request, response));
+        } catch (OAuthException e) {
+            log.debug("Token request failed: {}", e.getMessage());
+            return errorResponse(e);
+        }
+    }
+
+    /**
+     * Reads the {@code wait} preference of a Prefer header, in seconds, or 0 if there is none.
+     */
+    static long preferredWaitSeconds(String prefer) {
+        for (String preference : prefer.split(",")) {
+            String[] pair = preference.trim().split("\\s*=\\s*", 2);
+            if (pair.length == 2 && pair[0].equalsIgnoreCase("wait")) {
+                try {
+                    return Math.max(0, Long.parseLong(pair[1].trim()));
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Reports tokens bound to a DPoP key with the DPoP token type (RFC 9449 section 5).
+     */
+    private static TokenResponse withTokenType(TokenRequest request, TokenResponse response) {
+        if (request.getConfirmation() != null && request.getConfirmation().containsKey(DPoPProofVerifier.CONFIRMATION_METHOD)) {
+            response.setTokenType(DPoPProofVerifier.TOKEN_TYPE);
+        }
+        return response;
+    }
+
+    private static DeferredResult<ResponseEntity<TokenResponse>> completed(ResponseEntity<TokenResponse> response) {
+        DeferredResult<ResponseEntity<TokenResponse>> result = new DeferredResult<>();
+        result.setResult(response);
+        return result;
+    }
+
+    private static ResponseEntity<TokenResponse> errorResponse(OAuthException e) {
+        HttpStatus status = "invalid_client".equals(e.getErrorCode()) ? HttpStatus.UNAUTHORIZED : HttpStatus.BAD_REQUEST;
+        return ResponseEntity.status(status)
+            .body(TokenResponse.builder()
+                .error(e.getErrorCode())
+                .errorDescription(e.getMessage())
+                .build());
+    }
 } 
\ No newline at end of file
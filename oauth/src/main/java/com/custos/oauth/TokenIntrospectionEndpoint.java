@@ -1,12 +1,15 @@
 package com.custos.oauth;
 
+import com.custos.oauth.client.ClientAuthenticator;
 import com.custos.oauth.exception.OAuthException;
 import com.custos.oauth.model.TokenIntrospectionRequest;
 import com.custos.oauth.model.TokenIntrospectionResponse;
-import com.custos.oauth.service.ClientRegistrationService;
 import com.custos.oauth.service.JwtTokenService;
+import com.custos.oauth.web.OAuthForms;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -21,12 +24,32 @@ import java.text.ParseException;
  */
 @Slf4j
 @RestController
-@RequestMapping("/oauth2/introspect")
+@RequestMapping(TokenIntrospectionEndpoint.PATH)
 @RequiredArgsConstructor
 public class TokenIntrospectionEndpoint {
 
+    static final String PATH = "/oauth2/introspect";
+
     private final JwtTokenService jwtTokenService;
-    private final ClientRegistrationService clientRegistrationService;
+    private final ClientAuthenticator clientAuthenticator;
+
+    /**
+     * Handles form-encoded token introspection requests as defined by RFC 7662.
+     *
+     * @param servletRequest The HTTP request carrying the form body
+     * @return ResponseEntity containing the token introspection response
+     */
+    @PostMapping(consumes = MediaType.APPLICATION_FORM_URLENCODED_VALUE)
+    public ResponseEntity<TokenIntrospectionResponse> introspectFormToken(HttpServletRequest servletRequest) {
+        TokenIntrospectionRequest request;
+        try {
+            request = OAuthForms.readIntrospectionRequest(servletRequest);
+        } catch (OAuthException e) {
+            log.debug("Token introspection failed: {}", e.getMessage());
+            return ResponseEntity.ok(TokenIntrospectionResponse.INACTIVE);
+        }
+        return introspectToken(request);
+    }
 
     /**
      * Handles token introspection requests.
@@ -36,11 +59,12 @@ public class TokenIntrospectionEndpoint {
      */
     @PostMapping
     public ResponseEntity<TokenIntrospectionResponse> introspectToken(@RequestBody TokenIntrospectionRequest request) {
-        log.info("Received token introspection request");
+        log.debug("Received token introspection request");
         
         try {
-            // Validate client credentials
-            clientRegistrationService.validateClient(request.getClientId(), request.getClientSecret());
+            // Authenticate the client
+            clientAuthenticator.authenticate(request.getClientId(), request.getClientSecret(),
+                request.getClientAssertionType(), request.getClientAssertion(), PATH);
             
             // Validate the token
             var claimsSet = jwtTokenService.validateToken(request.getToken());
@@ -59,15 +83,14 @@ public class TokenIntrospectionEndpoint {
                 .aud(claimsSet.getAudience().get(0))
                 .iss(claimsSet.getIssuer())
                 .jti(claimsSet.getJWTID())
+                .cnf(claimsSet.getJSONObjectClaim("cnf"))
                 .build();
             
             return ResponseEntity.ok(response);
             
         } catch (OAuthException | ParseException e) {
-            log.error("Token introspection failed: {}", e.getMessage());
-            return ResponseEntity.ok(TokenIntrospectionResponse.builder()
-                .active(false)
-                .build());
+            log.debug("Token introspection failed: {}", e.getMessage());
+            return ResponseEntity.ok(TokenIntrospectionResponse.INACTIVE);
         }
     }
 } 
\ No newline at end of file
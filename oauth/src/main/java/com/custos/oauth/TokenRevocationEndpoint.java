@@ -1,11 +1,14 @@
 package com.custos.oauth;
 
+import com.custos.oauth.client.ClientAuthenticator;
 import com.custos.oauth.exception.OAuthException;
 import com.custos.oauth.model.TokenRevocationRequest;
-import com.custos.oauth.service.ClientRegistrationService;
 import com.custos.oauth.service.JwtTokenService;
+import com.custos.oauth.web.OAuthForms;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -20,12 +23,32 @@ import java.text.ParseException;
  */
 @Slf4j
 @RestController
-@RequestMapping("/oauth2/revoke")
+@RequestMapping(TokenRevocationEndpoint.PATH)
 @RequiredArgsConstructor
 public class TokenRevocationEndpoint {
 
+    static final String PATH = "/oauth2/revoke";
+
     private final JwtTokenService jwtTokenService;
-    private final ClientRegistrationService clientRegistrationService;
+    private final ClientAuthenticator clientAuthenticator;
+
+    /**
+     * Handles form-encoded token revocation requests as defined by RFC 7009.
+     *
+     * @param servletRequest The HTTP request carrying the form body
+     * @return ResponseEntity with no content
+     */
+    @PostMapping(consumes = MediaType.APPLICATION_FORM_URLENCODED_VALUE)
+    public ResponseEntity<Void> revokeFormToken(HttpServletRequest servletRequest) {
+        TokenRevocationRequest request;
+        try {
+            request = OAuthForms.readRevocationRequest(servletRequest);
+        } catch (OAuthException e) {
+            log.debug("Token revocation failed: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+        return revokeToken(request);
+    }
 
     /**
      * Handles token revocation requests.
@@ -35,27 +58,29 @@ public class TokenRevocationEndpoint {
      */
     @PostMapping
     public ResponseEntity<Void> revokeToken(@RequestBody TokenRevocationRequest request) {
-        log.info("Received token revocation request");
+        log.debug("Received token revocation request");
         
         try {
-            // Validate client credentials
-            clientRegistrationService.validateClient(request.getClientId(), request.getClientSecret());
+            // Authenticate the client
+            String clientId = clientAuthenticator.authenticate(request.getClientId(), request.getClientSecret(),
+                request.getClientAssertionType(), request.getClientAssertion(), PATH).clientId();
             
             // Validate the token
             var claimsSet = jwtTokenService.validateToken(request.getToken());
             
             // Verify the token belongs to the client
             String tokenClientId = claimsSet.getStringClaim("client_id");
-            if (!request.getClientId().equals(tokenClientId)) {
+            if (!clientId.equals(tokenClientId)) {
                 throw new OAuthException("invalid_client", "Token does not belong to the client");
             }
             
-            // TODO: Implement token revocation logic (e.g., add to a blacklist)
+            // Revoke the token
+            jwtTokenService.revokeToken(claimsSet);
             
             return ResponseEntity.noContent().build();
             
         } catch (OAuthException | ParseException e) {
-            log.error("Token revocation failed: {}", e.getMessage());
+            log.debug("Token revocation failed: {}", e.getMessage());
             return ResponseEntity.badRequest().build();
         }
     }
@@ -0,0 +1,123 @@
+package com.custos.oauth;
+
+import com.custos.oauth.client.ClientCertificate;
+import com.custos.oauth.dpop.DPoPProofVerifier;
+import com.custos.oauth.exception.OAuthException;
+import com.custos.oauth.service.JwtTokenService;
+import com.custos.oauth.service.UserInfoService;
+import com.custos.oauth.web.OAuthForms;
+import com.nimbusds.jwt.JWTClaimsSet;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.text.ParseException;
+import java.util.Map;
+
+/**
+ * OpenID Connect UserInfo Endpoint implementation.
+ * Returns claims about the user an access token was issued for.
+ * <p>
+ * Sender-constrained tokens are only accepted from their holder: a token bound to a DPoP key
+ * must be sent with the DPoP scheme and a proof signed with that key (RFC 9449 section 7), and a
+ * token bound to a client certificate over a TLS connection authenticated with that certificate
+ * (RFC 8705 section 3).
+ */
+@Slf4j
+@RestController
+@RequestMapping(UserInfoEndpoint.PATH)
+@RequiredArgsConstructor
+public class UserInfoEndpoint {
+
+    static final String PATH = "/oauth2/userinfo";
+
+    private static final String BEARER_PREFIX = "Bearer ";
+    private static final String DPOP_PREFIX = DPoPProofVerifier.TOKEN_TYPE + " ";
+
+    private final JwtTokenService jwtTokenService;
+    private final UserInfoService userInfoService;
+    private final DPoPProofVerifier dpopProofVerifier;
+
+    /**
+     * Handles UserInfo requests. The access token is sent in the Authorization header, with the
+     * Bearer scheme (RFC 6750) or, for DPoP-bound tokens, the DPoP scheme (RFC 9449).
+     *
+     * @param authorization The Authorization header
+     * @param request The request, carrying any DPoP proof and client certificate
+     * @return ResponseEntity containing the user's claims
+     */
+    @RequestMapping(method = {RequestMethod.GET, RequestMethod.POST})
+    public ResponseEntity<Map<String, Object>> userInfo(
+        @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+        HttpServletRequest request) {
+        String scheme;
+        if (authorization != null && authorization.regionMatches(true, 0, BEARER_PREFIX, 0, BEARER_PREFIX.length())) {
+            scheme = "Bearer";
+        } else if (authorization != null && authorization.regionMatches(true, 0, DPOP_PREFIX, 0, DPOP_PREFIX.length())) {
+            scheme = DPoPProofVerifier.TOKEN_TYPE;
+        } else {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .header(HttpHeaders.WWW_AUTHENTICATE, "Bearer")
+                .build();
+        }
+
+        try {
+            String token = authorization.substring(scheme.length() + 1).trim();
+            JWTClaimsSet claimsSet = jwtTokenService.validateAccessToken(token);
+            checkBinding(claimsSet, token, scheme, request);
+            return ResponseEntity.ok(userInfoService.getClaims(claimsSet.getSubject()));
+        } catch (OAuthException e) {
+            log.debug("UserInfo request failed: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .header(HttpHeaders.WWW_AUTHENTICATE, scheme + " error=\"" + e.getErrorCode()
+                    + "\", error_description=\"" + e.getErrorDescription() + "\"")
+                .build();
+        }
+    }
+
+    /**
+     * Checks that the request comes from the holder of the key or certificate the token is bound to.
+     */
+    private void checkBinding(JWTClaimsSet claimsSet, String token, String scheme, HttpServletRequest request) {
+        Map<String, Object> confirmation;
+        try {
+            confirmation = claimsSet.getJSONObjectClaim("cnf");
+        } catch (ParseException e) {
+            throw new OAuthException("invalid_token", "Malformed confirmation claim");
+        }
+
+        Object keyThumbprint = confirmation == null ? null : confirmation.get(DPoPProofVerifier.CONFIRMATION_METHOD);
+        if (keyThumbprint == null) {
+            if (DPoPProofVerifier.TOKEN_TYPE.equals(scheme)) {
+                throw new OAuthException("invalid_token", "Token is not bound to a DPoP key");
+            }
+        } else {
+            if (!DPoPProofVerifier.TOKEN_TYPE.equals(scheme)) {
+                throw new OAuthException("invalid_token", "Token is bound to a DPoP key");
+            }
+            String proof = OAuthForms.dpopProof(request);
+            if (proof == null) {
+                throw new OAuthException("invalid_dpop_proof", "Missing DPoP proof");
+            }
+            String proofKey = dpopProofVerifier.verify(proof, request.getMethod(), jwtTokenService.getIssuer() + PATH, token);
+            if (!keyThumbprint.equals(proofKey)) {
+                throw new OAuthException("invalid_dpop_proof", "DPoP proof is signed with another key");
+            }
+        }
+
+        Object certificateThumbprint = confirmation == null ? null : confirmation.get(ClientCertificate.CONFIRMATION_METHOD);
+        if (certificateThumbprint != null) {
+            ClientCertificate certificate = OAuthForms.clientCertificate(request);
+            if (certificate == null || !certificateThumbprint.equals(certificate.thumbprint())) {
+                throw new OAuthException("invalid_token", "Token is bound to another client certificate");
+            }
+        }
+    }
+}
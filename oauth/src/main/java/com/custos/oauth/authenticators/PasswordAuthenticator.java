@@ -2,6 +2,7 @@ package com.custos.oauth.authenticators;
 
 import com.custos.oauth.exception.ResourceNotFoundException;
 import com.custos.oauth.service.UserService;
+import com.custos.oauth.tracing.Spans;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
@@ -20,7 +21,7 @@ public class PasswordAuthenticator implements Authenticator {
     public String authenticate(String username, String password) {
         return userService.findByUsername(username)
             .map(user -> {
-                if (passwordEncoder.matches(password, user.getPassword())) {
+                if (Spans.call("password.verify", () -> passwordEncoder.matches(password, user.getPassword()))) {
                     return user.getId().toString();
                 }
                 throw new ResourceNotFoundException("Invalid password");
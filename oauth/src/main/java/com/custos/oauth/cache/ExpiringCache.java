@@ -0,0 +1,154 @@
+package com.custos.oauth.cache;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntConsumer;
+
+/**
+ * Bounded in-memory cache whose entries expire after a fixed time to live or at an explicit
+ * instant, whichever comes first. Reads never lock; expired entries are dropped when they are
+ * read and swept when the cache reaches its size limit. A cache still full of live entries then
+ * drops some of them, so a cache that holds state nothing else can rebuild should be sized for
+ * its peak and given an eviction listener to report when it is not.
+ *
+ * @param <K> The key type
+ * @param <V> The value type
+ */
+public class ExpiringCache<K, V> {
+
+    private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final int maxSize;
+    private final long ttlMillis;
+    private final Clock clock;
+    private final IntConsumer evictionListener;
+
+    /**
+     * Creates a cache.
+     *
+     * @param maxSize The maximum number of entries
+     * @param ttl The longest time an entry is kept
+     */
+    public ExpiringCache(int maxSize, Duration ttl) {
+        this(maxSize, ttl, Clock.systemUTC());
+    }
+
+    public ExpiringCache(int maxSize, Duration ttl, Clock clock) {
+        this(maxSize, ttl, clock, evicted -> { });
+    }
+
+    /**
+     * Creates a cache that reports when it drops live entries to make room.
+     *
+     * @param maxSize The maximum number of entries
+     * @param ttl The longest time an entry is kept
+     * @param clock The clock entries expire by
+     * @param evictionListener Called with the number of live entries dropped, on the thread that
+     *                         inserted the entry that filled the cache
+     */
+    public ExpiringCache(int maxSize, Duration ttl, Clock clock, IntConsumer evictionListener) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive");
+        }
+        this.maxSize = maxSize;
+        this.ttlMillis = ttl.toMillis();
+        this.clock = clock;
+        this.evictionListener = evictionListener;
+    }
+
+    /**
+     * Returns the value for a key, or null if it is absent or expired.
+     */
+    public V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt <= clock.millis()) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry.value;
+    }
+
+    /**
+     * Stores a value for the configured time to live.
+     */
+    public void put(K key, V value) {
+        put(key, value, Long.MAX_VALUE);
+    }
+
+    /**
+     * Stores a value until the given instant or for the configured time to live, whichever is sooner.
+     *
+     * @param key The key
+     * @param value The value
+     * @param expiresAtMillis The latest expiry as epoch milliseconds
+     */
+    public void put(K key, V value, long expiresAtMillis) {
+        long now = clock.millis();
+        long expiresAt = Math.min(expiresAtMillis, now + ttlMillis);
+        if (expiresAt <= now) {
+            return;
+        }
+        if (entries.size() >= maxSize && !entries.containsKey(key)) {
+            evict(now);
+        }
+        entries.put(key, new Entry<>(value, expiresAt));
+    }
+
+    /**
+     * Removes and returns the value for a key, or null if it is absent or expired.
+     */
+    public V remove(K key) {
+        Entry<V> entry = entries.remove(key);
+        return entry == null || entry.expiresAt <= clock.millis() ? null : entry.value;
+    }
+
+    /**
+     * Removes the entry for a key if it holds the given value.
+     *
+     * @return Whether an entry was removed
+     */
+    public boolean remove(K key, V value) {
+        Entry<V> entry = entries.get(key);
+        return entry != null && entry.value.equals(value) && entries.remove(key, entry);
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Returns the number of entries, including expired ones that have not been swept yet.
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Drops expired entries and, if the cache is still nearly full, arbitrary entries until a tenth of
+     * it is free, so that a full cache is not swept again on every insert. The live entries dropped
+     * are lost: a cache of derived values only takes misses, but a cache holding state of its own,
+     * such as pending authorization requests, breaks the flows they belong to.
+     */
+    private void evict(long now) {
+        entries.values().removeIf(entry -> entry.expiresAt <= now);
+        int target = maxSize - Math.max(1, maxSize / 10);
+        int evicted = 0;
+        Iterator<K> keys = entries.keySet().iterator();
+        while (entries.size() > target && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+            evicted++;
+        }
+        if (evicted > 0) {
+            evictionListener.accept(evicted);
+        }
+    }
+
+    private record Entry<V>(V value, long expiresAt) {
+    }
+}
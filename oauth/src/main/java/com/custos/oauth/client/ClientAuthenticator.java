@@ -0,0 +1,253 @@
+package com.custos.oauth.client;
+
+import com.custos.oauth.exception.OAuthException;
+import com.custos.oauth.model.ClientRegistrationResponse;
+import com.custos.oauth.service.ClientRegistrationService;
+import com.custos.oauth.service.JwtTokenService;
+import com.custos.oauth.tracing.Spans;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.text.ParseException;
+import java.time.Clock;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Authenticates clients at the endpoints they call directly.
+ * These methods are supported:
+ * <ul>
+ *   <li>{@code client_secret_basic} and {@code client_secret_post}: the registered secret, checked
+ *       against its stored hash through the {@link ClientSecretVerifier};</li>
+ *   <li>{@code private_key_jwt} (RFC 7523): a JWT signed with one of the client's registered keys;</li>
+ *   <li>{@code tls_client_auth} and {@code self_signed_tls_client_auth} (RFC 8705): the certificate
+ *       presented on the TLS connection, found through the {@link ClientCertificateIndex};</li>
+ *   <li>{@code none}: public clients, which have neither a secret nor keys, by client_id alone.</li>
+ * </ul>
+ * Clients authenticated by certificate receive tokens bound to it.
+ */
+@Slf4j
+@Component
+public class ClientAuthenticator {
+
+    public static final String JWT_BEARER_ASSERTION_TYPE = "urn:ietf:params:oauth:client-assertion-type:jwt-bearer";
+
+    public static final String CLIENT_SECRET = "client_secret";
+    public static final String PRIVATE_KEY_JWT = "private_key_jwt";
+    public static final String TLS_CLIENT_AUTH = "tls_client_auth";
+    public static final String SELF_SIGNED_TLS_CLIENT_AUTH = "self_signed_tls_client_auth";
+    public static final String NONE = "none";
+
+    /**
+     * Assertions are meant to be used right away; a longer lifetime only grows the replay cache.
+     */
+    static final long MAX_ASSERTION_LIFETIME_MILLIS = 5 * 60 * 1000;
+
+    /**
+     * Allowed clock difference for the assertion's nbf and iat. Its exp is enforced exactly, so that
+     * the replay cache can forget an assertion as soon as it expires.
+     */
+    static final long CLOCK_SKEW_MILLIS = 60 * 1000;
+
+    private final ClientRegistrationService clientRegistrationService;
+    private final JwtTokenService jwtTokenService;
+    private final ClientKeySetCache clientKeySetCache;
+    private final JtiReplayCache jtiReplayCache;
+    private final Clock clock;
+
+    @Autowired
+    public ClientAuthenticator(ClientRegistrationService clientRegistrationService, JwtTokenService jwtTokenService,
+                               ClientKeySetCache clientKeySetCache, JtiReplayCache jtiReplayCache) {
+        this(clientRegistrationService, jwtTokenService, clientKeySetCache, jtiReplayCache, Clock.systemUTC());
+    }
+
+    ClientAuthenticator(ClientRegistrationService clientRegistrationService, JwtTokenService jwtTokenService,
+                        ClientKeySetCache clientKeySetCache, JtiReplayCache jtiReplayCache, Clock clock) {
+        this.clientRegistrationService = clientRegistrationService;
+        this.jwtTokenService = jwtTokenService;
+        this.clientKeySetCache = clientKeySetCache;
+        this.jtiReplayCache = jtiReplayCache;
+        this.clock = clock;
+    }
+
+    /**
+     * Authenticates the client of a request made without a client certificate.
+     *
+     * @see #authenticate(String, String, String, String, ClientCertificate, String)
+     */
+    public AuthenticatedClient authenticate(String clientId, String clientSecret, String assertionType,
+                                            String assertion, String endpointPath) throws OAuthException {
+        return authenticate(clientId, clientSecret, assertionType, assertion, null, endpointPath);
+    }
+
+    /**
+     * Authenticates the client of a request. A client certificate authenticates the client only
+     * when no secret or assertion is sent.
+     *
+     * @param clientId The client_id parameter; may be null when a client assertion or certificate is used
+     * @param clientSecret The client_secret, from the body or the Basic Authorization header
+     * @param assertionType The client_assertion_type parameter
+     * @param assertion The client_assertion parameter
+     * @param certificate The certificate the client presented on the TLS connection, or null
+     * @param endpointPath The path of the endpoint called, which the assertion may name as its audience
+     * @return The authenticated client
+     * @throws OAuthException invalid_client if the client cannot be authenticated, or invalid_request
+     *         if the request uses more than one method
+     */
+    public AuthenticatedClient authenticate(String clientId, String clientSecret, String assertionType,
+                                            String assertion, ClientCertificate certificate,
+                                            String endpointPath) throws OAuthException {
+        if (assertionType != null || assertion != null) {
+            if (clientSecret != null) {
+                throw new OAuthException("invalid_request", "Multiple client authentication methods used");
+            }
+            if (assertionType == null || assertion == null) {
+                throw new OAuthException("invalid_request", "client_assertion_type and client_assertion are both required");
+            }
+            if (!JWT_BEARER_ASSERTION_TYPE.equals(assertionType)) {
+                throw new OAuthException("invalid_client", "Unsupported client_assertion_type");
+            }
+            return bindIfRequested(authenticateAssertion(clientId, assertion, endpointPath), certificate);
+        }
+
+        if (clientSecret == null && certificate != null) {
+            ClientCertificateIndex.Match match = clientRegistrationService.findClientByCertificate(certificate);
+            if (match != null && (clientId == null || clientId.equals(match.clientId()))) {
+                return new AuthenticatedClient(match.clientId(), match.method(), certificate.thumbprint());
+            }
+        }
+
+        if (clientId == null || clientId.isEmpty()) {
+            throw new OAuthException("invalid_client", "client_id is required");
+        }
+        ClientRegistrationResponse client = clientRegistrationService.getClient(clientId);
+        if (client.getClientSecretExpiresAt() != null) {
+            if (clientSecret == null || !clientRegistrationService.verifyClientSecret(clientId, clientSecret)) {
+                throw new OAuthException("invalid_client", "Invalid client credentials");
+            }
+            return bindIfRequested(new AuthenticatedClient(clientId, CLIENT_SECRET), certificate);
+        }
+        if (clientSecret != null || client.getJwks() != null || client.getJwksUri() != null
+            || client.getTlsClientAuthSubjectDn() != null) {
+            throw new OAuthException("invalid_client", "Invalid client credentials");
+        }
+        return bindIfRequested(new AuthenticatedClient(clientId, NONE), certificate);
+    }
+
+    /**
+     * Binds the tokens of a client authenticated by other means to its certificate, if it
+     * registered for certificate-bound tokens.
+     */
+    private AuthenticatedClient bindIfRequested(AuthenticatedClient client, ClientCertificate certificate) {
+        if (certificate == null || !Boolean.TRUE.equals(
+            clientRegistrationService.getClient(client.clientId()).getTlsClientCertificateBoundAccessTokens())) {
+            return client;
+        }
+        return new AuthenticatedClient(client.clientId(), client.method(), certificate.thumbprint());
+    }
+
+    private AuthenticatedClient authenticateAssertion(String clientId, String assertion, String endpointPath) {
+        SignedJWT jwt;
+        JWTClaimsSet claims;
+        try {
+            jwt = SignedJWT.parse(assertion);
+            claims = jwt.getJWTClaimsSet();
+        } catch (ParseException e) {
+            throw new OAuthException("invalid_client", "Malformed client assertion");
+        }
+
+        // RFC 7523 section 3: both iss and sub are the client_id
+        String subject = claims.getSubject();
+        if (subject == null || !subject.equals(claims.getIssuer()) || (clientId != null && !clientId.equals(subject))) {
+            throw new OAuthException("invalid_client", "Client assertion must be issued by the client about itself");
+        }
+        ClientRegistrationResponse client = clientRegistrationService.getClient(subject);
+
+        JWSAlgorithm algorithm = jwt.getHeader().getAlgorithm();
+        if (!JWSAlgorithm.Family.RSA.contains(algorithm) && !JWSAlgorithm.Family.EC.contains(algorithm)) {
+            throw new OAuthException("invalid_client", "Unsupported client assertion algorithm");
+        }
+        JWSVerifier verifier = clientKeySetCache.verifier(client, jwt.getHeader().getKeyID());
+        if (verifier == null || !verify(jwt, verifier)) {
+            throw new OAuthException("invalid_client", "Invalid client assertion signature");
+        }
+
+        long now = clock.millis();
+        Date expiresAt = claims.getExpirationTime();
+        if (expiresAt == null || expiresAt.getTime() <= now) {
+            throw new OAuthException("invalid_client", "Client assertion has expired");
+        }
+        if (expiresAt.getTime() - now > MAX_ASSERTION_LIFETIME_MILLIS) {
+            throw new OAuthException("invalid_client", "Client assertion expires too far in the future");
+        }
+        Date notBefore = claims.getNotBeforeTime();
+        Date issuedAt = claims.getIssueTime();
+        if ((notBefore != null && notBefore.getTime() > now + CLOCK_SKEW_MILLIS)
+            || (issuedAt != null && issuedAt.getTime() > now + CLOCK_SKEW_MILLIS)) {
+            throw new OAuthException("invalid_client", "Client assertion is not yet valid");
+        }
+        if (!hasAudience(claims.getAudience(), endpointPath)) {
+            throw new OAuthException("invalid_client", "Client assertion is not intended for this server");
+        }
+
+        // Recorded only once the signature holds, so that forged assertions cannot fill the cache
+        if (claims.getJWTID() == null) {
+            throw new OAuthException("invalid_client", "Client assertion must have a jti");
+        }
+        if (!jtiReplayCache.tryRecord(subject, claims.getJWTID(), expiresAt.getTime())) {
+            throw new OAuthException("invalid_client", "Client assertion has already been used");
+        }
+        return new AuthenticatedClient(subject, PRIVATE_KEY_JWT);
+    }
+
+    /**
+     * Accepts the issuer identifier, the token endpoint URL, or the URL of the endpoint called.
+     */
+    private boolean hasAudience(List<String> audience, String endpointPath) {
+        String issuer = jwtTokenService.getIssuer();
+        for (String value : audience) {
+            if (value.equals(issuer) || value.equals(issuer + "/oauth2/token") || value.equals(issuer + endpointPath)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean verify(SignedJWT jwt, JWSVerifier verifier) {
+        try {
+            return Spans.call("jwt.verify", () -> jwt.verify(verifier));
+        } catch (JOSEException e) {
+            log.debug("Client assertion verification failed: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * A client that has proven its identity.
+     *
+     * @param clientId The client identifier
+     * @param method How the client authenticated: {@link #CLIENT_SECRET}, {@link #PRIVATE_KEY_JWT},
+     *               {@link #TLS_CLIENT_AUTH}, {@link #SELF_SIGNED_TLS_CLIENT_AUTH} or {@link #NONE}
+     * @param certificateThumbprint The {@code x5t#S256} thumbprint of the certificate the client's
+     *                              tokens are bound to, or null for unbound tokens
+     */
+    public record AuthenticatedClient(String clientId, String method, String certificateThumbprint) {
+
+        public AuthenticatedClient(String clientId, String method) {
+            this(clientId, method, null);
+        }
+
+        /**
+         * Returns whether the client proved possession of a credential, as confidential clients do.
+         */
+        public boolean isConfidential() {
+            return !NONE.equals(method);
+        }
+    }
+}
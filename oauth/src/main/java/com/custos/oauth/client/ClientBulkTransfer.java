@@ -0,0 +1,240 @@
+package com.custos.oauth.client;
+
+import com.custos.oauth.exception.OAuthException;
+import com.custos.oauth.model.ClientImportResult;
+import com.custos.oauth.model.ClientRegistrationRequest;
+import com.custos.oauth.service.ClientRegistrationService;
+import com.custos.oauth.tracing.Spans;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Imports and exports client registrations as newline-delimited JSON, one registration per line.
+ * <p>
+ * An import is read and answered in batches, so that neither side is held in memory as a whole.
+ * The lines of a batch are parsed, validated and compiled in parallel, which includes hashing any
+ * secrets, and the batch is then registered in one step. Each line is answered with a line
+ * reporting the client_id it was imported under or why it was rejected, in input order.
+ * An export walks the registry and writes each registration as it goes, with the salted hash of
+ * the client's secret, so that clients exported from one server import into another with the
+ * credentials they had.
+ */
+@Slf4j
+@Lazy
+@Component
+public class ClientBulkTransfer {
+
+    private static final int DEFAULT_BATCH_SIZE = 1_000;
+    private static final String CLIENT_SECRET_HASH = "clientSecretHash";
+
+    private final ClientRegistrationService clientRegistrationService;
+    private final ObjectMapper objectMapper;
+    private final ObjectReader reader;
+    private final ObjectWriter writer;
+    private final int batchSize;
+    private final ExecutorService executor;
+
+    /**
+     * Creates the transfer.
+     *
+     * @param clientRegistrationService The registry clients are imported into and exported from
+     * @param objectMapper Reads and writes the lines
+     * @param batchSize The most clients validated and registered together
+     * @param parallelism The number of threads validating clients, or 0 for one per processor
+     */
+    @Autowired
+    public ClientBulkTransfer(ClientRegistrationService clientRegistrationService, ObjectMapper objectMapper,
+                              @Value("${custos.client-import.batch-size:" + DEFAULT_BATCH_SIZE + "}") int batchSize,
+                              @Value("${custos.client-import.parallelism:0}") int parallelism) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive");
+        }
+        this.clientRegistrationService = clientRegistrationService;
+        this.objectMapper = objectMapper;
+        // Exported registrations carry response-only fields, and must import again as they are
+        this.reader = objectMapper.readerFor(ClientRegistrationRequest.class)
+            .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        this.writer = objectMapper.writer();
+        this.batchSize = batchSize;
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = Spans.wrap(Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "client-import-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    /**
+     * Imports clients into the tenant bound to the current thread. Malformed or invalid lines are
+     * reported and skipped; blank lines are ignored.
+     *
+     * @param in The registrations, one JSON object per line
+     * @param out Receives one {@link ClientImportResult} per registration, one JSON object per line
+     * @param overwrite Whether a registration replaces the client with the same client_id; if not,
+     *                  such registrations are reported and skipped
+     * @return The number of clients imported and rejected
+     * @throws IOException If the input cannot be read or the output written
+     */
+    public ImportSummary importClients(InputStream in, OutputStream out, boolean overwrite) throws IOException {
+        BufferedReader lines = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        List<CompletableFuture<Outcome>> batch = new ArrayList<>(batchSize);
+        long lineNumber = 0;
+        int total = 0;
+        int imported = 0;
+        String line;
+        while ((line = lines.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            String json = line;
+            long number = lineNumber;
+            batch.add(CompletableFuture.supplyAsync(() -> prepare(number, json), executor));
+            if (batch.size() == batchSize) {
+                total += batch.size();
+                imported += apply(batch, out, overwrite);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            total += batch.size();
+            imported += apply(batch, out, overwrite);
+        }
+        int rejected = total - imported;
+        log.info("Imported {} clients, rejected {}", imported, rejected);
+        return new ImportSummary(imported, rejected);
+    }
+
+    /**
+     * Exports the clients of the tenant bound to the current thread.
+     *
+     * @param out Receives the registrations, one JSON object per line, with the salted hash of each
+     *            client's secret but never the secret itself
+     * @return The number of clients exported
+     * @throws IOException If the output cannot be written
+     */
+    public long exportClients(OutputStream out) throws IOException {
+        long[] count = {0};
+        try {
+            clientRegistrationService.forEachClient(client -> {
+                ObjectNode line = objectMapper.valueToTree(client.getRegistration());
+                if (client.getClientSecretHash() != null) {
+                    line.put(CLIENT_SECRET_HASH, client.getClientSecretHash());
+                }
+                try {
+                    writeLine(out, line);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                count[0]++;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        out.flush();
+        return count[0];
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Waits for a batch to be prepared, registers the clients that were, and reports every line.
+     *
+     * @return The number of clients registered
+     */
+    private int apply(List<CompletableFuture<Outcome>> batch, OutputStream out, boolean overwrite) throws IOException {
+        List<Outcome> outcomes = new ArrayList<>(batch.size());
+        List<PreparedClient> prepared = new ArrayList<>(batch.size());
+        for (CompletableFuture<Outcome> future : batch) {
+            Outcome outcome = future.join();
+            outcomes.add(outcome);
+            if (outcome.client() != null) {
+                prepared.add(outcome.client());
+            }
+        }
+        List<OAuthException> failures = clientRegistrationService.importClients(prepared, overwrite);
+
+        int imported = 0;
+        int next = 0;
+        for (Outcome outcome : outcomes) {
+            OAuthException error = outcome.error();
+            if (outcome.client() != null) {
+                error = failures.get(next++);
+            }
+            ClientImportResult.ClientImportResultBuilder result = ClientImportResult.builder().line(outcome.line());
+            if (error == null) {
+                imported++;
+                result.clientId(outcome.client().record().getClientId())
+                    .clientSecret(outcome.client().issuedSecret());
+            } else {
+                result.error(error.getErrorCode()).errorDescription(error.getMessage());
+            }
+            writeLine(out, result.build());
+        }
+        out.flush();
+        return imported;
+    }
+
+    private Outcome prepare(long line, String json) {
+        try {
+            ClientRegistrationRequest request = reader.readValue(json);
+            if (request == null) {
+                throw new OAuthException("invalid_request", "Line is not a client registration");
+            }
+            ClientMetadataValidator.validate(request);
+            return new Outcome(line, clientRegistrationService.prepareImport(request), null);
+        } catch (JsonProcessingException e) {
+            return new Outcome(line, null, new OAuthException("invalid_request", "Malformed client registration"));
+        } catch (OAuthException e) {
+            return new Outcome(line, null, e);
+        } catch (RuntimeException e) {
+            log.warn("Could not import client on line {}", line, e);
+            return new Outcome(line, null, new OAuthException("server_error", "Could not import client"));
+        }
+    }
+
+    private void writeLine(OutputStream out, Object value) throws IOException {
+        out.write(writer.writeValueAsBytes(value));
+        out.write('\n');
+    }
+
+    /**
+     * The totals of an import.
+     *
+     * @param imported The number of clients registered
+     * @param rejected The number of lines that were not
+     */
+    public record ImportSummary(int imported, int rejected) {
+    }
+
+    private record Outcome(long line, PreparedClient client, OAuthException error) {
+    }
+}
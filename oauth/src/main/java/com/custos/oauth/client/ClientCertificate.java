@@ -0,0 +1,73 @@
+package com.custos.oauth.client;
+
+import com.custos.oauth.exception.OAuthException;
+
+import javax.security.auth.x500.X500Principal;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.cert.CertificateEncodingException;
+import java.security.cert.X509Certificate;
+import java.util.Base64;
+
+/**
+ * The parts of a TLS client certificate used for client authentication and certificate-bound
+ * tokens (RFC 8705).
+ *
+ * @param thumbprint The base64url-encoded SHA-256 hash of the DER-encoded certificate, as used in
+ *                   the {@code x5t#S256} confirmation method
+ * @param subjectDn The certificate's subject distinguished name, in canonical form
+ */
+public record ClientCertificate(String thumbprint, String subjectDn) {
+
+    /**
+     * The confirmation method of tokens bound to a client certificate.
+     */
+    public static final String CONFIRMATION_METHOD = "x5t#S256";
+
+    /**
+     * Reads a certificate presented on a TLS connection.
+     *
+     * @param certificate The client's certificate
+     * @return The certificate's thumbprint and subject
+     * @throws OAuthException invalid_client if the certificate cannot be encoded
+     */
+    public static ClientCertificate of(X509Certificate certificate) throws OAuthException {
+        try {
+            return new ClientCertificate(thumbprint(certificate.getEncoded()),
+                certificate.getSubjectX500Principal().getName(X500Principal.CANONICAL));
+        } catch (CertificateEncodingException e) {
+            throw new OAuthException("invalid_client", "Unreadable client certificate");
+        }
+    }
+
+    /**
+     * Returns the thumbprint of a DER-encoded certificate.
+     *
+     * @param encoded The DER encoding of the certificate
+     * @return The base64url-encoded SHA-256 hash, without padding
+     */
+    public static String thumbprint(byte[] encoded) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(encoded);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Brings a registered subject distinguished name into the canonical form certificates are
+     * compared in, so that spacing, attribute case and keyword spelling do not matter.
+     *
+     * @param subjectDn The distinguished name, as in RFC 4514
+     * @return The canonical form
+     * @throws OAuthException invalid_client_metadata if the name cannot be parsed
+     */
+    public static String canonicalSubjectDn(String subjectDn) throws OAuthException {
+        try {
+            return new X500Principal(subjectDn).getName(X500Principal.CANONICAL);
+        } catch (IllegalArgumentException e) {
+            throw new OAuthException("invalid_client_metadata", "Invalid certificate subject DN");
+        }
+    }
+}
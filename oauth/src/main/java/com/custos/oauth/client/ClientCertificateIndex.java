@@ -0,0 +1,120 @@
+package com.custos.oauth.client;
+
+import com.custos.oauth.exception.OAuthException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps client certificates to the clients registered for them, so that a certificate presented
+ * on a TLS connection identifies its client with a single hash lookup.
+ * <p>
+ * Certificates are indexed by thumbprint for {@code self_signed_tls_client_auth} and by canonical
+ * subject DN for {@code tls_client_auth}. Each thumbprint and subject DN belongs to at most one
+ * client. An index covers one client registry: each loaded tenant holds its own, which is dropped
+ * when the tenant is evicted and rebuilt from its clients when it is loaded again.
+ */
+public class ClientCertificateIndex {
+
+    private final Map<Key, String> clientIds = new ConcurrentHashMap<>();
+
+    /**
+     * Builds the index of a registry's clients.
+     *
+     * @param clients The registered clients, whose certificates do not overlap
+     * @return The index
+     */
+    public static ClientCertificateIndex of(Collection<ClientRecord> clients) {
+        ClientCertificateIndex index = new ClientCertificateIndex();
+        for (ClientRecord client : clients) {
+            for (Key key : keys(client)) {
+                index.clientIds.put(key, client.getClientId());
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Indexes the certificates of a newly registered or updated client.
+     *
+     * @param previous The client's record before the update, or null for a new client
+     * @param current The client's new record
+     * @throws OAuthException invalid_client_metadata if another client is registered for one of the
+     *         certificates; the index is left unchanged
+     */
+    public void replace(ClientRecord previous, ClientRecord current) throws OAuthException {
+        String clientId = current.getClientId();
+        List<Key> keys = keys(current);
+        List<Key> added = new ArrayList<>(keys.size());
+        for (Key key : keys) {
+            String owner = clientIds.putIfAbsent(key, clientId);
+            if (owner == null) {
+                added.add(key);
+            } else if (!owner.equals(clientId)) {
+                added.forEach(k -> clientIds.remove(k, clientId));
+                throw new OAuthException("invalid_client_metadata",
+                    "The certificate is already registered to another client");
+            }
+        }
+        if (previous != null) {
+            for (Key key : keys(previous)) {
+                if (!keys.contains(key)) {
+                    clientIds.remove(key, clientId);
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes the certificates of a deleted client.
+     *
+     * @param client The client's record
+     */
+    public void remove(ClientRecord client) {
+        for (Key key : keys(client)) {
+            clientIds.remove(key, client.getClientId());
+        }
+    }
+
+    /**
+     * Finds the client registered for a certificate, preferring a self-signed certificate
+     * registered as such over a subject DN.
+     *
+     * @param certificate The certificate presented by the client
+     * @return The client and how it authenticates, or null if no client is registered for the certificate
+     */
+    public Match find(ClientCertificate certificate) {
+        String clientId = clientIds.get(new Key(true, certificate.thumbprint()));
+        if (clientId != null) {
+            return new Match(clientId, ClientAuthenticator.SELF_SIGNED_TLS_CLIENT_AUTH);
+        }
+        clientId = clientIds.get(new Key(false, certificate.subjectDn()));
+        return clientId == null ? null : new Match(clientId, ClientAuthenticator.TLS_CLIENT_AUTH);
+    }
+
+    private static List<Key> keys(ClientRecord client) {
+        List<Key> keys = new ArrayList<>(client.getCertificateThumbprints().size() + 1);
+        for (String thumbprint : client.getCertificateThumbprints()) {
+            keys.add(new Key(true, thumbprint));
+        }
+        if (client.getCertificateSubjectDn() != null) {
+            keys.add(new Key(false, client.getCertificateSubjectDn()));
+        }
+        return keys;
+    }
+
+    /**
+     * A client registered for a certificate.
+     *
+     * @param clientId The client identifier
+     * @param method {@link ClientAuthenticator#TLS_CLIENT_AUTH} or {@link ClientAuthenticator#SELF_SIGNED_TLS_CLIENT_AUTH}
+     */
+    public record Match(String clientId, String method) {
+    }
+
+    private record Key(boolean selfSigned, String value) {
+    }
+}
@@ -0,0 +1,269 @@
+package com.custos.oauth.client;
+
+import com.custos.oauth.cache.ExpiringCache;
+import com.custos.oauth.model.ClientRegistrationResponse;
+import com.custos.oauth.tenant.TenantContextHolder;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.ECDSAVerifier;
+import com.nimbusds.jose.crypto.RSASSAVerifier;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyType;
+import com.nimbusds.jose.jwk.KeyUse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.text.ParseException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches the keys clients sign their assertions with, parsed into verifiers, one key set per client.
+ * <p>
+ * Inline {@code jwks} are parsed once per registration. Key sets published at a {@code jwks_uri}
+ * are fetched on first use and afterwards refreshed in the background once they are older than
+ * the refresh interval, so that requests keep using the cached keys while the refresh runs. An
+ * assertion signed with a key that is not in the cached set triggers a synchronous refresh, at
+ * most once per minimum refresh interval per client.
+ */
+@Slf4j
+@Component
+public class ClientKeySetCache implements AutoCloseable {
+
+    private static final int MAX_CLIENTS = 10_000;
+
+    /**
+     * Upper bound on the time an unused key set is kept.
+     */
+    private static final Duration MAX_IDLE = Duration.ofHours(24);
+
+    private final Fetcher fetcher;
+    private final long refreshIntervalMillis;
+    private final long minRefreshIntervalMillis;
+    private final Clock clock;
+    private final ExpiringCache<Key, Entry> entries;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "client-jwks-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ClientKeySetCache() {
+        this(Duration.ofMinutes(5), Duration.ofSeconds(30), Duration.ofSeconds(2));
+    }
+
+    /**
+     * Creates the cache.
+     *
+     * @param refreshInterval How old a fetched key set may get before it is refreshed in the background
+     * @param minRefreshInterval The shortest time between refetches of one client's key set
+     * @param fetchTimeout Timeout for connecting to a jwks_uri and for the whole request
+     */
+    @Autowired
+    public ClientKeySetCache(@Value("${custos.client-jwks.refresh-interval:5m}") Duration refreshInterval,
+                             @Value("${custos.client-jwks.min-refresh-interval:30s}") Duration minRefreshInterval,
+                             @Value("${custos.client-jwks.fetch-timeout:2s}") Duration fetchTimeout) {
+        this(Fetcher.http(fetchTimeout), refreshInterval, minRefreshInterval, Clock.systemUTC());
+    }
+
+    ClientKeySetCache(Fetcher fetcher, Duration refreshInterval, Duration minRefreshInterval, Clock clock) {
+        this.fetcher = fetcher;
+        this.refreshIntervalMillis = refreshInterval.toMillis();
+        this.minRefreshIntervalMillis = minRefreshInterval.toMillis();
+        this.clock = clock;
+        this.entries = new ExpiringCache<>(MAX_CLIENTS, MAX_IDLE, clock);
+    }
+
+    /**
+     * Returns the verifier for one of a client's keys.
+     *
+     * @param client The client registration
+     * @param keyId The {@code kid} from the assertion header, or null
+     * @return The verifier, or null if the client has no such key or its key set cannot be loaded
+     */
+    public JWSVerifier verifier(ClientRegistrationResponse client, String keyId) {
+        String source = client.getJwks() != null ? client.getJwks() : client.getJwksUri();
+        if (source == null) {
+            return null;
+        }
+        boolean remote = client.getJwks() == null;
+        Key key = new Key(TenantContextHolder.currentId(), client.getClientId());
+
+        Entry entry = entries.get(key);
+        if (entry == null || !entry.source.equals(source)) {
+            entry = load(key, source, remote);
+            if (entry == null) {
+                return null;
+            }
+        } else if (remote && clock.millis() - entry.loadedAt >= refreshIntervalMillis
+            && entry.tryStartRefresh(clock.millis(), minRefreshIntervalMillis)) {
+            refreshInBackground(key, entry);
+        }
+
+        JWSVerifier verifier = entry.keys.find(keyId);
+        if (verifier == null && remote && entry.tryStartRefresh(clock.millis(), minRefreshIntervalMillis)) {
+            Entry refreshed = load(key, source, true);
+            verifier = refreshed == null ? null : refreshed.keys.find(keyId);
+        }
+        return verifier;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private void refreshInBackground(Key key, Entry entry) {
+        executor.execute(() -> load(key, entry.source, true));
+    }
+
+    /**
+     * Loads and caches a client's key set, keeping any cached keys if that fails.
+     */
+    private Entry load(Key key, String source, boolean remote) {
+        try {
+            Keys keys = Keys.parse(remote ? fetcher.fetch(URI.create(source)) : source);
+            Entry entry = new Entry(source, keys, clock.millis());
+            entries.put(key, entry);
+            log.debug("Loaded {} keys for client {}", keys.byKeyId().size(), key.clientId());
+            return entry;
+        } catch (IOException | ParseException | IllegalArgumentException e) {
+            log.warn("Failed to load keys for client {}: {}", key.clientId(), e.getMessage());
+            return entries.get(key);
+        }
+    }
+
+    /**
+     * Supplies the JSON form of a JWK Set published at a URI.
+     */
+    @FunctionalInterface
+    public interface Fetcher {
+
+        /**
+         * Fetches the current key set.
+         *
+         * @param jwksUri The location of the key set
+         * @return The key set as JSON
+         * @throws IOException if the key set cannot be retrieved
+         */
+        String fetch(URI jwksUri) throws IOException;
+
+        /**
+         * Returns a fetcher that retrieves key sets over HTTP.
+         *
+         * @param timeout Timeout for connecting and for the whole request
+         * @return The fetcher
+         */
+        static Fetcher http(Duration timeout) {
+            HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(timeout)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+            return jwksUri -> {
+                HttpRequest request = HttpRequest.newBuilder(jwksUri)
+                    .timeout(timeout)
+                    .header("Accept", "application/json")
+                    .GET()
+                    .build();
+                try {
+                    HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                    if (response.statusCode() != 200) {
+                        throw new IOException("Unexpected status " + response.statusCode() + " from " + jwksUri);
+                    }
+                    return response.body();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while fetching " + jwksUri, e);
+                }
+            };
+        }
+    }
+
+    private record Key(String tenantId, String clientId) {
+    }
+
+    /**
+     * A client's parsed key set and where it came from.
+     */
+    private static final class Entry {
+
+        private final String source;
+        private final Keys keys;
+        private final long loadedAt;
+        private final AtomicLong lastRefreshAttempt;
+
+        Entry(String source, Keys keys, long loadedAt) {
+            this.source = source;
+            this.keys = keys;
+            this.loadedAt = loadedAt;
+            this.lastRefreshAttempt = new AtomicLong(loadedAt);
+        }
+
+        /**
+         * Claims the right to refetch the key set, unless it was fetched or a refetch was attempted
+         * too recently. A failed refetch keeps the entry, so this also spaces out retries.
+         */
+        boolean tryStartRefresh(long now, long minIntervalMillis) {
+            long last = lastRefreshAttempt.get();
+            return now - last >= minIntervalMillis && lastRefreshAttempt.compareAndSet(last, now);
+        }
+    }
+
+    /**
+     * An immutable set of verifiers.
+     *
+     * @param byKeyId Verifiers for keys that carry a key ID
+     * @param onlyKey The verifier to use for assertions without a key ID when the set holds exactly one key
+     */
+    private record Keys(Map<String, JWSVerifier> byKeyId, JWSVerifier onlyKey) {
+
+        JWSVerifier find(String keyId) {
+            return keyId == null ? onlyKey : byKeyId.get(keyId);
+        }
+
+        static Keys parse(String json) throws ParseException {
+            Map<String, JWSVerifier> byKeyId = new HashMap<>();
+            JWSVerifier last = null;
+            int count = 0;
+            for (JWK jwk : JWKSet.parse(json).getKeys()) {
+                boolean signing = jwk.getKeyUse() == null || KeyUse.SIGNATURE.equals(jwk.getKeyUse());
+                JWSVerifier verifier = signing ? toVerifier(jwk) : null;
+                if (verifier != null) {
+                    count++;
+                    last = verifier;
+                    if (jwk.getKeyID() != null) {
+                        byKeyId.put(jwk.getKeyID(), verifier);
+                    }
+                }
+            }
+            return new Keys(Map.copyOf(byKeyId), count == 1 ? last : null);
+        }
+
+        private static JWSVerifier toVerifier(JWK jwk) {
+            try {
+                if (KeyType.RSA.equals(jwk.getKeyType())) {
+                    return new RSASSAVerifier(jwk.toRSAKey());
+                }
+                if (KeyType.EC.equals(jwk.getKeyType())) {
+                    return new ECDSAVerifier(jwk.toECKey());
+                }
+            } catch (JOSEException e) {
+                log.warn("Ignoring unusable client key {}: {}", jwk.getKeyID(), e.getMessage());
+            }
+            return null;
+        }
+    }
+}
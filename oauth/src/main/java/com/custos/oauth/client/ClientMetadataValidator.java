@@ -0,0 +1,97 @@
+package com.custos.oauth.client;
+
+import com.custos.oauth.exception.OAuthException;
+import com.custos.oauth.model.ClientRegistrationRequest;
+
+import java.util.Map;
+
+/**
+ * Checks client metadata before it is registered, for the registration endpoint and for bulk
+ * imports alike.
+ */
+public final class ClientMetadataValidator {
+
+    private ClientMetadataValidator() {
+    }
+
+    /**
+     * Validates the metadata of a client registration request.
+     *
+     * @param request The client registration request
+     * @throws OAuthException if the request is invalid
+     */
+    public static void validate(ClientRegistrationRequest request) throws OAuthException {
+        if (request.getClientName() == null || request.getClientName().isEmpty()) {
+            throw new OAuthException("invalid_client_metadata", "client_name is required");
+        }
+        
+        if (request.getClientType() == null || request.getClientType().isEmpty()) {
+            throw new OAuthException("invalid_client_metadata", "client_type is required");
+        }
+        
+        if (!"public".equals(request.getClientType()) && !"confidential".equals(request.getClientType())) {
+            throw new OAuthException("invalid_client_metadata", "client_type must be either 'public' or 'confidential'");
+        }
+        
+        if (request.getGrantTypes() == null || request.getGrantTypes().length == 0) {
+            throw new OAuthException("invalid_client_metadata", "grant_types is required");
+        }
+        
+        // Validate redirect URIs if required for the grant types
+        boolean requiresRedirectUri = false;
+        for (String grantType : request.getGrantTypes()) {
+            if ("authorization_code".equals(grantType) || "implicit".equals(grantType)) {
+                requiresRedirectUri = true;
+                break;
+            }
+        }
+        
+        if (requiresRedirectUri && (request.getRedirectUris() == null || request.getRedirectUris().length == 0)) {
+            throw new OAuthException("invalid_client_metadata", "redirect_uris is required for authorization_code and implicit grant types");
+        }
+        
+        // Validate response types if required
+        if (request.getResponseTypes() != null && request.getResponseTypes().length > 0) {
+            for (String responseType : request.getResponseTypes()) {
+                if (!"code".equals(responseType) && !"token".equals(responseType)) {
+                    throw new OAuthException("invalid_client_metadata", "Unsupported response_type: " + responseType);
+                }
+            }
+        }
+        
+        // Validate JWT-based client authentication
+        if ("confidential".equals(request.getClientType())) {
+            if (request.getJwksUri() == null && request.getJwks() == null) {
+                throw new OAuthException("invalid_client_metadata", "Either jwks_uri or jwks is required for confidential clients");
+            }
+        }
+        
+        Double tokenReuseThreshold = request.getTokenReuseThreshold();
+        if (tokenReuseThreshold != null && !(tokenReuseThreshold > 0 && tokenReuseThreshold <= 1)) {
+            throw new OAuthException("invalid_client_metadata", "token_reuse_threshold must be greater than 0 and at most 1");
+        }
+        
+        Long accessTokenLifetime = request.getAccessTokenLifetime();
+        if (accessTokenLifetime != null && (accessTokenLifetime <= 0 || accessTokenLifetime > TokenPolicy.MAX_ACCESS_TOKEN_LIFETIME)) {
+            throw new OAuthException("invalid_client_metadata",
+                "access_token_lifetime must be between 1 and " + TokenPolicy.MAX_ACCESS_TOKEN_LIFETIME + " seconds");
+        }
+        
+        Long refreshTokenLifetime = request.getRefreshTokenLifetime();
+        if (refreshTokenLifetime != null && (refreshTokenLifetime < 0 || refreshTokenLifetime > TokenPolicy.MAX_REFRESH_TOKEN_LIFETIME)) {
+            throw new OAuthException("invalid_client_metadata",
+                "refresh_token_lifetime must be between 0 and " + TokenPolicy.MAX_REFRESH_TOKEN_LIFETIME + " seconds");
+        }
+        
+        if (request.getTokenClaims() != null) {
+            for (Map.Entry<String, Object> claim : request.getTokenClaims().entrySet()) {
+                if (TokenPolicy.RESERVED_CLAIMS.contains(claim.getKey())) {
+                    throw new OAuthException("invalid_client_metadata", "token_claims cannot set " + claim.getKey());
+                }
+                if (claim.getValue() == null) {
+                    throw new OAuthException("invalid_client_metadata", "token_claims value for " + claim.getKey() + " is missing");
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.custos.oauth.client;
+
+import com.custos.oauth.model.ClientRegistrationResponse;
+import com.custos.oauth.scope.ScopeSet;
+import lombok.Getter;
+
+import java.util.Set;
+
+/**
+ * A registered client together with the state compiled from its registration.
+ * Records are immutable and replaced as a whole when a client is updated.
+ */
+@Getter
+public class ClientRecord {
+
+    /**
+     * The registration as returned to the client.
+     */
+    private final ClientRegistrationResponse registration;
+
+    /**
+     * The scopes the client may request.
+     */
+    private final ScopeSet allowedScopes;
+
+    /**
+     * The lifetimes and claims of the tokens issued to the client.
+     */
+    private final TokenPolicy tokenPolicy;
+
+    /**
+     * The redirect URIs the client may use.
+     */
+    private final RedirectUriMatcher redirectUris;
+
+    /**
+     * The canonical subject DN of the certificate the client authenticates with under
+     * {@code tls_client_auth}, or null.
+     */
+    private final String certificateSubjectDn;
+
+    /**
+     * The thumbprints of the self-signed certificates in the client's inline key set, which it may
+     * authenticate with under {@code self_signed_tls_client_auth}.
+     */
+    private final Set<String> certificateThumbprints;
+
+    /**
+     * The salted hash of the client's secret, or null if it has none. The secret itself is only
+     * returned when it is issued.
+     */
+    private final String clientSecretHash;
+
+    public ClientRecord(ClientRegistrationResponse registration, ScopeSet allowedScopes, TokenPolicy tokenPolicy,
+                        RedirectUriMatcher redirectUris, String certificateSubjectDn,
+                        Set<String> certificateThumbprints, String clientSecretHash) {
+        this.registration = registration;
+        this.allowedScopes = allowedScopes;
+        this.tokenPolicy = tokenPolicy;
+        this.redirectUris = redirectUris;
+        this.certificateSubjectDn = certificateSubjectDn;
+        this.certificateThumbprints = certificateThumbprints;
+        this.clientSecretHash = clientSecretHash;
+    }
+
+    public String getClientId() {
+        return registration.getClientId();
+    }
+}
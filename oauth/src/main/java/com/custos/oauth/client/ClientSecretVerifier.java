@@ -0,0 +1,141 @@
+package com.custos.oauth.client;
+
+import com.custos.oauth.cache.ExpiringCache;
+import com.custos.oauth.tenant.TenantContextHolder;
+import com.custos.oauth.tracing.Spans;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Base64;
+
+/**
+ * Issues client secrets and checks them against their stored salted hashes.
+ * <p>
+ * A slow hash is deliberately expensive, and machine clients present the same secret with every
+ * call. Once a secret has been checked, the client's entry remembers an HMAC of it under a key that
+ * never leaves the process, so that repeat authentications cost one HMAC and a constant-time
+ * comparison until the entry expires. Entries also remember the stored hash they were checked
+ * against: a rotated secret has a new hash, so an entry for the old one can never match again,
+ * even if it was written while the secret was being rotated.
+ */
+@Component
+public class ClientSecretVerifier {
+
+    private static final int SECRET_BYTES = 32;
+    private static final int MAC_KEY_BYTES = 32;
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+    private static final int DEFAULT_MAX_ENTRIES = 10_000;
+
+    private final PasswordEncoder passwordEncoder;
+    private final ExpiringCache<Key, Verified> verified;
+    private final SecureRandom random = new SecureRandom();
+    private final ThreadLocal<Mac> macs;
+
+    public ClientSecretVerifier() {
+        this(new BCryptPasswordEncoder(), Duration.ofMinutes(5), DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * Creates the verifier.
+     *
+     * @param passwordEncoder The slow hash secrets are stored with
+     * @param cacheTtl How long a verified secret is accepted without checking its hash again
+     * @param maxEntries The most clients whose verified secret is remembered at once
+     */
+    @Autowired
+    public ClientSecretVerifier(PasswordEncoder passwordEncoder,
+                                @Value("${custos.client-secret.cache-ttl:5m}") Duration cacheTtl,
+                                @Value("${custos.client-secret.max-entries:" + DEFAULT_MAX_ENTRIES + "}") int maxEntries) {
+        this(passwordEncoder, cacheTtl, maxEntries, Clock.systemUTC());
+    }
+
+    ClientSecretVerifier(PasswordEncoder passwordEncoder, Duration cacheTtl, int maxEntries, Clock clock) {
+        this.passwordEncoder = passwordEncoder;
+        this.verified = new ExpiringCache<>(maxEntries, cacheTtl, clock);
+        byte[] keyBytes = new byte[MAC_KEY_BYTES];
+        random.nextBytes(keyBytes);
+        SecretKeySpec macKey = new SecretKeySpec(keyBytes, MAC_ALGORITHM);
+        this.macs = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance(MAC_ALGORITHM);
+                mac.init(macKey);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(MAC_ALGORITHM + " is not available", e);
+            }
+        });
+    }
+
+    /**
+     * Generates a new client secret.
+     *
+     * @return A random base64url-encoded secret of 256 bits
+     */
+    public String generateSecret() {
+        byte[] secret = new byte[SECRET_BYTES];
+        random.nextBytes(secret);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(secret);
+    }
+
+    /**
+     * Hashes a secret for storage.
+     *
+     * @param secret The plaintext secret
+     * @return The salted hash
+     */
+    public String hash(String secret) {
+        return passwordEncoder.encode(secret);
+    }
+
+    /**
+     * Checks a secret presented by a client of the tenant bound to the current thread.
+     *
+     * @param clientId The client identifier
+     * @param secretHash The client's stored hash, or null if it has no secret
+     * @param secret The secret presented
+     * @return Whether the secret matches the stored hash
+     */
+    public boolean verify(String clientId, String secretHash, String secret) {
+        if (secretHash == null || secret == null) {
+            return false;
+        }
+        Key key = new Key(TenantContextHolder.currentId(), clientId);
+        byte[] mac = macs.get().doFinal(secret.getBytes(StandardCharsets.UTF_8));
+        Verified entry = verified.get(key);
+        if (entry != null && entry.secretHash().equals(secretHash) && MessageDigest.isEqual(entry.mac(), mac)) {
+            return true;
+        }
+        if (!Spans.call("client_secret.verify", () -> passwordEncoder.matches(secret, secretHash))) {
+            return false;
+        }
+        verified.put(key, new Verified(secretHash, mac));
+        return true;
+    }
+
+    /**
+     * Forgets the verified secret of a client of the tenant bound to the current thread, when the
+     * secret is rotated or the client deleted.
+     *
+     * @param clientId The client identifier
+     */
+    public void invalidate(String clientId) {
+        verified.remove(new Key(TenantContextHolder.currentId(), clientId));
+    }
+
+    private record Key(String tenantId, String clientId) {
+    }
+
+    private record Verified(String secretHash, byte[] mac) {
+    }
+}
@@ -0,0 +1,120 @@
+package com.custos.oauth.client;
+
+import com.custos.oauth.tenant.TenantContextHolder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Remembers the {@code jti} of every client assertion until the assertion expires, so that each
+ * assertion is accepted only once (RFC 7523 section 3).
+ * <p>
+ * Entries are spread over shards by key, each with its own lock, map and queue ordered by
+ * expiry. Recording an assertion first drops the expired entries at the head of its shard's
+ * queue, so entries leave the cache at the assertion's {@code exp} without any sweeping thread.
+ * A full shard refuses new assertions rather than forgetting live ones.
+ */
+@Slf4j
+@Component
+public class JtiReplayCache {
+
+    private static final int DEFAULT_SHARDS = 16;
+    private static final int DEFAULT_MAX_ENTRIES = 100_000;
+
+    private final Shard[] shards;
+    private final Clock clock;
+
+    public JtiReplayCache() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * Creates the cache.
+     *
+     * @param maxEntries The most unexpired assertions remembered at once
+     */
+    @Autowired
+    public JtiReplayCache(@Value("${custos.client-auth.max-assertions:" + DEFAULT_MAX_ENTRIES + "}") int maxEntries) {
+        this(DEFAULT_SHARDS, maxEntries, Clock.systemUTC());
+    }
+
+    JtiReplayCache(int shardCount, int maxEntries, Clock clock) {
+        if (Integer.bitCount(shardCount) != 1) {
+            throw new IllegalArgumentException("shardCount must be a power of two");
+        }
+        this.shards = new Shard[shardCount];
+        int capacity = Math.max(1, maxEntries / shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(capacity);
+        }
+        this.clock = clock;
+    }
+
+    /**
+     * Records the use of an assertion by a client of the tenant bound to the current thread.
+     *
+     * @param clientId The client that signed the assertion
+     * @param jti The assertion's identifier
+     * @param expiresAtMillis The assertion's expiry as epoch milliseconds
+     * @return False if the assertion was already used, or cannot be remembered because the cache is full
+     */
+    public boolean tryRecord(String clientId, String jti, long expiresAtMillis) {
+        Key key = new Key(TenantContextHolder.currentId(), clientId, jti);
+        int hash = key.hashCode();
+        Shard shard = shards[(hash ^ (hash >>> 16)) & (shards.length - 1)];
+        return shard.tryRecord(key, expiresAtMillis, clock.millis());
+    }
+
+    /**
+     * Returns the number of assertions remembered, including any expired ones not yet dropped.
+     */
+    public int size() {
+        int size = 0;
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                size += shard.expiries.size();
+            }
+        }
+        return size;
+    }
+
+    private record Key(String tenantId, String clientId, String jti) {
+    }
+
+    private record Entry(Key key, long expiresAt) {
+    }
+
+    private static final class Shard {
+
+        private final int capacity;
+        private final Map<Key, Long> expiries = new HashMap<>();
+        private final PriorityQueue<Entry> queue = new PriorityQueue<>((a, b) -> Long.compare(a.expiresAt, b.expiresAt));
+
+        Shard(int capacity) {
+            this.capacity = capacity;
+        }
+
+        synchronized boolean tryRecord(Key key, long expiresAt, long now) {
+            for (Entry head = queue.peek(); head != null && head.expiresAt <= now; head = queue.peek()) {
+                queue.poll();
+                expiries.remove(head.key, head.expiresAt);
+            }
+            if (expiries.containsKey(key)) {
+                return false;
+            }
+            if (expiries.size() >= capacity) {
+                log.warn("Replay cache shard is full, refusing client assertion");
+                return false;
+            }
+            expiries.put(key, expiresAt);
+            queue.add(new Entry(key, expiresAt));
+            return true;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.custos.oauth.client;
+
+/**
+ * A client validated and compiled for a bulk import, but not yet registered.
+ *
+ * @param record The record to register
+ * @param issuedSecret The plaintext of a secret generated for the client during the import, to be
+ *                     returned once, or null if the import supplied the secret or the client has none
+ */
+public record PreparedClient(ClientRecord record, String issuedSecret) {
+}
@@ -0,0 +1,136 @@
+package com.custos.oauth.client;
+
+import com.custos.oauth.exception.OAuthException;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * The redirect URIs of a client, compiled once at registration.
+ * <p>
+ * A redirect URI matches if it is one of the registered URIs after canonicalization: scheme and
+ * host are case-insensitive, a default port is the same as no port and an empty path is the same
+ * as {@code /}. Following RFC 8252, a registered {@code http} URI on a loopback IP literal
+ * ({@code 127.0.0.1} or {@code [::1]}) also matches on any port, since native apps listen on
+ * whatever port the operating system gives them. Matching is a hash lookup, whatever the number
+ * of registered URIs, and a URI sent exactly as registered is not parsed at all.
+ */
+public class RedirectUriMatcher {
+
+    private static final RedirectUriMatcher NONE = new RedirectUriMatcher(Set.of(), Set.of());
+
+    /**
+     * Registered URIs as sent and in canonical form.
+     */
+    private final Set<String> exact;
+
+    /**
+     * Canonical forms, without the port, of the registered loopback URIs.
+     */
+    private final Set<String> loopback;
+
+    private RedirectUriMatcher(Set<String> exact, Set<String> loopback) {
+        this.exact = exact;
+        this.loopback = loopback;
+    }
+
+    /**
+     * Compiles the redirect URIs of a registration.
+     *
+     * @param redirectUris The registered URIs, or null
+     * @return The matcher
+     * @throws OAuthException if a URI is not absolute or has a fragment
+     */
+    public static RedirectUriMatcher compile(String[] redirectUris) throws OAuthException {
+        if (redirectUris == null || redirectUris.length == 0) {
+            return NONE;
+        }
+        Set<String> exact = new HashSet<>();
+        Set<String> loopback = new HashSet<>();
+        for (String redirectUri : redirectUris) {
+            URI uri = parse(redirectUri);
+            if (uri == null || !uri.isAbsolute() || uri.getRawFragment() != null) {
+                throw new OAuthException("invalid_redirect_uri", "Invalid redirect URI: " + redirectUri);
+            }
+            exact.add(redirectUri);
+            exact.add(canonicalize(uri, false));
+            if (isLoopback(uri)) {
+                loopback.add(canonicalize(uri, true));
+            }
+        }
+        return new RedirectUriMatcher(Set.copyOf(exact), Set.copyOf(loopback));
+    }
+
+    /**
+     * Returns whether a redirect URI from a request is registered.
+     */
+    public boolean matches(String redirectUri) {
+        if (redirectUri == null || exact.isEmpty()) {
+            return false;
+        }
+        if (exact.contains(redirectUri)) {
+            return true;
+        }
+        URI uri = parse(redirectUri);
+        if (uri == null || !uri.isAbsolute() || uri.getRawFragment() != null) {
+            return false;
+        }
+        if (exact.contains(canonicalize(uri, false))) {
+            return true;
+        }
+        return !loopback.isEmpty() && isLoopback(uri) && loopback.contains(canonicalize(uri, true));
+    }
+
+    private static URI parse(String uri) {
+        try {
+            return new URI(uri);
+        } catch (URISyntaxException e) {
+            return null;
+        }
+    }
+
+    private static boolean isLoopback(URI uri) {
+        String host = uri.getHost();
+        return "http".equalsIgnoreCase(uri.getScheme())
+            && ("127.0.0.1".equals(host) || "[::1]".equals(host));
+    }
+
+    private static String canonicalize(URI uri, boolean withoutPort) {
+        String scheme = uri.getScheme().toLowerCase(Locale.ROOT);
+        if (uri.getRawAuthority() == null) {
+            // Private-use schemes of native apps, such as com.example.app:/callback
+            return scheme + ":" + uri.getRawSchemeSpecificPart();
+        }
+
+        StringBuilder canonical = new StringBuilder(scheme).append("://");
+        if (uri.getHost() == null) {
+            canonical.append(uri.getRawAuthority().toLowerCase(Locale.ROOT));
+        } else {
+            if (uri.getRawUserInfo() != null) {
+                canonical.append(uri.getRawUserInfo()).append('@');
+            }
+            canonical.append(uri.getHost().toLowerCase(Locale.ROOT));
+            int port = uri.getPort();
+            if (!withoutPort && port != -1 && port != defaultPort(scheme)) {
+                canonical.append(':').append(port);
+            }
+        }
+        String path = uri.getRawPath();
+        canonical.append(path == null || path.isEmpty() ? "/" : path);
+        if (uri.getRawQuery() != null) {
+            canonical.append('?').append(uri.getRawQuery());
+        }
+        return canonical.toString();
+    }
+
+    private static int defaultPort(String scheme) {
+        return switch (scheme) {
+            case "http" -> 80;
+            case "https" -> 443;
+            default -> -1;
+        };
+    }
+}
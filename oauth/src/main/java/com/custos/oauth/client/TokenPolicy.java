@@ -0,0 +1,118 @@
+package com.custos.oauth.client;
+
+import com.custos.oauth.model.ClientRegistrationResponse;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * How tokens are issued to a client: their lifetimes, the extra claims placed in access tokens,
+ * whether refresh tokens are rotated on use and whether client credentials tokens are reused.
+ * Compiled once per registration, with the server-wide defaults filling in whatever the client
+ * did not set.
+ */
+@Getter
+public class TokenPolicy {
+
+    /**
+     * Claims set by the server itself, which a client may not override.
+     */
+    public static final Set<String> RESERVED_CLAIMS = Set.of(
+        "iss", "sub", "aud", "exp", "nbf", "iat", "jti", "scope", "client_id", "token_type", "act", "cnf");
+
+    /**
+     * The longest access token lifetime a client may register, in seconds.
+     */
+    public static final long MAX_ACCESS_TOKEN_LIFETIME = 24 * 60 * 60;
+
+    /**
+     * The longest refresh token lifetime a client may register, in seconds.
+     */
+    public static final long MAX_REFRESH_TOKEN_LIFETIME = 365L * 24 * 60 * 60;
+
+    /**
+     * Access token lifetime in seconds.
+     */
+    private final long accessTokenLifetime;
+
+    /**
+     * Refresh token lifetime in seconds, or 0 if the client gets no refresh tokens.
+     */
+    private final long refreshTokenLifetime;
+
+    /**
+     * Whether a refresh token is replaced by a new one each time it is used.
+     */
+    private final boolean refreshTokenRotation;
+
+    /**
+     * The fraction of a client credentials token's lifetime that must remain for it to be
+     * handed out again, or null if every request gets a new token.
+     */
+    private final Double tokenReuseThreshold;
+
+    /**
+     * Additional claims placed in every access token issued to the client.
+     */
+    private final Map<String, Object> tokenClaims;
+
+    @Builder(toBuilder = true)
+    public TokenPolicy(long accessTokenLifetime, long refreshTokenLifetime, boolean refreshTokenRotation,
+                       Double tokenReuseThreshold, Map<String, Object> tokenClaims) {
+        this.accessTokenLifetime = accessTokenLifetime;
+        this.refreshTokenLifetime = refreshTokenLifetime;
+        this.refreshTokenRotation = refreshTokenRotation;
+        this.tokenReuseThreshold = tokenReuseThreshold;
+        this.tokenClaims = tokenClaims == null ? Map.of() : Map.copyOf(tokenClaims);
+    }
+
+    /**
+     * Returns the policy for clients that do not override anything.
+     *
+     * @param accessTokenLifetime The default access token lifetime in seconds
+     * @param refreshTokenLifetime The default refresh token lifetime in seconds
+     */
+    public static TokenPolicy defaults(long accessTokenLifetime, long refreshTokenLifetime) {
+        return new TokenPolicy(accessTokenLifetime, refreshTokenLifetime, true, null, Map.of());
+    }
+
+    /**
+     * Applies the overrides of a registration to this policy.
+     *
+     * @param registration The client registration
+     * @return The client's policy, or this policy if the registration overrides nothing
+     */
+    public TokenPolicy compile(ClientRegistrationResponse registration) {
+        if (registration.getAccessTokenLifetime() == null && registration.getRefreshTokenLifetime() == null
+            && registration.getRefreshTokenRotation() == null && registration.getTokenReuseThreshold() == null
+            && registration.getTokenClaims() == null) {
+            return this;
+        }
+        TokenPolicyBuilder builder = toBuilder();
+        if (registration.getAccessTokenLifetime() != null) {
+            builder.accessTokenLifetime(registration.getAccessTokenLifetime());
+        }
+        if (registration.getRefreshTokenLifetime() != null) {
+            builder.refreshTokenLifetime(registration.getRefreshTokenLifetime());
+        }
+        if (registration.getRefreshTokenRotation() != null) {
+            builder.refreshTokenRotation(registration.getRefreshTokenRotation());
+        }
+        if (registration.getTokenReuseThreshold() != null) {
+            builder.tokenReuseThreshold(registration.getTokenReuseThreshold());
+        }
+        if (registration.getTokenClaims() != null) {
+            builder.tokenClaims(registration.getTokenClaims());
+        }
+        return builder.build();
+    }
+
+    /**
+     * Returns whether refresh tokens are issued at all.
+     */
+    public boolean issuesRefreshTokens() {
+        return refreshTokenLifetime > 0;
+    }
+}
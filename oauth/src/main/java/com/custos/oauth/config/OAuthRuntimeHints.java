@@ -0,0 +1,84 @@
+package com.custos.oauth.config;
+
+import com.custos.oauth.AuthorizationEndpoint;
+import com.custos.oauth.ClientRegistrationEndpoint;
+import com.custos.oauth.DeviceAuthorizationEndpoint;
+import com.custos.oauth.JwksEndpoint;
+import com.custos.oauth.PushedAuthorizationEndpoint;
+import com.custos.oauth.TokenEndpoint;
+import com.custos.oauth.TokenIntrospectionEndpoint;
+import com.custos.oauth.TokenRevocationEndpoint;
+import com.custos.oauth.UserInfoEndpoint;
+import com.custos.oauth.exception.OAuthException;
+import com.custos.oauth.model.AuthorizationRequest;
+import com.custos.oauth.model.AuthorizationResponse;
+import com.custos.oauth.model.ClientImportResult;
+import com.custos.oauth.model.ClientRegistrationRequest;
+import com.custos.oauth.model.ClientRegistrationResponse;
+import com.custos.oauth.model.DeviceAuthorizationRequest;
+import com.custos.oauth.model.DeviceAuthorizationResponse;
+import com.custos.oauth.model.PushedAuthorizationRequest;
+import com.custos.oauth.model.PushedAuthorizationResponse;
+import com.custos.oauth.model.TokenIntrospectionRequest;
+import com.custos.oauth.model.TokenIntrospectionResponse;
+import com.custos.oauth.model.TokenRequest;
+import com.custos.oauth.model.TokenResponse;
+import com.custos.oauth.model.TokenRevocationRequest;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+import java.util.List;
+
+/**
+ * Reachability metadata for the native image that Spring AOT cannot infer on its own.
+ * <p>
+ * Request and response bodies are bound by Jackson, including where they are not the declared
+ * parameter or return type of a handler method. Discovery reads the request mappings of the
+ * endpoint classes, and the schema and data scripts live outside the default locations.
+ */
+public class OAuthRuntimeHints implements RuntimeHintsRegistrar {
+
+    private static final List<Class<?>> BOUND_TYPES = List.of(
+        TokenRequest.class,
+        TokenResponse.class,
+        ClientRegistrationRequest.class,
+        ClientRegistrationResponse.class,
+        ClientImportResult.class,
+        TokenIntrospectionRequest.class,
+        TokenIntrospectionResponse.class,
+        TokenRevocationRequest.class,
+        AuthorizationRequest.class,
+        AuthorizationResponse.class,
+        PushedAuthorizationRequest.class,
+        PushedAuthorizationResponse.class,
+        DeviceAuthorizationRequest.class,
+        DeviceAuthorizationResponse.class,
+        OAuthException.class);
+
+    private static final List<Class<?>> ADVERTISED_ENDPOINTS = List.of(
+        AuthorizationEndpoint.class,
+        TokenEndpoint.class,
+        TokenIntrospectionEndpoint.class,
+        TokenRevocationEndpoint.class,
+        PushedAuthorizationEndpoint.class,
+        DeviceAuthorizationEndpoint.class,
+        ClientRegistrationEndpoint.class,
+        UserInfoEndpoint.class,
+        JwksEndpoint.class);
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        BindingReflectionHintsRegistrar binding = new BindingReflectionHintsRegistrar();
+        for (Class<?> type : BOUND_TYPES) {
+            binding.registerReflectionHints(hints.reflection(), type);
+        }
+
+        // Registered types keep their annotations in the image
+        for (Class<?> endpoint : ADVERTISED_ENDPOINTS) {
+            hints.reflection().registerType(endpoint);
+        }
+
+        hints.resources().registerPattern("sql/*.sql");
+    }
+}
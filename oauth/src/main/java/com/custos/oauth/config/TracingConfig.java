@@ -0,0 +1,60 @@
+package com.custos.oauth.config;
+
+import com.custos.oauth.tracing.RecentSpanExporter;
+import com.custos.oauth.tracing.Spans;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.propagation.ContextPropagators;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+
+/**
+ * Tracing with the OpenTelemetry SDK. Traces are sampled at their root, by trace ID, with
+ * {@code custos.tracing.sample-ratio}; a request that arrives with a sampled parent is always
+ * traced. Finished spans are kept in memory by a {@link RecentSpanExporter}, and any other
+ * {@code SpanExporter} can be added to the tracer provider to ship them to a collector.
+ */
+@Configuration
+public class TracingConfig {
+
+    private static final AttributeKey<String> SERVICE_NAME = AttributeKey.stringKey("service.name");
+
+    @Bean
+    public RecentSpanExporter recentSpanExporter(@Value("${custos.tracing.buffer-size:2048}") int bufferSize) {
+        return new RecentSpanExporter(bufferSize);
+    }
+
+    @Bean(destroyMethod = "close")
+    public OpenTelemetrySdk openTelemetry(RecentSpanExporter recentSpanExporter,
+                                          @Value("${custos.tracing.sample-ratio:0.01}") double sampleRatio) {
+        SdkTracerProvider tracerProvider = SdkTracerProvider.builder()
+            .setResource(Resource.getDefault().merge(Resource.create(Attributes.of(SERVICE_NAME, "custos-oauth"))))
+            .setSampler(Sampler.parentBased(Sampler.traceIdRatioBased(sampleRatio)))
+            .addSpanProcessor(SimpleSpanProcessor.create(recentSpanExporter))
+            .build();
+        OpenTelemetrySdk openTelemetry = OpenTelemetrySdk.builder()
+            .setTracerProvider(tracerProvider)
+            .setPropagators(ContextPropagators.create(W3CTraceContextPropagator.getInstance()))
+            .build();
+        Spans.install(openTelemetry.getTracer(Spans.INSTRUMENTATION_NAME));
+        return openTelemetry;
+    }
+
+    /**
+     * Carries the trace context into tasks run by Spring's task executor, such as {@code @Async}
+     * methods and asynchronous request processing.
+     */
+    @Bean
+    public TaskDecorator tracingTaskDecorator() {
+        return runnable -> Context.current().wrap(runnable);
+    }
+}
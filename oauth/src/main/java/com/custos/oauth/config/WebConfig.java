@@ -0,0 +1,21 @@
+package com.custos.oauth.config;
+
+import com.custos.oauth.web.OAuthResponseMessageConverter;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Spring MVC configuration for the OAuth endpoints.
+ */
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // Token and introspection responses bypass Jackson, so the converter has to come first
+        converters.add(0, new OAuthResponseMessageConverter());
+    }
+}
@@ -1,12 +1,14 @@
 package com.custos.oauth.controller;
 
 import com.custos.oauth.service.UserService;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 
+@Lazy
 @Controller
 public class AuthController {
 
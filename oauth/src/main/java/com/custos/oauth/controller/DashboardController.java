@@ -1,10 +1,12 @@
 package com.custos.oauth.controller;
 
+import org.springframework.context.annotation.Lazy;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 
+@Lazy
 @Controller
 public class DashboardController {
 
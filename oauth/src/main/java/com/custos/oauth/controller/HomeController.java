@@ -1,8 +1,10 @@
 package com.custos.oauth.controller;
 
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
 
+@Lazy
 @Controller
 public class HomeController {
 
@@ -0,0 +1,175 @@
+package com.custos.oauth.device;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A device authorization (RFC 8628) waiting for, or holding, the user's decision.
+ * <p>
+ * The state is changed with compare-and-set only, so polls, approvals and redemptions never lock:
+ * the decision moves once from pending to approved or denied, and an approval is redeemed once.
+ * The polling window is a single packed word, so enforcing {@code slow_down} is one
+ * compare-and-set per poll.
+ */
+public class DeviceAuthorization {
+
+    public enum Status {
+        PENDING, APPROVED, DENIED, REDEEMED
+    }
+
+    /**
+     * Added to the polling interval each time the device polls too early, as RFC 8628 requires.
+     */
+    static final int SLOW_DOWN_SECONDS = 5;
+
+    static final int MAX_INTERVAL_SECONDS = 3600;
+
+    private static final int TIME_BITS = 48;
+    private static final long TIME_MASK = (1L << TIME_BITS) - 1;
+
+    private static final Decision PENDING = new Decision(Status.PENDING, null);
+
+    private final String deviceCode;
+    private final String userCode;
+    private final String clientId;
+    private final String scope;
+    private final String tenantId;
+    private final long expiresAt;
+
+    private final AtomicReference<Decision> decision = new AtomicReference<>(PENDING);
+    private final CompletableFuture<Void> decided = new CompletableFuture<>();
+
+    /**
+     * The polling interval in seconds above {@link #TIME_BITS}, and below them the epoch millisecond
+     * before which the next poll is too early.
+     */
+    private final AtomicLong pollWindow;
+
+    DeviceAuthorization(String deviceCode, String userCode, String clientId, String scope, String tenantId,
+                        long createdAt, long expiresAt, int intervalSeconds) {
+        this.deviceCode = deviceCode;
+        this.userCode = userCode;
+        this.clientId = clientId;
+        this.scope = scope;
+        this.tenantId = tenantId;
+        this.expiresAt = expiresAt;
+        // The first poll is never too early
+        this.pollWindow = new AtomicLong(pack(intervalSeconds, createdAt));
+    }
+
+    public String getDeviceCode() {
+        return deviceCode;
+    }
+
+    public String getUserCode() {
+        return userCode;
+    }
+
+    public String getClientId() {
+        return clientId;
+    }
+
+    public String getScope() {
+        return scope;
+    }
+
+    String getTenantId() {
+        return tenantId;
+    }
+
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    public Status getStatus() {
+        return decision.get().status();
+    }
+
+    /**
+     * Returns the user who approved the request, or null if it has not been approved.
+     */
+    public String getUsername() {
+        return decision.get().username();
+    }
+
+    /**
+     * Returns the current polling interval in seconds.
+     */
+    public int getInterval() {
+        return (int) (pollWindow.get() >>> TIME_BITS);
+    }
+
+    /**
+     * Returns a future completed when the user approves or denies the request. It is shared, so
+     * callers that add a timeout should do so on a {@link CompletableFuture#copy() copy}.
+     */
+    public CompletableFuture<Void> getDecision() {
+        return decided;
+    }
+
+    /**
+     * Records a poll by the device.
+     *
+     * @param now The time of the poll in epoch milliseconds
+     * @return False if the device polled before its interval had passed; the interval is then
+     *         increased for this and every later poll
+     */
+    boolean tryPoll(long now) {
+        while (true) {
+            long window = pollWindow.get();
+            int interval = (int) (window >>> TIME_BITS);
+            boolean allowed = now >= (window & TIME_MASK);
+            if (!allowed) {
+                interval = Math.min(interval + SLOW_DOWN_SECONDS, MAX_INTERVAL_SECONDS);
+            }
+            if (pollWindow.compareAndSet(window, pack(interval, now + interval * 1000L))) {
+                return allowed;
+            }
+        }
+    }
+
+    /**
+     * Approves the request on behalf of a user.
+     *
+     * @return False if the request had already been decided
+     */
+    public boolean approve(String username) {
+        return decide(new Decision(Status.APPROVED, username));
+    }
+
+    /**
+     * Denies the request.
+     *
+     * @return False if the request had already been decided
+     */
+    public boolean deny() {
+        return decide(new Decision(Status.DENIED, null));
+    }
+
+    /**
+     * Claims an approved request for token issuance.
+     *
+     * @return False if the request is not approved or was already redeemed
+     */
+    public boolean redeem() {
+        Decision current = decision.get();
+        return current.status() == Status.APPROVED
+            && decision.compareAndSet(current, new Decision(Status.REDEEMED, current.username()));
+    }
+
+    private boolean decide(Decision outcome) {
+        if (!decision.compareAndSet(PENDING, outcome)) {
+            return false;
+        }
+        decided.complete(null);
+        return true;
+    }
+
+    private static long pack(int intervalSeconds, long nextPollAt) {
+        return ((long) intervalSeconds << TIME_BITS) | (nextPollAt & TIME_MASK);
+    }
+
+    private record Decision(Status status, String username) {
+    }
+}
@@ -0,0 +1,198 @@
+package com.custos.oauth.device;
+
+import com.custos.oauth.cache.ExpiringCache;
+import com.custos.oauth.tenant.TenantContextHolder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Holds device authorizations (RFC 8628) from the device authorization request until the device
+ * redeems the approval or they expire.
+ * <p>
+ * Each authorization is indexed twice: by device code for the device polling the token endpoint,
+ * and by user code for the verification page. Both indexes are concurrent maps, so lookups never
+ * lock, and both are bounded; if the store fills up with live authorizations, some are dropped, with
+ * a warning, and their devices have to start again. Each index evicts on its own, so an authorization is only
+ * found while both still hold it, and is dropped from both as soon as either has lost it.
+ */
+@Slf4j
+@Component
+public class DeviceAuthorizationStore {
+
+    /**
+     * Consonants only, as suggested by RFC 8628, so that user codes cannot spell words.
+     */
+    private static final char[] USER_CODE_ALPHABET = "BCDFGHJKLMNPQRSTVWXZ".toCharArray();
+    private static final int USER_CODE_LENGTH = 8;
+    private static final int DEVICE_CODE_BYTES = 32;
+
+    private final SecureRandom random = new SecureRandom();
+    private final Duration lifetime;
+    private final int intervalSeconds;
+    private final Duration maxWait;
+    private final Clock clock;
+    private final ExpiringCache<String, DeviceAuthorization> byDeviceCode;
+    private final ExpiringCache<String, DeviceAuthorization> byUserCode;
+
+    public DeviceAuthorizationStore() {
+        this(Duration.ofMinutes(10), Duration.ofSeconds(5), Duration.ofSeconds(30), 10_000);
+    }
+
+    /**
+     * Creates the store.
+     *
+     * @param lifetime How long a device code and user code stay valid
+     * @param interval The initial polling interval
+     * @param maxWait The longest a poll may wait for the user's decision
+     * @param maxRequests The most authorizations held at once
+     */
+    @Autowired
+    public DeviceAuthorizationStore(@Value("${custos.device.lifetime:10m}") Duration lifetime,
+                                    @Value("${custos.device.interval:5s}") Duration interval,
+                                    @Value("${custos.device.max-wait:30s}") Duration maxWait,
+                                    @Value("${custos.device.max-requests:10000}") int maxRequests) {
+        this(lifetime, interval, maxWait, maxRequests, Clock.systemUTC());
+    }
+
+    DeviceAuthorizationStore(Duration lifetime, Duration interval, Duration maxWait, int maxRequests, Clock clock) {
+        this.lifetime = lifetime;
+        this.intervalSeconds = (int) interval.toSeconds();
+        this.maxWait = maxWait;
+        this.clock = clock;
+        // Both indexes fill up together, so only one of them reports it
+        this.byDeviceCode = new ExpiringCache<>(maxRequests, lifetime, clock, evicted -> log.warn(
+            "Device authorization store is full ({} authorizations); dropped {} pending authorizations, "
+                + "whose devices must start again", maxRequests, evicted));
+        this.byUserCode = new ExpiringCache<>(maxRequests, lifetime, clock);
+    }
+
+    /**
+     * Starts a device authorization for the tenant bound to the current thread.
+     *
+     * @param clientId The client, already authenticated
+     * @param scope The requested scope, already validated; may be null
+     * @return The new authorization
+     */
+    public DeviceAuthorization create(String clientId, String scope) {
+        long now = clock.millis();
+        String userCode = newUserCode();
+        while (byUserCode.get(userCode) != null) {
+            userCode = newUserCode();
+        }
+        DeviceAuthorization authorization = new DeviceAuthorization(newDeviceCode(), userCode, clientId, scope,
+            TenantContextHolder.currentId(), now, now + lifetime.toMillis(), intervalSeconds);
+        byDeviceCode.put(authorization.getDeviceCode(), authorization, authorization.getExpiresAt());
+        byUserCode.put(userCode, authorization, authorization.getExpiresAt());
+        return authorization;
+    }
+
+    /**
+     * Returns the authorization a device is polling for.
+     *
+     * @param deviceCode The device code
+     * @return The authorization, or null if it is unknown, expired or belongs to another tenant
+     */
+    public DeviceAuthorization findByDeviceCode(String deviceCode) {
+        return inTenant(deviceCode == null ? null : indexed(byDeviceCode.get(deviceCode)));
+    }
+
+    /**
+     * Returns the authorization a user entered the code of.
+     *
+     * @param userCode The user code, in any case and with or without separators
+     * @return The authorization, or null if it is unknown, expired or belongs to another tenant
+     */
+    public DeviceAuthorization findByUserCode(String userCode) {
+        return inTenant(userCode == null ? null : indexed(byUserCode.get(normalize(userCode))));
+    }
+
+    /**
+     * Drops an authorization once it has been redeemed or denied.
+     */
+    public void remove(DeviceAuthorization authorization) {
+        // A user code dropped from its index may already have been handed to a newer authorization
+        byDeviceCode.remove(authorization.getDeviceCode(), authorization);
+        byUserCode.remove(authorization.getUserCode(), authorization);
+    }
+
+    public long getLifetimeSeconds() {
+        return lifetime.toSeconds();
+    }
+
+    public Duration getMaxWait() {
+        return maxWait;
+    }
+
+    /**
+     * Records a poll by the device.
+     *
+     * @param authorization The authorization polled for
+     * @return False if the device polled before its interval had passed and must slow down
+     */
+    public boolean poll(DeviceAuthorization authorization) {
+        return authorization.tryPoll(clock.millis());
+    }
+
+    /**
+     * Formats a user code for display, as two groups of four letters.
+     */
+    public static String format(String userCode) {
+        return userCode.substring(0, USER_CODE_LENGTH / 2) + "-" + userCode.substring(USER_CODE_LENGTH / 2);
+    }
+
+    private static String normalize(String userCode) {
+        StringBuilder normalized = new StringBuilder(USER_CODE_LENGTH);
+        for (int i = 0; i < userCode.length(); i++) {
+            char c = userCode.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                normalized.append(c);
+            }
+        }
+        return normalized.toString().toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Returns an authorization found in one index if the other still holds it too, and otherwise
+     * drops it from both, so that a user code never leads to a device code that no longer polls or
+     * the reverse.
+     */
+    private DeviceAuthorization indexed(DeviceAuthorization authorization) {
+        if (authorization == null) {
+            return null;
+        }
+        if (byDeviceCode.get(authorization.getDeviceCode()) != authorization
+                || byUserCode.get(authorization.getUserCode()) != authorization) {
+            remove(authorization);
+            return null;
+        }
+        return authorization;
+    }
+
+    private static DeviceAuthorization inTenant(DeviceAuthorization authorization) {
+        return authorization != null && Objects.equals(authorization.getTenantId(), TenantContextHolder.currentId())
+            ? authorization : null;
+    }
+
+    private String newUserCode() {
+        char[] code = new char[USER_CODE_LENGTH];
+        for (int i = 0; i < code.length; i++) {
+            code[i] = USER_CODE_ALPHABET[random.nextInt(USER_CODE_ALPHABET.length)];
+        }
+        return new String(code);
+    }
+
+    private String newDeviceCode() {
+        byte[] code = new byte[DEVICE_CODE_BYTES];
+        random.nextBytes(code);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(code);
+    }
+}
@@ -0,0 +1,273 @@
+package com.custos.oauth.dpop;
+
+import com.custos.oauth.cache.ExpiringCache;
+import com.custos.oauth.exception.OAuthException;
+import com.custos.oauth.tracing.Spans;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JOSEObjectType;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.ECDSAVerifier;
+import com.nimbusds.jose.crypto.RSASSAVerifier;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.KeyType;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.ParseException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * Validates DPoP proofs (RFC 9449 section 4.3), the JWTs with which a client proves possession of
+ * the key its tokens are bound to.
+ * <p>
+ * Verifiers for the proof keys are cached by JWK thumbprint, so that a client sending a proof
+ * with every request has its key parsed once. Proof identifiers are remembered in a
+ * {@link ProofReplayCache} until the proof is too old to be accepted anyway.
+ */
+@Slf4j
+@Component
+public class DPoPProofVerifier {
+
+    /**
+     * The request header carrying the proof.
+     */
+    public static final String HEADER = "DPoP";
+
+    /**
+     * The type of tokens bound to a DPoP key, in token responses and in the token_type claim.
+     */
+    public static final String TOKEN_TYPE = "DPoP";
+
+    /**
+     * The confirmation method of tokens bound to a DPoP key.
+     */
+    public static final String CONFIRMATION_METHOD = "jkt";
+
+    static final JOSEObjectType PROOF_TYPE = new JOSEObjectType("dpop+jwt");
+
+    /**
+     * Allowed clock difference for proofs issued slightly in the future.
+     */
+    static final long CLOCK_SKEW_MILLIS = 60 * 1000;
+
+    private static final Duration BUCKET_WIDTH = Duration.ofSeconds(1);
+    private static final int SHARDS_PER_BUCKET = 16;
+    private static final int MAX_KEYS = 10_000;
+    private static final Duration KEY_TTL = Duration.ofHours(1);
+    private static final int DEFAULT_MAX_PROOFS = 1_000_000;
+
+    private final long proofLifetimeMillis;
+    private final Clock clock;
+    private final ExpiringCache<String, JWSVerifier> verifiers;
+    private final ProofReplayCache replayCache;
+
+    public DPoPProofVerifier() {
+        this(Duration.ofSeconds(60), DEFAULT_MAX_PROOFS);
+    }
+
+    /**
+     * Creates the verifier.
+     *
+     * @param proofLifetime How long after it was issued a proof is accepted
+     * @param maxProofs The most recent proofs remembered to detect replays
+     */
+    @Autowired
+    public DPoPProofVerifier(@Value("${custos.dpop.proof-lifetime:60s}") Duration proofLifetime,
+                             @Value("${custos.dpop.max-proofs:" + DEFAULT_MAX_PROOFS + "}") int maxProofs) {
+        this(proofLifetime, maxProofs, Clock.systemUTC());
+    }
+
+    DPoPProofVerifier(Duration proofLifetime, int maxProofs, Clock clock) {
+        this.proofLifetimeMillis = proofLifetime.toMillis();
+        this.clock = clock;
+        this.verifiers = new ExpiringCache<>(MAX_KEYS, KEY_TTL, clock);
+        this.replayCache = new ProofReplayCache(proofLifetime.plusMillis(CLOCK_SKEW_MILLIS), BUCKET_WIDTH,
+            SHARDS_PER_BUCKET, maxProofs);
+    }
+
+    /**
+     * Validates a proof sent with a request.
+     *
+     * @param proof The value of the DPoP header
+     * @param method The HTTP method of the request
+     * @param uri The URI of the endpoint called, without query or fragment
+     * @return The JWK SHA-256 thumbprint (RFC 7638) of the proof key, to bind tokens to
+     * @throws OAuthException invalid_dpop_proof if the proof is not valid for the request
+     */
+    public String verify(String proof, String method, String uri) throws OAuthException {
+        return verify(proof, method, uri, null);
+    }
+
+    /**
+     * Validates a proof sent with a request presenting a DPoP-bound access token, which must
+     * carry the token's hash in its ath claim (RFC 9449 section 4.3).
+     *
+     * @param proof The value of the DPoP header
+     * @param method The HTTP method of the request
+     * @param uri The URI of the endpoint called, without query or fragment
+     * @param accessToken The access token presented with the proof
+     * @return The JWK SHA-256 thumbprint (RFC 7638) of the proof key, to compare with the token's binding
+     * @throws OAuthException invalid_dpop_proof if the proof is not valid for the request and token
+     */
+    public String verify(String proof, String method, String uri, String accessToken) throws OAuthException {
+        SignedJWT jwt;
+        JWTClaimsSet claims;
+        String htm;
+        String htu;
+        String ath;
+        try {
+            jwt = SignedJWT.parse(proof);
+            claims = jwt.getJWTClaimsSet();
+            htm = claims.getStringClaim("htm");
+            htu = claims.getStringClaim("htu");
+            ath = claims.getStringClaim("ath");
+        } catch (ParseException e) {
+            throw invalid("Malformed DPoP proof");
+        }
+
+        JWSHeader header = jwt.getHeader();
+        if (!PROOF_TYPE.equals(header.getType())) {
+            throw invalid("DPoP proof must have type dpop+jwt");
+        }
+        JWSAlgorithm algorithm = header.getAlgorithm();
+        if (!JWSAlgorithm.Family.RSA.contains(algorithm) && !JWSAlgorithm.Family.EC.contains(algorithm)) {
+            throw invalid("Unsupported DPoP proof algorithm");
+        }
+        JWK jwk = header.getJWK();
+        if (jwk == null || jwk.isPrivate()) {
+            throw invalid("DPoP proof must carry a public key");
+        }
+        String thumbprint = thumbprint(jwk);
+        if (!verify(jwt, verifier(thumbprint, jwk))) {
+            throw invalid("Invalid DPoP proof signature");
+        }
+
+        if (!method.equals(htm) || !sameUri(htu, uri)) {
+            throw invalid("DPoP proof is not for this request");
+        }
+        if (accessToken != null && !accessTokenHash(accessToken).equals(ath)) {
+            throw invalid("DPoP proof is not for this access token");
+        }
+        long now = clock.millis();
+        Date issuedAt = claims.getIssueTime();
+        if (issuedAt == null || issuedAt.getTime() > now + CLOCK_SKEW_MILLIS) {
+            throw invalid("DPoP proof is not yet valid");
+        }
+        long expiresAt = issuedAt.getTime() + proofLifetimeMillis;
+        if (expiresAt <= now) {
+            throw invalid("DPoP proof has expired");
+        }
+
+        // Recorded only once the signature holds, so that forged proofs cannot fill the cache
+        if (claims.getJWTID() == null) {
+            throw invalid("DPoP proof must have a jti");
+        }
+        if (!replayCache.tryRecord(thumbprint, claims.getJWTID(), expiresAt, now)) {
+            throw invalid("DPoP proof has already been used");
+        }
+        return thumbprint;
+    }
+
+    private JWSVerifier verifier(String thumbprint, JWK jwk) {
+        JWSVerifier verifier = verifiers.get(thumbprint);
+        if (verifier == null) {
+            verifier = toVerifier(jwk);
+            verifiers.put(thumbprint, verifier);
+        }
+        return verifier;
+    }
+
+    private static JWSVerifier toVerifier(JWK jwk) {
+        try {
+            if (KeyType.RSA.equals(jwk.getKeyType())) {
+                return new RSASSAVerifier(jwk.toRSAKey());
+            }
+            if (KeyType.EC.equals(jwk.getKeyType())) {
+                return new ECDSAVerifier(jwk.toECKey());
+            }
+        } catch (JOSEException e) {
+            log.debug("Unusable DPoP proof key: {}", e.getMessage());
+        }
+        throw invalid("Unsupported DPoP proof key");
+    }
+
+    private static String thumbprint(JWK jwk) {
+        try {
+            return jwk.computeThumbprint().toString();
+        } catch (JOSEException e) {
+            throw invalid("Unsupported DPoP proof key");
+        }
+    }
+
+    private static boolean verify(SignedJWT jwt, JWSVerifier verifier) {
+        try {
+            return Spans.call("jwt.verify", () -> jwt.verify(verifier));
+        } catch (JOSEException e) {
+            log.debug("DPoP proof verification failed: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Returns the ath claim value expected for an access token: the base64url-encoded SHA-256
+     * hash of its ASCII encoding.
+     */
+    static String accessTokenHash(String accessToken) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(accessToken.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Compares the htu claim with the endpoint URI, ignoring the claim's query and fragment and the
+     * case of its scheme and host (RFC 9449 section 4.3).
+     */
+    static boolean sameUri(String htu, String uri) {
+        if (htu == null) {
+            return false;
+        }
+        try {
+            URI actual = new URI(htu);
+            URI expected = new URI(uri);
+            return actual.getScheme() != null && actual.getScheme().equalsIgnoreCase(expected.getScheme())
+                && actual.getHost() != null && actual.getHost().equalsIgnoreCase(expected.getHost())
+                && port(actual) == port(expected)
+                && normalizedPath(actual).equals(normalizedPath(expected));
+        } catch (URISyntaxException e) {
+            return false;
+        }
+    }
+
+    private static int port(URI uri) {
+        if (uri.getPort() != -1) {
+            return uri.getPort();
+        }
+        return "https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80;
+    }
+
+    private static String normalizedPath(URI uri) {
+        String path = uri.getRawPath();
+        return path == null || path.isEmpty() ? "/" : path;
+    }
+
+    private static OAuthException invalid(String description) {
+        return new OAuthException("invalid_dpop_proof", description);
+    }
+}
@@ -0,0 +1,142 @@
+package com.custos.oauth.dpop;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Remembers the {@code jti} of every DPoP proof until the proof is too old to be accepted, so that
+ * each proof is accepted only once (RFC 9449 section 11.1).
+ * <p>
+ * Proofs are grouped into fixed-width time buckets by the instant they stop being acceptable. The
+ * buckets form a ring that spans the retention period, so the slot of a new bucket always holds
+ * one whose proofs have all expired, and that bucket is dropped as a whole by replacing it. Each
+ * bucket spreads its proofs over shards with their own lock; nothing is swept entry by entry.
+ * A full bucket refuses new proofs rather than forgetting live ones.
+ */
+@Slf4j
+class ProofReplayCache {
+
+    private final long bucketMillis;
+    private final int shardCount;
+    private final int bucketCapacity;
+    private final AtomicReferenceArray<Bucket> buckets;
+
+    /**
+     * Creates the cache.
+     *
+     * @param retention The longest time a proof is remembered
+     * @param bucketWidth The time span of one bucket
+     * @param shardCount The number of shards per bucket, a power of two
+     * @param maxEntries The most proofs remembered at once
+     */
+    ProofReplayCache(Duration retention, Duration bucketWidth, int shardCount, int maxEntries) {
+        if (Integer.bitCount(shardCount) != 1) {
+            throw new IllegalArgumentException("shardCount must be a power of two");
+        }
+        this.bucketMillis = bucketWidth.toMillis();
+        this.shardCount = shardCount;
+        // Two spare buckets: the one being filled, and the one straddling the expiry boundary
+        int bucketCount = (int) ((retention.toMillis() + bucketMillis - 1) / bucketMillis) + 2;
+        this.bucketCapacity = Math.max(1, maxEntries / bucketCount);
+        this.buckets = new AtomicReferenceArray<>(bucketCount);
+    }
+
+    /**
+     * Records the use of a proof.
+     *
+     * @param keyThumbprint The thumbprint of the key that signed the proof
+     * @param jti The proof's identifier
+     * @param expiresAtMillis When the proof stops being accepted, as epoch milliseconds; at most the
+     *                        retention period from now
+     * @param now The current time as epoch milliseconds
+     * @return False if the proof was already used, or cannot be remembered because its bucket is full
+     */
+    boolean tryRecord(String keyThumbprint, String jti, long expiresAtMillis, long now) {
+        if (expiresAtMillis <= now) {
+            return false;
+        }
+        long epoch = Math.floorDiv(expiresAtMillis, bucketMillis) + 1;
+        Bucket bucket = bucket(epoch);
+        if (bucket == null) {
+            return false;
+        }
+        return bucket.tryRecord(new Key(keyThumbprint, jti), bucketCapacity);
+    }
+
+    /**
+     * Returns the number of proofs remembered, including any in buckets that expired but were not
+     * yet replaced.
+     */
+    int size() {
+        int size = 0;
+        for (int i = 0; i < buckets.length(); i++) {
+            Bucket bucket = buckets.get(i);
+            if (bucket != null) {
+                size += bucket.size.get();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Returns the bucket for an epoch, replacing the expired bucket in its slot if needed, or null if
+     * the slot already moved on to a later epoch.
+     */
+    private Bucket bucket(long epoch) {
+        int slot = (int) Math.floorMod(epoch, (long) buckets.length());
+        while (true) {
+            Bucket current = buckets.get(slot);
+            if (current != null && current.epoch == epoch) {
+                return current;
+            }
+            if (current != null && current.epoch > epoch) {
+                return null;
+            }
+            Bucket replacement = new Bucket(epoch, shardCount);
+            if (buckets.compareAndSet(slot, current, replacement)) {
+                return replacement;
+            }
+        }
+    }
+
+    private record Key(String keyThumbprint, String jti) {
+    }
+
+    private static final class Bucket {
+
+        private final long epoch;
+        private final Set<Key>[] shards;
+        private final AtomicInteger size = new AtomicInteger();
+
+        @SuppressWarnings("unchecked")
+        Bucket(long epoch, int shardCount) {
+            this.epoch = epoch;
+            this.shards = new Set[shardCount];
+            for (int i = 0; i < shardCount; i++) {
+                shards[i] = new HashSet<>();
+            }
+        }
+
+        boolean tryRecord(Key key, int capacity) {
+            int hash = key.hashCode();
+            Set<Key> shard = shards[(hash ^ (hash >>> 16)) & (shards.length - 1)];
+            synchronized (shard) {
+                if (shard.contains(key)) {
+                    return false;
+                }
+                if (size.incrementAndGet() > capacity) {
+                    size.decrementAndGet();
+                    log.warn("DPoP replay cache bucket is full, refusing proof");
+                    return false;
+                }
+                shard.add(key);
+                return true;
+            }
+        }
+    }
+}
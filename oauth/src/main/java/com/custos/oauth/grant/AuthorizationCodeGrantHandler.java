@@ -1,11 +1,14 @@
 package com.custos.oauth.grant;
 
+import com.custos.oauth.client.TokenPolicy;
 import com.custos.oauth.exception.OAuthException;
 import com.custos.oauth.model.TokenRequest;
 import com.custos.oauth.model.TokenResponse;
+import com.custos.oauth.service.ClientRegistrationService;
 import com.custos.oauth.service.JwtTokenService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
 
 /**
  * Handler for the Authorization Code grant type.
@@ -13,13 +16,15 @@ import lombok.extern.slf4j.Slf4j;
  */
 @Slf4j
 @RequiredArgsConstructor
+@Component
 public class AuthorizationCodeGrantHandler implements GrantHandler {
 
+    private final ClientRegistrationService clientRegistrationService;
     private final JwtTokenService jwtTokenService;
 
     @Override
     public TokenResponse handle(TokenRequest request) {
-        log.info("Handling authorization code grant request");
+        log.debug("Handling authorization code grant request");
         
         try {
             // Validate authorization code
@@ -33,25 +38,33 @@ public class AuthorizationCodeGrantHandler implements GrantHandler {
             String scope = claimsSet.getStringClaim("scope");
             
             // Generate access token
+            TokenPolicy policy = clientRegistrationService.getTokenPolicy(request.getClientId());
             String accessToken = jwtTokenService.generateAccessToken(
                 request.getClientId(),
                 userId,
                 scope,
-                3600 // 1 hour
+                policy.getAccessTokenLifetime(),
+                policy.getTokenClaims(),
+                request.getConfirmation()
             );
             
-            // Generate refresh token
-            String refreshToken = jwtTokenService.generateRefreshToken(
-                request.getClientId(),
-                userId,
-                scope
-            );
+            // Generate refresh token unless the client's policy disables them
+            String refreshToken = null;
+            if (policy.issuesRefreshTokens()) {
+                refreshToken = jwtTokenService.generateRefreshToken(
+                    request.getClientId(),
+                    userId,
+                    scope,
+                    policy.getRefreshTokenLifetime(),
+                    request.getRefreshTokenConfirmation()
+                );
+            }
             
             // Build response
             return TokenResponse.builder()
                 .accessToken(accessToken)
                 .tokenType("Bearer")
-                .expiresIn(3600L)
+                .expiresIn(policy.getAccessTokenLifetime())
                 .refreshToken(refreshToken)
                 .scope(scope)
                 .build();
@@ -1,53 +1,83 @@
 package com.custos.oauth.grant;
 
+import com.custos.oauth.cache.ExpiringCache;
+import com.custos.oauth.client.TokenPolicy;
 import com.custos.oauth.exception.OAuthException;
 import com.custos.oauth.model.TokenRequest;
 import com.custos.oauth.model.TokenResponse;
+import com.custos.oauth.scope.ScopeRegistry;
+import com.custos.oauth.scope.ScopeSet;
 import com.custos.oauth.service.ClientRegistrationService;
 import com.custos.oauth.service.JwtTokenService;
-import lombok.RequiredArgsConstructor;
+import com.custos.oauth.tenant.TenantContextHolder;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
 
 /**
  * Handler for the Client Credentials grant type.
  * This grant type is used when the client is acting on its own behalf.
+ * Clients that opt in with a token reuse threshold get their previous token back for as long
+ * as at least that fraction of its lifetime remains, instead of a freshly signed one.
  */
 @Slf4j
-@RequiredArgsConstructor
+@Component
 public class ClientCredentialsGrantHandler implements GrantHandler {
 
+    private static final int REUSE_CACHE_SIZE = 10_000;
+
     private final ClientRegistrationService clientRegistrationService;
     private final JwtTokenService jwtTokenService;
+    private final ScopeRegistry scopeRegistry;
+    private final ExpiringCache<ReuseKey, IssuedToken> issuedTokens =
+        new ExpiringCache<>(REUSE_CACHE_SIZE, Duration.ofSeconds(TokenPolicy.MAX_ACCESS_TOKEN_LIFETIME));
+
+    public ClientCredentialsGrantHandler(ClientRegistrationService clientRegistrationService,
+                                         JwtTokenService jwtTokenService,
+                                         ScopeRegistry scopeRegistry) {
+        this.clientRegistrationService = clientRegistrationService;
+        this.jwtTokenService = jwtTokenService;
+        this.scopeRegistry = scopeRegistry;
+    }
 
     @Override
     public TokenResponse handle(TokenRequest request) {
-        log.info("Handling client credentials grant request for client: {}", request.getClientId());
-        
+        log.debug("Handling client credentials grant request for client: {}", request.getClientId());
+
         try {
-            // Validate client credentials
-            clientRegistrationService.validateClient(request.getClientId(), request.getClientSecret());
-            
             // Validate scope if provided
             if (request.getScope() != null) {
                 clientRegistrationService.validateScope(request.getClientId(), request.getScope());
             }
-            
+
+            // Reuse a previously issued token if the client opted in
+            TokenPolicy policy = clientRegistrationService.getTokenPolicy(request.getClientId());
+            if (policy.getTokenReuseThreshold() != null) {
+                return issueOrReuse(request, policy);
+            }
+
             // Generate access token
             String accessToken = jwtTokenService.generateAccessToken(
                 request.getClientId(),
                 request.getClientId(), // Use client ID as subject
                 request.getScope(),
-                3600 // 1 hour
+                policy.getAccessTokenLifetime(),
+                policy.getTokenClaims(),
+                request.getConfirmation()
             );
-            
+
             // Build response
             return TokenResponse.builder()
                 .accessToken(accessToken)
                 .tokenType("Bearer")
-                .expiresIn(3600L)
+                .expiresIn(policy.getAccessTokenLifetime())
                 .scope(request.getScope())
                 .build();
-            
+
         } catch (OAuthException e) {
             throw e;
         } catch (Exception e) {
@@ -60,4 +90,48 @@ public class ClientCredentialsGrantHandler implements GrantHandler {
     public String getGrantType() {
         return "client_credentials";
     }
-} 
\ No newline at end of file
+
+    private TokenResponse issueOrReuse(TokenRequest request, TokenPolicy policy) throws Exception {
+        // Scopes are keyed as a set so that "read write" and "write read" share a token, and tokens
+        // bound to a certificate are only handed out again to callers presenting the same one
+        ScopeSet scopes = request.getScope() == null ? null : scopeRegistry.parse(request.getScope());
+        ReuseKey key = new ReuseKey(TenantContextHolder.currentId(), request.getClientId(), scopes,
+            request.getConfirmation());
+
+        IssuedToken token = issuedTokens.get(key);
+        if (token != null && jwtTokenService.isRevoked(token.jti())) {
+            issuedTokens.remove(key);
+            token = null;
+        }
+        if (token == null) {
+            String scope = scopes == null ? null : scopeRegistry.format(scopes);
+            String accessToken = jwtTokenService.generateAccessToken(
+                request.getClientId(),
+                request.getClientId(), // Use client ID as subject
+                scope,
+                policy.getAccessTokenLifetime(),
+                policy.getTokenClaims(),
+                request.getConfirmation()
+            );
+            JWTClaimsSet claims = SignedJWT.parse(accessToken).getJWTClaimsSet();
+            long expiresAt = claims.getExpirationTime().getTime();
+            token = new IssuedToken(accessToken, claims.getJWTID(), scope, expiresAt);
+            // The entry lapses once less than the threshold fraction of the lifetime remains
+            long reuseUntil = expiresAt - (long) (policy.getTokenReuseThreshold() * policy.getAccessTokenLifetime() * 1000);
+            issuedTokens.put(key, token, reuseUntil);
+        }
+
+        return TokenResponse.builder()
+            .accessToken(token.accessToken())
+            .tokenType("Bearer")
+            .expiresIn(Math.max(0, (token.expiresAt() - System.currentTimeMillis()) / 1000))
+            .scope(token.scope())
+            .build();
+    }
+
+    private record ReuseKey(String tenantId, String clientId, ScopeSet scopes, Map<String, Object> confirmation) {
+    }
+
+    private record IssuedToken(String accessToken, String jti, String scope, long expiresAt) {
+    }
+}
@@ -0,0 +1,133 @@
+package com.custos.oauth.grant;
+
+import com.custos.oauth.client.TokenPolicy;
+import com.custos.oauth.device.DeviceAuthorization;
+import com.custos.oauth.device.DeviceAuthorizationStore;
+import com.custos.oauth.exception.OAuthException;
+import com.custos.oauth.model.TokenRequest;
+import com.custos.oauth.model.TokenResponse;
+import com.custos.oauth.service.ClientRegistrationService;
+import com.custos.oauth.service.JwtTokenService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Handler for the Device Authorization grant type (RFC 8628).
+ * The device polls with its device code until the user approves or denies the request on
+ * another device. Polling is split into {@link #poll}, which finds the authorization and enforces
+ * the polling interval, and {@link #complete}, which answers from the current decision, so that a
+ * poll can wait for the decision in between.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Component
+public class DeviceCodeGrantHandler implements GrantHandler {
+
+    public static final String GRANT_TYPE = "urn:ietf:params:oauth:grant-type:device_code";
+
+    private final DeviceAuthorizationStore deviceAuthorizationStore;
+    private final ClientRegistrationService clientRegistrationService;
+    private final JwtTokenService jwtTokenService;
+
+    @Override
+    public TokenResponse handle(TokenRequest request) {
+        return complete(request, poll(request));
+    }
+
+    /**
+     * Finds the authorization a device is polling for and records the poll.
+     *
+     * @param request The token request
+     * @return The authorization
+     * @throws OAuthException if the device code is unknown or expired, belongs to another client,
+     *         or the device polled too early
+     */
+    public DeviceAuthorization poll(TokenRequest request) {
+        log.debug("Handling device code poll for client: {}", request.getClientId());
+
+        if (request.getDeviceCode() == null) {
+            throw new OAuthException("invalid_request", "device_code is required");
+        }
+        DeviceAuthorization authorization = deviceAuthorizationStore.findByDeviceCode(request.getDeviceCode());
+        if (authorization == null) {
+            throw new OAuthException("expired_token", "Device code is unknown or expired");
+        }
+        if (!authorization.getClientId().equals(request.getClientId())) {
+            throw new OAuthException("invalid_grant", "Device code was not issued to this client");
+        }
+        if (authorization.getStatus() == DeviceAuthorization.Status.PENDING
+            && !deviceAuthorizationStore.poll(authorization)) {
+            throw new OAuthException("slow_down", "Polling too often, wait " + authorization.getInterval() + " seconds");
+        }
+        return authorization;
+    }
+
+    /**
+     * Answers a poll from the user's decision.
+     *
+     * @param request The token request
+     * @param authorization The authorization returned by {@link #poll}
+     * @return The tokens, if the user approved the request
+     * @throws OAuthException if the request is still pending, was denied or was already redeemed
+     */
+    public TokenResponse complete(TokenRequest request, DeviceAuthorization authorization) {
+        switch (authorization.getStatus()) {
+            case PENDING:
+                throw new OAuthException("authorization_pending", "The user has not yet approved the request");
+            case DENIED:
+                deviceAuthorizationStore.remove(authorization);
+                throw new OAuthException("access_denied", "The user denied the request");
+            default:
+                break;
+        }
+        if (!authorization.redeem()) {
+            throw new OAuthException("invalid_grant", "Device code has already been used");
+        }
+        deviceAuthorizationStore.remove(authorization);
+
+        try {
+            String scope = authorization.getScope();
+            TokenPolicy policy = clientRegistrationService.getTokenPolicy(request.getClientId());
+            String accessToken = jwtTokenService.generateAccessToken(
+                request.getClientId(),
+                authorization.getUsername(),
+                scope,
+                policy.getAccessTokenLifetime(),
+                policy.getTokenClaims(),
+                request.getConfirmation()
+            );
+
+            // Generate refresh token unless the client's policy disables them
+            String refreshToken = null;
+            if (policy.issuesRefreshTokens()) {
+                refreshToken = jwtTokenService.generateRefreshToken(
+                    request.getClientId(),
+                    authorization.getUsername(),
+                    scope,
+                    policy.getRefreshTokenLifetime(),
+                    request.getRefreshTokenConfirmation()
+                );
+            }
+
+            return TokenResponse.builder()
+                .accessToken(accessToken)
+                .tokenType("Bearer")
+                .expiresIn(policy.getAccessTokenLifetime())
+                .refreshToken(refreshToken)
+                .scope(scope)
+                .build();
+
+        } catch (OAuthException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("Failed to handle device code grant", e);
+            throw new OAuthException("server_error", "Failed to handle device code grant");
+        }
+    }
+
+    @Override
+    public String getGrantType() {
+        return GRANT_TYPE;
+    }
+}
@@ -1,12 +1,15 @@
 package com.custos.oauth.grant;
 
+import com.custos.oauth.client.TokenPolicy;
 import com.custos.oauth.exception.OAuthException;
 import com.custos.oauth.model.TokenRequest;
 import com.custos.oauth.model.TokenResponse;
 import com.custos.oauth.service.Authenticator;
+import com.custos.oauth.service.ClientRegistrationService;
 import com.custos.oauth.service.JwtTokenService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
 
 /**
  * Handler for the Password grant type.
@@ -14,14 +17,16 @@ import lombok.extern.slf4j.Slf4j;
  */
 @Slf4j
 @RequiredArgsConstructor
+@Component
 public class PasswordGrantHandler implements GrantHandler {
 
     private final Authenticator authenticator;
+    private final ClientRegistrationService clientRegistrationService;
     private final JwtTokenService jwtTokenService;
 
     @Override
     public TokenResponse handle(TokenRequest request) {
-        log.info("Handling password grant request for user: {}", request.getUsername());
+        log.debug("Handling password grant request for user: {}", request.getUsername());
         
         try {
             // Authenticate the user
@@ -33,25 +38,33 @@ public class PasswordGrantHandler implements GrantHandler {
             }
             
             // Generate access token
+            TokenPolicy policy = clientRegistrationService.getTokenPolicy(request.getClientId());
             String accessToken = jwtTokenService.generateAccessToken(
                 request.getClientId(),
                 userId,
                 request.getScope(),
-                3600 // 1 hour
+                policy.getAccessTokenLifetime(),
+                policy.getTokenClaims(),
+                request.getConfirmation()
             );
             
-            // Generate refresh token
-            String refreshToken = jwtTokenService.generateRefreshToken(
-                request.getClientId(),
-                userId,
-                request.getScope()
-            );
+            // Generate refresh token unless the client's policy disables them
+            String refreshToken = null;
+            if (policy.issuesRefreshTokens()) {
+                refreshToken = jwtTokenService.generateRefreshToken(
+                    request.getClientId(),
+                    userId,
+                    request.getScope(),
+                    policy.getRefreshTokenLifetime(),
+                    request.getRefreshTokenConfirmation()
+                );
+            }
             
             // Build response
             return TokenResponse.builder()
                 .accessToken(accessToken)
                 .tokenType("Bearer")
-                .expiresIn(3600L)
+                .expiresIn(policy.getAccessTokenLifetime())
                 .refreshToken(refreshToken)
                 .scope(request.getScope())
                 .build();
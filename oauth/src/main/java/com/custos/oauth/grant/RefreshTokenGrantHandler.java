@@ -1,13 +1,20 @@
 package com.custos.oauth.grant;
 
+import com.custos.oauth.client.TokenPolicy;
+import com.custos.oauth.dpop.DPoPProofVerifier;
 import com.custos.oauth.exception.OAuthException;
 import com.custos.oauth.model.TokenRequest;
 import com.custos.oauth.model.TokenResponse;
+import com.custos.oauth.service.ClientRegistrationService;
 import com.custos.oauth.service.JwtTokenService;
+import com.nimbusds.jwt.JWTClaimsSet;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.util.Map;
+import java.util.Objects;
+
 /**
  * Handler for the Refresh Token grant type.
  * This grant type is used to obtain a new access token using a refresh token.
@@ -17,15 +24,21 @@ import org.springframework.stereotype.Component;
 @Component
 public class RefreshTokenGrantHandler implements GrantHandler {
 
+    private final ClientRegistrationService clientRegistrationService;
     private final JwtTokenService jwtTokenService;
 
     @Override
     public TokenResponse handle(TokenRequest request) {
-        log.info("Handling refresh token grant for client: {}", request.getClientId());
+        log.debug("Handling refresh token grant for client: {}", request.getClientId());
         
         try {
-            // Validate the refresh token
-            var claimsSet = jwtTokenService.validateToken(request.getRefreshToken());
+            // Validate the refresh token; RFC 6749 section 5.2 reports a bad one as invalid_grant
+            JWTClaimsSet claimsSet;
+            try {
+                claimsSet = jwtTokenService.validateToken(request.getRefreshToken());
+            } catch (OAuthException e) {
+                throw new OAuthException("invalid_grant", "Invalid refresh token");
+            }
             
             // Verify the token is a refresh token
             if (!"refresh_token".equals(claimsSet.getStringClaim("token_type"))) {
@@ -38,26 +51,53 @@ public class RefreshTokenGrantHandler implements GrantHandler {
                 throw new OAuthException("invalid_client", "Token does not belong to the client");
             }
             
+            // A refresh token bound to a DPoP key is only honoured with a proof signed by that key
+            Map<String, Object> binding = claimsSet.getJSONObjectClaim("cnf");
+            Map<String, Object> presented = request.getConfirmation();
+            if (binding != null && (presented == null || !Objects.equals(
+                binding.get(DPoPProofVerifier.CONFIRMATION_METHOD), presented.get(DPoPProofVerifier.CONFIRMATION_METHOD)))) {
+                throw new OAuthException("invalid_grant", "Refresh token is bound to another key");
+            }
+            
+            // Refresh tokens issued before the client's policy disabled them are no longer honoured
+            TokenPolicy policy = clientRegistrationService.getTokenPolicy(request.getClientId());
+            if (!policy.issuesRefreshTokens()) {
+                throw new OAuthException("invalid_grant", "Refresh tokens are disabled for the client");
+            }
+            
+            // A rotated refresh token is spent: revoke it before issuing anything, so that of two
+            // concurrent requests presenting it only one succeeds (RFC 9700 section 4.14.2)
+            if (policy.isRefreshTokenRotation() && !jwtTokenService.revokeToken(claimsSet)) {
+                throw new OAuthException("invalid_grant", "Invalid refresh token");
+            }
+            
             // Generate new access token
             String accessToken = jwtTokenService.generateAccessToken(
                 request.getClientId(),
                 claimsSet.getSubject(),
                 claimsSet.getStringClaim("scope"),
-                3600 // 1 hour
+                policy.getAccessTokenLifetime(),
+                policy.getTokenClaims(),
+                request.getConfirmation()
             );
             
-            // Generate new refresh token
-            String refreshToken = jwtTokenService.generateRefreshToken(
-                request.getClientId(),
-                claimsSet.getSubject(),
-                claimsSet.getStringClaim("scope")
-            );
+            // Replace the revoked refresh token, or keep the presented one until it expires
+            String refreshToken = request.getRefreshToken();
+            if (policy.isRefreshTokenRotation()) {
+                refreshToken = jwtTokenService.generateRefreshToken(
+                    request.getClientId(),
+                    claimsSet.getSubject(),
+                    claimsSet.getStringClaim("scope"),
+                    policy.getRefreshTokenLifetime(),
+                    request.getRefreshTokenConfirmation()
+                );
+            }
             
             // Build response
             return TokenResponse.builder()
                 .accessToken(accessToken)
                 .tokenType("Bearer")
-                .expiresIn(3600L)
+                .expiresIn(policy.getAccessTokenLifetime())
                 .refreshToken(refreshToken)
                 .scope(claimsSet.getStringClaim("scope"))
                 .build();
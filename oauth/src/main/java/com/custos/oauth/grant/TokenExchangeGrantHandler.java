@@ -0,0 +1,171 @@
+package com.custos.oauth.grant;
+
+import com.custos.oauth.cache.ExpiringCache;
+import com.custos.oauth.exception.OAuthException;
+import com.custos.oauth.model.TokenRequest;
+import com.custos.oauth.model.TokenResponse;
+import com.custos.oauth.scope.ScopeRegistry;
+import com.custos.oauth.scope.ScopeSet;
+import com.custos.oauth.service.JwtTokenService;
+import com.custos.oauth.tenant.TenantContextHolder;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.Date;
+import java.util.Map;
+
+/**
+ * Handler for the Token Exchange grant type (RFC 8693).
+ * A service holding an access token exchanges it for a token restricted to the next service in
+ * the call chain, optionally with a narrower scope. Exchanged tokens are cached per subject token,
+ * audience, scope, client and the key the client binds it to, for a short time, so repeated
+ * exchanges on the same request path skip both verifying the subject token and signing a new one.
+ */
+@Slf4j
+@Component
+public class TokenExchangeGrantHandler implements GrantHandler {
+
+    public static final String GRANT_TYPE = "urn:ietf:params:oauth:grant-type:token-exchange";
+    public static final String ACCESS_TOKEN_TYPE = "urn:ietf:params:oauth:token-type:access_token";
+    public static final String JWT_TOKEN_TYPE = "urn:ietf:params:oauth:token-type:jwt";
+
+    private static final long MAX_LIFETIME_SECONDS = 3600;
+
+    private static final int CACHE_SIZE = 10_000;
+    private static final Duration CACHE_TTL = Duration.ofSeconds(60);
+
+    /**
+     * Cached tokens are not handed out once they have less than this left to live.
+     */
+    private static final long MIN_REMAINING_MILLIS = 30_000;
+
+    private final JwtTokenService jwtTokenService;
+    private final ScopeRegistry scopeRegistry;
+    private final ExpiringCache<ExchangeKey, Exchange> exchanges = new ExpiringCache<>(CACHE_SIZE, CACHE_TTL);
+
+    public TokenExchangeGrantHandler(JwtTokenService jwtTokenService, ScopeRegistry scopeRegistry) {
+        this.jwtTokenService = jwtTokenService;
+        this.scopeRegistry = scopeRegistry;
+    }
+
+    @Override
+    public TokenResponse handle(TokenRequest request) {
+        log.debug("Handling token exchange for client: {} and audience: {}", request.getClientId(), request.getAudience());
+
+        try {
+            validateParameters(request);
+
+            // A null scope means the exchanged token carries the subject token's scope unchanged
+            ScopeSet requestedScopes = request.getScope() == null ? null : scopeRegistry.parse(request.getScope());
+
+            ExchangeKey key = new ExchangeKey(TenantContextHolder.currentId(), subjectTokenId(request.getSubjectToken()),
+                request.getAudience(), requestedScopes, request.getClientId(), request.getConfirmation());
+            Exchange exchange = exchanges.get(key);
+            // The jti was read without verifying the signature, so only trust the entry for the same token
+            if (exchange == null || !exchange.subjectToken().equals(request.getSubjectToken())
+                    || jwtTokenService.isRevoked(key.subjectTokenId()) || jwtTokenService.isRevoked(exchange.jti())) {
+                exchange = exchange(request, requestedScopes);
+                exchanges.put(key, exchange, exchange.expiresAt() - MIN_REMAINING_MILLIS);
+            }
+
+            return TokenResponse.builder()
+                .accessToken(exchange.accessToken())
+                .issuedTokenType(ACCESS_TOKEN_TYPE)
+                .tokenType("Bearer")
+                .expiresIn(Math.max(0, (exchange.expiresAt() - System.currentTimeMillis()) / 1000))
+                .scope(exchange.scope())
+                .build();
+
+        } catch (OAuthException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("Failed to handle token exchange grant", e);
+            throw new OAuthException("server_error", "Failed to handle token exchange grant");
+        }
+    }
+
+    @Override
+    public String getGrantType() {
+        return GRANT_TYPE;
+    }
+
+    private static void validateParameters(TokenRequest request) {
+        if (request.getSubjectToken() == null) {
+            throw new OAuthException("invalid_request", "subject_token is required");
+        }
+        String subjectTokenType = request.getSubjectTokenType();
+        if (!ACCESS_TOKEN_TYPE.equals(subjectTokenType) && !JWT_TOKEN_TYPE.equals(subjectTokenType)) {
+            throw new OAuthException("invalid_request", "Unsupported subject_token_type: " + subjectTokenType);
+        }
+        if (request.getRequestedTokenType() != null && !ACCESS_TOKEN_TYPE.equals(request.getRequestedTokenType())) {
+            throw new OAuthException("invalid_request", "Unsupported requested_token_type: " + request.getRequestedTokenType());
+        }
+        if (request.getAudience() == null) {
+            throw new OAuthException("invalid_target", "audience is required");
+        }
+    }
+
+    /**
+     * Reads the jti of the subject token without verifying it, for the cache lookup only.
+     */
+    private static String subjectTokenId(String subjectToken) {
+        try {
+            String jti = SignedJWT.parse(subjectToken).getJWTClaimsSet().getJWTID();
+            if (jti == null) {
+                throw new OAuthException("invalid_request", "Invalid subject token");
+            }
+            return jti;
+        } catch (ParseException e) {
+            throw new OAuthException("invalid_request", "Invalid subject token");
+        }
+    }
+
+    private Exchange exchange(TokenRequest request, ScopeSet requestedScopes) throws ParseException {
+        JWTClaimsSet subject;
+        try {
+            subject = jwtTokenService.validateToken(request.getSubjectToken());
+        } catch (OAuthException e) {
+            throw new OAuthException("invalid_request", "Invalid subject token");
+        }
+        if (!"Bearer".equals(subject.getStringClaim("token_type"))) {
+            throw new OAuthException("invalid_request", "Subject token is not an access token");
+        }
+
+        // Exchanged tokens may narrow the subject token's scope but never widen it
+        String subjectScope = subject.getStringClaim("scope");
+        String scope = subjectScope;
+        if (requestedScopes != null) {
+            if (!scopeRegistry.parseKnown(subjectScope).containsAll(requestedScopes)) {
+                throw new OAuthException("invalid_scope", "Requested scope exceeds the subject token's scope");
+            }
+            scope = scopeRegistry.format(requestedScopes);
+        }
+
+        // Nor may they outlive it
+        long expiresAt = Math.min(System.currentTimeMillis() + MAX_LIFETIME_SECONDS * 1000,
+            subject.getExpirationTime().getTime());
+
+        String accessToken = jwtTokenService.generateExchangedToken(
+            request.getClientId(),
+            subject.getSubject(),
+            request.getAudience(),
+            scope,
+            subject.getJSONObjectClaim("act"),
+            new Date(expiresAt),
+            request.getConfirmation()
+        );
+        String jti = SignedJWT.parse(accessToken).getJWTClaimsSet().getJWTID();
+        return new Exchange(request.getSubjectToken(), accessToken, jti, scope, expiresAt);
+    }
+
+    private record ExchangeKey(String tenantId, String subjectTokenId, String audience, ScopeSet scopes, String clientId,
+                               Map<String, Object> confirmation) {
+    }
+
+    private record Exchange(String subjectToken, String accessToken, String jti, String scope, long expiresAt) {
+    }
+}
@@ -0,0 +1,78 @@
+package com.custos.oauth.logging;
+
+/**
+ * Fields that the code handling a request adds to its summary event, such as the client and the
+ * OAuth error. Each thread reuses one instance, which {@link RequestLogFilter} clears when a
+ * request starts, so recording a field never allocates.
+ */
+public final class RequestLog {
+
+    private static final ThreadLocal<RequestLog> CURRENT = ThreadLocal.withInitial(RequestLog::new);
+
+    private String tenant;
+    private String clientId;
+    private String grantType;
+    private String error;
+
+    private RequestLog() {
+    }
+
+    public static void tenant(String tenant) {
+        CURRENT.get().tenant = tenant;
+    }
+
+    public static void clientId(String clientId) {
+        CURRENT.get().clientId = clientId;
+    }
+
+    public static void grantType(String grantType) {
+        CURRENT.get().grantType = grantType;
+    }
+
+    /**
+     * Records the OAuth error code that the request was answered with.
+     */
+    public static void error(String error) {
+        CURRENT.get().error = error;
+    }
+
+    /**
+     * Clears the fields of the current thread and returns them for the request about to start.
+     */
+    static RequestLog start() {
+        RequestLog fields = CURRENT.get();
+        fields.tenant = null;
+        fields.clientId = null;
+        fields.grantType = null;
+        fields.error = null;
+        return fields;
+    }
+
+    /**
+     * Returns a copy of the fields, for a request that finishes on another thread.
+     */
+    RequestLog copy() {
+        RequestLog copy = new RequestLog();
+        copy.tenant = tenant;
+        copy.clientId = clientId;
+        copy.grantType = grantType;
+        copy.error = error;
+        return copy;
+    }
+
+    String getTenant() {
+        return tenant;
+    }
+
+    String getClientId() {
+        return clientId;
+    }
+
+    String getGrantType() {
+        return grantType;
+    }
+
+    String getError() {
+        return error;
+    }
+}
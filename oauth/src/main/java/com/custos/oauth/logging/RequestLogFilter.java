@@ -0,0 +1,143 @@
+package com.custos.oauth.logging;
+
+import com.custos.oauth.tracing.TracingFilter;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.log4j.Log4j2;
+import org.apache.logging.log4j.message.StringMapMessage;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Logs one structured summary event per request to the {@code com.custos.oauth.request} logger:
+ * method, route, status, duration, trace ID and the fields recorded in {@link RequestLog}.
+ * <p>
+ * Requests are sampled by route. {@code custos.logging.requests.sample-rate} is the default
+ * fraction logged and {@code custos.logging.requests.sample-rates[<route>]} overrides it for one
+ * route. Server errors, requests slower than {@code custos.logging.requests.slow-threshold} and
+ * requests whose trace is sampled are always logged. The event is only built for requests that
+ * are logged.
+ * <p>
+ * Runs inside the tracing filter, for the trace ID, and before the tenant filter, so that
+ * requests forwarded for a tenant are logged once.
+ */
+@Log4j2(topic = "com.custos.oauth.request")
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 5)
+public class RequestLogFilter extends OncePerRequestFilter {
+
+    private final double defaultSampleRate;
+    private final Map<String, Double> sampleRates;
+    private final long slowThresholdNanos;
+
+    public RequestLogFilter(Environment environment) {
+        this.defaultSampleRate = environment.getProperty("custos.logging.requests.sample-rate", Double.class, 0.01);
+        this.sampleRates = Binder.get(environment)
+            .bind("custos.logging.requests.sample-rates", Bindable.mapOf(String.class, Double.class))
+            .orElse(Map.of());
+        this.slowThresholdNanos = environment.getProperty("custos.logging.requests.slow-threshold", Duration.class,
+            Duration.ofMillis(500)).toNanos();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+        throws ServletException, IOException {
+        if (!log.isInfoEnabled()) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        long start = System.nanoTime();
+        RequestLog fields = RequestLog.start();
+        SpanContext spanContext = Span.current().getSpanContext();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            String route = TracingFilter.route(request.getRequestURI().substring(request.getContextPath().length()));
+            if (request.isAsyncStarted()) {
+                // The response is written by another thread, so report it once that has finished
+                RequestLog asyncFields = fields.copy();
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        log(request.getMethod(), route, spanContext, asyncFields, response.getStatus(),
+                            System.nanoTime() - start);
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                log(request.getMethod(), route, spanContext, fields, response.getStatus(), System.nanoTime() - start);
+            }
+        }
+    }
+
+    private void log(String method, String route, SpanContext spanContext, RequestLog fields, int status,
+                     long elapsedNanos) {
+        if (!shouldLog(route, status, elapsedNanos, spanContext.isSampled())) {
+            return;
+        }
+        StringMapMessage message = new StringMapMessage(12)
+            .with("method", method)
+            .with("route", route)
+            .with("status", status)
+            .with("duration_ms", TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        if (spanContext.isValid()) {
+            message.with("trace_id", spanContext.getTraceId());
+        }
+        withOptional(message, "tenant", fields.getTenant());
+        withOptional(message, "client_id", fields.getClientId());
+        withOptional(message, "grant_type", fields.getGrantType());
+        withOptional(message, "error", fields.getError());
+        log.info(message);
+    }
+
+    /**
+     * Decides whether a finished request is logged.
+     *
+     * @param route The request path, with any tenant replaced
+     * @param status The response status
+     * @param elapsedNanos How long the request took
+     * @param traceSampled Whether the request's trace is sampled
+     */
+    boolean shouldLog(String route, int status, long elapsedNanos, boolean traceSampled) {
+        if (status >= 500 || elapsedNanos >= slowThresholdNanos || traceSampled) {
+            return true;
+        }
+        double rate = sampleRates.getOrDefault(route, defaultSampleRate);
+        return rate >= 1 || (rate > 0 && ThreadLocalRandom.current().nextDouble() < rate);
+    }
+
+    private static void withOptional(StringMapMessage message, String key, String value) {
+        if (value != null) {
+            message.with(key, value);
+        }
+    }
+}
@@ -65,4 +65,10 @@ public class AuthorizationRequest {
      * This is optional and may be null.
      */
     private final String codeChallengeMethod;
+    
+    /**
+     * The handle of a request pushed to the pushed authorization request endpoint (RFC 9126).
+     * When present, the other parameters are taken from the pushed request.
+     */
+    private final String requestUri;
 } 
\ No newline at end of file
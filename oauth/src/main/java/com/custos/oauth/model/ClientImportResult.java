@@ -0,0 +1,38 @@
+package com.custos.oauth.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * The outcome of importing one client in a bulk import, written as one line of the response.
+ */
+@Getter
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ClientImportResult {
+    /**
+     * The line of the import the client was read from, counting from 1.
+     */
+    private final long line;
+    
+    /**
+     * The identifier of the imported client.
+     */
+    private final String clientId;
+    
+    /**
+     * The secret generated for a confidential client imported without one.
+     */
+    private final String clientSecret;
+    
+    /**
+     * The error code if the client was not imported.
+     */
+    private final String error;
+    
+    /**
+     * The error description if the client was not imported.
+     */
+    private final String errorDescription;
+}
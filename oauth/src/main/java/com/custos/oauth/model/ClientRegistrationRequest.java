@@ -2,12 +2,16 @@ package com.custos.oauth.model;
 
 import lombok.Builder;
 import lombok.Getter;
+import lombok.extern.jackson.Jacksonized;
+
+import java.util.Map;
 
 /**
  * Represents an OAuth 2.1 client registration request.
  */
 @Getter
 @Builder
+@Jacksonized
 public class ClientRegistrationRequest {
     /**
      * The client name.
@@ -75,8 +79,69 @@ public class ClientRegistrationRequest {
      */
     private final String softwareId;
 
+    /**
+     * The fraction of an access token's lifetime that must remain for a client credentials
+     * token to be handed out again instead of minting a new one.
+     * Optional. Between 0 and 1; reuse is disabled when absent.
+     */
+    private final Double tokenReuseThreshold;
+
+    /**
+     * The lifetime of access tokens issued to the client, in seconds.
+     * Optional. The server default applies when absent.
+     */
+    private final Long accessTokenLifetime;
+
+    /**
+     * The lifetime of refresh tokens issued to the client, in seconds; 0 disables refresh tokens.
+     * Optional. The server default applies when absent.
+     */
+    private final Long refreshTokenLifetime;
+
+    /**
+     * Whether each use of a refresh token returns a new one.
+     * Optional. Defaults to true.
+     */
+    private final Boolean refreshTokenRotation;
+
+    /**
+     * Additional claims placed in every access token issued to the client.
+     * Optional. Registered claim names and those set by the server cannot be used.
+     */
+    private final Map<String, Object> tokenClaims;
+
+    /**
+     * The subject distinguished name of the certificate the client authenticates with over mutual
+     * TLS (RFC 8705 tls_client_auth). The certificate must be issued by a CA the server trusts.
+     * Optional. Clients authenticating with a self-signed certificate include it in jwks instead.
+     */
+    private final String tlsClientAuthSubjectDn;
+
+    /**
+     * Whether access tokens issued to the client are bound to the certificate it presents over TLS,
+     * even when it authenticates by other means.
+     * Optional. Tokens of clients authenticating with their certificate are always bound.
+     */
+    private final Boolean tlsClientCertificateBoundAccessTokens;
+
+    /**
+     * The client identifier to keep when importing an existing client.
+     * Ignored by registration, which always issues a new one.
+     */
     private String clientId;
+
+    /**
+     * The secret to keep when importing an existing client; only its hash is stored.
+     * Ignored by registration, which always issues a new one.
+     */
     private String clientSecret;
+
+    /**
+     * The salted hash of the secret to keep when importing an existing client, as written by an
+     * export. Exclusive with {@link #clientSecret}.
+     * Ignored by registration, which always issues a new secret.
+     */
+    private String clientSecretHash;
     private String redirectUri;
     private String scope;
 } 
\ No newline at end of file
@@ -3,12 +3,14 @@ package com.custos.oauth.model;
 import lombok.Builder;
 import lombok.Getter;
 
+import java.util.Map;
+
 /**
  * Represents an OAuth 2.1 client registration response.
  * This class encapsulates the response sent by the authorization server to the client.
  */
 @Getter
-@Builder
+@Builder(toBuilder = true)
 public class ClientRegistrationResponse {
     /**
      * The client identifier issued by the authorization server.
@@ -17,10 +19,17 @@ public class ClientRegistrationResponse {
     
     /**
      * The client secret issued by the authorization server.
-     * This is only returned for confidential clients.
+     * This is only returned for confidential clients, when the secret is issued or rotated;
+     * the server keeps only a hash of it.
      */
     private final String clientSecret;
     
+    /**
+     * When the client secret expires, in seconds since the epoch; 0 if it never expires, or null
+     * if the client has no secret.
+     */
+    private final Long clientSecretExpiresAt;
+    
     /**
      * The client name.
      */
@@ -77,6 +86,42 @@ public class ClientRegistrationResponse {
      */
     private final String softwareId;
     
+    /**
+     * The fraction of an access token's lifetime that must remain for a client credentials
+     * token to be reused, or null if reuse is disabled.
+     */
+    private final Double tokenReuseThreshold;
+    
+    /**
+     * The lifetime of access tokens issued to the client in seconds, or null for the server default.
+     */
+    private final Long accessTokenLifetime;
+    
+    /**
+     * The lifetime of refresh tokens issued to the client in seconds, or null for the server default.
+     */
+    private final Long refreshTokenLifetime;
+    
+    /**
+     * Whether each use of a refresh token returns a new one, or null for the default.
+     */
+    private final Boolean refreshTokenRotation;
+    
+    /**
+     * Additional claims placed in every access token issued to the client.
+     */
+    private final Map<String, Object> tokenClaims;
+    
+    /**
+     * The subject DN of the certificate the client authenticates with over mutual TLS.
+     */
+    private final String tlsClientAuthSubjectDn;
+    
+    /**
+     * Whether access tokens issued to the client are bound to its TLS client certificate.
+     */
+    private final Boolean tlsClientCertificateBoundAccessTokens;
+    
     /**
      * The error code if registration failed.
      */
@@ -0,0 +1,46 @@
+package com.custos.oauth.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * The scopes a user has granted to a client. There is at most one consent per user and client in
+ * each tenant; granting more scopes later adds them to it.
+ */
+@Entity
+@Table(name = "consents",
+    uniqueConstraints = @UniqueConstraint(columnNames = {"tenant_id", "username", "client_id"}))
+@Data
+public class Consent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * The tenant of the client, or an empty string for the default tenant.
+     */
+    @Column(name = "tenant_id", nullable = false)
+    private String tenantId;
+
+    @Column(nullable = false)
+    private String username;
+
+    @Column(name = "client_id", nullable = false)
+    private String clientId;
+
+    /**
+     * The granted scopes, space-delimited, or null if none were requested.
+     */
+    private String scopes;
+
+    @Column(name = "granted_at", nullable = false)
+    private Instant grantedAt;
+}
@@ -0,0 +1,41 @@
+package com.custos.oauth.model;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Represents a device authorization request (RFC 8628), sent by a device that cannot open a browser
+ * to start the device code flow.
+ */
+@Getter
+@Builder
+public class DeviceAuthorizationRequest {
+    /**
+     * The client identifier, from the body or the Basic authorization header.
+     * Required.
+     */
+    private final String clientId;
+
+    /**
+     * The client secret.
+     * Required for confidential clients.
+     */
+    private final String clientSecret;
+
+    /**
+     * The type of the client assertion, for clients authenticating with a signed JWT (RFC 7523).
+     */
+    private final String clientAssertionType;
+
+    /**
+     * The client assertion, a JWT signed with one of the client's registered keys.
+     * Used instead of a client secret.
+     */
+    private final String clientAssertion;
+
+    /**
+     * The scope of the access request.
+     * This is optional and may be null.
+     */
+    private final String scope;
+}
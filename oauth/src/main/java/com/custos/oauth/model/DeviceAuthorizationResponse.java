@@ -0,0 +1,66 @@
+package com.custos.oauth.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Represents the response of the device authorization endpoint (RFC 8628).
+ */
+@Getter
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class DeviceAuthorizationResponse {
+    /**
+     * The code the device polls the token endpoint with.
+     * Required for successful responses.
+     */
+    @JsonProperty("device_code")
+    private final String deviceCode;
+
+    /**
+     * The code the user enters on the verification page.
+     * Required for successful responses.
+     */
+    @JsonProperty("user_code")
+    private final String userCode;
+
+    /**
+     * The verification page the user opens on another device.
+     * Required for successful responses.
+     */
+    @JsonProperty("verification_uri")
+    private final String verificationUri;
+
+    /**
+     * The verification page with the user code filled in, for devices that can show a QR code.
+     */
+    @JsonProperty("verification_uri_complete")
+    private final String verificationUriComplete;
+
+    /**
+     * The lifetime in seconds of the device code and user code.
+     * Required for successful responses.
+     */
+    @JsonProperty("expires_in")
+    private final Long expiresIn;
+
+    /**
+     * The minimum number of seconds the device waits between polls.
+     */
+    @JsonProperty("interval")
+    private final Integer interval;
+
+    /**
+     * The error code if the request failed.
+     */
+    @JsonProperty("error")
+    private final String error;
+
+    /**
+     * A human-readable description of the error.
+     */
+    @JsonProperty("error_description")
+    private final String errorDescription;
+}
@@ -0,0 +1,41 @@
+package com.custos.oauth.model;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Represents a pushed authorization request (RFC 9126): the parameters of an authorization request,
+ * sent over the back channel together with the client's credentials.
+ */
+@Getter
+@Builder
+public class PushedAuthorizationRequest {
+    /**
+     * The client identifier, from the body or the Basic authorization header.
+     * Required.
+     */
+    private final String clientId;
+
+    /**
+     * The client secret.
+     * Required for confidential clients.
+     */
+    private final String clientSecret;
+
+    /**
+     * The type of the client assertion, for clients authenticating with a signed JWT (RFC 7523).
+     */
+    private final String clientAssertionType;
+
+    /**
+     * The client assertion, a JWT signed with one of the client's registered keys.
+     * Used instead of a client secret.
+     */
+    private final String clientAssertion;
+
+    /**
+     * The authorization request parameters.
+     * Required.
+     */
+    private final AuthorizationRequest authorizationRequest;
+}
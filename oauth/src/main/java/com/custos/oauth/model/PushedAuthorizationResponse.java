@@ -0,0 +1,40 @@
+package com.custos.oauth.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Represents the response of the pushed authorization request endpoint (RFC 9126).
+ */
+@Getter
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PushedAuthorizationResponse {
+    /**
+     * The handle to pass as the request_uri parameter of the authorization request.
+     * Required for successful responses.
+     */
+    @JsonProperty("request_uri")
+    private final String requestUri;
+
+    /**
+     * The lifetime in seconds of the request URI.
+     * Required for successful responses.
+     */
+    @JsonProperty("expires_in")
+    private final Long expiresIn;
+
+    /**
+     * The error code if the request failed.
+     */
+    @JsonProperty("error")
+    private final String error;
+
+    /**
+     * A human-readable description of the error.
+     */
+    @JsonProperty("error_description")
+    private final String errorDescription;
+}
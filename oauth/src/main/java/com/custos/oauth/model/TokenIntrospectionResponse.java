@@ -1,15 +1,28 @@
 package com.custos.oauth.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Builder;
 import lombok.Getter;
 
+import java.util.Map;
+
 /**
  * Represents an OAuth 2.0 token introspection response.
  * This class encapsulates the response sent by the authorization server to the client.
  */
 @Getter
 @Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class TokenIntrospectionResponse {
+    /**
+     * Shared response for tokens that are not active.
+     * RFC 7662 allows no other members in this case.
+     */
+    public static final TokenIntrospectionResponse INACTIVE = TokenIntrospectionResponse.builder()
+        .active(false)
+        .build();
+
     /**
      * Whether the token is active.
      * Required.
@@ -26,6 +39,7 @@ public class TokenIntrospectionResponse {
      * The client identifier.
      * Optional.
      */
+    @JsonProperty("client_id")
     private final String clientId;
     
     /**
@@ -38,6 +52,7 @@ public class TokenIntrospectionResponse {
      * The type of the token.
      * Optional.
      */
+    @JsonProperty("token_type")
     private final String tokenType;
     
     /**
@@ -81,4 +96,11 @@ public class TokenIntrospectionResponse {
      * Optional.
      */
     private final String jti;
+    
+    /**
+     * The confirmation of the key the token is bound to, such as the thumbprint of a client
+     * certificate (RFC 8705 section 3.2).
+     * Optional. Absent for bearer tokens.
+     */
+    private final Map<String, Object> cnf;
 } 
\ No newline at end of file
@@ -1,7 +1,12 @@
 package com.custos.oauth.model;
 
+import com.custos.oauth.client.ClientCertificate;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
 import lombok.Builder;
+import lombok.ToString;
+
+import java.util.Map;
 
 /**
  * Represents an OAuth 2.1 token request.
@@ -26,8 +31,21 @@ public class TokenRequest {
      * The client secret.
      * Required for confidential clients.
      */
+    @ToString.Exclude
     private String clientSecret;
     
+    /**
+     * The type of the client assertion, for clients authenticating with a signed JWT (RFC 7523).
+     */
+    private String clientAssertionType;
+    
+    /**
+     * The client assertion, a JWT signed with one of the client's registered keys.
+     * Used instead of a client secret.
+     */
+    @ToString.Exclude
+    private String clientAssertion;
+    
     /**
      * The scope of the access request.
      * Optional.
@@ -38,12 +56,14 @@ public class TokenRequest {
      * The authorization code received from the authorization endpoint.
      * Required for authorization code grant.
      */
+    @ToString.Exclude
     private String code;
     
     /**
      * The PKCE code verifier.
      * Required for the authorization code grant type if PKCE was used.
      */
+    @ToString.Exclude
     private String codeVerifier;
     
     /**
@@ -62,11 +82,76 @@ public class TokenRequest {
      * The resource owner's password.
      * Required for password grant.
      */
+    @ToString.Exclude
     private String password;
     
     /**
      * The refresh token.
      * Required for refresh token grant.
      */
+    @ToString.Exclude
     private String refreshToken;
-} 
\ No newline at end of file
+    
+    /**
+     * The token representing the party on whose behalf the request is made.
+     * Required for token exchange grant.
+     */
+    @ToString.Exclude
+    private String subjectToken;
+    
+    /**
+     * The type of the subject token.
+     * Required for token exchange grant.
+     */
+    private String subjectTokenType;
+    
+    /**
+     * The logical name of the service where the issued token will be used.
+     * Used by the token exchange grant.
+     */
+    private String audience;
+    
+    /**
+     * The type of token being requested.
+     * Optional for token exchange grant.
+     */
+    private String requestedTokenType;
+    
+    /**
+     * The device verification code issued by the device authorization endpoint.
+     * Required for device code grant.
+     */
+    @ToString.Exclude
+    private String deviceCode;
+    
+    /**
+     * The certificate the client presented on the TLS connection.
+     * Taken from the connection, never from the request body.
+     */
+    @JsonIgnore
+    private ClientCertificate clientCertificate;
+    
+    /**
+     * The DPoP proof (RFC 9449) sent in the DPoP header, with which the client asks for tokens bound
+     * to its key.
+     * Taken from the request header, never from the request body.
+     */
+    @JsonIgnore
+    @ToString.Exclude
+    private String dpopProof;
+    
+    /**
+     * The confirmation (RFC 7800 cnf claim) binding the issued access token to a key the client
+     * holds, or null for a bearer token.
+     * Set once the client is authenticated.
+     */
+    @JsonIgnore
+    private Map<String, Object> confirmation;
+    
+    /**
+     * The confirmation binding the issued refresh token to a key the client holds, or null.
+     * Set once the client is authenticated.
+     */
+    @JsonIgnore
+    private Map<String, Object> refreshTokenConfirmation;
+}
@@ -1,7 +1,10 @@
 package com.custos.oauth.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Builder;
 import lombok.Data;
+import lombok.ToString;
 
 /**
  * Represents an OAuth 2.1 token response.
@@ -9,58 +12,78 @@ import lombok.Data;
  */
 @Data
 @Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class TokenResponse {
     /**
      * The access token issued by the authorization server.
      * Required for successful responses.
      */
+    @JsonProperty("access_token")
+    @ToString.Exclude
     private String accessToken;
     
     /**
      * The type of the token issued.
      * Required for successful responses. Value is typically "Bearer".
      */
+    @JsonProperty("token_type")
     private String tokenType;
     
     /**
      * The lifetime in seconds of the access token.
      * Required for successful responses.
      */
+    @JsonProperty("expires_in")
     private Long expiresIn;
     
     /**
      * The refresh token, which can be used to obtain new access tokens.
      * Optional.
      */
+    @JsonProperty("refresh_token")
+    @ToString.Exclude
     private String refreshToken;
     
     /**
      * The scope of the access token.
      * Optional.
      */
+    @JsonProperty("scope")
     private String scope;
     
     /**
      * The ID token, used in OpenID Connect.
      * Optional.
      */
+    @JsonProperty("id_token")
+    @ToString.Exclude
     private String idToken;
     
+    /**
+     * The type of the token issued by a token exchange.
+     * Required for token exchange responses.
+     */
+    @JsonProperty("issued_token_type")
+    private String issuedTokenType;
+    
     /**
      * The error code if the token request failed.
      * Required for error responses.
      */
+    @JsonProperty("error")
     private String error;
     
     /**
      * A human-readable description of the error.
      * Optional for error responses.
      */
+    @JsonProperty("error_description")
     private String errorDescription;
     
     /**
      * A URI identifying a human-readable web page with information about the error.
      * Optional for error responses.
      */
+    @JsonProperty("error_uri")
     private String errorUri;
 } 
\ No newline at end of file
@@ -33,4 +33,15 @@ public class TokenRevocationRequest {
      * Required for confidential clients.
      */
     private final String clientSecret;
+    
+    /**
+     * The type of the client assertion, for clients authenticating with a signed JWT (RFC 7523).
+     */
+    private final String clientAssertionType;
+    
+    /**
+     * The client assertion, a JWT signed with one of the client's registered keys.
+     * Used instead of a client secret.
+     */
+    private final String clientAssertion;
 } 
\ No newline at end of file
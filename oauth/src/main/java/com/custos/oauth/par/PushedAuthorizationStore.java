@@ -0,0 +1,143 @@
+package com.custos.oauth.par;
+
+import com.custos.oauth.cache.ExpiringCache;
+import com.custos.oauth.model.AuthorizationRequest;
+import com.custos.oauth.tenant.TenantContextHolder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Objects;
+
+/**
+ * Holds pushed authorization requests (RFC 9126) between the push and the authorization request
+ * that refers to them.
+ * <p>
+ * Requests are validated before they are stored, so the authorization endpoint only has to look
+ * one up. A request URI can be used until it expires or an authorization code is issued for it,
+ * which lets the browser return to the authorization endpoint after logging in. The store also
+ * parks requests waiting for a user's consent; those belong to that user and can only be
+ * answered by them, never used as a client's request URI. The store is
+ * bounded: if it fills up with live requests, some are dropped, with a warning, and their clients
+ * have to push again.
+ */
+@Slf4j
+@Component
+public class PushedAuthorizationStore {
+
+    public static final String REQUEST_URI_PREFIX = "urn:ietf:params:oauth:request_uri:";
+
+    private static final int HANDLE_BYTES = 32;
+
+    private final SecureRandom random = new SecureRandom();
+    private final Duration lifetime;
+    private final ExpiringCache<String, Pushed> requests;
+
+    public PushedAuthorizationStore() {
+        this(Duration.ofSeconds(60), 10_000);
+    }
+
+    /**
+     * Creates the store.
+     *
+     * @param lifetime How long a request URI stays valid
+     * @param maxRequests The most requests held at once
+     */
+    @Autowired
+    public PushedAuthorizationStore(@Value("${custos.par.lifetime:60s}") Duration lifetime,
+                                    @Value("${custos.par.max-requests:10000}") int maxRequests) {
+        this(lifetime, maxRequests, Clock.systemUTC());
+    }
+
+    PushedAuthorizationStore(Duration lifetime, int maxRequests, Clock clock) {
+        this.lifetime = lifetime;
+        this.requests = new ExpiringCache<>(maxRequests, lifetime, clock, evicted -> log.warn(
+            "Pushed authorization store is full ({} requests); dropped {} pending requests, whose clients must push again",
+            maxRequests, evicted));
+    }
+
+    /**
+     * Stores a validated authorization request.
+     *
+     * @param request The request, already validated for its client
+     * @return The request URI that refers to it
+     */
+    public String push(AuthorizationRequest request) {
+        return store(request, null);
+    }
+
+    /**
+     * Stores a validated authorization request while the user decides whether to consent.
+     *
+     * @param request The request, already validated for its client
+     * @param username The user who made the request
+     * @return The handle that refers to it
+     */
+    public String park(AuthorizationRequest request, String username) {
+        return store(request, Objects.requireNonNull(username));
+    }
+
+    /**
+     * Returns a pushed request.
+     *
+     * @param requestUri The request URI
+     * @param clientId The client making the authorization request
+     * @return The request, or null if it is unknown, expired, parked for a user's consent, or was
+     *         pushed by another client or for another tenant
+     */
+    public AuthorizationRequest find(String requestUri, String clientId) {
+        return find(requestUri, clientId, null);
+    }
+
+    /**
+     * Returns a request parked for a user's consent.
+     *
+     * @param requestUri The handle of the request
+     * @param clientId The client the request is for
+     * @param username The user answering the request, or null if no user is signed in
+     * @return The request, or null if it is unknown, expired, or was parked for another user,
+     *         client or tenant
+     */
+    public AuthorizationRequest findParked(String requestUri, String clientId, String username) {
+        return username == null ? null : find(requestUri, clientId, username);
+    }
+
+    /**
+     * Invalidates a request URI once an authorization code has been issued for it.
+     */
+    public void consume(String requestUri) {
+        requests.remove(requestUri);
+    }
+
+    public long getLifetimeSeconds() {
+        return lifetime.toSeconds();
+    }
+
+    private String store(AuthorizationRequest request, String username) {
+        byte[] handle = new byte[HANDLE_BYTES];
+        random.nextBytes(handle);
+        String requestUri = REQUEST_URI_PREFIX + Base64.getUrlEncoder().withoutPadding().encodeToString(handle);
+        requests.put(requestUri, new Pushed(TenantContextHolder.currentId(), request, username));
+        return requestUri;
+    }
+
+    private AuthorizationRequest find(String requestUri, String clientId, String username) {
+        Pushed pushed = requests.get(requestUri);
+        if (pushed == null || !Objects.equals(pushed.tenantId(), TenantContextHolder.currentId())
+            || !pushed.request().getClientId().equals(clientId) || !Objects.equals(pushed.username(), username)) {
+            return null;
+        }
+        return pushed.request();
+    }
+
+    /**
+     * @param username The user a request parked for consent belongs to, or null for a pushed request
+     */
+    private record Pushed(String tenantId, AuthorizationRequest request, String username) {
+    }
+}
@@ -0,0 +1,16 @@
+package com.custos.oauth.repository;
+
+import com.custos.oauth.model.Consent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.List;
+import java.util.Optional;
+
+public interface ConsentRepository extends JpaRepository<Consent, Long> {
+    List<Consent> findByTenantIdAndUsername(String tenantId, String username);
+
+    Optional<Consent> findByTenantIdAndUsernameAndClientId(String tenantId, String username, String clientId);
+
+    @Transactional
+    long deleteByTenantIdAndUsernameAndClientId(String tenantId, String username, String clientId);
+}
@@ -0,0 +1,276 @@
+package com.custos.oauth.scope;
+
+import com.custos.oauth.exception.OAuthException;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+
+/**
+ * Interns scope names to small integer ids so that scope sets can be held as bitsets.
+ * Scopes are registered when a client is registered; request-time lookups read a snapshot of an
+ * open-addressing table and match names directly against the request string, so validating a
+ * requested scope allocates nothing. There is no upper bound on the number of scopes.
+ */
+@Component
+public class ScopeRegistry {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private volatile Table table = new Table(INITIAL_CAPACITY, new String[0]);
+
+    /**
+     * Returns the id for a scope, registering it if it is not yet known.
+     *
+     * @param scope The scope name
+     * @return The scope id
+     */
+    public int intern(String scope) {
+        int id = lookup(scope, 0, scope.length());
+        if (id >= 0) {
+            return id;
+        }
+        synchronized (this) {
+            Table current = table;
+            id = current.find(scope, 0, scope.length());
+            if (id < 0) {
+                id = current.names.length;
+                table = current.with(scope);
+            }
+            return id;
+        }
+    }
+
+    /**
+     * Returns the id for the scope held in {@code source[start, end)}, or -1 if it is not registered.
+     */
+    public int lookup(String source, int start, int end) {
+        return table.find(source, start, end);
+    }
+
+    /**
+     * Returns the name of a registered scope.
+     */
+    public String name(int id) {
+        return table.names[id];
+    }
+
+    public int size() {
+        return table.names.length;
+    }
+
+    /**
+     * Registers the given scopes and returns them as a set.
+     *
+     * @param scopes The scope names, may be null
+     * @return The compiled scope set
+     */
+    public ScopeSet compile(String[] scopes) {
+        if (scopes == null || scopes.length == 0) {
+            return ScopeSet.EMPTY;
+        }
+        int[] ids = new int[scopes.length];
+        for (int i = 0; i < scopes.length; i++) {
+            ids[i] = intern(scopes[i]);
+        }
+        return ScopeSet.of(ids);
+    }
+
+    /**
+     * Parses a space-delimited scope parameter into a set.
+     *
+     * @param scope The scope parameter, may be null
+     * @return The parsed scope set
+     * @throws OAuthException if the parameter names a scope that is not registered
+     */
+    public ScopeSet parse(String scope) throws OAuthException {
+        return parse(scope, false);
+    }
+
+    /**
+     * Parses a space-delimited scope string into a set, skipping scopes that are not registered.
+     * Used for scopes read back from tokens this server issued, which may predate a registration change.
+     *
+     * @param scope The scope string, may be null
+     * @return The registered scopes it names
+     */
+    public ScopeSet parseKnown(String scope) {
+        return parse(scope, true);
+    }
+
+    private ScopeSet parse(String scope, boolean skipUnknown) throws OAuthException {
+        if (scope == null) {
+            return ScopeSet.EMPTY;
+        }
+        long[] words = new long[wordsFor(size())];
+        int length = scope.length();
+        int start = 0;
+        while (start < length) {
+            int end = tokenEnd(scope, start, length);
+            if (end > start) {
+                int id = lookup(scope, start, end);
+                if (id >= 0) {
+                    // The table may have grown since the array was sized
+                    if ((id >> 6) >= words.length) {
+                        words = Arrays.copyOf(words, (id >> 6) + 1);
+                    }
+                    words[id >> 6] |= 1L << id;
+                } else if (!skipUnknown) {
+                    throw unknownScope(scope, start, end);
+                }
+            }
+            start = end + 1;
+        }
+        return ScopeSet.fromWords(words);
+    }
+
+    /**
+     * Checks that every scope named in a space-delimited scope parameter is in the allowed set.
+     * Only the error path allocates.
+     *
+     * @param allowed The scopes the caller may request
+     * @param scope The scope parameter, may be null
+     * @throws OAuthException if a requested scope is unknown or not allowed
+     */
+    public void validate(ScopeSet allowed, String scope) throws OAuthException {
+        if (scope == null) {
+            return;
+        }
+        int length = scope.length();
+        int start = 0;
+        while (start < length) {
+            int end = tokenEnd(scope, start, length);
+            if (end > start) {
+                int id = lookup(scope, start, end);
+                if (id < 0 || !allowed.contains(id)) {
+                    throw unknownScope(scope, start, end);
+                }
+            }
+            start = end + 1;
+        }
+    }
+
+    /**
+     * Returns whether every scope named in a space-delimited scope string is in the given set.
+     * Allocates nothing.
+     *
+     * @param granted The scopes to check against
+     * @param scope The scope string, may be null
+     * @return True if every named scope is registered and in the set
+     */
+    public boolean containsAll(ScopeSet granted, String scope) {
+        if (scope == null) {
+            return true;
+        }
+        int length = scope.length();
+        int start = 0;
+        while (start < length) {
+            int end = tokenEnd(scope, start, length);
+            if (end > start) {
+                int id = lookup(scope, start, end);
+                if (id < 0 || !granted.contains(id)) {
+                    return false;
+                }
+            }
+            start = end + 1;
+        }
+        return true;
+    }
+
+    /**
+     * Formats a scope set as a space-delimited string in id order. Two sets holding the same scopes
+     * always produce the same string, whatever order the scopes were requested in.
+     *
+     * @param scopes The scope set
+     * @return The scope string, or null if the set is empty
+     */
+    public String format(ScopeSet scopes) {
+        if (scopes.isEmpty()) {
+            return null;
+        }
+        String[] names = table.names;
+        StringBuilder builder = new StringBuilder();
+        for (int id = scopes.nextId(0); id >= 0; id = scopes.nextId(id + 1)) {
+            if (builder.length() > 0) {
+                builder.append(' ');
+            }
+            builder.append(names[id]);
+        }
+        return builder.toString();
+    }
+
+    private static int tokenEnd(String scope, int start, int length) {
+        int end = scope.indexOf(' ', start);
+        return end < 0 ? length : end;
+    }
+
+    private static int wordsFor(int size) {
+        return (size + Long.SIZE - 1) >> 6;
+    }
+
+    private static OAuthException unknownScope(String scope, int start, int end) {
+        return new OAuthException("invalid_scope", "Scope not allowed: " + scope.substring(start, end));
+    }
+
+    /**
+     * Immutable snapshot of the registry. Writers copy it and publish the copy through the
+     * volatile field, so readers never lock.
+     */
+    private static final class Table {
+
+        private final String[] keys;
+        private final int[] ids;
+        private final String[] names;
+        private final int mask;
+
+        Table(int capacity, String[] names) {
+            this.keys = new String[capacity];
+            this.ids = new int[capacity];
+            this.names = names;
+            this.mask = capacity - 1;
+            for (int id = 0; id < names.length; id++) {
+                insert(names[id], id);
+            }
+        }
+
+        Table with(String scope) {
+            String[] grown = Arrays.copyOf(names, names.length + 1);
+            grown[names.length] = scope;
+            // Keep the load factor at or below one half so probe sequences stay short
+            int capacity = keys.length;
+            while (grown.length * 2 > capacity) {
+                capacity <<= 1;
+            }
+            return new Table(capacity, grown);
+        }
+
+        int find(String source, int start, int end) {
+            int length = end - start;
+            int slot = hash(source, start, end) & mask;
+            String key;
+            while ((key = keys[slot]) != null) {
+                if (key.length() == length && key.regionMatches(0, source, start, length)) {
+                    return ids[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        private void insert(String name, int id) {
+            int slot = hash(name, 0, name.length()) & mask;
+            while (keys[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = name;
+            ids[slot] = id;
+        }
+
+        private static int hash(String source, int start, int end) {
+            int h = 0;
+            for (int i = start; i < end; i++) {
+                h = 31 * h + source.charAt(i);
+            }
+            return h ^ (h >>> 16);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.custos.oauth.scope;
+
+import java.util.Arrays;
+
+/**
+ * Immutable set of scope ids backed by a bitset.
+ * Ids are assigned by a {@link ScopeRegistry}; sets built from different registries must not be mixed.
+ */
+public final class ScopeSet {
+
+    public static final ScopeSet EMPTY = new ScopeSet(new long[0]);
+
+    private final long[] words;
+
+    private ScopeSet(long[] words) {
+        this.words = words;
+    }
+
+    /**
+     * Creates a set from the given scope ids.
+     *
+     * @param ids The scope ids
+     * @return The scope set
+     */
+    public static ScopeSet of(int... ids) {
+        if (ids.length == 0) {
+            return EMPTY;
+        }
+        int max = 0;
+        for (int id : ids) {
+            max = Math.max(max, id);
+        }
+        long[] words = new long[wordIndex(max) + 1];
+        for (int id : ids) {
+            words[wordIndex(id)] |= 1L << id;
+        }
+        return new ScopeSet(words);
+    }
+
+    static ScopeSet fromWords(long[] words) {
+        int length = words.length;
+        while (length > 0 && words[length - 1] == 0) {
+            length--;
+        }
+        if (length == 0) {
+            return EMPTY;
+        }
+        return new ScopeSet(length == words.length ? words : Arrays.copyOf(words, length));
+    }
+
+    public boolean contains(int id) {
+        int index = wordIndex(id);
+        return id >= 0 && index < words.length && (words[index] & (1L << id)) != 0;
+    }
+
+    /**
+     * Returns whether every scope in the other set is also in this set.
+     */
+    public boolean containsAll(ScopeSet other) {
+        long[] theirs = other.words;
+        if (theirs.length > words.length) {
+            return false;
+        }
+        for (int i = 0; i < theirs.length; i++) {
+            if ((theirs[i] & ~words[i]) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the scopes present in both sets.
+     */
+    public ScopeSet intersect(ScopeSet other) {
+        int length = Math.min(words.length, other.words.length);
+        long[] result = new long[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = words[i] & other.words[i];
+        }
+        return fromWords(result);
+    }
+
+    public boolean isEmpty() {
+        return words.length == 0;
+    }
+
+    public int size() {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Returns the next scope id in the set at or after the given id, or -1 if there is none.
+     */
+    public int nextId(int fromId) {
+        int index = wordIndex(fromId);
+        if (fromId < 0 || index >= words.length) {
+            return -1;
+        }
+        long word = words[index] & (-1L << fromId);
+        while (true) {
+            if (word != 0) {
+                return index * Long.SIZE + Long.numberOfTrailingZeros(word);
+            }
+            if (++index == words.length) {
+                return -1;
+            }
+            word = words[index];
+        }
+    }
+
+    long[] words() {
+        return words;
+    }
+
+    private static int wordIndex(int id) {
+        return id >> 6;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof ScopeSet other && Arrays.equals(words, other.words));
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(words);
+    }
+
+    @Override
+    public String toString() {
+        return "ScopeSet" + Arrays.toString(words);
+    }
+}
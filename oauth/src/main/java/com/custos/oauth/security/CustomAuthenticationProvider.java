@@ -1,22 +1,41 @@
 package com.custos.oauth.security;
 
 import com.custos.oauth.authenticators.PasswordAuthenticator;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 
-import java.util.Collections;
+import java.util.List;
+import java.util.Set;
 
 @Component
 public class CustomAuthenticationProvider implements AuthenticationProvider {
 
-    private final PasswordAuthenticator passwordAuthenticator;
+    /**
+     * The authority of administrators, who may import and export clients in bulk.
+     */
+    public static final String ADMIN_AUTHORITY = "ROLE_ADMIN";
+
+    private static final String USER_AUTHORITY = "ROLE_USER";
 
-    public CustomAuthenticationProvider(PasswordAuthenticator passwordAuthenticator) {
+    private final PasswordAuthenticator passwordAuthenticator;
+    private final Set<String> adminUsernames;
+
+    /**
+     * Creates the provider.
+     *
+     * @param passwordAuthenticator Checks usernames and passwords
+     * @param adminUsernames The users granted {@link #ADMIN_AUTHORITY}; none by default
+     */
+    public CustomAuthenticationProvider(PasswordAuthenticator passwordAuthenticator,
+                                        @Value("${custos.admin.usernames:}") Set<String> adminUsernames) {
         this.passwordAuthenticator = passwordAuthenticator;
+        this.adminUsernames = Set.copyOf(adminUsernames);
     }
 
     @Override
@@ -26,11 +45,10 @@ public class CustomAuthenticationProvider implements AuthenticationProvider {
 
         try {
             String userId = passwordAuthenticator.authenticate(username, password);
-            return new UsernamePasswordAuthenticationToken(
-                userId,
-                password,
-                Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER"))
-            );
+            List<GrantedAuthority> authorities = adminUsernames.contains(username)
+                ? List.of(new SimpleGrantedAuthority(USER_AUTHORITY), new SimpleGrantedAuthority(ADMIN_AUTHORITY))
+                : List.of(new SimpleGrantedAuthority(USER_AUTHORITY));
+            return new UsernamePasswordAuthenticationToken(userId, password, authorities);
         } catch (Exception e) {
             return null;
         }
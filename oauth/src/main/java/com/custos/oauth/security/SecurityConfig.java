@@ -1,6 +1,5 @@
 package com.custos.oauth.security;
 
-import com.custos.oauth.authenticators.PasswordAuthenticator;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -14,15 +13,37 @@ import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
 @EnableWebSecurity
 public class SecurityConfig {
 
-    private final PasswordAuthenticator passwordAuthenticator;
+    /**
+     * Endpoints that authenticate the client themselves rather than a user session.
+     */
+    private static final String[] CLIENT_ENDPOINTS = {
+        "/oauth2/token", "/oauth2/introspect", "/oauth2/revoke", "/oauth2/par", "/oauth2/device_authorization"
+    };
 
-    public SecurityConfig(PasswordAuthenticator passwordAuthenticator) {
-        this.passwordAuthenticator = passwordAuthenticator;
+    /**
+     * Endpoints that move all of a tenant's clients at once, reserved to administrators.
+     */
+    private static final String[] BULK_ENDPOINTS = {
+        "/oauth2/register/import", "/oauth2/register/export"
+    };
+
+    /**
+     * Endpoints that hand out a client's credentials, reserved to administrators: anyone may sign
+     * up for a user account, and a user session says nothing about who owns a client.
+     */
+    private static final String[] CREDENTIAL_ENDPOINTS = {
+        "/oauth2/register/*/secret"
+    };
+
+    private final CustomAuthenticationProvider authenticationProvider;
+
+    public SecurityConfig(CustomAuthenticationProvider authenticationProvider) {
+        this.authenticationProvider = authenticationProvider;
     }
 
     @Bean
     public AuthenticationManager authenticationManager() {
-        return new ProviderManager(new CustomAuthenticationProvider(passwordAuthenticator));
+        return new ProviderManager(authenticationProvider);
     }
 
     @Bean
@@ -30,6 +51,12 @@ public class SecurityConfig {
         http
             .authorizeHttpRequests(authorize -> authorize
                 .requestMatchers("/", "/login", "/register", "/css/**", "/js/**", "/oauth/**").permitAll()
+                .requestMatchers(CLIENT_ENDPOINTS).permitAll()
+                .requestMatchers("/oauth2/jwks", "/.well-known/**").permitAll()
+                // Authenticated by the bearer token rather than a user session
+                .requestMatchers("/oauth2/userinfo").permitAll()
+                .requestMatchers(BULK_ENDPOINTS).hasAuthority(CustomAuthenticationProvider.ADMIN_AUTHORITY)
+                .requestMatchers(CREDENTIAL_ENDPOINTS).hasAuthority(CustomAuthenticationProvider.ADMIN_AUTHORITY)
                 .anyRequest().authenticated()
             )
             .formLogin(form -> form
@@ -44,7 +71,11 @@ public class SecurityConfig {
                 .permitAll()
             )
             .authenticationManager(authenticationManager())
-            .csrf(csrf -> csrf.disable());
+            // Requests made with a user session, such as the login and consent forms, carry a CSRF
+            // token; requests made by clients with their own credentials or a bearer token do not
+            .csrf(csrf -> csrf
+                .ignoringRequestMatchers(CLIENT_ENDPOINTS)
+                .ignoringRequestMatchers("/oauth2/userinfo"));
 
         return http.build();
     }
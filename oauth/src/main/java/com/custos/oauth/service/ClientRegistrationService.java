@@ -1,9 +1,17 @@
 package com.custos.oauth.service;
 
+import com.custos.oauth.client.ClientCertificate;
+import com.custos.oauth.client.ClientCertificateIndex;
+import com.custos.oauth.client.ClientRecord;
+import com.custos.oauth.client.PreparedClient;
+import com.custos.oauth.client.TokenPolicy;
 import com.custos.oauth.model.ClientRegistrationRequest;
 import com.custos.oauth.model.ClientRegistrationResponse;
 import com.custos.oauth.exception.OAuthException;
 
+import java.util.List;
+import java.util.function.Consumer;
+
 /**
  * Service for handling OAuth client registration and validation.
  */
@@ -21,16 +29,26 @@ public interface ClientRegistrationService {
 
     ClientRegistrationResponse getClient(String clientId) throws OAuthException;
 
+    /**
+     * Returns the policy for tokens issued to a client.
+     *
+     * @param clientId The client identifier
+     * @return The client's token policy, with server defaults applied
+     * @throws OAuthException If the client is not registered
+     */
+    TokenPolicy getTokenPolicy(String clientId) throws OAuthException;
+
     ClientRegistrationResponse updateClient(String clientId, ClientRegistrationRequest request) throws OAuthException;
 
     /**
-     * Validates client credentials.
+     * Validates that a client is registered and may use a redirect URI.
+     * This does not authenticate the client; see {@link com.custos.oauth.client.ClientAuthenticator}.
      *
      * @param clientId The client identifier
-     * @param clientSecret The client secret
-     * @throws OAuthException If the client credentials are invalid
+     * @param redirectUri The redirect URI, or null to only check that the client exists
+     * @throws OAuthException If the client is unknown or the redirect URI is not registered
      */
-    void validateClient(String clientId, String clientSecret) throws OAuthException;
+    void validateClient(String clientId, String redirectUri) throws OAuthException;
 
     /**
      * Validates that the requested scope is allowed for the client.
@@ -48,4 +66,61 @@ public interface ClientRegistrationService {
      * @throws OAuthException If the client deletion fails
      */
     void deleteClient(String clientId) throws OAuthException;
-} 
\ No newline at end of file
+
+    /**
+     * Issues a new secret to a client. The previous secret stops working at once.
+     *
+     * @param clientId The client identifier
+     * @return The client registration with the new secret, which is not returned again
+     * @throws OAuthException If the client is not registered or has no secret
+     */
+    ClientRegistrationResponse rotateClientSecret(String clientId) throws OAuthException;
+
+    /**
+     * Checks a secret presented by a client against its stored hash.
+     *
+     * @param clientId The client identifier
+     * @param clientSecret The secret presented
+     * @return Whether the secret is the client's; false if the client has no secret
+     * @throws OAuthException If the client is not registered
+     */
+    boolean verifyClientSecret(String clientId, String clientSecret) throws OAuthException;
+
+    /**
+     * Finds the client registered for a TLS client certificate, either by its subject DN or, for
+     * self-signed certificates, by its thumbprint.
+     *
+     * @param certificate The certificate presented by the client
+     * @return The client and how it authenticates with the certificate, or null if no client is registered for it
+     */
+    ClientCertificateIndex.Match findClientByCertificate(ClientCertificate certificate);
+
+    /**
+     * Validates and compiles a client for a bulk import without registering it, so that many
+     * clients can be prepared in parallel. The client keeps the client_id and secret of the
+     * request if it has them.
+     *
+     * @param request The client's metadata, already checked by {@link com.custos.oauth.client.ClientMetadataValidator}
+     * @return The prepared client
+     * @throws OAuthException If the client cannot be registered
+     */
+    PreparedClient prepareImport(ClientRegistrationRequest request) throws OAuthException;
+
+    /**
+     * Registers a batch of prepared clients. A client whose client_id is already registered, or
+     * taken by an earlier client of the batch, is rejected unless overwriting is asked for.
+     *
+     * @param batch The clients to register
+     * @param overwrite Whether a client replaces the registered client with the same client_id
+     * @return For each client in order, null if it was registered or the reason it was not
+     */
+    List<OAuthException> importClients(List<PreparedClient> batch, boolean overwrite);
+
+    /**
+     * Passes every registered client to an action, without copying the registry. Clients
+     * registered or removed meanwhile may or may not be seen.
+     *
+     * @param action The action to run for each client's record
+     */
+    void forEachClient(Consumer<ClientRecord> action);
+}
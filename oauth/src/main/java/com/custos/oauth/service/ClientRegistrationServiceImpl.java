@@ -1,23 +1,70 @@
 package com.custos.oauth.service;
 
+import com.custos.oauth.client.ClientCertificate;
+import com.custos.oauth.client.ClientCertificateIndex;
+import com.custos.oauth.client.ClientRecord;
+import com.custos.oauth.client.ClientSecretVerifier;
+import com.custos.oauth.client.PreparedClient;
+import com.custos.oauth.client.RedirectUriMatcher;
+import com.custos.oauth.client.TokenPolicy;
 import com.custos.oauth.exception.OAuthException;
 import com.custos.oauth.model.ClientRegistrationRequest;
 import com.custos.oauth.model.ClientRegistrationResponse;
+import com.custos.oauth.scope.ScopeRegistry;
+import com.custos.oauth.tenant.TenantContext;
+import com.custos.oauth.tenant.TenantContextHolder;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.util.Base64;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.util.HashMap;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 /**
  * Implementation of the ClientRegistrationService interface.
+ * Each tenant has its own set of clients; without a tenant bound to the current thread the
+ * service's own registry is used.
  */
 @Slf4j
 @Service
 public class ClientRegistrationServiceImpl implements ClientRegistrationService {
 
-    private final Map<String, ClientRegistrationResponse> clients = new HashMap<>();
+    private static final long DEFAULT_ACCESS_TOKEN_LIFETIME = 3600;
+    private static final long DEFAULT_REFRESH_TOKEN_LIFETIME = 7 * 24 * 60 * 60;
+
+    private final Map<String, ClientRecord> clients = new ConcurrentHashMap<>();
+
+    private final ScopeRegistry scopeRegistry;
+    private final TokenPolicy defaultTokenPolicy;
+    private final ClientSecretVerifier secretVerifier;
+    private final ClientCertificateIndex certificateIndex = new ClientCertificateIndex();
+
+    /**
+     * Creates the service with the token lifetimes applied to clients that do not set their own.
+     *
+     * @param scopeRegistry The registry that interns client scopes
+     * @param secretVerifier Issues client secrets and checks them against their hashes
+     * @param accessTokenLifetime The default access token lifetime in seconds
+     * @param refreshTokenLifetime The default refresh token lifetime in seconds
+     */
+    public ClientRegistrationServiceImpl(ScopeRegistry scopeRegistry, ClientSecretVerifier secretVerifier,
+                                         @Value("${jwt.expiration:" + DEFAULT_ACCESS_TOKEN_LIFETIME + "}") long accessTokenLifetime,
+                                         @Value("${jwt.refresh-token.expiration:" + DEFAULT_REFRESH_TOKEN_LIFETIME + "}") long refreshTokenLifetime) {
+        this.scopeRegistry = scopeRegistry;
+        this.secretVerifier = secretVerifier;
+        this.defaultTokenPolicy = TokenPolicy.defaults(accessTokenLifetime, refreshTokenLifetime);
+    }
 
     @Override
     public ClientRegistrationResponse registerClient(ClientRegistrationRequest request) throws OAuthException {
@@ -26,107 +73,216 @@ public class ClientRegistrationServiceImpl implements ClientRegistrationService
         // Generate client ID and secret
         String clientId = UUID.randomUUID().toString();
         String clientSecret = "confidential".equals(request.getClientType()) ? 
-            UUID.randomUUID().toString() : null;
+            secretVerifier.generateSecret() : null;
         
-        // Create client registration response
-        ClientRegistrationResponse response = ClientRegistrationResponse.builder()
-            .clientId(clientId)
-            .clientSecret(clientSecret)
-            .clientName(request.getClientName())
-            .clientType(request.getClientType())
-            .redirectUris(request.getRedirectUris())
-            .grantTypes(request.getGrantTypes())
-            .responseTypes(request.getResponseTypes())
-            .scopes(request.getScopes())
-            .jwksUri(request.getJwksUri())
-            .jwks(request.getJwks())
-            .softwareStatement(request.getSoftwareStatement())
-            .softwareVersion(request.getSoftwareVersion())
-            .softwareId(request.getSoftwareId())
-            .build();
+        // Create client registration, which keeps only a hash of the secret
+        ClientRegistrationResponse response = registration(clientId, clientSecret == null ? null : 0L, request);
         
         // Store client information
-        clients.put(clientId, response);
+        ClientRecord client = compile(response, clientSecret == null ? null : secretVerifier.hash(clientSecret));
+        certificateIndex().replace(null, client);
+        clients().put(clientId, client);
         
-        return response;
+        return withSecret(response, clientSecret);
     }
 
     @Override
     public void validateClient(String clientId, String redirectUri) throws OAuthException {
-        log.info("Validating client: {}", clientId);
+        log.debug("Validating client: {}", clientId);
         
-        ClientRegistrationResponse client = clients.get(clientId);
-        if (client == null) {
-            throw new OAuthException("invalid_client", "Client not found");
-        }
+        ClientRecord client = findClient(clientId);
         
-        if (redirectUri != null) {
-            boolean validRedirectUri = false;
-            for (String uri : client.getRedirectUris()) {
-                if (uri.equals(redirectUri)) {
-                    validRedirectUri = true;
-                    break;
-                }
-            }
-            
-            if (!validRedirectUri) {
-                throw new OAuthException("invalid_redirect_uri", "Redirect URI not registered");
-            }
+        if (redirectUri != null && !client.getRedirectUris().matches(redirectUri)) {
+            throw new OAuthException("invalid_redirect_uri", "Redirect URI not registered");
         }
     }
 
     @Override
     public void validateScope(String clientId, String scope) throws OAuthException {
-        log.info("Validating scope for client: {}", clientId);
+        log.debug("Validating scope for client: {}", clientId);
         
-        ClientRegistrationResponse client = clients.get(clientId);
+        scopeRegistry.validate(findClient(clientId).getAllowedScopes(), scope);
+    }
+
+    @Override
+    public ClientRegistrationResponse getClient(String clientId) throws OAuthException {
+        log.debug("Retrieving client information: {}", clientId);
+        
+        return findClient(clientId).getRegistration();
+    }
+
+    @Override
+    public TokenPolicy getTokenPolicy(String clientId) throws OAuthException {
+        return findClient(clientId).getTokenPolicy();
+    }
+
+    @Override
+    public ClientRegistrationResponse updateClient(String clientId, ClientRegistrationRequest request) throws OAuthException {
+        log.info("Updating client information: {}", clientId);
+        
+        ClientRecord existing = findClient(clientId);
+        ClientRegistrationResponse existingClient = existing.getRegistration();
+        
+        // Create updated client registration response
+        ClientRegistrationResponse response = registration(clientId, existingClient.getClientSecretExpiresAt(), request);
+        
+        // Update client information
+        ClientRecord client = compile(response, existing.getClientSecretHash());
+        certificateIndex().replace(existing, client);
+        clients().put(clientId, client);
+        
+        return response;
+    }
+
+    @Override
+    public void deleteClient(String clientId) throws OAuthException {
+        log.info("Deleting client: {}", clientId);
+        
+        ClientRecord client = clients().remove(clientId);
         if (client == null) {
             throw new OAuthException("invalid_client", "Client not found");
         }
+        certificateIndex().remove(client);
+        secretVerifier.invalidate(clientId);
+    }
+
+    @Override
+    public ClientRegistrationResponse rotateClientSecret(String clientId) throws OAuthException {
+        log.info("Rotating client secret: {}", clientId);
         
-        if (scope != null) {
-            String[] requestedScopes = scope.split(" ");
-            for (String requestedScope : requestedScopes) {
-                boolean validScope = false;
-                for (String allowedScope : client.getScopes()) {
-                    if (allowedScope.equals(requestedScope)) {
-                        validScope = true;
-                        break;
-                    }
-                }
-                
-                if (!validScope) {
-                    throw new OAuthException("invalid_scope", "Scope not allowed: " + requestedScope);
-                }
-            }
+        ClientRecord existing = findClient(clientId);
+        if (existing.getClientSecretHash() == null) {
+            throw new OAuthException("invalid_request", "Client has no secret");
         }
+        String clientSecret = secretVerifier.generateSecret();
+        ClientRecord client = compile(existing.getRegistration(), secretVerifier.hash(clientSecret));
+        certificateIndex().replace(existing, client);
+        clients().put(clientId, client);
+        // After the new hash is stored, so that no check against the old one can be cached again
+        secretVerifier.invalidate(clientId);
+        
+        return withSecret(client.getRegistration(), clientSecret);
     }
 
     @Override
-    public ClientRegistrationResponse getClient(String clientId) throws OAuthException {
-        log.info("Retrieving client information: {}", clientId);
-        
-        ClientRegistrationResponse client = clients.get(clientId);
-        if (client == null) {
-            throw new OAuthException("invalid_client", "Client not found");
+    public PreparedClient prepareImport(ClientRegistrationRequest request) throws OAuthException {
+        String clientId = request.getClientId();
+        if (clientId == null) {
+            clientId = UUID.randomUUID().toString();
+        } else if (clientId.isBlank()) {
+            throw new OAuthException("invalid_client_metadata", "client_id must not be empty");
+        }
+        String clientSecret = request.getClientSecret();
+        String secretHash = request.getClientSecretHash();
+        String issuedSecret = null;
+        if (secretHash != null) {
+            if (clientSecret != null) {
+                throw new OAuthException("invalid_client_metadata", "clientSecret and clientSecretHash are exclusive");
+            }
+            if (secretHash.isBlank()) {
+                throw new OAuthException("invalid_client_metadata", "clientSecretHash must not be empty");
+            }
+        } else {
+            if (clientSecret == null && "confidential".equals(request.getClientType())) {
+                issuedSecret = secretVerifier.generateSecret();
+                clientSecret = issuedSecret;
+            }
+            if (clientSecret != null) {
+                secretHash = secretVerifier.hash(clientSecret);
+            }
         }
         
-        return client;
+        ClientRegistrationResponse registration = registration(clientId, secretHash == null ? null : 0L, request);
+        return new PreparedClient(compile(registration, secretHash), issuedSecret);
     }
 
     @Override
-    public ClientRegistrationResponse updateClient(String clientId, ClientRegistrationRequest request) throws OAuthException {
-        log.info("Updating client information: {}", clientId);
+    public List<OAuthException> importClients(List<PreparedClient> batch, boolean overwrite) {
+        Map<String, ClientRecord> registry = clients();
+        ClientCertificateIndex index = certificateIndex();
+        Map<String, ClientRecord> accepted = new LinkedHashMap<>();
+        List<OAuthException> failures = new ArrayList<>(batch.size());
+        for (PreparedClient prepared : batch) {
+            ClientRecord client = prepared.record();
+            String clientId = client.getClientId();
+            // A later line may replace a client imported earlier in the same batch
+            ClientRecord existing = accepted.containsKey(clientId) ? accepted.get(clientId) : registry.get(clientId);
+            if (existing != null && !overwrite) {
+                failures.add(new OAuthException("invalid_client_metadata", "Client already registered: " + clientId));
+                continue;
+            }
+            try {
+                index.replace(existing, client);
+            } catch (OAuthException e) {
+                failures.add(e);
+                continue;
+            }
+            accepted.put(clientId, client);
+            failures.add(null);
+        }
         
-        ClientRegistrationResponse existingClient = clients.get(clientId);
-        if (existingClient == null) {
+        // Published once the whole batch is indexed. putAll stores the clients one at a time, so a
+        // concurrent lookup may see part of the batch, but never a client missing from the index
+        registry.putAll(accepted);
+        accepted.keySet().forEach(secretVerifier::invalidate);
+        log.debug("Imported a batch of {} clients", accepted.size());
+        return failures;
+    }
+
+    @Override
+    public void forEachClient(Consumer<ClientRecord> action) {
+        clients().values().forEach(action);
+    }
+
+    @Override
+    public boolean verifyClientSecret(String clientId, String clientSecret) throws OAuthException {
+        return secretVerifier.verify(clientId, findClient(clientId).getClientSecretHash(), clientSecret);
+    }
+
+    @Override
+    public ClientCertificateIndex.Match findClientByCertificate(ClientCertificate certificate) {
+        return certificateIndex().find(certificate);
+    }
+
+    /**
+     * Returns the compiled record for a client.
+     *
+     * @param clientId The client identifier
+     * @return The client record
+     * @throws OAuthException If the client is not registered
+     */
+    public ClientRecord findClient(String clientId) throws OAuthException {
+        ClientRecord client = clientId == null ? null : clients().get(clientId);
+        if (client == null) {
             throw new OAuthException("invalid_client", "Client not found");
         }
-        
-        // Create updated client registration response
-        ClientRegistrationResponse response = ClientRegistrationResponse.builder()
+        return client;
+    }
+
+    /**
+     * Returns the clients of the tenant bound to the current thread.
+     */
+    private Map<String, ClientRecord> clients() {
+        TenantContext tenant = TenantContextHolder.get();
+        return tenant == null ? clients : tenant.getClients();
+    }
+
+    /**
+     * Returns the certificate index of the tenant bound to the current thread.
+     */
+    private ClientCertificateIndex certificateIndex() {
+        TenantContext tenant = TenantContextHolder.get();
+        return tenant == null ? certificateIndex : tenant.getCertificateIndex();
+    }
+
+    /**
+     * Builds the registration of a client from the metadata it was registered with.
+     */
+    private static ClientRegistrationResponse registration(String clientId, Long clientSecretExpiresAt,
+                                                           ClientRegistrationRequest request) {
+        return ClientRegistrationResponse.builder()
             .clientId(clientId)
-            .clientSecret(existingClient.getClientSecret())
+            .clientSecretExpiresAt(clientSecretExpiresAt)
             .clientName(request.getClientName())
             .clientType(request.getClientType())
             .redirectUris(request.getRedirectUris())
@@ -138,21 +294,55 @@ public class ClientRegistrationServiceImpl implements ClientRegistrationService
             .softwareStatement(request.getSoftwareStatement())
             .softwareVersion(request.getSoftwareVersion())
             .softwareId(request.getSoftwareId())
+            .tokenReuseThreshold(request.getTokenReuseThreshold())
+            .accessTokenLifetime(request.getAccessTokenLifetime())
+            .refreshTokenLifetime(request.getRefreshTokenLifetime())
+            .refreshTokenRotation(request.getRefreshTokenRotation())
+            .tokenClaims(request.getTokenClaims())
+            .tlsClientAuthSubjectDn(request.getTlsClientAuthSubjectDn())
+            .tlsClientCertificateBoundAccessTokens(request.getTlsClientCertificateBoundAccessTokens())
             .build();
-        
-        // Update client information
-        clients.put(clientId, response);
-        
-        return response;
     }
 
-    @Override
-    public void deleteClient(String clientId) throws OAuthException {
-        log.info("Deleting client: {}", clientId);
-        
-        ClientRegistrationResponse client = clients.remove(clientId);
-        if (client == null) {
-            throw new OAuthException("invalid_client", "Client not found");
+    /**
+     * Returns a registration with the plaintext secret that was just issued, for the client only.
+     */
+    private static ClientRegistrationResponse withSecret(ClientRegistrationResponse registration, String clientSecret) {
+        return clientSecret == null ? registration : registration.toBuilder().clientSecret(clientSecret).build();
+    }
+
+    /**
+     * Compiles a registration into a record, interning its scopes, resolving its token policy,
+     * building the matcher for its redirect URIs and identifying its client certificates.
+     */
+    private ClientRecord compile(ClientRegistrationResponse registration, String clientSecretHash) throws OAuthException {
+        String subjectDn = registration.getTlsClientAuthSubjectDn();
+        return new ClientRecord(registration, scopeRegistry.compile(registration.getScopes()),
+            defaultTokenPolicy.compile(registration),
+            RedirectUriMatcher.compile(registration.getRedirectUris()),
+            subjectDn == null ? null : ClientCertificate.canonicalSubjectDn(subjectDn),
+            certificateThumbprints(registration.getJwks()), clientSecretHash);
+    }
+
+    /**
+     * Returns the thumbprints of the certificates the keys in an inline key set carry in their
+     * {@code x5c} chain, for self-signed TLS client authentication.
+     */
+    private static Set<String> certificateThumbprints(String jwks) throws OAuthException {
+        if (jwks == null) {
+            return Set.of();
+        }
+        Set<String> thumbprints = new HashSet<>();
+        try {
+            for (JWK jwk : JWKSet.parse(jwks).getKeys()) {
+                List<Base64> chain = jwk.getX509CertChain();
+                if (chain != null && !chain.isEmpty()) {
+                    thumbprints.add(ClientCertificate.thumbprint(chain.get(0).decode()));
+                }
+            }
+        } catch (ParseException e) {
+            throw new OAuthException("invalid_client_metadata", "Invalid jwks");
         }
+        return Set.copyOf(thumbprints);
     }
 } 
\ No newline at end of file
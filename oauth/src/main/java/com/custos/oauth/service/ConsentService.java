@@ -0,0 +1,156 @@
+package com.custos.oauth.service;
+
+import com.custos.oauth.cache.ExpiringCache;
+import com.custos.oauth.model.Consent;
+import com.custos.oauth.repository.ConsentRepository;
+import com.custos.oauth.scope.ScopeRegistry;
+import com.custos.oauth.scope.ScopeSet;
+import com.custos.oauth.tenant.TenantContextHolder;
+import com.custos.oauth.tracing.Spans;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Records the scopes users grant to clients and decides whether an authorization request needs
+ * the consent page.
+ * <p>
+ * All of a user's consents are read with one query and cached per user as compiled scope sets, so
+ * a repeat authorization is answered with a single cache lookup; a user with no consents is cached
+ * too. Granting or revoking consent drops the user's entry. The time to live bounds how long
+ * changes made elsewhere, such as directly in the database, go unseen.
+ */
+@Service
+public class ConsentService {
+
+    private static final int MAX_CACHED_USERS = 10_000;
+    private static final Duration DECISIONS_TTL = Duration.ofMinutes(10);
+
+    /**
+     * Stored for the default tenant, since a null tenant never matches in a query.
+     */
+    private static final String DEFAULT_TENANT = "";
+
+    private final ConsentRepository consentRepository;
+    private final ScopeRegistry scopeRegistry;
+    private final ExpiringCache<UserKey, Map<String, ScopeSet>> decisionCache =
+        new ExpiringCache<>(MAX_CACHED_USERS, DECISIONS_TTL);
+
+    public ConsentService(ConsentRepository consentRepository, ScopeRegistry scopeRegistry) {
+        this.consentRepository = consentRepository;
+        this.scopeRegistry = scopeRegistry;
+    }
+
+    /**
+     * Returns whether a user has already granted a client every requested scope.
+     *
+     * @param username The user
+     * @param clientId The client
+     * @param scope The requested scopes, space-delimited, may be null
+     * @return True if the consent page can be skipped
+     */
+    public boolean isGranted(String username, String clientId, String scope) {
+        ScopeSet granted = grants(username).get(clientId);
+        return granted != null && scopeRegistry.containsAll(granted, scope);
+    }
+
+    /**
+     * Records that a user granted scopes to a client, adding them to any granted before.
+     *
+     * @param username The user
+     * @param clientId The client
+     * @param scope The granted scopes, space-delimited, may be null
+     */
+    public void grant(String username, String clientId, String scope) {
+        String tenantId = tenantId();
+        Consent consent = consentRepository.findByTenantIdAndUsernameAndClientId(tenantId, username, clientId)
+            .orElseGet(Consent::new);
+        consent.setTenantId(tenantId);
+        consent.setUsername(username);
+        consent.setClientId(clientId);
+        consent.setScopes(union(consent.getScopes(), scope));
+        consent.setGrantedAt(Instant.now());
+        consentRepository.save(consent);
+        decisionCache.remove(new UserKey(tenantId, username));
+    }
+
+    /**
+     * Withdraws a user's consent for a client. The next authorization shows the consent page again.
+     *
+     * @param username The user
+     * @param clientId The client
+     * @return True if there was a consent to revoke
+     */
+    public boolean revoke(String username, String clientId) {
+        String tenantId = tenantId();
+        long deleted = consentRepository.deleteByTenantIdAndUsernameAndClientId(tenantId, username, clientId);
+        decisionCache.remove(new UserKey(tenantId, username));
+        return deleted > 0;
+    }
+
+    /**
+     * Returns the consents of a user.
+     *
+     * @param username The user
+     * @return The granted scopes by client ID, sorted by client ID
+     */
+    public Map<String, String> getGrants(String username) {
+        Map<String, String> grants = new TreeMap<>();
+        for (Consent consent : consentRepository.findByTenantIdAndUsername(tenantId(), username)) {
+            grants.put(consent.getClientId(), consent.getScopes() == null ? "" : consent.getScopes());
+        }
+        return grants;
+    }
+
+    private Map<String, ScopeSet> grants(String username) {
+        UserKey key = new UserKey(tenantId(), username);
+        Map<String, ScopeSet> grants = decisionCache.get(key);
+        if (grants != null) {
+            return grants;
+        }
+
+        List<Consent> consents = Spans.call("ConsentRepository.findByTenantIdAndUsername",
+            () -> consentRepository.findByTenantIdAndUsername(key.tenantId(), username));
+        grants = new HashMap<>();
+        for (Consent consent : consents) {
+            // Scopes no longer registered are dropped, so requesting them shows the consent page
+            grants.put(consent.getClientId(), scopeRegistry.parseKnown(consent.getScopes()));
+        }
+        grants = Collections.unmodifiableMap(grants);
+        decisionCache.put(key, grants);
+        return grants;
+    }
+
+    private static String union(String granted, String requested) {
+        TreeSet<String> scopes = new TreeSet<>();
+        addScopes(scopes, granted);
+        addScopes(scopes, requested);
+        return scopes.isEmpty() ? null : String.join(" ", scopes);
+    }
+
+    private static void addScopes(TreeSet<String> scopes, String scope) {
+        if (scope == null) {
+            return;
+        }
+        for (String name : scope.split(" ")) {
+            if (!name.isEmpty()) {
+                scopes.add(name);
+            }
+        }
+    }
+
+    private static String tenantId() {
+        String tenantId = TenantContextHolder.currentId();
+        return tenantId == null ? DEFAULT_TENANT : tenantId;
+    }
+
+    private record UserKey(String tenantId, String username) {
+    }
+}
@@ -1,22 +1,30 @@
 package com.custos.oauth.service;
 
+import com.custos.oauth.dpop.DPoPProofVerifier;
 import com.custos.oauth.exception.OAuthException;
+import com.custos.oauth.tenant.KeyRing;
+import com.custos.oauth.tenant.TenantContext;
+import com.custos.oauth.tenant.TenantContextHolder;
+import com.custos.oauth.tracing.Spans;
 import com.nimbusds.jose.JOSEException;
 import com.nimbusds.jose.JWSAlgorithm;
 import com.nimbusds.jose.JWSHeader;
-import com.nimbusds.jose.crypto.RSASSASigner;
-import com.nimbusds.jose.crypto.RSASSAVerifier;
-import com.nimbusds.jose.jwk.RSAKey;
-import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jose.JWSVerifier;
 import com.nimbusds.jwt.JWTClaimsSet;
 import com.nimbusds.jwt.SignedJWT;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.text.ParseException;
 import java.time.Instant;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.Base64;
@@ -29,15 +37,50 @@ import java.nio.charset.StandardCharsets;
 @Service
 public class JwtTokenService {
 
-    private final RSAKey rsaKey;
-    private final RSASSASigner signer;
-    private final RSASSAVerifier verifier;
+    /**
+     * Expired entries are swept from the revocation list once it grows past this size.
+     */
+    private static final int REVOCATION_SWEEP_THRESHOLD = 10_000;
+
+    /**
+     * Issuer used when none is configured.
+     */
+    public static final String DEFAULT_ISSUER = "https://auth.custos.com";
+
+    private static final long DEFAULT_REFRESH_TOKEN_LIFETIME_SECONDS = 7 * 24 * 60 * 60;
+
+    private final String issuer;
+    private final CompletableFuture<KeyRing> keyRing;
+
+    /**
+     * Revoked token identifiers mapped to the token's expiry in epoch milliseconds.
+     */
+    private final Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
 
-    public JwtTokenService() throws JOSEException {
-        // Generate RSA key pair for signing and verifying tokens
-        this.rsaKey = new RSAKeyGenerator(2048).generate();
-        this.signer = new RSASSASigner(rsaKey);
-        this.verifier = new RSASSAVerifier(rsaKey.toPublicJWK());
+    public JwtTokenService() {
+        this(DEFAULT_ISSUER);
+    }
+
+    /**
+     * Creates the service with a fresh signing key. Tokens issued while a tenant is bound to the
+     * current thread use that tenant's issuer and keys instead.
+     *
+     * @param issuer The issuer identifier placed in the {@code iss} claim of tokens for the default tenant
+     */
+    @Autowired
+    public JwtTokenService(@Value("${oauth2.authorization-server.issuer:" + DEFAULT_ISSUER + "}") String issuer) {
+        this.issuer = issuer;
+        // Generating the RSA key pair is a noticeable part of startup, so it runs in the background
+        // and the first token operation waits for it only if it has not finished yet
+        this.keyRing = CompletableFuture.supplyAsync(JwtTokenService::generateKeyRing);
+    }
+
+    private static KeyRing generateKeyRing() {
+        try {
+            return new KeyRing(KeyRing.generateKey());
+        } catch (JOSEException e) {
+            throw new IllegalStateException("Failed to generate signing key", e);
+        }
     }
 
     /**
@@ -51,10 +94,49 @@ public class JwtTokenService {
      * @throws OAuthException if token generation fails
      */
     public String generateAccessToken(String clientId, String subject, String scope, long expiresInSeconds) throws OAuthException {
+        return generateAccessToken(clientId, subject, scope, expiresInSeconds, Map.of());
+    }
+
+    /**
+     * Generates a JWT access token carrying additional claims.
+     *
+     * @param clientId The client identifier
+     * @param subject The subject (user ID)
+     * @param scope The scope of the token
+     * @param expiresInSeconds Token expiration time in seconds
+     * @param extraClaims Claims to add; they never replace the standard claims set here
+     * @return The signed JWT access token
+     * @throws OAuthException if token generation fails
+     */
+    public String generateAccessToken(String clientId, String subject, String scope, long expiresInSeconds,
+                                      Map<String, Object> extraClaims) throws OAuthException {
+        return generateAccessToken(clientId, subject, scope, expiresInSeconds, extraClaims, null);
+    }
+
+    /**
+     * Generates a JWT access token bound to a key the client holds.
+     *
+     * @param clientId The client identifier
+     * @param subject The subject (user ID)
+     * @param scope The scope of the token
+     * @param expiresInSeconds Token expiration time in seconds
+     * @param extraClaims Claims to add; they never replace the standard claims set here
+     * @param confirmation The {@code cnf} claim (RFC 7800) naming the key, or null for a bearer token
+     * @return The signed JWT access token
+     * @throws OAuthException if token generation fails
+     */
+    public String generateAccessToken(String clientId, String subject, String scope, long expiresInSeconds,
+                                      Map<String, Object> extraClaims, Map<String, Object> confirmation)
+        throws OAuthException {
         try {
             // Create JWT claims set
-            JWTClaimsSet claimsSet = new JWTClaimsSet.Builder()
-                .issuer("https://auth.custos.com") // Your authorization server URL
+            JWTClaimsSet.Builder builder = new JWTClaimsSet.Builder();
+            extraClaims.forEach(builder::claim);
+            if (confirmation != null) {
+                builder.claim("cnf", confirmation);
+            }
+            JWTClaimsSet claimsSet = builder
+                .issuer(issuer())
                 .subject(subject)
                 .audience(clientId)
                 .expirationTime(Date.from(Instant.now().plusSeconds(expiresInSeconds)))
@@ -63,19 +145,20 @@ public class JwtTokenService {
                 .jwtID(UUID.randomUUID().toString())
                 .claim("scope", scope)
                 .claim("client_id", clientId)
-                .claim("token_type", "Bearer")
+                .claim("token_type", accessTokenType(confirmation))
                 .build();
 
             // Create signed JWT
+            KeyRing keys = keyRing();
             SignedJWT signedJWT = new SignedJWT(
                 new JWSHeader.Builder(JWSAlgorithm.RS256)
-                    .keyID(rsaKey.getKeyID())
+                    .keyID(keys.getKeyId())
                     .build(),
                 claimsSet
             );
 
             // Sign the JWT
-            signedJWT.sign(signer);
+            sign(signedJWT, keys);
 
             return signedJWT.serialize();
         } catch (JOSEException e) {
@@ -84,6 +167,76 @@ public class JwtTokenService {
         }
     }
 
+    /**
+     * Generates an audience-restricted JWT access token for a token exchange (RFC 8693).
+     * The acting client is recorded in the {@code act} claim, nested inside any actor the
+     * subject token already carried so that the full delegation chain is preserved.
+     *
+     * @param clientId The client performing the exchange
+     * @param subject The subject of the exchanged token
+     * @param audience The service the token is intended for
+     * @param scope The scope of the token
+     * @param previousActor The {@code act} claim of the subject token, or null
+     * @param expiresAt When the token expires
+     * @param confirmation The {@code cnf} claim (RFC 7800) naming the key of the client performing
+     *                     the exchange, or null for a bearer token
+     * @return The signed JWT access token
+     * @throws OAuthException if token generation fails
+     */
+    public String generateExchangedToken(String clientId, String subject, String audience, String scope,
+                                         Map<String, Object> previousActor, Date expiresAt,
+                                         Map<String, Object> confirmation) throws OAuthException {
+        try {
+            Map<String, Object> actor = new LinkedHashMap<>();
+            actor.put("sub", clientId);
+            if (previousActor != null) {
+                actor.put("act", previousActor);
+            }
+
+            Date now = new Date();
+            JWTClaimsSet.Builder builder = new JWTClaimsSet.Builder();
+            if (confirmation != null) {
+                builder.claim("cnf", confirmation);
+            }
+            JWTClaimsSet claimsSet = builder
+                .issuer(issuer())
+                .subject(subject)
+                .audience(audience)
+                .expirationTime(expiresAt)
+                .notBeforeTime(now)
+                .issueTime(now)
+                .jwtID(UUID.randomUUID().toString())
+                .claim("scope", scope)
+                .claim("client_id", clientId)
+                .claim("token_type", accessTokenType(confirmation))
+                .claim("act", actor)
+                .build();
+
+            KeyRing keys = keyRing();
+            SignedJWT signedJWT = new SignedJWT(
+                new JWSHeader.Builder(JWSAlgorithm.RS256)
+                    .keyID(keys.getKeyId())
+                    .build(),
+                claimsSet
+            );
+            sign(signedJWT, keys);
+
+            return signedJWT.serialize();
+        } catch (JOSEException e) {
+            log.error("Failed to generate exchanged token", e);
+            throw new OAuthException("server_error", "Failed to generate exchanged token");
+        }
+    }
+
+    /**
+     * The token type of an access token: DPoP for tokens bound to a DPoP key (RFC 9449 section 5),
+     * Bearer otherwise.
+     */
+    private static String accessTokenType(Map<String, Object> confirmation) {
+        return confirmation != null && confirmation.containsKey(DPoPProofVerifier.CONFIRMATION_METHOD)
+            ? DPoPProofVerifier.TOKEN_TYPE : "Bearer";
+    }
+
     /**
      * Generates a JWT refresh token.
      *
@@ -94,13 +247,48 @@ public class JwtTokenService {
      * @throws OAuthException if token generation fails
      */
     public String generateRefreshToken(String clientId, String subject, String scope) throws OAuthException {
+        return generateRefreshToken(clientId, subject, scope, DEFAULT_REFRESH_TOKEN_LIFETIME_SECONDS);
+    }
+
+    /**
+     * Generates a JWT refresh token with the given lifetime.
+     *
+     * @param clientId The client identifier
+     * @param subject The subject (user ID)
+     * @param scope The scope of the token
+     * @param expiresInSeconds Token expiration time in seconds
+     * @return The signed JWT refresh token
+     * @throws OAuthException if token generation fails
+     */
+    public String generateRefreshToken(String clientId, String subject, String scope, long expiresInSeconds)
+        throws OAuthException {
+        return generateRefreshToken(clientId, subject, scope, expiresInSeconds, null);
+    }
+
+    /**
+     * Generates a JWT refresh token bound to a key the client holds.
+     *
+     * @param clientId The client identifier
+     * @param subject The subject (user ID)
+     * @param scope The scope of the token
+     * @param expiresInSeconds Token expiration time in seconds
+     * @param confirmation The {@code cnf} claim (RFC 7800) naming the key, or null for an unbound token
+     * @return The signed JWT refresh token
+     * @throws OAuthException if token generation fails
+     */
+    public String generateRefreshToken(String clientId, String subject, String scope, long expiresInSeconds,
+                                       Map<String, Object> confirmation) throws OAuthException {
         try {
             // Create JWT claims set
-            JWTClaimsSet claimsSet = new JWTClaimsSet.Builder()
-                .issuer("https://auth.custos.com") // Your authorization server URL
+            JWTClaimsSet.Builder builder = new JWTClaimsSet.Builder();
+            if (confirmation != null) {
+                builder.claim("cnf", confirmation);
+            }
+            JWTClaimsSet claimsSet = builder
+                .issuer(issuer())
                 .subject(subject)
                 .audience(clientId)
-                .expirationTime(Date.from(Instant.now().plusSeconds(7 * 24 * 60 * 60))) // 7 days
+                .expirationTime(Date.from(Instant.now().plusSeconds(expiresInSeconds)))
                 .notBeforeTime(Date.from(Instant.now()))
                 .issueTime(Date.from(Instant.now()))
                 .jwtID(UUID.randomUUID().toString())
@@ -110,15 +298,16 @@ public class JwtTokenService {
                 .build();
 
             // Create signed JWT
+            KeyRing keys = keyRing();
             SignedJWT signedJWT = new SignedJWT(
                 new JWSHeader.Builder(JWSAlgorithm.RS256)
-                    .keyID(rsaKey.getKeyID())
+                    .keyID(keys.getKeyId())
                     .build(),
                 claimsSet
             );
 
             // Sign the JWT
-            signedJWT.sign(signer);
+            sign(signedJWT, keys);
 
             return signedJWT.serialize();
         } catch (JOSEException e) {
@@ -140,7 +329,8 @@ public class JwtTokenService {
             SignedJWT signedJWT = SignedJWT.parse(token);
 
             // Verify the signature
-            if (!signedJWT.verify(verifier)) {
+            JWSVerifier verifier = keyRing().getVerifier(signedJWT.getHeader().getKeyID());
+            if (verifier == null || !verify(signedJWT, verifier)) {
                 throw new OAuthException("invalid_token", "Invalid token signature");
             }
 
@@ -157,20 +347,103 @@ public class JwtTokenService {
                 throw new OAuthException("invalid_token", "Token not yet valid");
             }
 
+            // Check revocation
+            if (isRevoked(claimsSet.getJWTID())) {
+                throw new OAuthException("invalid_token", "Token has been revoked");
+            }
+
             return claimsSet;
         } catch (ParseException | JOSEException e) {
-            log.error("Failed to validate token", e);
+            log.debug("Failed to validate token: {}", e.getMessage());
             throw new OAuthException("invalid_token", "Invalid token");
         }
     }
 
+    /**
+     * Validates a JWT access token. Refresh tokens and authorization codes are signed with the
+     * same keys, so {@link #validateToken} alone would accept them too.
+     *
+     * @param token The JWT access token to validate
+     * @return The JWT claims set if valid
+     * @throws OAuthException if the token is invalid or not an access token
+     */
+    public JWTClaimsSet validateAccessToken(String token) throws OAuthException {
+        JWTClaimsSet claimsSet = validateToken(token);
+        Object tokenType = claimsSet.getClaim("token_type");
+        if (!"Bearer".equals(tokenType) && !DPoPProofVerifier.TOKEN_TYPE.equals(tokenType)) {
+            throw new OAuthException("invalid_token", "Not an access token");
+        }
+        return claimsSet;
+    }
+
+    /**
+     * Revokes a token so that it no longer validates.
+     * Entries are kept only until the token would have expired anyway.
+     *
+     * @param claimsSet The claims of the token to revoke
+     * @return true if this call revoked the token, false if it had been revoked already
+     */
+    public boolean revokeToken(JWTClaimsSet claimsSet) {
+        long now = System.currentTimeMillis();
+        if (revokedTokens.size() >= REVOCATION_SWEEP_THRESHOLD) {
+            revokedTokens.values().removeIf(expiresAt -> expiresAt <= now);
+        }
+        return revokedTokens.putIfAbsent(claimsSet.getJWTID(), claimsSet.getExpirationTime().getTime()) == null;
+    }
+
+    /**
+     * Checks whether a token has been revoked.
+     *
+     * @param jti The token identifier
+     * @return true if the token was revoked
+     */
+    public boolean isRevoked(String jti) {
+        return jti != null && revokedTokens.containsKey(jti);
+    }
+
     /**
      * Gets the public key for token verification.
      *
      * @return The public key in JWK format
      */
     public String getPublicKey() {
-        return rsaKey.toPublicJWK().toJSONString();
+        return keyRing().getSigningKey().toPublicJWK().toJSONString();
+    }
+
+    /**
+     * Gets the issuer identifier placed in the {@code iss} claim.
+     *
+     * @return The issuer
+     */
+    public String getIssuer() {
+        return issuer();
+    }
+
+    /**
+     * Gets the public signing keys as a JWK Set (RFC 7517).
+     *
+     * @return The JWK Set in JSON format
+     */
+    public String getJwkSet() {
+        return keyRing().getJwkSet();
+    }
+
+    private String issuer() {
+        TenantContext tenant = TenantContextHolder.get();
+        return tenant == null ? issuer : tenant.getIssuer();
+    }
+
+    private KeyRing keyRing() {
+        TenantContext tenant = TenantContextHolder.get();
+        return tenant == null ? keyRing.join() : tenant.getKeyRing();
+    }
+
+    private static void sign(SignedJWT signedJWT, KeyRing keys) throws JOSEException {
+        Spans.run("jwt.sign", () -> signedJWT.sign(keys.getSigner()));
+    }
+
+    private static boolean verify(SignedJWT signedJWT, JWSVerifier verifier) throws JOSEException {
+        return Spans.call("jwt.verify", () -> signedJWT.verify(verifier));
     }
 
     /**
@@ -196,7 +469,7 @@ public class JwtTokenService {
         try {
             // Create JWT claims set
             JWTClaimsSet claimsSet = new JWTClaimsSet.Builder()
-                .issuer("https://auth.custos.com") // Your authorization server URL
+                .issuer(issuer())
                 .subject(userId)
                 .audience(clientId)
                 .expirationTime(Date.from(Instant.now().plusSeconds(300))) // 5 minutes
@@ -211,15 +484,16 @@ public class JwtTokenService {
                 .build();
 
             // Create signed JWT
+            KeyRing keys = keyRing();
             SignedJWT signedJWT = new SignedJWT(
                 new JWSHeader.Builder(JWSAlgorithm.RS256)
-                    .keyID(rsaKey.getKeyID())
+                    .keyID(keys.getKeyId())
                     .build(),
                 claimsSet
             );
 
             // Sign the JWT
-            signedJWT.sign(signer);
+            sign(signedJWT, keys);
 
             return signedJWT.serialize();
         } catch (JOSEException e) {
@@ -242,7 +516,8 @@ public class JwtTokenService {
             SignedJWT signedJWT = SignedJWT.parse(code);
 
             // Verify the signature
-            if (!signedJWT.verify(verifier)) {
+            JWSVerifier verifier = keyRing().getVerifier(signedJWT.getHeader().getKeyID());
+            if (verifier == null || !verify(signedJWT, verifier)) {
                 throw new OAuthException("invalid_grant", "Invalid authorization code");
             }
 
@@ -286,7 +561,7 @@ public class JwtTokenService {
 
             return claimsSet;
         } catch (ParseException | JOSEException | NoSuchAlgorithmException e) {
-            log.error("Failed to validate authorization code", e);
+            log.debug("Failed to validate authorization code: {}", e.getMessage());
             throw new OAuthException("invalid_grant", "Invalid authorization code");
         }
     }
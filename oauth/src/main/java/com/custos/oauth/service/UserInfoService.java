@@ -0,0 +1,74 @@
+package com.custos.oauth.service;
+
+import com.custos.oauth.cache.ExpiringCache;
+import com.custos.oauth.exception.OAuthException;
+import com.custos.oauth.model.User;
+import com.custos.oauth.repository.UserRepository;
+import com.custos.oauth.tracing.Spans;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Builds the OpenID Connect UserInfo claims for a token subject.
+ * Claims are cached per subject so that repeated logins do not each query the database;
+ * {@link UserService} invalidates a subject's entry whenever it changes that user. The time
+ * to live bounds how long changes made elsewhere, such as directly in the database, go unseen.
+ */
+@Service
+public class UserInfoService {
+
+    private static final int MAX_CACHED_USERS = 10_000;
+    private static final Duration CLAIMS_TTL = Duration.ofMinutes(10);
+
+    private final UserRepository userRepository;
+    private final ExpiringCache<String, Map<String, Object>> claimsCache =
+        new ExpiringCache<>(MAX_CACHED_USERS, CLAIMS_TTL);
+
+    public UserInfoService(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * Returns the claims for a subject.
+     *
+     * @param subject The {@code sub} claim of the access token, which is the username
+     * @return The claims, unmodifiable
+     * @throws OAuthException if the subject is not a known, enabled user
+     */
+    public Map<String, Object> getClaims(String subject) throws OAuthException {
+        Map<String, Object> claims = claimsCache.get(subject);
+        if (claims != null) {
+            return claims;
+        }
+
+        User user = Spans.call("UserRepository.findByUsername", () -> userRepository.findByUsername(subject))
+            .filter(User::isEnabled)
+            .orElseThrow(() -> new OAuthException("invalid_token", "Token subject is not a user"));
+        claims = toClaims(user);
+        claimsCache.put(subject, claims);
+        return claims;
+    }
+
+    /**
+     * Drops the cached claims for a subject so that the next request reads the user again.
+     *
+     * @param subject The username
+     */
+    public void invalidate(String subject) {
+        claimsCache.remove(subject);
+    }
+
+    private static Map<String, Object> toClaims(User user) {
+        Map<String, Object> claims = new LinkedHashMap<>();
+        claims.put("sub", user.getUsername());
+        claims.put("preferred_username", user.getUsername());
+        if (user.getEmail() != null) {
+            claims.put("email", user.getEmail());
+        }
+        return Collections.unmodifiableMap(claims);
+    }
+}
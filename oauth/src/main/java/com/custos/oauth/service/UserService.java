@@ -2,6 +2,7 @@ package com.custos.oauth.service;
 
 import com.custos.oauth.model.User;
 import com.custos.oauth.repository.UserRepository;
+import com.custos.oauth.tracing.Spans;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -14,15 +15,17 @@ public class UserService implements UserDetailsService {
     
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final UserInfoService userInfoService;
     
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, UserInfoService userInfoService) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.userInfoService = userInfoService;
     }
     
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        return userRepository.findByUsername(username)
+        return findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
     }
     
@@ -31,7 +34,27 @@ public class UserService implements UserDetailsService {
         user.setUsername(username);
         user.setPassword(passwordEncoder.encode(password));
         user.setEmail(email);
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        userInfoService.invalidate(username);
+        return saved;
+    }
+
+    public User updateEmail(String username, String email) {
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+        user.setEmail(email);
+        User saved = userRepository.save(user);
+        userInfoService.invalidate(username);
+        return saved;
+    }
+
+    public User setEnabled(String username, boolean enabled) {
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+        user.setEnabled(enabled);
+        User saved = userRepository.save(user);
+        userInfoService.invalidate(username);
+        return saved;
     }
 
     public User registerUser(String username, String password, String email) {
@@ -39,6 +62,6 @@ public class UserService implements UserDetailsService {
     }
 
     public Optional<User> findByUsername(String username) {
-        return userRepository.findByUsername(username);
+        return Spans.call("UserRepository.findByUsername", () -> userRepository.findByUsername(username));
     }
 } 
\ No newline at end of file
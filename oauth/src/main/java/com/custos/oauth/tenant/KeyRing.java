@@ -0,0 +1,82 @@
+package com.custos.oauth.tenant;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.crypto.RSASSAVerifier;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+
+import java.util.UUID;
+
+/**
+ * The signing key of an issuer, with its signer, verifier and published JWK Set built once.
+ */
+public class KeyRing {
+
+    private final RSAKey signingKey;
+    private final RSASSASigner signer;
+    private final RSASSAVerifier verifier;
+    private final String jwkSet;
+
+    /**
+     * Creates a key ring around an existing key.
+     *
+     * @param signingKey The RSA key pair, which must carry a key ID
+     * @throws JOSEException if the key cannot be used for signing
+     */
+    public KeyRing(RSAKey signingKey) throws JOSEException {
+        this.signingKey = signingKey;
+        this.signer = new RSASSASigner(signingKey);
+        this.verifier = new RSASSAVerifier(signingKey.toPublicJWK());
+        this.jwkSet = new JWKSet(signingKey.toPublicJWK()).toString();
+    }
+
+    /**
+     * Generates a new RSA signing key.
+     *
+     * @return The key pair, with a random key ID
+     * @throws JOSEException if key generation fails
+     */
+    public static RSAKey generateKey() throws JOSEException {
+        // The key ID lets resource servers pick the right key from the published JWK Set
+        return new RSAKeyGenerator(2048)
+            .keyID(UUID.randomUUID().toString())
+            .keyUse(KeyUse.SIGNATURE)
+            .algorithm(JWSAlgorithm.RS256)
+            .generate();
+    }
+
+    public RSAKey getSigningKey() {
+        return signingKey;
+    }
+
+    public String getKeyId() {
+        return signingKey.getKeyID();
+    }
+
+    public JWSSigner getSigner() {
+        return signer;
+    }
+
+    /**
+     * Returns the verifier for a key ID taken from a token header.
+     *
+     * @param keyId The key ID, or null to use the signing key
+     * @return The verifier, or null if the key ID belongs to no key in this ring
+     */
+    public JWSVerifier getVerifier(String keyId) {
+        return keyId == null || keyId.equals(signingKey.getKeyID()) ? verifier : null;
+    }
+
+    /**
+     * Returns the public keys as a JWK Set in JSON format.
+     */
+    public String getJwkSet() {
+        return jwkSet;
+    }
+}
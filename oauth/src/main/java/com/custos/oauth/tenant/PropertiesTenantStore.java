@@ -0,0 +1,93 @@
+package com.custos.oauth.tenant;
+
+import com.custos.oauth.service.JwtTokenService;
+import com.nimbusds.jose.JOSEException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Tenant store backed by application properties and process memory.
+ * <p>
+ * A tenant exists if {@code custos.tenants.<id>.issuer} is set, or when
+ * {@code custos.tenants.auto-create} is true and the identifier matches
+ * {@code custos.tenants.auto-create-pattern}, in which case its issuer is the default issuer
+ * followed by {@code /t/<id>}. Auto-created tenants are never dropped, so at most
+ * {@code custos.tenants.auto-create-max} of them are created; past that, unknown identifiers
+ * are refused like any other. Signing keys are generated on first use and, like registered
+ * clients, are kept here rather than in the tenant context so that evicting an idle tenant
+ * does not invalidate its tokens or lose its clients.
+ * <p>
+ * This store is the only copy of those keys and clients, so it keeps every definition it has
+ * handed out for the life of the process. Evicting an idle tenant from the {@link TenantRegistry}
+ * frees only the state derived from its definition; the memory held for tenants, including
+ * auto-created ones, grows up to {@code custos.tenants.auto-create-max} and stays there.
+ */
+@Slf4j
+@Component
+public class PropertiesTenantStore implements TenantStore {
+
+    private static final int DEFAULT_AUTO_CREATE_MAX = 1_000;
+
+    private final Environment environment;
+    private final String defaultIssuer;
+    private final boolean autoCreate;
+    private final Pattern autoCreatePattern;
+    private final int autoCreateMax;
+
+    private final Map<String, TenantDefinition> definitions = new ConcurrentHashMap<>();
+    private final AtomicInteger autoCreated = new AtomicInteger();
+
+    public PropertiesTenantStore(Environment environment) {
+        this.environment = environment;
+        this.defaultIssuer = environment.getProperty("oauth2.authorization-server.issuer", JwtTokenService.DEFAULT_ISSUER);
+        this.autoCreate = environment.getProperty("custos.tenants.auto-create", Boolean.class, false);
+        String pattern = environment.getProperty("custos.tenants.auto-create-pattern");
+        this.autoCreatePattern = pattern == null ? null : Pattern.compile(pattern);
+        this.autoCreateMax = environment.getProperty("custos.tenants.auto-create-max", Integer.class,
+            DEFAULT_AUTO_CREATE_MAX);
+    }
+
+    @Override
+    public TenantDefinition find(String tenantId) {
+        TenantDefinition definition = definitions.get(tenantId);
+        if (definition != null) {
+            return definition;
+        }
+
+        String issuer = environment.getProperty("custos.tenants." + tenantId + ".issuer");
+        if (issuer != null) {
+            return definitions.computeIfAbsent(tenantId, id -> create(id, issuer));
+        }
+        if (!autoCreate || (autoCreatePattern != null && !autoCreatePattern.matcher(tenantId).matches())) {
+            return null;
+        }
+        return definitions.computeIfAbsent(tenantId, this::autoCreate);
+    }
+
+    /**
+     * Creates a tenant that has no configuration, or returns null once the limit is reached.
+     */
+    private TenantDefinition autoCreate(String tenantId) {
+        if (autoCreated.incrementAndGet() > autoCreateMax) {
+            autoCreated.decrementAndGet();
+            log.warn("Refusing to create tenant {}: {} tenants have been created already", tenantId, autoCreateMax);
+            return null;
+        }
+        return create(tenantId, defaultIssuer + "/t/" + tenantId);
+    }
+
+    private static TenantDefinition create(String tenantId, String issuer) {
+        try {
+            log.info("Creating tenant {} with issuer {}", tenantId, issuer);
+            return new TenantDefinition(tenantId, issuer, KeyRing.generateKey(), new ConcurrentHashMap<>());
+        } catch (JOSEException e) {
+            throw new IllegalStateException("Failed to generate signing key for tenant " + tenantId, e);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.custos.oauth.tenant;
+
+import com.custos.oauth.client.ClientCertificateIndex;
+import com.custos.oauth.client.ClientRecord;
+import com.nimbusds.jose.JOSEException;
+import lombok.Getter;
+
+import java.util.Map;
+
+/**
+ * The runtime state of a loaded tenant: its issuer, ready-to-use signing keys, client registry and
+ * the index of its clients' certificates.
+ */
+@Getter
+public class TenantContext {
+
+    private static final long TOUCH_RESOLUTION_MILLIS = 1_000;
+
+    private final String id;
+    private final String issuer;
+    private final KeyRing keyRing;
+    private final Map<String, ClientRecord> clients;
+    private final ClientCertificateIndex certificateIndex;
+
+    private volatile long lastAccessed;
+
+    TenantContext(TenantDefinition definition, long now) throws JOSEException {
+        this.id = definition.id();
+        this.issuer = definition.issuer();
+        this.keyRing = new KeyRing(definition.signingKey());
+        this.clients = definition.clients();
+        this.certificateIndex = ClientCertificateIndex.of(clients.values());
+        this.lastAccessed = now;
+    }
+
+    void touch(long now) {
+        // Idle eviction works in minutes, so avoid a shared write on every request
+        if (now - lastAccessed >= TOUCH_RESOLUTION_MILLIS) {
+            lastAccessed = now;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.custos.oauth.tenant;
+
+/**
+ * Binds the tenant selected for a request to the thread handling it.
+ * When no tenant is bound, services fall back to their own default issuer, keys and clients.
+ */
+public final class TenantContextHolder {
+
+    private static final ThreadLocal<TenantContext> CURRENT = new ThreadLocal<>();
+
+    private TenantContextHolder() {
+    }
+
+    /**
+     * Returns the tenant bound to this thread, or null for the default tenant.
+     */
+    public static TenantContext get() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Returns the identifier of the tenant bound to this thread, or null for the default tenant.
+     */
+    public static String currentId() {
+        TenantContext tenant = CURRENT.get();
+        return tenant == null ? null : tenant.getId();
+    }
+
+    public static void set(TenantContext tenant) {
+        CURRENT.set(tenant);
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+}
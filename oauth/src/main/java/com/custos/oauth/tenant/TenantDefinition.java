@@ -0,0 +1,17 @@
+package com.custos.oauth.tenant;
+
+import com.custos.oauth.client.ClientRecord;
+import com.nimbusds.jose.jwk.RSAKey;
+
+import java.util.Map;
+
+/**
+ * The durable state of a tenant, which outlives the tenant's runtime context.
+ *
+ * @param id The tenant identifier
+ * @param issuer The issuer placed in tokens issued for the tenant
+ * @param signingKey The tenant's signing key pair
+ * @param clients The tenant's registered clients, keyed by client ID
+ */
+public record TenantDefinition(String id, String issuer, RSAKey signingKey, Map<String, ClientRecord> clients) {
+}
@@ -0,0 +1,90 @@
+package com.custos.oauth.tenant;
+
+import com.custos.oauth.logging.RequestLog;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * Selects the tenant for a request and binds it to the handling thread.
+ * <p>
+ * A request for {@code /t/<tenant>/<path>} is forwarded to {@code /<path>} with the tenant bound,
+ * so every endpoint serves every tenant under the same mappings. When
+ * {@code custos.tenants.host-suffix} is set, a request for {@code <tenant><suffix>} selects the
+ * tenant by host name instead. Other requests are served by the default tenant. Either way the
+ * tenant is found with one lookup, however many tenants exist. Runs before Spring Security, which
+ * then sees the forwarded path.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class TenantFilter extends OncePerRequestFilter {
+
+    static final String PATH_PREFIX = "/t/";
+
+    private final TenantRegistry tenantRegistry;
+    private final String hostSuffix;
+
+    public TenantFilter(TenantRegistry tenantRegistry, @Value("${custos.tenants.host-suffix:}") String hostSuffix) {
+        this.tenantRegistry = tenantRegistry;
+        this.hostSuffix = hostSuffix.toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+        throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (path.startsWith(PATH_PREFIX)) {
+            int end = path.indexOf('/', PATH_PREFIX.length());
+            String tenantId = end < 0 ? path.substring(PATH_PREFIX.length()) : path.substring(PATH_PREFIX.length(), end);
+            TenantContext tenant = tenantRegistry.resolve(tenantId);
+            if (tenant == null) {
+                response.sendError(HttpServletResponse.SC_NOT_FOUND);
+                return;
+            }
+            // Query parameters carry over to the forwarded request
+            TenantContextHolder.set(tenant);
+            RequestLog.tenant(tenantId);
+            try {
+                request.getRequestDispatcher(end < 0 ? "/" : path.substring(end)).forward(request, response);
+            } finally {
+                TenantContextHolder.clear();
+            }
+            return;
+        }
+
+        String tenantId = tenantFromHost(request.getServerName());
+        if (tenantId == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        TenantContext tenant = tenantRegistry.resolve(tenantId);
+        if (tenant == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        TenantContextHolder.set(tenant);
+        RequestLog.tenant(tenantId);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            TenantContextHolder.clear();
+        }
+    }
+
+    private String tenantFromHost(String host) {
+        if (hostSuffix.isEmpty() || host == null || host.length() <= hostSuffix.length()) {
+            return null;
+        }
+        String lowerHost = host.toLowerCase(Locale.ROOT);
+        return lowerHost.endsWith(hostSuffix) ? lowerHost.substring(0, lowerHost.length() - hostSuffix.length()) : null;
+    }
+}
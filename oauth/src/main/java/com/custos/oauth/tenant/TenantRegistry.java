@@ -0,0 +1,137 @@
+package com.custos.oauth.tenant;
+
+import com.nimbusds.jose.JOSEException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loads tenants on first use and evicts those that have been idle for too long.
+ * Resolving a loaded tenant is a single map lookup; loading happens once per tenant
+ * even when many requests for it arrive together. Eviction drops only the state derived from a
+ * tenant's definition, such as its key verifiers and certificate index; the definition itself,
+ * with the tenant's keys and clients, stays with the {@link TenantStore}.
+ */
+@Slf4j
+@Component
+public class TenantRegistry {
+
+    private static final int MAX_TENANT_ID_LENGTH = 63;
+
+    private final TenantStore store;
+    private final long idleTimeoutMillis;
+    private final Clock clock;
+    private final ScheduledExecutorService evictor;
+
+    private final Map<String, TenantContext> active = new ConcurrentHashMap<>();
+
+    @Autowired
+    public TenantRegistry(TenantStore store, @Value("${custos.tenants.idle-timeout:30m}") Duration idleTimeout) {
+        this(store, idleTimeout, Clock.systemUTC(), Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "tenant-evictor");
+            thread.setDaemon(true);
+            return thread;
+        }));
+        long period = Math.max(1_000, idleTimeoutMillis / 2);
+        evictor.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    TenantRegistry(TenantStore store, Duration idleTimeout, Clock clock, ScheduledExecutorService evictor) {
+        this.store = store;
+        this.idleTimeoutMillis = idleTimeout.toMillis();
+        this.clock = clock;
+        this.evictor = evictor;
+    }
+
+    /**
+     * Returns the context of a tenant, loading it if necessary.
+     *
+     * @param tenantId The tenant identifier taken from the request
+     * @return The tenant context, or null if the identifier is malformed or unknown
+     */
+    public TenantContext resolve(String tenantId) {
+        if (!isValidId(tenantId)) {
+            return null;
+        }
+        long now = clock.millis();
+        TenantContext tenant = active.get(tenantId);
+        if (tenant == null) {
+            tenant = active.computeIfAbsent(tenantId, id -> load(id, now));
+        }
+        if (tenant != null) {
+            tenant.touch(now);
+        }
+        return tenant;
+    }
+
+    /**
+     * Drops tenants that have not been used within the idle timeout.
+     *
+     * @return The number of tenants evicted
+     */
+    public int evictIdle() {
+        long cutoff = clock.millis() - idleTimeoutMillis;
+        int before = active.size();
+        active.values().removeIf(tenant -> tenant.getLastAccessed() <= cutoff);
+        int evicted = before - active.size();
+        if (evicted > 0) {
+            log.debug("Evicted {} idle tenants", evicted);
+        }
+        return evicted;
+    }
+
+    /**
+     * Returns the number of tenants currently loaded.
+     */
+    public int size() {
+        return active.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (evictor != null) {
+            evictor.shutdownNow();
+        }
+    }
+
+    private TenantContext load(String tenantId, long now) {
+        TenantDefinition definition = store.find(tenantId);
+        if (definition == null) {
+            return null;
+        }
+        try {
+            log.info("Loaded tenant {}", tenantId);
+            return new TenantContext(definition, now);
+        } catch (JOSEException e) {
+            throw new IllegalStateException("Unusable signing key for tenant " + tenantId, e);
+        }
+    }
+
+    /**
+     * Tenant identifiers are DNS labels: lowercase letters, digits and hyphens, starting with a
+     * letter or digit. This keeps them safe to embed in property names, paths and host names.
+     */
+    static boolean isValidId(String tenantId) {
+        if (tenantId == null || tenantId.isEmpty() || tenantId.length() > MAX_TENANT_ID_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < tenantId.length(); i++) {
+            char c = tenantId.charAt(i);
+            boolean alphanumeric = (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9');
+            if (!alphanumeric && (c != '-' || i == 0)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
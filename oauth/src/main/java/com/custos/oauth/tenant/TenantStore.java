@@ -0,0 +1,15 @@
+package com.custos.oauth.tenant;
+
+/**
+ * Source of tenant definitions.
+ */
+public interface TenantStore {
+
+    /**
+     * Looks up a tenant.
+     *
+     * @param tenantId A syntactically valid tenant identifier
+     * @return The tenant definition, or null if there is no such tenant
+     */
+    TenantDefinition find(String tenantId);
+}
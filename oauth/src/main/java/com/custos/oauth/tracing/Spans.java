@@ -0,0 +1,92 @@
+package com.custos.oauth.tracing;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Wraps a phase of request handling in a child of the current span.
+ * <p>
+ * Static so that code built without Spring, such as the token service in tests, is traced the same
+ * way. Until a tracer is installed every span is a no-op, and with one installed a span that the
+ * sampler dropped costs little more than the call it wraps.
+ */
+public final class Spans {
+
+    public static final String INSTRUMENTATION_NAME = "com.custos.oauth";
+
+    private static volatile Tracer tracer = OpenTelemetry.noop().getTracer(INSTRUMENTATION_NAME);
+
+    private Spans() {
+    }
+
+    /**
+     * Sets the tracer that spans are created with.
+     */
+    public static void install(Tracer tracer) {
+        Spans.tracer = tracer;
+    }
+
+    /**
+     * Runs a call in a span, recording the exception if it fails.
+     *
+     * @param name The span name, which should not depend on request data
+     * @param call The work to trace
+     * @return The result of the call
+     */
+    public static <T, E extends Exception> T call(String name, Call<T, E> call) throws E {
+        Span span = tracer.spanBuilder(name).startSpan();
+        try (Scope ignored = span.makeCurrent()) {
+            return call.call();
+        } catch (Exception e) {
+            span.recordException(e);
+            span.setStatus(StatusCode.ERROR);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+
+    /**
+     * Runs an action in a span, recording the exception if it fails.
+     *
+     * @param name The span name, which should not depend on request data
+     * @param action The work to trace
+     */
+    public static <E extends Exception> void run(String name, Action<E> action) throws E {
+        call(name, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Returns an executor that runs each task in the trace context it was submitted from.
+     */
+    public static Executor wrap(Executor executor) {
+        return Context.taskWrapping(executor);
+    }
+
+    /**
+     * Returns an executor service that runs each task in the trace context it was submitted from.
+     */
+    public static ExecutorService wrap(ExecutorService executor) {
+        return Context.taskWrapping(executor);
+    }
+
+    @FunctionalInterface
+    public interface Call<T, E extends Exception> {
+        T call() throws E;
+    }
+
+    @FunctionalInterface
+    public interface Action<E extends Exception> {
+        void run() throws E;
+    }
+}
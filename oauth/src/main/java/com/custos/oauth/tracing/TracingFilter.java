@@ -0,0 +1,165 @@
+package com.custos.oauth.tracing;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.context.propagation.TextMapGetter;
+import io.opentelemetry.context.propagation.TextMapPropagator;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Collections;
+
+/**
+ * Opens the server span of a request, continuing the caller's trace when the request carries a
+ * W3C {@code traceparent} header. The sampling decision is made here, once per trace, and every
+ * span below it follows that decision.
+ * <p>
+ * Runs before the tenant filter, so that the span also covers requests forwarded for a tenant.
+ * <p>
+ * A request that goes asynchronous, such as a device code poll held open with
+ * {@code Prefer: wait}, keeps its span open until the response is complete: the span is current
+ * again while the result is dispatched, and ends with the final status.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class TracingFilter extends OncePerRequestFilter {
+
+    private static final String TENANT_PREFIX = "/t/";
+    private static final String SPAN_ATTRIBUTE = TracingFilter.class.getName() + ".SPAN";
+
+    private static final TextMapGetter<HttpServletRequest> HEADERS = new TextMapGetter<>() {
+        @Override
+        public Iterable<String> keys(HttpServletRequest request) {
+            return Collections.list(request.getHeaderNames());
+        }
+
+        @Override
+        public String get(HttpServletRequest request, String name) {
+            return request == null ? null : request.getHeader(name);
+        }
+    };
+
+    private final Tracer tracer;
+    private final TextMapPropagator propagator;
+
+    public TracingFilter(OpenTelemetry openTelemetry) {
+        this.tracer = openTelemetry.getTracer(Spans.INSTRUMENTATION_NAME);
+        this.propagator = openTelemetry.getPropagators().getTextMapPropagator();
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+        throws ServletException, IOException {
+        if (request.getDispatcherType() == DispatcherType.ASYNC
+                && request.getAttribute(SPAN_ATTRIBUTE) instanceof Span span) {
+            try (Scope ignored = span.makeCurrent()) {
+                chain.doFilter(request, response);
+            } catch (IOException | ServletException | RuntimeException e) {
+                span.recordException(e);
+                span.setStatus(StatusCode.ERROR);
+                throw e;
+            }
+            return;
+        }
+
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        Context parent = propagator.extract(Context.root(), request, HEADERS);
+        Span span = tracer.spanBuilder(request.getMethod() + " " + route(path))
+            .setParent(parent)
+            .setSpanKind(SpanKind.SERVER)
+            .setAttribute("http.request.method", request.getMethod())
+            .setAttribute("url.path", path)
+            .startSpan();
+        try (Scope ignored = span.makeCurrent()) {
+            chain.doFilter(request, response);
+        } catch (IOException | ServletException | RuntimeException e) {
+            span.recordException(e);
+            span.setStatus(StatusCode.ERROR);
+            throw e;
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.setAttribute(SPAN_ATTRIBUTE, span);
+                request.getAsyncContext().addListener(new SpanListener(span));
+            } else {
+                end(span, response);
+            }
+        }
+    }
+
+    private static void end(Span span, HttpServletResponse response) {
+        span.setAttribute("http.response.status_code", response.getStatus());
+        if (response.getStatus() >= 500) {
+            span.setStatus(StatusCode.ERROR);
+        }
+        span.end();
+    }
+
+    /**
+     * Replaces the tenant in a tenant path, so that span names do not grow with the tenants.
+     */
+    public static String route(String path) {
+        if (!path.startsWith(TENANT_PREFIX)) {
+            return path;
+        }
+        int end = path.indexOf('/', TENANT_PREFIX.length());
+        return TENANT_PREFIX + "{tenant}" + (end < 0 ? "" : path.substring(end));
+    }
+
+    /**
+     * Ends the span of an asynchronous request once its response is complete. A timeout or error
+     * is recorded when it happens, but the span stays open for the response the container or the
+     * dispatched error handling then writes.
+     */
+    private static final class SpanListener implements AsyncListener {
+
+        private final Span span;
+
+        SpanListener(Span span) {
+            this.span = span;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            end(span, (HttpServletResponse) event.getSuppliedResponse());
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            span.addEvent("timeout");
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            if (event.getThrowable() != null) {
+                span.recordException(event.getThrowable());
+            }
+            span.setStatus(StatusCode.ERROR);
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Listeners are dropped when the request goes asynchronous again
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
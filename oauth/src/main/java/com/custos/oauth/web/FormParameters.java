@@ -0,0 +1,153 @@
+package com.custos.oauth.web;
+
+import com.custos.oauth.exception.OAuthException;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Decoder for {@code application/x-www-form-urlencoded} bodies that only materializes the
+ * parameters it was configured with. Keys are matched against precomputed bytes directly in the
+ * body buffer and values are percent-decoded in place, so a request costs one String per known
+ * parameter and no intermediate map.
+ */
+public final class FormParameters {
+
+    private final String[] names;
+    private final byte[][] nameBytes;
+
+    /**
+     * Creates a decoder for the given parameter names.
+     * Values returned by {@link #parse} are indexed in the same order as the names.
+     *
+     * @param names The parameter names to extract
+     */
+    public FormParameters(String... names) {
+        this.names = names.clone();
+        this.nameBytes = new byte[names.length][];
+        for (int i = 0; i < names.length; i++) {
+            nameBytes[i] = names[i].getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    public String name(int index) {
+        return names[index];
+    }
+
+    /**
+     * Extracts the known parameters from a form-encoded body.
+     * The buffer is modified in place while decoding.
+     *
+     * @param body The buffer holding the request body
+     * @param length The number of valid bytes in the buffer
+     * @return The decoded values, with null for parameters that were absent
+     * @throws OAuthException if a known parameter is repeated or malformed
+     */
+    public String[] parse(byte[] body, int length) throws OAuthException {
+        String[] values = new String[names.length];
+        int start = 0;
+        while (start < length) {
+            int end = indexOf(body, (byte) '&', start, length);
+            if (end < 0) {
+                end = length;
+            }
+            int separator = indexOf(body, (byte) '=', start, end);
+            int keyEnd = separator < 0 ? end : separator;
+
+            int index = match(body, start, keyEnd);
+            if (index >= 0) {
+                if (values[index] != null) {
+                    // RFC 6749 section 3.2: parameters must not be included more than once
+                    throw new OAuthException("invalid_request", "Duplicate parameter: " + names[index]);
+                }
+                values[index] = separator < 0 ? "" : decode(body, separator + 1, end);
+            }
+            start = end + 1;
+        }
+        return values;
+    }
+
+    private int match(byte[] body, int start, int end) {
+        if (needsDecoding(body, start, end)) {
+            // Percent-encoded keys are legal but rare, so only decode them when present
+            end = start + decodeInPlace(body, start, end);
+        }
+        int length = end - start;
+        for (int i = 0; i < nameBytes.length; i++) {
+            byte[] candidate = nameBytes[i];
+            if (candidate.length == length && regionEquals(body, start, candidate)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String decode(byte[] body, int start, int end) {
+        if (!needsDecoding(body, start, end)) {
+            return new String(body, start, end - start, StandardCharsets.UTF_8);
+        }
+        int length = decodeInPlace(body, start, end);
+        return new String(body, start, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Decodes '+' and percent escapes in place. The decoded form is never longer than the encoded
+     * one, so writing behind the read position is safe.
+     *
+     * @return The decoded length
+     */
+    private static int decodeInPlace(byte[] body, int start, int end) {
+        int write = start;
+        for (int read = start; read < end; read++) {
+            byte b = body[read];
+            if (b == '+') {
+                body[write++] = ' ';
+            } else if (b == '%') {
+                if (read + 2 >= end) {
+                    throw new OAuthException("invalid_request", "Malformed percent-encoding");
+                }
+                int high = Character.digit(body[read + 1], 16);
+                int low = Character.digit(body[read + 2], 16);
+                if (high < 0 || low < 0) {
+                    throw new OAuthException("invalid_request", "Malformed percent-encoding");
+                }
+                body[write++] = (byte) ((high << 4) | low);
+                read += 2;
+            } else {
+                body[write++] = b;
+            }
+        }
+        return write - start;
+    }
+
+    private static boolean needsDecoding(byte[] body, int start, int end) {
+        for (int i = start; i < end; i++) {
+            byte b = body[i];
+            if (b == '%' || b == '+') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean regionEquals(byte[] body, int start, byte[] candidate) {
+        for (int i = 0; i < candidate.length; i++) {
+            if (body[start + i] != candidate[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int indexOf(byte[] body, byte value, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (body[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,305 @@
+package com.custos.oauth.web;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Minimal JSON writer that encodes fixed-shape objects straight into a reusable byte buffer.
+ * Field names are expected to be precomputed with {@link #name(String)} so that the hot path
+ * only copies bytes. Instances are pooled per thread; obtain one with {@link #acquire()} and do
+ * not keep a reference to it after the response has been written.
+ */
+public final class JsonByteWriter {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /**
+     * Buffers that grew beyond this size are not kept in the pool.
+     */
+    private static final int MAX_POOLED_CAPACITY = 64 * 1024;
+
+    private static final ThreadLocal<JsonByteWriter> POOL = ThreadLocal.withInitial(JsonByteWriter::new);
+
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] TRUE = "true".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] FALSE = "false".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NULL = "null".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] MIN_LONG = Long.toString(Long.MIN_VALUE).getBytes(StandardCharsets.US_ASCII);
+
+    private byte[] buffer;
+    private int size;
+    private boolean firstField;
+
+    public JsonByteWriter() {
+        this.buffer = new byte[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Returns the writer pooled for the current thread, reset and ready for use.
+     *
+     * @return The pooled writer
+     */
+    public static JsonByteWriter acquire() {
+        JsonByteWriter writer = POOL.get();
+        if (writer.buffer.length > MAX_POOLED_CAPACITY) {
+            writer.buffer = new byte[INITIAL_CAPACITY];
+        }
+        writer.reset();
+        return writer;
+    }
+
+    /**
+     * Precomputes the bytes for a JSON field name, including the quotes and the colon.
+     *
+     * @param fieldName The field name, which must not need escaping
+     * @return The encoded field name
+     */
+    public static byte[] name(String fieldName) {
+        return ("\"" + fieldName + "\":").getBytes(StandardCharsets.UTF_8);
+    }
+
+    public JsonByteWriter reset() {
+        size = 0;
+        firstField = true;
+        return this;
+    }
+
+    public JsonByteWriter beginObject() {
+        writeByte('{');
+        firstField = true;
+        return this;
+    }
+
+    public JsonByteWriter endObject() {
+        writeByte('}');
+        firstField = false;
+        return this;
+    }
+
+    /**
+     * Writes a string field. Null values are omitted.
+     */
+    public JsonByteWriter field(byte[] name, String value) {
+        if (value != null) {
+            writeName(name);
+            writeString(value);
+        }
+        return this;
+    }
+
+    /**
+     * Writes a numeric field. Null values are omitted.
+     */
+    public JsonByteWriter field(byte[] name, Long value) {
+        if (value != null) {
+            field(name, value.longValue());
+        }
+        return this;
+    }
+
+    public JsonByteWriter field(byte[] name, long value) {
+        writeName(name);
+        writeLong(value);
+        return this;
+    }
+
+    public JsonByteWriter field(byte[] name, boolean value) {
+        writeName(name);
+        writeBytes(value ? TRUE : FALSE);
+        return this;
+    }
+
+    /**
+     * Writes a field whose value is already encoded JSON.
+     */
+    public JsonByteWriter rawField(byte[] name, byte[] json) {
+        writeName(name);
+        writeBytes(json);
+        return this;
+    }
+
+    /**
+     * Writes a field name and leaves the value to the caller, for nested objects.
+     */
+    public JsonByteWriter fieldName(byte[] name) {
+        writeName(name);
+        return this;
+    }
+
+    /**
+     * Writes an array of strings. Null values are omitted.
+     */
+    public JsonByteWriter field(byte[] name, String[] values) {
+        if (values != null) {
+            writeName(name);
+            writeByte('[');
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writeByte(',');
+                }
+                writeString(values[i]);
+            }
+            writeByte(']');
+        }
+        return this;
+    }
+
+    /**
+     * Writes an object whose members are all strings, such as a confirmation claim. Null maps are
+     * omitted; member names are escaped like values.
+     */
+    public JsonByteWriter field(byte[] name, Map<String, ?> members) {
+        if (members != null) {
+            writeName(name);
+            writeByte('{');
+            boolean first = true;
+            for (Map.Entry<String, ?> member : members.entrySet()) {
+                if (!first) {
+                    writeByte(',');
+                }
+                first = false;
+                writeString(member.getKey());
+                writeByte(':');
+                writeString(String.valueOf(member.getValue()));
+            }
+            writeByte('}');
+        }
+        return this;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, size);
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(buffer, 0, size);
+    }
+
+    private void writeName(byte[] name) {
+        if (!firstField) {
+            writeByte(',');
+        }
+        firstField = false;
+        writeBytes(name);
+    }
+
+    private void writeString(String value) {
+        if (value == null) {
+            writeBytes(NULL);
+            return;
+        }
+        int length = value.length();
+        // Worst case is six bytes per char for escaped control characters
+        ensureCapacity(length * 6 + 2);
+        byte[] buf = buffer;
+        int pos = size;
+        buf[pos++] = '"';
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                if (c == '"' || c == '\\') {
+                    buf[pos++] = '\\';
+                    buf[pos++] = (byte) c;
+                } else if (c < 0x20) {
+                    pos = writeControl(buf, pos, c);
+                } else {
+                    buf[pos++] = (byte) c;
+                }
+            } else if (c < 0x800) {
+                buf[pos++] = (byte) (0xC0 | (c >> 6));
+                buf[pos++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                buf[pos++] = (byte) (0xF0 | (codePoint >> 18));
+                buf[pos++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                buf[pos++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                buf[pos++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // Unpaired surrogates cannot be encoded as UTF-8, so escape them
+                pos = writeUnicodeEscape(buf, pos, c);
+            } else {
+                buf[pos++] = (byte) (0xE0 | (c >> 12));
+                buf[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buf[pos++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        buf[pos++] = '"';
+        size = pos;
+    }
+
+    private static int writeControl(byte[] buf, int pos, char c) {
+        switch (c) {
+            case '\n':
+                buf[pos++] = '\\';
+                buf[pos++] = 'n';
+                return pos;
+            case '\r':
+                buf[pos++] = '\\';
+                buf[pos++] = 'r';
+                return pos;
+            case '\t':
+                buf[pos++] = '\\';
+                buf[pos++] = 't';
+                return pos;
+            default:
+                return writeUnicodeEscape(buf, pos, c);
+        }
+    }
+
+    private static int writeUnicodeEscape(byte[] buf, int pos, char c) {
+        buf[pos++] = '\\';
+        buf[pos++] = 'u';
+        buf[pos++] = HEX[(c >> 12) & 0xF];
+        buf[pos++] = HEX[(c >> 8) & 0xF];
+        buf[pos++] = HEX[(c >> 4) & 0xF];
+        buf[pos++] = HEX[c & 0xF];
+        return pos;
+    }
+
+    private void writeLong(long value) {
+        if (value == Long.MIN_VALUE) {
+            writeBytes(MIN_LONG);
+            return;
+        }
+        ensureCapacity(20);
+        if (value < 0) {
+            buffer[size++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (long v = value; v >= 10; v /= 10) {
+            digits++;
+        }
+        int pos = size + digits;
+        do {
+            buffer[--pos] = (byte) ('0' + (value % 10));
+            value /= 10;
+        } while (value != 0);
+        size += digits;
+    }
+
+    private void writeByte(char c) {
+        ensureCapacity(1);
+        buffer[size++] = (byte) c;
+    }
+
+    private void writeBytes(byte[] bytes) {
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, size, bytes.length);
+        size += bytes.length;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (size + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+        }
+    }
+}
@@ -0,0 +1,388 @@
+package com.custos.oauth.web;
+
+import com.custos.oauth.client.ClientCertificate;
+import com.custos.oauth.dpop.DPoPProofVerifier;
+import com.custos.oauth.exception.OAuthException;
+import com.custos.oauth.model.AuthorizationRequest;
+import com.custos.oauth.model.DeviceAuthorizationRequest;
+import com.custos.oauth.model.PushedAuthorizationRequest;
+import com.custos.oauth.model.TokenIntrospectionRequest;
+import com.custos.oauth.model.TokenRequest;
+import com.custos.oauth.model.TokenRevocationRequest;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.cert.X509Certificate;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Enumeration;
+
+/**
+ * Binds form-encoded requests to the token, introspection, revocation, pushed authorization
+ * request and device authorization endpoints.
+ * The body is read into a pooled per-thread buffer and only the parameters each endpoint
+ * understands are decoded. Client credentials are taken from the HTTP Basic Authorization
+ * header when present, as described in RFC 6749 section 2.3.1; client assertions (RFC 7523) are
+ * passed through for the endpoint to verify. Token requests also carry the certificate the client
+ * presented on the TLS connection, if any (RFC 8705), and its DPoP proof (RFC 9449); both are
+ * also available on their own to endpoints that check the binding of presented tokens.
+ */
+public final class OAuthForms {
+
+    /**
+     * Upper bound on the size of a form body. OAuth requests are small; anything larger is refused
+     * rather than buffered.
+     */
+    static final int MAX_BODY_SIZE = 64 * 1024;
+
+    private static final int INITIAL_BUFFER_SIZE = 2048;
+
+    private static final ThreadLocal<byte[]> BUFFERS = ThreadLocal.withInitial(() -> new byte[INITIAL_BUFFER_SIZE]);
+
+    private static final String BASIC_PREFIX = "Basic ";
+
+    /**
+     * The request attribute under which the servlet container exposes the client's certificate chain.
+     */
+    private static final String CERTIFICATE_ATTRIBUTE = "jakarta.servlet.request.X509Certificate";
+
+    private static final FormParameters TOKEN_PARAMETERS = new FormParameters(
+        "grant_type", "client_id", "client_secret", "scope", "code", "code_verifier",
+        "redirect_uri", "username", "password", "refresh_token",
+        "subject_token", "subject_token_type", "audience", "requested_token_type", "device_code",
+        "client_assertion_type", "client_assertion");
+
+    private static final int TOKEN_GRANT_TYPE = 0;
+    private static final int TOKEN_CLIENT_ID = 1;
+    private static final int TOKEN_CLIENT_SECRET = 2;
+    private static final int TOKEN_SCOPE = 3;
+    private static final int TOKEN_CODE = 4;
+    private static final int TOKEN_CODE_VERIFIER = 5;
+    private static final int TOKEN_REDIRECT_URI = 6;
+    private static final int TOKEN_USERNAME = 7;
+    private static final int TOKEN_PASSWORD = 8;
+    private static final int TOKEN_REFRESH_TOKEN = 9;
+    private static final int TOKEN_SUBJECT_TOKEN = 10;
+    private static final int TOKEN_SUBJECT_TOKEN_TYPE = 11;
+    private static final int TOKEN_AUDIENCE = 12;
+    private static final int TOKEN_REQUESTED_TOKEN_TYPE = 13;
+    private static final int TOKEN_DEVICE_CODE = 14;
+    private static final int TOKEN_CLIENT_ASSERTION_TYPE = 15;
+    private static final int TOKEN_CLIENT_ASSERTION = 16;
+
+    /**
+     * Introspection (RFC 7662) and revocation (RFC 7009) share the same parameters.
+     */
+    private static final FormParameters TOKEN_HINT_PARAMETERS = new FormParameters(
+        "token", "token_type_hint", "client_id", "client_secret", "client_assertion_type", "client_assertion");
+
+    private static final int HINT_TOKEN = 0;
+    private static final int HINT_TOKEN_TYPE_HINT = 1;
+    private static final int HINT_CLIENT_ID = 2;
+    private static final int HINT_CLIENT_SECRET = 3;
+    private static final int HINT_CLIENT_ASSERTION_TYPE = 4;
+    private static final int HINT_CLIENT_ASSERTION = 5;
+
+    private static final FormParameters PUSHED_AUTHORIZATION_PARAMETERS = new FormParameters(
+        "client_id", "client_secret", "response_type", "redirect_uri", "scope", "state",
+        "code_challenge", "code_challenge_method", "request_uri", "client_assertion_type", "client_assertion");
+
+    private static final int PAR_CLIENT_ID = 0;
+    private static final int PAR_CLIENT_SECRET = 1;
+    private static final int PAR_RESPONSE_TYPE = 2;
+    private static final int PAR_REDIRECT_URI = 3;
+    private static final int PAR_SCOPE = 4;
+    private static final int PAR_STATE = 5;
+    private static final int PAR_CODE_CHALLENGE = 6;
+    private static final int PAR_CODE_CHALLENGE_METHOD = 7;
+    private static final int PAR_REQUEST_URI = 8;
+    private static final int PAR_CLIENT_ASSERTION_TYPE = 9;
+    private static final int PAR_CLIENT_ASSERTION = 10;
+
+    private static final FormParameters DEVICE_AUTHORIZATION_PARAMETERS = new FormParameters(
+        "client_id", "client_secret", "scope", "client_assertion_type", "client_assertion");
+
+    private static final int DEVICE_CLIENT_ID = 0;
+    private static final int DEVICE_CLIENT_SECRET = 1;
+    private static final int DEVICE_SCOPE = 2;
+    private static final int DEVICE_CLIENT_ASSERTION_TYPE = 3;
+    private static final int DEVICE_CLIENT_ASSERTION = 4;
+
+    private OAuthForms() {
+    }
+
+    /**
+     * Reads a token request from a form-encoded body.
+     *
+     * @param request The servlet request
+     * @return The bound token request
+     * @throws OAuthException if the body is malformed or client authentication is ambiguous
+     */
+    public static TokenRequest readTokenRequest(HttpServletRequest request) throws OAuthException {
+        String[] values = read(request, TOKEN_PARAMETERS);
+        String[] credentials = clientCredentials(request, values, TOKEN_CLIENT_ID, TOKEN_CLIENT_SECRET);
+
+        return TokenRequest.builder()
+            .grantType(values[TOKEN_GRANT_TYPE])
+            .clientId(credentials[0])
+            .clientSecret(credentials[1])
+            .scope(values[TOKEN_SCOPE])
+            .code(values[TOKEN_CODE])
+            .codeVerifier(values[TOKEN_CODE_VERIFIER])
+            .redirectUri(values[TOKEN_REDIRECT_URI])
+            .username(values[TOKEN_USERNAME])
+            .password(values[TOKEN_PASSWORD])
+            .refreshToken(values[TOKEN_REFRESH_TOKEN])
+            .subjectToken(values[TOKEN_SUBJECT_TOKEN])
+            .subjectTokenType(values[TOKEN_SUBJECT_TOKEN_TYPE])
+            .audience(values[TOKEN_AUDIENCE])
+            .requestedTokenType(values[TOKEN_REQUESTED_TOKEN_TYPE])
+            .deviceCode(values[TOKEN_DEVICE_CODE])
+            .clientAssertionType(values[TOKEN_CLIENT_ASSERTION_TYPE])
+            .clientAssertion(values[TOKEN_CLIENT_ASSERTION])
+            .clientCertificate(clientCertificate(request))
+            .dpopProof(dpopProof(request))
+            .build();
+    }
+
+    /**
+     * Reads a token introspection request from a form-encoded body.
+     *
+     * @param request The servlet request
+     * @return The bound introspection request
+     * @throws OAuthException if the body is malformed or client authentication is ambiguous
+     */
+    public static TokenIntrospectionRequest readIntrospectionRequest(HttpServletRequest request) throws OAuthException {
+        String[] values = read(request, TOKEN_HINT_PARAMETERS);
+        String[] credentials = clientCredentials(request, values, HINT_CLIENT_ID, HINT_CLIENT_SECRET);
+
+        return TokenIntrospectionRequest.builder()
+            .token(values[HINT_TOKEN])
+            .tokenTypeHint(values[HINT_TOKEN_TYPE_HINT])
+            .clientId(credentials[0])
+            .clientSecret(credentials[1])
+            .clientAssertionType(values[HINT_CLIENT_ASSERTION_TYPE])
+            .clientAssertion(values[HINT_CLIENT_ASSERTION])
+            .build();
+    }
+
+    /**
+     * Reads a token revocation request from a form-encoded body.
+     *
+     * @param request The servlet request
+     * @return The bound revocation request
+     * @throws OAuthException if the body is malformed or client authentication is ambiguous
+     */
+    public static TokenRevocationRequest readRevocationRequest(HttpServletRequest request) throws OAuthException {
+        String[] values = read(request, TOKEN_HINT_PARAMETERS);
+        String[] credentials = clientCredentials(request, values, HINT_CLIENT_ID, HINT_CLIENT_SECRET);
+
+        return TokenRevocationRequest.builder()
+            .token(values[HINT_TOKEN])
+            .tokenTypeHint(values[HINT_TOKEN_TYPE_HINT])
+            .clientId(credentials[0])
+            .clientSecret(credentials[1])
+            .clientAssertionType(values[HINT_CLIENT_ASSERTION_TYPE])
+            .clientAssertion(values[HINT_CLIENT_ASSERTION])
+            .build();
+    }
+
+    /**
+     * Reads a pushed authorization request (RFC 9126) from a form-encoded body.
+     *
+     * @param request The servlet request
+     * @return The bound pushed authorization request
+     * @throws OAuthException if the body is malformed or client authentication is ambiguous
+     */
+    public static PushedAuthorizationRequest readPushedAuthorizationRequest(HttpServletRequest request)
+        throws OAuthException {
+        String[] values = read(request, PUSHED_AUTHORIZATION_PARAMETERS);
+        String[] credentials = clientCredentials(request, values, PAR_CLIENT_ID, PAR_CLIENT_SECRET);
+
+        return PushedAuthorizationRequest.builder()
+            .clientId(credentials[0])
+            .clientSecret(credentials[1])
+            .clientAssertionType(values[PAR_CLIENT_ASSERTION_TYPE])
+            .clientAssertion(values[PAR_CLIENT_ASSERTION])
+            .authorizationRequest(AuthorizationRequest.builder()
+                .clientId(credentials[0])
+                .responseType(values[PAR_RESPONSE_TYPE])
+                .redirectUri(values[PAR_REDIRECT_URI])
+                .scope(values[PAR_SCOPE])
+                .state(values[PAR_STATE])
+                .codeChallenge(values[PAR_CODE_CHALLENGE])
+                .codeChallengeMethod(values[PAR_CODE_CHALLENGE_METHOD])
+                .requestUri(values[PAR_REQUEST_URI])
+                .build())
+            .build();
+    }
+
+    /**
+     * Reads a device authorization request (RFC 8628) from a form-encoded body.
+     *
+     * @param request The servlet request
+     * @return The bound device authorization request
+     * @throws OAuthException if the body is malformed or client authentication is ambiguous
+     */
+    public static DeviceAuthorizationRequest readDeviceAuthorizationRequest(HttpServletRequest request)
+        throws OAuthException {
+        String[] values = read(request, DEVICE_AUTHORIZATION_PARAMETERS);
+        String[] credentials = clientCredentials(request, values, DEVICE_CLIENT_ID, DEVICE_CLIENT_SECRET);
+
+        return DeviceAuthorizationRequest.builder()
+            .clientId(credentials[0])
+            .clientSecret(credentials[1])
+            .scope(values[DEVICE_SCOPE])
+            .clientAssertionType(values[DEVICE_CLIENT_ASSERTION_TYPE])
+            .clientAssertion(values[DEVICE_CLIENT_ASSERTION])
+            .build();
+    }
+
+    /**
+     * Reads the body and decodes the given parameters.
+     * If something upstream already consumed the body through the servlet parameter API, the values
+     * are taken from there instead.
+     */
+    static String[] read(HttpServletRequest request, FormParameters parameters) throws OAuthException {
+        byte[] buffer = BUFFERS.get();
+        int length = 0;
+        try (InputStream in = request.getInputStream()) {
+            int contentLength = request.getContentLength();
+            if (contentLength > MAX_BODY_SIZE) {
+                throw new OAuthException("invalid_request", "Request body too large");
+            }
+            if (contentLength > buffer.length) {
+                buffer = new byte[contentLength];
+            }
+            int read;
+            while ((read = in.read(buffer, length, buffer.length - length)) != -1) {
+                length += read;
+                if (length == buffer.length) {
+                    if (length >= MAX_BODY_SIZE) {
+                        // A body that exactly fills the limit is fine; only a byte past it is not
+                        if (in.read() != -1) {
+                            throw new OAuthException("invalid_request", "Request body too large");
+                        }
+                        break;
+                    }
+                    buffer = Arrays.copyOf(buffer, Math.min(buffer.length * 2, MAX_BODY_SIZE));
+                }
+            }
+        } catch (IOException e) {
+            throw new OAuthException("invalid_request", "Failed to read request body");
+        }
+
+        if (length == 0) {
+            return fromParameterMap(request, parameters);
+        }
+        return parameters.parse(buffer, length);
+    }
+
+    private static String[] fromParameterMap(HttpServletRequest request, FormParameters parameters) {
+        String[] values = new String[parameters.size()];
+        for (int i = 0; i < values.length; i++) {
+            String[] candidates = request.getParameterValues(parameters.name(i));
+            if (candidates != null && candidates.length > 1) {
+                throw new OAuthException("invalid_request", "Duplicate parameter: " + parameters.name(i));
+            }
+            values[i] = candidates == null ? null : candidates[0];
+        }
+        return values;
+    }
+
+    /**
+     * Returns the certificate the client authenticated the TLS connection with.
+     *
+     * @param request The request
+     * @return The certificate's thumbprint and subject, or null if the client presented none
+     * @throws OAuthException invalid_client if the certificate cannot be encoded
+     */
+    public static ClientCertificate clientCertificate(HttpServletRequest request) throws OAuthException {
+        Object chain = request.getAttribute(CERTIFICATE_ATTRIBUTE);
+        if (chain instanceof X509Certificate[] certificates && certificates.length > 0) {
+            return ClientCertificate.of(certificates[0]);
+        }
+        return null;
+    }
+
+    /**
+     * Returns the DPoP proof of a request, refusing requests that send more than one.
+     *
+     * @param request The request
+     * @return The value of the DPoP header, or null if there is none
+     * @throws OAuthException invalid_dpop_proof if the request sends several proofs
+     */
+    public static String dpopProof(HttpServletRequest request) throws OAuthException {
+        Enumeration<String> headers = request.getHeaders(DPoPProofVerifier.HEADER);
+        if (headers == null || !headers.hasMoreElements()) {
+            return null;
+        }
+        String proof = headers.nextElement();
+        if (headers.hasMoreElements()) {
+            throw new OAuthException("invalid_dpop_proof", "Multiple DPoP proofs sent");
+        }
+        return proof;
+    }
+
+    /**
+     * Resolves the client identifier and secret, preferring the Basic Authorization header.
+     *
+     * @return A two-element array holding the client ID and the client secret
+     */
+    private static String[] clientCredentials(HttpServletRequest request, String[] values,
+                                              int clientIdIndex, int clientSecretIndex) {
+        String[] basic = parseBasicAuthorization(request.getHeader(HttpHeaders.AUTHORIZATION));
+        if (basic == null) {
+            return new String[] {values[clientIdIndex], values[clientSecretIndex]};
+        }
+
+        // RFC 6749 section 2.3: a client must not use more than one authentication method
+        if (values[clientSecretIndex] != null) {
+            throw new OAuthException("invalid_request", "Multiple client authentication methods used");
+        }
+        if (values[clientIdIndex] != null && !values[clientIdIndex].equals(basic[0])) {
+            throw new OAuthException("invalid_request", "client_id does not match the Authorization header");
+        }
+        return basic;
+    }
+
+    /**
+     * Parses an HTTP Basic Authorization header carrying OAuth client credentials.
+     *
+     * @param header The Authorization header value, may be null
+     * @return The client ID and secret, or null if the header is absent or not Basic
+     * @throws OAuthException if the header is Basic but malformed
+     */
+    public static String[] parseBasicAuthorization(String header) throws OAuthException {
+        if (header == null || !header.regionMatches(true, 0, BASIC_PREFIX, 0, BASIC_PREFIX.length())) {
+            return null;
+        }
+
+        String decoded;
+        try {
+            decoded = new String(Base64.getDecoder().decode(header.substring(BASIC_PREFIX.length()).trim()),
+                StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new OAuthException("invalid_client", "Malformed Authorization header");
+        }
+
+        int colon = decoded.indexOf(':');
+        if (colon <= 0) {
+            throw new OAuthException("invalid_client", "Malformed Authorization header");
+        }
+
+        // The client ID and secret are form-encoded before being joined (RFC 6749 section 2.3.1)
+        try {
+            return new String[] {
+                URLDecoder.decode(decoded.substring(0, colon), StandardCharsets.UTF_8),
+                URLDecoder.decode(decoded.substring(colon + 1), StandardCharsets.UTF_8)
+            };
+        } catch (IllegalArgumentException e) {
+            throw new OAuthException("invalid_client", "Malformed Authorization header");
+        }
+    }
+}
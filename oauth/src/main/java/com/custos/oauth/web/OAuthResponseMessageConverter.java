@@ -0,0 +1,134 @@
+package com.custos.oauth.web;
+
+import com.custos.oauth.model.TokenIntrospectionResponse;
+import com.custos.oauth.model.TokenResponse;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes {@link TokenResponse} and {@link TokenIntrospectionResponse} bodies without going through
+ * Jackson. Both responses have a fixed shape, so the field names are encoded once and each response
+ * is written into a pooled buffer and copied to the servlet output stream in a single call.
+ */
+public class OAuthResponseMessageConverter extends AbstractHttpMessageConverter<Object> {
+
+    private static final byte[] ACCESS_TOKEN = JsonByteWriter.name("access_token");
+    private static final byte[] TOKEN_TYPE = JsonByteWriter.name("token_type");
+    private static final byte[] EXPIRES_IN = JsonByteWriter.name("expires_in");
+    private static final byte[] REFRESH_TOKEN = JsonByteWriter.name("refresh_token");
+    private static final byte[] SCOPE = JsonByteWriter.name("scope");
+    private static final byte[] ID_TOKEN = JsonByteWriter.name("id_token");
+    private static final byte[] ISSUED_TOKEN_TYPE = JsonByteWriter.name("issued_token_type");
+    private static final byte[] ERROR = JsonByteWriter.name("error");
+    private static final byte[] ERROR_DESCRIPTION = JsonByteWriter.name("error_description");
+    private static final byte[] ERROR_URI = JsonByteWriter.name("error_uri");
+
+    private static final byte[] ACTIVE = JsonByteWriter.name("active");
+    private static final byte[] CLIENT_ID = JsonByteWriter.name("client_id");
+    private static final byte[] USERNAME = JsonByteWriter.name("username");
+    private static final byte[] EXP = JsonByteWriter.name("exp");
+    private static final byte[] IAT = JsonByteWriter.name("iat");
+    private static final byte[] NBF = JsonByteWriter.name("nbf");
+    private static final byte[] SUB = JsonByteWriter.name("sub");
+    private static final byte[] AUD = JsonByteWriter.name("aud");
+    private static final byte[] ISS = JsonByteWriter.name("iss");
+    private static final byte[] JTI = JsonByteWriter.name("jti");
+    private static final byte[] CNF = JsonByteWriter.name("cnf");
+
+    private static final byte[] INACTIVE = new JsonByteWriter()
+        .beginObject()
+        .field(ACTIVE, false)
+        .endObject()
+        .toByteArray();
+
+    public OAuthResponseMessageConverter() {
+        super(MediaType.APPLICATION_JSON);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return clazz == TokenResponse.class || clazz == TokenIntrospectionResponse.class;
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("OAuth responses are write-only", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(Object body, HttpOutputMessage outputMessage) throws IOException {
+        if (body instanceof TokenIntrospectionResponse introspection && !introspection.isActive()) {
+            outputMessage.getHeaders().setContentLength(INACTIVE.length);
+            outputMessage.getBody().write(INACTIVE);
+            return;
+        }
+
+        JsonByteWriter writer = JsonByteWriter.acquire();
+        write(body, writer);
+
+        // Headers are committed on the first call to getBody(), so the length has to be set first
+        outputMessage.getHeaders().setContentLength(writer.size());
+        OutputStream out = outputMessage.getBody();
+        writer.writeTo(out);
+    }
+
+    /**
+     * Serializes a supported response into the given writer.
+     *
+     * @param body The token or introspection response
+     * @param writer The writer to append to
+     */
+    public static void write(Object body, JsonByteWriter writer) {
+        if (body instanceof TokenResponse response) {
+            writeTokenResponse(response, writer);
+        } else if (body instanceof TokenIntrospectionResponse response) {
+            writeIntrospectionResponse(response, writer);
+        } else {
+            throw new IllegalArgumentException("Unsupported response type: " + body.getClass().getName());
+        }
+    }
+
+    private static void writeTokenResponse(TokenResponse response, JsonByteWriter writer) {
+        writer.beginObject()
+            .field(ACCESS_TOKEN, response.getAccessToken())
+            .field(TOKEN_TYPE, response.getTokenType())
+            .field(EXPIRES_IN, response.getExpiresIn())
+            .field(REFRESH_TOKEN, response.getRefreshToken())
+            .field(SCOPE, response.getScope())
+            .field(ID_TOKEN, response.getIdToken())
+            .field(ISSUED_TOKEN_TYPE, response.getIssuedTokenType())
+            .field(ERROR, response.getError())
+            .field(ERROR_DESCRIPTION, response.getErrorDescription())
+            .field(ERROR_URI, response.getErrorUri())
+            .endObject();
+    }
+
+    private static void writeIntrospectionResponse(TokenIntrospectionResponse response, JsonByteWriter writer) {
+        writer.beginObject()
+            .field(ACTIVE, response.isActive())
+            .field(SCOPE, response.getScope())
+            .field(CLIENT_ID, response.getClientId())
+            .field(USERNAME, response.getUsername())
+            .field(TOKEN_TYPE, response.getTokenType())
+            .field(EXP, response.getExp())
+            .field(IAT, response.getIat())
+            .field(NBF, response.getNbf())
+            .field(SUB, response.getSub())
+            .field(AUD, response.getAud())
+            .field(ISS, response.getIss())
+            .field(JTI, response.getJti())
+            .field(CNF, response.getCnf())
+            .endObject();
+    }
+}
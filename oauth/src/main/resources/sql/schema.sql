@@ -12,4 +12,13 @@ CREATE TABLE IF NOT EXISTS authorities (
     username VARCHAR(50) NOT NULL,
     authority VARCHAR(50) NOT NULL,
     FOREIGN KEY (username) REFERENCES users(username)
-); 
\ No newline at end of file
+); 
+CREATE TABLE IF NOT EXISTS consents (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    tenant_id VARCHAR(100) NOT NULL,
+    username VARCHAR(50) NOT NULL,
+    client_id VARCHAR(100) NOT NULL,
+    scopes VARCHAR(1000),
+    granted_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    UNIQUE (tenant_id, username, client_id)
+);
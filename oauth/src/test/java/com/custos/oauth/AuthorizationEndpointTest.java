@@ -1,10 +1,11 @@
 package com.custos.oauth;
 
 import com.custos.oauth.OAuthTestApplication;
-import com.custos.oauth.exception.OAuthException;
 import com.custos.oauth.model.AuthorizationRequest;
+import com.custos.oauth.par.PushedAuthorizationStore;
 import com.custos.oauth.service.Authenticator;
 import com.custos.oauth.service.ClientRegistrationService;
+import com.custos.oauth.service.ConsentService;
 import com.custos.oauth.service.JwtTokenService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Disabled;
@@ -16,9 +17,12 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -36,12 +40,17 @@ class AuthorizationEndpointTest {
     @Mock
     private Authenticator authenticator;
 
+    @Mock
+    private ConsentService consentService;
+
+    private final PushedAuthorizationStore pushedAuthorizationStore = new PushedAuthorizationStore();
+
     private AuthorizationEndpoint authorizationEndpoint;
 
     @BeforeEach
     void setUp() {
         authorizationEndpoint = new AuthorizationEndpoint(
-            clientRegistrationService, jwtTokenService, authenticator);
+            clientRegistrationService, jwtTokenService, authenticator, consentService, pushedAuthorizationStore);
     }
 
     @Test
@@ -58,7 +67,7 @@ class AuthorizationEndpointTest {
             .build();
 
         // When
-        ResponseEntity<?> response = authorizationEndpoint.handleAuthorizationRequest(request);
+        ResponseEntity<?> response = authorizationEndpoint.authorize(request);
 
         // Then
         assertNotNull(response);
@@ -77,7 +86,7 @@ class AuthorizationEndpointTest {
             .build();
 
         // When
-        ResponseEntity<?> response = authorizationEndpoint.handleAuthorizationRequest(request);
+        ResponseEntity<?> response = authorizationEndpoint.authorize(request);
 
         // Then
         assertNotNull(response);
@@ -97,36 +106,29 @@ class AuthorizationEndpointTest {
             .codeChallenge("E9Melhoa2OwvFrEMTJguCHaoeK1t8URWbuGJSstw-cM")
             .codeChallengeMethod("S256")
             .build();
+        String requestUri = pushedAuthorizationStore.park(request, "test-user");
+        SecurityContextHolder.getContext().setAuthentication(
+            UsernamePasswordAuthenticationToken.authenticated("test-user", null, List.of()));
 
         // When
-        ResponseEntity<?> response = authorizationEndpoint.handleConsent(request);
+        ResponseEntity<?> response = authorizationEndpoint.handleConsent("test-client", requestUri);
 
         // Then
         assertNotNull(response);
         assertEquals(302, response.getStatusCodeValue());
         assertTrue(response.getHeaders().getLocation().toString().contains("code="));
         assertTrue(response.getHeaders().getLocation().toString().contains("state=state123"));
-        verify(clientRegistrationService).validateClient("test-client", null);
     }
 
     @Test
-    void handleConsent_InvalidClient_ReturnsError() {
-        // Given
-        AuthorizationRequest request = AuthorizationRequest.builder()
-            .responseType("code")
-            .clientId("invalid-client")
-            .redirectUri("https://client.example.com/callback")
-            .build();
-
-        doThrow(new OAuthException("invalid_client", "Invalid client"))
-            .when(clientRegistrationService).validateClient(anyString(), anyString());
-
+    void handleConsent_UnknownRequestUri_ReturnsError() {
         // When
-        ResponseEntity<?> response = authorizationEndpoint.handleConsent(request);
+        ResponseEntity<?> response = authorizationEndpoint.handleConsent("test-client",
+            PushedAuthorizationStore.REQUEST_URI_PREFIX + "unknown");
 
         // Then
         assertNotNull(response);
         assertEquals(400, response.getStatusCodeValue());
-        assertTrue(response.getBody().toString().contains("invalid_client"));
+        verifyNoInteractions(consentService);
     }
 } 
\ No newline at end of file
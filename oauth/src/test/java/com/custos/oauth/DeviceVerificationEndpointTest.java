@@ -0,0 +1,59 @@
+package com.custos.oauth;
+
+import com.custos.oauth.device.DeviceAuthorization;
+import com.custos.oauth.device.DeviceAuthorizationStore;
+import com.custos.oauth.service.ClientRegistrationService;
+import com.custos.oauth.service.ConsentService;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.servlet.ModelAndView;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class DeviceVerificationEndpointTest {
+
+    private final DeviceAuthorizationStore deviceAuthorizationStore = new DeviceAuthorizationStore();
+    private final ConsentService consentService = mock(ConsentService.class);
+    private final DeviceVerificationEndpoint endpoint = new DeviceVerificationEndpoint(
+        deviceAuthorizationStore, mock(ClientRegistrationService.class), consentService);
+
+    private final Authentication alice = UsernamePasswordAuthenticationToken.authenticated("alice", null, List.of());
+
+    @Test
+    void decide_Approve_RecordsConsent() {
+        DeviceAuthorization authorization = deviceAuthorizationStore.create("tv-app", "read");
+
+        ModelAndView page = endpoint.decide(authorization.getUserCode(), null, alice);
+
+        assertNull(page.getStatus());
+        assertEquals(DeviceAuthorization.Status.APPROVED, authorization.getStatus());
+        verify(consentService).grant("alice", "tv-app", "read");
+    }
+
+    @Test
+    void decide_AlreadyDenied_DoesNotRecordConsent() {
+        DeviceAuthorization authorization = deviceAuthorizationStore.create("tv-app", "read");
+        authorization.deny();
+
+        ModelAndView page = endpoint.decide(authorization.getUserCode(), null, alice);
+
+        assertEquals(400, page.getStatus().value());
+        assertEquals(DeviceAuthorization.Status.DENIED, authorization.getStatus());
+        verify(consentService, never()).grant(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    void decide_Deny_DoesNotRecordConsent() {
+        DeviceAuthorization authorization = deviceAuthorizationStore.create("tv-app", "read");
+
+        endpoint.decide(authorization.getUserCode(), "true", alice);
+
+        assertEquals(DeviceAuthorization.Status.DENIED, authorization.getStatus());
+        verifyNoInteractions(consentService);
+    }
+}
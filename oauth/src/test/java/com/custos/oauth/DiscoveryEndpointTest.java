@@ -0,0 +1,129 @@
+package com.custos.oauth;
+
+import com.custos.oauth.client.ClientAuthenticator;
+import com.custos.oauth.device.DeviceAuthorizationStore;
+import com.custos.oauth.dpop.DPoPProofVerifier;
+import com.custos.oauth.grant.AuthorizationCodeGrantHandler;
+import com.custos.oauth.grant.ClientCredentialsGrantHandler;
+import com.custos.oauth.grant.DeviceCodeGrantHandler;
+import com.custos.oauth.grant.PasswordGrantHandler;
+import com.custos.oauth.grant.RefreshTokenGrantHandler;
+import com.custos.oauth.grant.TokenExchangeGrantHandler;
+import com.custos.oauth.scope.ScopeRegistry;
+import com.custos.oauth.service.Authenticator;
+import com.custos.oauth.service.ClientRegistrationService;
+import com.custos.oauth.service.JwtTokenService;
+import com.custos.oauth.tenant.TenantContext;
+import com.custos.oauth.tenant.TenantContextHolder;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DiscoveryEndpointTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private DiscoveryEndpoint discoveryEndpoint;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        JwtTokenService jwtTokenService = new JwtTokenService("http://localhost:9000");
+        ClientRegistrationService clientRegistrationService = mock(ClientRegistrationService.class);
+        ScopeRegistry scopeRegistry = new ScopeRegistry();
+        DeviceAuthorizationStore deviceAuthorizationStore = new DeviceAuthorizationStore();
+        TokenEndpoint tokenEndpoint = new TokenEndpoint(jwtTokenService, mock(ClientAuthenticator.class),
+            new DPoPProofVerifier(), deviceAuthorizationStore,
+            new DeviceCodeGrantHandler(deviceAuthorizationStore, clientRegistrationService, jwtTokenService),
+            List.of(new AuthorizationCodeGrantHandler(clientRegistrationService, jwtTokenService),
+                new ClientCredentialsGrantHandler(clientRegistrationService, jwtTokenService, scopeRegistry),
+                new PasswordGrantHandler(mock(Authenticator.class), clientRegistrationService, jwtTokenService),
+                new RefreshTokenGrantHandler(clientRegistrationService, jwtTokenService),
+                new TokenExchangeGrantHandler(jwtTokenService, scopeRegistry)));
+        discoveryEndpoint = new DiscoveryEndpoint(jwtTokenService, tokenEndpoint, objectMapper);
+    }
+
+    @Test
+    void authorizationServerMetadata_ListsMappedEndpointsAndGrantTypes() throws Exception {
+        ResponseEntity<byte[]> response = discoveryEndpoint.authorizationServerMetadata(null);
+        JsonNode metadata = objectMapper.readTree(response.getBody());
+
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals("http://localhost:9000", metadata.get("issuer").asText());
+        assertEquals("http://localhost:9000/oauth2/authorize", metadata.get("authorization_endpoint").asText());
+        assertEquals("http://localhost:9000/oauth2/token", metadata.get("token_endpoint").asText());
+        assertEquals("http://localhost:9000/oauth2/jwks", metadata.get("jwks_uri").asText());
+        assertEquals("http://localhost:9000/oauth2/par",
+            metadata.get("pushed_authorization_request_endpoint").asText());
+        assertTrue(metadata.get("grant_types_supported").toString().contains(TokenExchangeGrantHandler.GRANT_TYPE));
+        assertTrue(metadata.get("grant_types_supported").toString().contains(DeviceCodeGrantHandler.GRANT_TYPE));
+        assertTrue(metadata.get("token_endpoint_auth_methods_supported").toString().contains("private_key_jwt"));
+        assertTrue(metadata.get("token_endpoint_auth_methods_supported").toString().contains("tls_client_auth"));
+        assertTrue(metadata.get("tls_client_certificate_bound_access_tokens").asBoolean());
+        assertNull(metadata.get("subject_types_supported"));
+    }
+
+    @Test
+    void openidConfiguration_AddsProviderFields() throws Exception {
+        JsonNode configuration = objectMapper.readTree(discoveryEndpoint.openidConfiguration(null).getBody());
+
+        assertEquals("http://localhost:9000/oauth2/token", configuration.get("token_endpoint").asText());
+        assertEquals("public", configuration.get("subject_types_supported").get(0).asText());
+    }
+
+    @Test
+    void openidConfiguration_ServesSameBytes() {
+        ResponseEntity<byte[]> first = discoveryEndpoint.openidConfiguration(null);
+        ResponseEntity<byte[]> second = discoveryEndpoint.openidConfiguration(null);
+
+        assertSame(first.getBody(), second.getBody());
+        assertEquals(first.getHeaders().getETag(), second.getHeaders().getETag());
+        assertNotEquals(first.getHeaders().getETag(),
+            discoveryEndpoint.authorizationServerMetadata(null).getHeaders().getETag());
+    }
+
+    @Test
+    void openidConfiguration_MatchingETag_ReturnsNotModified() {
+        String etag = discoveryEndpoint.openidConfiguration(null).getHeaders().getETag();
+
+        ResponseEntity<byte[]> response = discoveryEndpoint.openidConfiguration("\"other\", " + etag);
+
+        assertEquals(304, response.getStatusCode().value());
+        assertNull(response.getBody());
+        assertEquals(etag, response.getHeaders().getETag());
+    }
+
+    @Test
+    void openidConfiguration_StaleETag_ReturnsDocument() {
+        ResponseEntity<byte[]> response = discoveryEndpoint.openidConfiguration("\"stale\"");
+
+        assertEquals(200, response.getStatusCode().value());
+        assertNotNull(response.getBody());
+    }
+
+    @Test
+    void openidConfiguration_Tenant_UsesTenantIssuer() throws Exception {
+        TenantContext tenant = mock(TenantContext.class);
+        when(tenant.getIssuer()).thenReturn("http://localhost:9000/t/acme");
+        TenantContextHolder.set(tenant);
+        try {
+            ResponseEntity<byte[]> response = discoveryEndpoint.openidConfiguration(null);
+            JsonNode configuration = objectMapper.readTree(response.getBody());
+
+            assertEquals("http://localhost:9000/t/acme", configuration.get("issuer").asText());
+            assertEquals("http://localhost:9000/t/acme/oauth2/token", configuration.get("token_endpoint").asText());
+            assertSame(response.getBody(), discoveryEndpoint.openidConfiguration(null).getBody());
+        } finally {
+            TenantContextHolder.clear();
+        }
+        assertEquals("http://localhost:9000",
+            objectMapper.readTree(discoveryEndpoint.openidConfiguration(null).getBody()).get("issuer").asText());
+    }
+}
@@ -0,0 +1,44 @@
+package com.custos.oauth;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/**
+ * A UTC clock that stands still until a test moves it forward, for checking expiry without
+ * sleeping. Safe to read from background threads.
+ */
+public final class MutableClock extends Clock {
+
+    private volatile long millis = 1_000_000;
+
+    /**
+     * Moves the clock.
+     *
+     * @param delta The milliseconds to add
+     */
+    public void advance(long delta) {
+        millis += delta;
+    }
+
+    @Override
+    public long millis() {
+        return millis;
+    }
+
+    @Override
+    public Instant instant() {
+        return Instant.ofEpochMilli(millis);
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+        return this;
+    }
+}
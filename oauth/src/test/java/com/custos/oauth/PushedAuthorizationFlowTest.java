@@ -0,0 +1,186 @@
+package com.custos.oauth;
+
+import com.custos.oauth.client.ClientAuthenticator;
+import com.custos.oauth.par.PushedAuthorizationStore;
+import com.custos.oauth.service.Authenticator;
+import com.custos.oauth.service.ClientRegistrationService;
+import com.custos.oauth.service.ConsentService;
+import com.custos.oauth.service.JwtTokenService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Drives the pushed authorization and authorization endpoints through request mapping, so that
+ * the parameters are bound by their names on the wire.
+ */
+class PushedAuthorizationFlowTest {
+
+    private static final String CLIENT_ID = "web-app";
+    private static final String REDIRECT_URI = "https://client.example.com/callback";
+
+    private final ClientRegistrationService clientRegistrationService = mock(ClientRegistrationService.class);
+    private final ConsentService consentService = mock(ConsentService.class);
+    private final PushedAuthorizationStore pushedAuthorizationStore = new PushedAuthorizationStore();
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        AuthorizationEndpoint authorizationEndpoint = new AuthorizationEndpoint(clientRegistrationService,
+            new JwtTokenService(), mock(Authenticator.class), consentService, pushedAuthorizationStore);
+        PushedAuthorizationEndpoint pushedAuthorizationEndpoint = new PushedAuthorizationEndpoint(
+            clientRegistrationService, pushedAuthorizationStore, mock(ClientAuthenticator.class));
+        mockMvc = MockMvcBuilders.standaloneSetup(authorizationEndpoint, pushedAuthorizationEndpoint).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void authorize_PushedRequest_IssuesCodeOnce() throws Exception {
+        String requestUri = push();
+
+        mockMvc.perform(get("/oauth2/authorize").param("client_id", CLIENT_ID).param("request_uri", requestUri))
+            .andExpect(status().isFound())
+            .andExpect(header().string(HttpHeaders.LOCATION,
+                "/login?client_id=" + CLIENT_ID + "&request_uri=" + encode(requestUri)));
+
+        signIn("alice");
+        when(consentService.isGranted("alice", CLIENT_ID, "read")).thenReturn(true);
+        String location = mockMvc.perform(get("/oauth2/authorize")
+                .param("client_id", CLIENT_ID)
+                .param("request_uri", requestUri))
+            .andExpect(status().isFound())
+            .andReturn().getResponse().getHeader(HttpHeaders.LOCATION);
+
+        assertTrue(location.startsWith(REDIRECT_URI + "?code="));
+        assertTrue(location.endsWith("&state=xyz"));
+        // Validated once, when the request was pushed
+        verify(clientRegistrationService).validateClient(CLIENT_ID, REDIRECT_URI);
+        mockMvc.perform(get("/oauth2/authorize").param("client_id", CLIENT_ID).param("request_uri", requestUri))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void authorize_PushedRequestNeedingConsent_IssuesCodeAfterConsent() throws Exception {
+        String requestUri = push();
+        signIn("alice");
+
+        String consentHandle = askForConsent(requestUri);
+        // The pushed request URI is replaced by a handle only this user can answer
+        mockMvc.perform(get("/oauth2/authorize").param("client_id", CLIENT_ID).param("request_uri", requestUri))
+            .andExpect(status().isBadRequest());
+
+        String location = mockMvc.perform(post("/oauth2/authorize/consent")
+                .param("client_id", CLIENT_ID)
+                .param("request_uri", consentHandle))
+            .andExpect(status().isFound())
+            .andReturn().getResponse().getHeader(HttpHeaders.LOCATION);
+
+        assertTrue(location.startsWith(REDIRECT_URI + "?code="));
+        verify(consentService).grant("alice", CLIENT_ID, "read");
+    }
+
+    @Test
+    void consent_HandleOfAnotherUser_Rejected() throws Exception {
+        signIn("mallory");
+        String consentHandle = askForConsent(push());
+
+        signIn("alice");
+        mockMvc.perform(post("/oauth2/authorize/consent")
+                .param("client_id", CLIENT_ID)
+                .param("request_uri", consentHandle))
+            .andExpect(status().isBadRequest());
+        // Nor can the handle be passed to the authorization endpoint as a pushed request
+        mockMvc.perform(get("/oauth2/authorize").param("client_id", CLIENT_ID).param("request_uri", consentHandle))
+            .andExpect(status().isBadRequest());
+
+        verify(consentService, never()).grant(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    void authorize_OtherClientsRequestUri_Rejected() throws Exception {
+        String requestUri = push();
+
+        mockMvc.perform(get("/oauth2/authorize").param("client_id", "other-app").param("request_uri", requestUri))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void authorize_DirectRequest_BindsParameters() throws Exception {
+        mockMvc.perform(get("/oauth2/authorize")
+                .param("client_id", CLIENT_ID)
+                .param("response_type", "code")
+                .param("redirect_uri", REDIRECT_URI)
+                .param("scope", "read")
+                .param("state", "xyz"))
+            .andExpect(status().isFound())
+            .andExpect(header().string(HttpHeaders.LOCATION, "/login?client_id=" + CLIENT_ID
+                + "&redirect_uri=" + encode(REDIRECT_URI) + "&state=xyz&scope=read"));
+
+        verify(clientRegistrationService).validateClient(CLIENT_ID, REDIRECT_URI);
+        verify(clientRegistrationService).validateScope(CLIENT_ID, "read");
+    }
+
+    private String push() throws Exception {
+        String body = "client_id=" + CLIENT_ID
+            + "&response_type=code"
+            + "&redirect_uri=" + encode(REDIRECT_URI)
+            + "&scope=read"
+            + "&state=xyz"
+            + "&code_challenge=E9Melhoa2OwvFrEMTJguCHaoeK1t8URWbuGJSstw-cM"
+            + "&code_challenge_method=S256";
+        String response = mockMvc.perform(post("/oauth2/par")
+                .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+                .content(body))
+            .andExpect(status().isCreated())
+            .andReturn().getResponse().getContentAsString();
+        return new ObjectMapper().readTree(response).get("request_uri").asText();
+    }
+
+    /**
+     * Sends a pushed request for a user who has not consented yet, and returns the consent page's handle.
+     */
+    private String askForConsent(String requestUri) throws Exception {
+        String location = mockMvc.perform(get("/oauth2/authorize")
+                .param("client_id", CLIENT_ID)
+                .param("request_uri", requestUri))
+            .andExpect(status().isFound())
+            .andReturn().getResponse().getHeader(HttpHeaders.LOCATION);
+        String prefix = "authorize/consent?client_id=" + CLIENT_ID + "&request_uri=";
+        assertTrue(location.startsWith(prefix));
+        return URLDecoder.decode(location.substring(prefix.length()), StandardCharsets.UTF_8);
+    }
+
+    private static void signIn(String username) {
+        SecurityContextHolder.getContext().setAuthentication(
+            UsernamePasswordAuthenticationToken.authenticated(username, null, List.of()));
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
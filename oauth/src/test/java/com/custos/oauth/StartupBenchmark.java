@@ -0,0 +1,142 @@
+package com.custos.oauth;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Measures cold start of the server: each run is a fresh process, timed until the server reports
+ * that it has started, when its resident memory is also sampled. Compares the default JVM setup
+ * with the startup profile and, when they have been built, the AOT + CDS distribution
+ * ({@code mvn -Pstartup package}) and the native image
+ * ({@code mvn -Pnative -Dlogback native:compile}). Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class StartupBenchmark {
+
+    private static final int RUNS = 5;
+    private static final long TIMEOUT_SECONDS = 120;
+
+    private static final String STARTED = "Started " + OAuthApplication.class.getSimpleName();
+
+    private static final Path CDS_DIRECTORY = Path.of("target", "cds");
+    private static final Path NATIVE_IMAGE = Path.of("target", "custos-oauth");
+
+    @Test
+    void timeAndMemoryAtStartup() throws Exception {
+        // Only the main classes, so the test configuration does not take part in the scan
+        String classpath = Arrays.stream(System.getProperty("java.class.path").split(File.pathSeparator))
+            .filter(entry -> !entry.endsWith("test-classes"))
+            .collect(Collectors.joining(File.pathSeparator));
+
+        Result plain = median(java(classpath, List.of()), null);
+        report("JVM", plain);
+        report("JVM, startup profile", median(java(classpath, List.of("-Dspring.profiles.active=startup")), null));
+
+        if (Files.exists(CDS_DIRECTORY.resolve("oauth.jsa"))) {
+            String cdsClasspath = "oauth.jar" + File.pathSeparator
+                + Files.readString(CDS_DIRECTORY.resolve("classpath")).trim();
+            Result optimized = median(java(cdsClasspath, List.of(
+                "-XX:SharedArchiveFile=oauth.jsa",
+                "-Dspring.aot.enabled=true",
+                "-Dspring.profiles.active=startup")), CDS_DIRECTORY.toFile());
+            report("JVM, AOT + CDS", optimized);
+            assertTrue(optimized.millis() < plain.millis());
+        } else {
+            System.out.println("JVM, AOT + CDS: skipped, build it with mvn -Pstartup package");
+        }
+
+        if (Files.isExecutable(NATIVE_IMAGE)) {
+            Result nativeImage = median(List.of(NATIVE_IMAGE.toAbsolutePath().toString(), "--server.port=0"), null);
+            report("Native image", nativeImage);
+            assertTrue(nativeImage.millis() < plain.millis());
+        } else {
+            System.out.println("Native image: skipped, build it with mvn -Pnative -Dlogback native:compile");
+        }
+    }
+
+    private static List<String> java(String classpath, List<String> options) {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(options);
+        command.add("-cp");
+        command.add(classpath);
+        command.add(OAuthApplication.class.getName());
+        command.add("--server.port=0");
+        return command;
+    }
+
+    private static void report(String setup, Result result) {
+        System.out.printf("%-22s started in %5d ms, RSS %s%n", setup + ":", result.millis(),
+            result.rssKilobytes() < 0 ? "n/a" : (result.rssKilobytes() / 1024) + " MB");
+    }
+
+    private static Result median(List<String> command, File directory) throws Exception {
+        Result[] results = new Result[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            results[i] = start(command, directory);
+        }
+        Arrays.sort(results, (a, b) -> Long.compare(a.millis(), b.millis()));
+        return results[RUNS / 2];
+    }
+
+    private static Result start(List<String> command, File directory) throws Exception {
+        ProcessBuilder builder = new ProcessBuilder(command).redirectErrorStream(true);
+        if (directory != null) {
+            builder.directory(directory);
+        }
+
+        long start = System.nanoTime();
+        Process process = builder.start();
+        try (BufferedReader output = new BufferedReader(
+            new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = output.readLine()) != null) {
+                if (line.contains(STARTED)) {
+                    long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                    return new Result(elapsed, residentKilobytes(process.pid()));
+                }
+                if (TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start) > TIMEOUT_SECONDS) {
+                    break;
+                }
+            }
+            return fail("Server did not start: " + String.join(" ", command));
+        } finally {
+            process.destroy();
+            process.waitFor(10, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Reads the resident set size of a process on Linux, or returns -1 elsewhere.
+     */
+    private static long residentKilobytes(long pid) throws Exception {
+        Path status = Path.of("/proc", Long.toString(pid), "status");
+        if (!Files.exists(status)) {
+            return -1;
+        }
+        for (String line : Files.readAllLines(status)) {
+            if (line.startsWith("VmRSS:")) {
+                return Long.parseLong(line.replaceAll("\\D", ""));
+            }
+        }
+        return -1;
+    }
+
+    private record Result(long millis, long rssKilobytes) {
+    }
+}
@@ -1,13 +1,20 @@
 package com.custos.oauth;
 
 import com.custos.oauth.OAuthTestApplication;
+import com.custos.oauth.client.ClientAuthenticator;
+import com.custos.oauth.client.ClientKeySetCache;
+import com.custos.oauth.client.JtiReplayCache;
+import com.custos.oauth.device.DeviceAuthorizationStore;
+import com.custos.oauth.dpop.DPoPProofVerifier;
 import com.custos.oauth.exception.OAuthException;
 import com.custos.oauth.grant.AuthorizationCodeGrantHandler;
 import com.custos.oauth.grant.ClientCredentialsGrantHandler;
+import com.custos.oauth.grant.DeviceCodeGrantHandler;
 import com.custos.oauth.grant.PasswordGrantHandler;
 import com.custos.oauth.grant.RefreshTokenGrantHandler;
 import com.custos.oauth.model.TokenRequest;
 import com.custos.oauth.model.TokenResponse;
+import com.custos.oauth.scope.ScopeRegistry;
 import com.custos.oauth.service.Authenticator;
 import com.custos.oauth.service.ClientRegistrationService;
 import com.custos.oauth.service.JwtTokenService;
@@ -22,6 +29,8 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.http.ResponseEntity;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -58,8 +67,15 @@ class TokenEndpointTest {
 
     @BeforeEach
     void setUp() {
-        tokenEndpoint = new TokenEndpoint(
-            clientRegistrationService, jwtTokenService, authenticator);
+        DeviceAuthorizationStore deviceAuthorizationStore = new DeviceAuthorizationStore();
+        tokenEndpoint = new TokenEndpoint(jwtTokenService,
+            new ClientAuthenticator(clientRegistrationService, jwtTokenService, new ClientKeySetCache(), new JtiReplayCache()),
+            new DPoPProofVerifier(), deviceAuthorizationStore,
+            new DeviceCodeGrantHandler(deviceAuthorizationStore, clientRegistrationService, jwtTokenService),
+            List.of(new PasswordGrantHandler(authenticator, clientRegistrationService, jwtTokenService),
+                new ClientCredentialsGrantHandler(clientRegistrationService, jwtTokenService, new ScopeRegistry()),
+                new RefreshTokenGrantHandler(clientRegistrationService, jwtTokenService),
+                new AuthorizationCodeGrantHandler(clientRegistrationService, jwtTokenService)));
     }
 
     @Test
@@ -1,5 +1,8 @@
 package com.custos.oauth;
 
+import com.custos.oauth.client.ClientAuthenticator;
+import com.custos.oauth.client.ClientKeySetCache;
+import com.custos.oauth.client.JtiReplayCache;
 import com.custos.oauth.config.TestConfig;
 import com.custos.oauth.exception.OAuthException;
 import com.custos.oauth.model.TokenIntrospectionRequest;
@@ -42,8 +45,8 @@ class TokenIntrospectionEndpointTest {
 
     @BeforeEach
     void setUp() {
-        tokenIntrospectionEndpoint = new TokenIntrospectionEndpoint(
-            jwtTokenService, clientRegistrationService);
+        tokenIntrospectionEndpoint = new TokenIntrospectionEndpoint(jwtTokenService,
+            new ClientAuthenticator(clientRegistrationService, jwtTokenService, new ClientKeySetCache(), new JtiReplayCache()));
     }
 
     @Test
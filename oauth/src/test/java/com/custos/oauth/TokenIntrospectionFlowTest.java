@@ -0,0 +1,71 @@
+package com.custos.oauth;
+
+import com.custos.oauth.client.ClientAuthenticator;
+import com.custos.oauth.client.ClientCertificate;
+import com.custos.oauth.dpop.DPoPProofVerifier;
+import com.custos.oauth.service.JwtTokenService;
+import com.custos.oauth.web.OAuthResponseMessageConverter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.Map;
+
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Drives the introspection endpoint through request mapping and the message converters
+ * registered by {@link com.custos.oauth.config.WebConfig}, so that the response is checked as
+ * resource servers receive it.
+ */
+class TokenIntrospectionFlowTest {
+
+    private final JwtTokenService jwtTokenService = new JwtTokenService();
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        TokenIntrospectionEndpoint endpoint = new TokenIntrospectionEndpoint(jwtTokenService, mock(ClientAuthenticator.class));
+        mockMvc = MockMvcBuilders.standaloneSetup(endpoint)
+            .setMessageConverters(new OAuthResponseMessageConverter(), new MappingJackson2HttpMessageConverter())
+            .build();
+    }
+
+    @Test
+    void introspect_BoundToken_ReturnsConfirmation() throws Exception {
+        String token = jwtTokenService.generateAccessToken("test-client", "alice", "read", 3600, Map.of(),
+            Map.of(ClientCertificate.CONFIRMATION_METHOD, "certificate-thumbprint",
+                DPoPProofVerifier.CONFIRMATION_METHOD, "key-thumbprint"));
+
+        mockMvc.perform(introspect(token))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.active").value(true))
+            .andExpect(jsonPath("$.token_type").value(DPoPProofVerifier.TOKEN_TYPE))
+            .andExpect(jsonPath("$.cnf['x5t#S256']").value("certificate-thumbprint"))
+            .andExpect(jsonPath("$.cnf.jkt").value("key-thumbprint"));
+    }
+
+    @Test
+    void introspect_BearerToken_OmitsConfirmation() throws Exception {
+        String token = jwtTokenService.generateAccessToken("test-client", "alice", "read", 3600);
+
+        mockMvc.perform(introspect(token))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.active").value(true))
+            .andExpect(jsonPath("$.cnf").doesNotExist());
+    }
+
+    private static RequestBuilder introspect(String token) {
+        return post(TokenIntrospectionEndpoint.PATH)
+            .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+            .content("token=" + token + "&client_id=resource-server&client_secret=secret");
+    }
+}
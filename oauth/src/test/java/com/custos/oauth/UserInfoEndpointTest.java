@@ -0,0 +1,200 @@
+package com.custos.oauth;
+
+import com.custos.oauth.client.ClientCertificate;
+import com.custos.oauth.client.TestCertificates;
+import com.custos.oauth.dpop.DPoPProofVerifier;
+import com.custos.oauth.service.JwtTokenService;
+import com.custos.oauth.service.UserInfoService;
+import com.nimbusds.jose.JOSEObjectType;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.ECDSASigner;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.cert.X509Certificate;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class UserInfoEndpointTest {
+
+    private JwtTokenService jwtTokenService;
+    private UserInfoService userInfoService;
+    private UserInfoEndpoint userInfoEndpoint;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        jwtTokenService = new JwtTokenService();
+        userInfoService = mock(UserInfoService.class);
+        userInfoEndpoint = new UserInfoEndpoint(jwtTokenService, userInfoService, new DPoPProofVerifier());
+    }
+
+    @Test
+    void userInfo_ValidToken_ReturnsClaims() {
+        when(userInfoService.getClaims("alice")).thenReturn(Map.of("sub", "alice"));
+        String token = jwtTokenService.generateAccessToken("test-client", "alice", "openid", 3600);
+
+        ResponseEntity<Map<String, Object>> response = userInfoEndpoint.userInfo("Bearer " + token, new MockHttpServletRequest());
+
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals("alice", response.getBody().get("sub"));
+    }
+
+    @Test
+    void userInfo_MissingToken_ReturnsChallenge() {
+        ResponseEntity<Map<String, Object>> response = userInfoEndpoint.userInfo(null, new MockHttpServletRequest());
+
+        assertEquals(401, response.getStatusCode().value());
+        assertEquals("Bearer", response.getHeaders().getFirst(HttpHeaders.WWW_AUTHENTICATE));
+        verifyNoInteractions(userInfoService);
+    }
+
+    @Test
+    void userInfo_RefreshToken_ReturnsInvalidToken() {
+        String token = jwtTokenService.generateRefreshToken("test-client", "alice", "openid");
+
+        ResponseEntity<Map<String, Object>> response = userInfoEndpoint.userInfo("Bearer " + token, new MockHttpServletRequest());
+
+        assertEquals(401, response.getStatusCode().value());
+        assertTrue(response.getHeaders().getFirst(HttpHeaders.WWW_AUTHENTICATE).contains("error=\"invalid_token\""));
+        verifyNoInteractions(userInfoService);
+    }
+
+    @Test
+    void userInfo_AuthorizationCode_ReturnsInvalidToken() {
+        String code = jwtTokenService.generateAuthorizationCode("test-client", "alice",
+            "https://client.example.com/callback", "openid", null, null);
+
+        ResponseEntity<Map<String, Object>> response = userInfoEndpoint.userInfo("Bearer " + code, new MockHttpServletRequest());
+
+        assertEquals(401, response.getStatusCode().value());
+        verifyNoInteractions(userInfoService);
+    }
+
+    @Test
+    void userInfo_ExpiredToken_ReturnsInvalidToken() {
+        String token = jwtTokenService.generateAccessToken("test-client", "alice", "openid", 0);
+
+        ResponseEntity<Map<String, Object>> response = userInfoEndpoint.userInfo("Bearer " + token, new MockHttpServletRequest());
+
+        assertEquals(401, response.getStatusCode().value());
+        assertTrue(response.getHeaders().getFirst(HttpHeaders.WWW_AUTHENTICATE).contains("error=\"invalid_token\""));
+        verifyNoInteractions(userInfoService);
+    }
+
+    @Test
+    void userInfo_DPoPBoundTokenWithProof_ReturnsClaims() throws Exception {
+        when(userInfoService.getClaims("alice")).thenReturn(Map.of("sub", "alice"));
+        ECKey key = new ECKeyGenerator(Curve.P_256).generate();
+        String token = dpopBoundToken(key);
+
+        ResponseEntity<Map<String, Object>> response = userInfoEndpoint.userInfo("DPoP " + token,
+            dpopRequest(proof(key, token)));
+
+        assertEquals(200, response.getStatusCode().value());
+    }
+
+    @Test
+    void userInfo_DPoPBoundTokenAsBearer_ReturnsInvalidToken() throws Exception {
+        ECKey key = new ECKeyGenerator(Curve.P_256).generate();
+        String token = dpopBoundToken(key);
+
+        ResponseEntity<Map<String, Object>> response = userInfoEndpoint.userInfo("Bearer " + token,
+            dpopRequest(proof(key, token)));
+
+        assertEquals(401, response.getStatusCode().value());
+        assertTrue(response.getHeaders().getFirst(HttpHeaders.WWW_AUTHENTICATE).contains("error=\"invalid_token\""));
+        verifyNoInteractions(userInfoService);
+    }
+
+    @Test
+    void userInfo_DPoPBoundTokenWithoutValidProof_ReturnsInvalidProof() throws Exception {
+        ECKey key = new ECKeyGenerator(Curve.P_256).generate();
+        String token = dpopBoundToken(key);
+        ECKey otherKey = new ECKeyGenerator(Curve.P_256).generate();
+
+        assertInvalidProof(userInfoEndpoint.userInfo("DPoP " + token, new MockHttpServletRequest("GET", "/oauth2/userinfo")));
+        assertInvalidProof(userInfoEndpoint.userInfo("DPoP " + token, dpopRequest(proof(otherKey, token))));
+        assertInvalidProof(userInfoEndpoint.userInfo("DPoP " + token, dpopRequest(proof(key, "another-token"))));
+        verifyNoInteractions(userInfoService);
+    }
+
+    @Test
+    void userInfo_BearerTokenWithDPoPScheme_ReturnsInvalidToken() {
+        String token = jwtTokenService.generateAccessToken("test-client", "alice", "openid", 3600);
+
+        ResponseEntity<Map<String, Object>> response = userInfoEndpoint.userInfo("DPoP " + token,
+            new MockHttpServletRequest());
+
+        assertEquals(401, response.getStatusCode().value());
+        verifyNoInteractions(userInfoService);
+    }
+
+    @Test
+    void userInfo_CertificateBoundToken_RequiresSameCertificate() throws Exception {
+        when(userInfoService.getClaims("alice")).thenReturn(Map.of("sub", "alice"));
+        X509Certificate certificate = TestCertificates.selfSigned("CN=batch-job");
+        String token = jwtTokenService.generateAccessToken("test-client", "alice", "openid", 3600, Map.of(),
+            Map.of(ClientCertificate.CONFIRMATION_METHOD, ClientCertificate.thumbprint(certificate.getEncoded())));
+
+        assertEquals(401, userInfoEndpoint.userInfo("Bearer " + token, new MockHttpServletRequest())
+            .getStatusCode().value());
+        assertEquals(401, userInfoEndpoint.userInfo("Bearer " + token,
+            requestWithCertificate(TestCertificates.selfSigned("CN=batch-job"))).getStatusCode().value());
+        assertEquals(200, userInfoEndpoint.userInfo("Bearer " + token, requestWithCertificate(certificate))
+            .getStatusCode().value());
+    }
+
+    private String dpopBoundToken(ECKey key) throws Exception {
+        return jwtTokenService.generateAccessToken("test-client", "alice", "openid", 3600, Map.of(),
+            Map.of(DPoPProofVerifier.CONFIRMATION_METHOD, key.computeThumbprint().toString()));
+    }
+
+    private String proof(ECKey key, String accessToken) throws Exception {
+        byte[] hash = MessageDigest.getInstance("SHA-256").digest(accessToken.getBytes(StandardCharsets.US_ASCII));
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.ES256)
+            .type(new JOSEObjectType("dpop+jwt"))
+            .jwk(key.toPublicJWK())
+            .build(), new JWTClaimsSet.Builder()
+            .jwtID(UUID.randomUUID().toString())
+            .claim("htm", "GET")
+            .claim("htu", jwtTokenService.getIssuer() + "/oauth2/userinfo")
+            .claim("ath", Base64.getUrlEncoder().withoutPadding().encodeToString(hash))
+            .issueTime(new Date())
+            .build());
+        jwt.sign(new ECDSASigner(key));
+        return jwt.serialize();
+    }
+
+    private static MockHttpServletRequest dpopRequest(String proof) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/oauth2/userinfo");
+        request.addHeader(DPoPProofVerifier.HEADER, proof);
+        return request;
+    }
+
+    private static MockHttpServletRequest requestWithCertificate(X509Certificate certificate) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/oauth2/userinfo");
+        request.setAttribute("jakarta.servlet.request.X509Certificate", new X509Certificate[] {certificate});
+        return request;
+    }
+
+    private static void assertInvalidProof(ResponseEntity<Map<String, Object>> response) {
+        assertEquals(401, response.getStatusCode().value());
+        assertTrue(response.getHeaders().getFirst(HttpHeaders.WWW_AUTHENTICATE).startsWith("DPoP error=\"invalid_dpop_proof\""));
+    }
+}
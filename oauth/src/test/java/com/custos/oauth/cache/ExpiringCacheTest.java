@@ -0,0 +1,97 @@
+package com.custos.oauth.cache;
+
+import com.custos.oauth.MutableClock;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExpiringCacheTest {
+
+    private final MutableClock clock = new MutableClock();
+
+    @Test
+    void get_ExpiresAfterTtl() {
+        ExpiringCache<String, String> cache = new ExpiringCache<>(10, Duration.ofSeconds(60), clock);
+        cache.put("key", "value");
+
+        clock.advance(59_999);
+        assertEquals("value", cache.get("key"));
+
+        clock.advance(1);
+        assertNull(cache.get("key"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void put_ExplicitExpiryShorterThanTtl_Wins() {
+        ExpiringCache<String, String> cache = new ExpiringCache<>(10, Duration.ofSeconds(60), clock);
+        cache.put("key", "value", clock.millis() + 1_000);
+
+        clock.advance(1_000);
+        assertNull(cache.get("key"));
+    }
+
+    @Test
+    void put_AlreadyExpired_IsIgnored() {
+        ExpiringCache<String, String> cache = new ExpiringCache<>(10, Duration.ofSeconds(60), clock);
+        cache.put("key", "value", clock.millis());
+
+        assertNull(cache.get("key"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void put_Full_EvictsExpiredEntriesFirst() {
+        ExpiringCache<Integer, String> cache = new ExpiringCache<>(10, Duration.ofSeconds(60), clock);
+        for (int i = 0; i < 5; i++) {
+            cache.put(i, "short", clock.millis() + 1_000);
+        }
+        clock.advance(500);
+        for (int i = 5; i < 10; i++) {
+            cache.put(i, "long");
+        }
+        clock.advance(500);
+
+        cache.put(10, "new");
+
+        assertEquals(6, cache.size());
+        for (int i = 5; i <= 10; i++) {
+            assertNotNull(cache.get(i));
+        }
+    }
+
+    @Test
+    void put_FullOfLiveEntries_StaysBounded() {
+        ExpiringCache<Integer, Integer> cache = new ExpiringCache<>(100, Duration.ofSeconds(60), clock);
+        for (int i = 0; i < 1_000; i++) {
+            cache.put(i, i);
+            assertTrue(cache.size() <= 100);
+        }
+        assertEquals(999, cache.get(999));
+    }
+
+    @Test
+    void put_Full_ReportsLiveEntriesOnly() {
+        AtomicInteger evicted = new AtomicInteger();
+        ExpiringCache<Integer, String> cache = new ExpiringCache<>(10, Duration.ofSeconds(60), clock, evicted::addAndGet);
+        for (int i = 0; i < 5; i++) {
+            cache.put(i, "short", clock.millis() + 1_000);
+        }
+        for (int i = 5; i < 10; i++) {
+            cache.put(i, "long");
+        }
+        clock.advance(1_000);
+
+        cache.put(10, "new");
+        assertEquals(0, evicted.get());
+
+        for (int i = 11; i < 15; i++) {
+            cache.put(i, "new");
+        }
+        cache.put(15, "new");
+        assertEquals(1, evicted.get());
+    }
+}
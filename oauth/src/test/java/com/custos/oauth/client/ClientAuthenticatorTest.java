@@ -0,0 +1,190 @@
+package com.custos.oauth.client;
+
+import com.custos.oauth.exception.OAuthException;
+import com.custos.oauth.model.ClientRegistrationResponse;
+import com.custos.oauth.service.ClientRegistrationService;
+import com.custos.oauth.service.JwtTokenService;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.UUID;
+
+import static com.custos.oauth.client.ClientAuthenticator.JWT_BEARER_ASSERTION_TYPE;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ClientAuthenticatorTest {
+
+    private static final String ISSUER = "http://localhost:9000";
+    private static final String TOKEN_PATH = "/oauth2/token";
+
+    private final Clock clock = Clock.fixed(Instant.ofEpochSecond(Instant.now().getEpochSecond()), ZoneOffset.UTC);
+    private final ClientRegistrationService clientRegistrationService = mock(ClientRegistrationService.class);
+
+    private RSAKey key;
+    private ClientAuthenticator authenticator;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        key = new RSAKeyGenerator(2048).keyID("k1").generate();
+        when(clientRegistrationService.getClient("batch-job")).thenReturn(ClientRegistrationResponse.builder()
+            .clientId("batch-job")
+            .clientSecretExpiresAt(0L)
+            .jwks(new JWKSet(key.toPublicJWK()).toString())
+            .build());
+        when(clientRegistrationService.verifyClientSecret("batch-job", "s3cret")).thenReturn(true);
+        when(clientRegistrationService.getClient("spa")).thenReturn(ClientRegistrationResponse.builder()
+            .clientId("spa")
+            .build());
+        authenticator = new ClientAuthenticator(clientRegistrationService, new JwtTokenService(ISSUER),
+            new ClientKeySetCache(), new JtiReplayCache(4, 100, clock), clock);
+    }
+
+    @Test
+    void authenticate_PrivateKeyJwt_IdentifiesClientFromAssertion() throws Exception {
+        ClientAuthenticator.AuthenticatedClient client = authenticator.authenticate(
+            null, null, JWT_BEARER_ASSERTION_TYPE, assertion(key, ISSUER + TOKEN_PATH, 60_000), TOKEN_PATH);
+
+        assertEquals("batch-job", client.clientId());
+        assertEquals(ClientAuthenticator.PRIVATE_KEY_JWT, client.method());
+        assertTrue(client.isConfidential());
+    }
+
+    @Test
+    void authenticate_ReplayedAssertion_Rejected() throws Exception {
+        String assertion = assertion(key, ISSUER, 60_000);
+        authenticator.authenticate("batch-job", null, JWT_BEARER_ASSERTION_TYPE, assertion, TOKEN_PATH);
+
+        OAuthException e = assertThrows(OAuthException.class,
+            () -> authenticator.authenticate("batch-job", null, JWT_BEARER_ASSERTION_TYPE, assertion, "/oauth2/revoke"));
+        assertEquals("invalid_client", e.getErrorCode());
+    }
+
+    @Test
+    void authenticate_InvalidAssertions_Rejected() throws Exception {
+        RSAKey otherKey = new RSAKeyGenerator(2048).keyID("k1").generate();
+
+        assertInvalidClient(assertion(otherKey, ISSUER, 60_000));
+        assertInvalidClient(assertion(key, "https://elsewhere.example.com", 60_000));
+        assertInvalidClient(assertion(key, ISSUER, 0));
+        assertInvalidClient(assertion(key, ISSUER, ClientAuthenticator.MAX_ASSERTION_LIFETIME_MILLIS + 1_000));
+        assertInvalidClient("not a jwt");
+    }
+
+    @Test
+    void authenticate_ClientIdMismatch_Rejected() throws Exception {
+        OAuthException e = assertThrows(OAuthException.class, () -> authenticator.authenticate(
+            "spa", null, JWT_BEARER_ASSERTION_TYPE, assertion(key, ISSUER, 60_000), TOKEN_PATH));
+        assertEquals("invalid_client", e.getErrorCode());
+    }
+
+    @Test
+    void authenticate_Secret() {
+        ClientAuthenticator.AuthenticatedClient client =
+            authenticator.authenticate("batch-job", "s3cret", null, null, TOKEN_PATH);
+        assertEquals(ClientAuthenticator.CLIENT_SECRET, client.method());
+
+        assertEquals("invalid_client", assertThrows(OAuthException.class,
+            () -> authenticator.authenticate("batch-job", "wrong", null, null, TOKEN_PATH)).getErrorCode());
+        assertEquals("invalid_client", assertThrows(OAuthException.class,
+            () -> authenticator.authenticate("batch-job", null, null, null, TOKEN_PATH)).getErrorCode());
+    }
+
+    @Test
+    void authenticate_PublicClient_ByClientIdAlone() {
+        ClientAuthenticator.AuthenticatedClient client = authenticator.authenticate("spa", null, null, null, TOKEN_PATH);
+
+        assertEquals(ClientAuthenticator.NONE, client.method());
+        assertFalse(client.isConfidential());
+        assertThrows(OAuthException.class, () -> authenticator.authenticate("spa", "guess", null, null, TOKEN_PATH));
+    }
+
+    @Test
+    void authenticate_RegisteredCertificate_IdentifiesClientAndBindsTokens() throws Exception {
+        ClientCertificate certificate = ClientCertificate.of(TestCertificates.selfSigned("CN=batch-job"));
+        when(clientRegistrationService.findClientByCertificate(certificate))
+            .thenReturn(new ClientCertificateIndex.Match("batch-job", ClientAuthenticator.TLS_CLIENT_AUTH));
+
+        ClientAuthenticator.AuthenticatedClient client =
+            authenticator.authenticate(null, null, null, null, certificate, TOKEN_PATH);
+
+        assertEquals("batch-job", client.clientId());
+        assertEquals(ClientAuthenticator.TLS_CLIENT_AUTH, client.method());
+        assertEquals(certificate.thumbprint(), client.certificateThumbprint());
+        assertTrue(client.isConfidential());
+    }
+
+    @Test
+    void authenticate_CertificateOfAnotherClient_FallsBackToRegisteredCredentials() throws Exception {
+        ClientCertificate certificate = ClientCertificate.of(TestCertificates.selfSigned("CN=batch-job"));
+        when(clientRegistrationService.findClientByCertificate(certificate))
+            .thenReturn(new ClientCertificateIndex.Match("batch-job", ClientAuthenticator.TLS_CLIENT_AUTH));
+
+        ClientAuthenticator.AuthenticatedClient client =
+            authenticator.authenticate("spa", null, null, null, certificate, TOKEN_PATH);
+
+        assertEquals(ClientAuthenticator.NONE, client.method());
+        assertNull(client.certificateThumbprint());
+        assertThrows(OAuthException.class, () -> authenticator.authenticate(
+            null, null, null, null, ClientCertificate.of(TestCertificates.selfSigned("CN=unknown")), TOKEN_PATH));
+    }
+
+    @Test
+    void authenticate_SecretWithCertificateBoundTokens_BindsToPresentedCertificate() throws Exception {
+        when(clientRegistrationService.getClient("worker")).thenReturn(ClientRegistrationResponse.builder()
+            .clientId("worker")
+            .clientSecretExpiresAt(0L)
+            .tlsClientCertificateBoundAccessTokens(true)
+            .build());
+        when(clientRegistrationService.verifyClientSecret("worker", "s3cret")).thenReturn(true);
+        ClientCertificate certificate = ClientCertificate.of(TestCertificates.selfSigned("CN=worker"));
+
+        ClientAuthenticator.AuthenticatedClient client =
+            authenticator.authenticate("worker", "s3cret", null, null, certificate, TOKEN_PATH);
+
+        assertEquals(ClientAuthenticator.CLIENT_SECRET, client.method());
+        assertEquals(certificate.thumbprint(), client.certificateThumbprint());
+        assertNull(authenticator.authenticate("batch-job", "s3cret", null, null, certificate, TOKEN_PATH)
+            .certificateThumbprint());
+    }
+
+    @Test
+    void authenticate_SecretAndAssertion_Rejected() throws Exception {
+        OAuthException e = assertThrows(OAuthException.class, () -> authenticator.authenticate(
+            "batch-job", "s3cret", JWT_BEARER_ASSERTION_TYPE, assertion(key, ISSUER, 60_000), TOKEN_PATH));
+        assertEquals("invalid_request", e.getErrorCode());
+    }
+
+    private void assertInvalidClient(String assertion) {
+        OAuthException e = assertThrows(OAuthException.class,
+            () -> authenticator.authenticate("batch-job", null, JWT_BEARER_ASSERTION_TYPE, assertion, TOKEN_PATH));
+        assertEquals("invalid_client", e.getErrorCode());
+    }
+
+    private String assertion(RSAKey signingKey, String audience, long lifetimeMillis) throws Exception {
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+            .issuer("batch-job")
+            .subject("batch-job")
+            .audience(audience)
+            .jwtID(UUID.randomUUID().toString())
+            .issueTime(new Date(clock.millis()))
+            .expirationTime(new Date(clock.millis() + lifetimeMillis))
+            .build();
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(signingKey.getKeyID()).build(), claims);
+        jwt.sign(new RSASSASigner(signingKey));
+        return jwt.serialize();
+    }
+}
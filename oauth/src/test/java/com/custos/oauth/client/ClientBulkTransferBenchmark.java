@@ -0,0 +1,106 @@
+package com.custos.oauth.client;
+
+import com.custos.oauth.model.ClientRegistrationRequest;
+import com.custos.oauth.scope.ScopeRegistry;
+import com.custos.oauth.service.ClientRegistrationServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares registering clients one at a time, as separate registration requests do, with the
+ * bulk import, and measures the export. Run with {@code mvn test -Pbenchmark}.
+ * <p>
+ * Public clients measure the pipeline itself; confidential clients, fewer of them, show the
+ * import spreading the cost of hashing their secrets over all processors.
+ */
+@Tag("benchmark")
+class ClientBulkTransferBenchmark {
+
+    private static final int PUBLIC_CLIENTS = 200_000;
+    private static final int CONFIDENTIAL_CLIENTS = 500;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void publicClients() throws Exception {
+        run("public", ndjson(PUBLIC_CLIENTS, false), PUBLIC_CLIENTS);
+    }
+
+    @Test
+    void confidentialClients() throws Exception {
+        run("confidential", ndjson(CONFIDENTIAL_CLIENTS, true), CONFIDENTIAL_CLIENTS);
+    }
+
+    private void run(String label, byte[] input, int count) throws Exception {
+        long sequential = sequential(input);
+
+        ClientRegistrationServiceImpl service = new ClientRegistrationServiceImpl(
+            new ScopeRegistry(), new ClientSecretVerifier(), 3600, 604800);
+        ClientBulkTransfer transfer = new ClientBulkTransfer(service, objectMapper, 1_000, 0);
+        try {
+            long start = System.nanoTime();
+            ClientBulkTransfer.ImportSummary summary =
+                transfer.importClients(new ByteArrayInputStream(input), OutputStream.nullOutputStream(), false);
+            long imported = System.nanoTime() - start;
+            assertEquals(count, summary.imported());
+
+            start = System.nanoTime();
+            assertEquals(count, transfer.exportClients(OutputStream.nullOutputStream()));
+            long exported = System.nanoTime() - start;
+
+            System.out.printf("%s, %d clients: sequential=%.0f/s, import=%.0f/s, export=%.0f/s%n",
+                label, count, rate(count, sequential), rate(count, imported), rate(count, exported));
+        } finally {
+            transfer.shutdown();
+        }
+    }
+
+    /**
+     * Parses, validates and registers each line in turn, as separate registration requests would.
+     */
+    private long sequential(byte[] input) throws Exception {
+        ClientRegistrationServiceImpl service = new ClientRegistrationServiceImpl(
+            new ScopeRegistry(), new ClientSecretVerifier(), 3600, 604800);
+        ObjectReader reader = objectMapper.readerFor(ClientRegistrationRequest.class);
+        long start = System.nanoTime();
+        BufferedReader lines = new BufferedReader(
+            new InputStreamReader(new ByteArrayInputStream(input), StandardCharsets.UTF_8));
+        String line;
+        while ((line = lines.readLine()) != null) {
+            ClientRegistrationRequest request = reader.readValue(line);
+            ClientMetadataValidator.validate(request);
+            service.registerClient(request);
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static byte[] ndjson(int count, boolean confidential) {
+        StringBuilder out = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            out.append("{\"clientName\":\"Client ").append(i)
+                .append("\",\"clientType\":\"").append(confidential ? "confidential" : "public")
+                .append("\",\"grantTypes\":[\"authorization_code\",\"refresh_token\"]")
+                .append(",\"redirectUris\":[\"https://client").append(i).append(".example.com/callback\"]")
+                .append(",\"scopes\":[\"read\",\"write\"]");
+            if (confidential) {
+                out.append(",\"jwksUri\":\"https://client").append(i).append(".example.com/jwks\"");
+            }
+            out.append("}\n");
+        }
+        return out.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static double rate(int count, long nanos) {
+        return count / (nanos / 1e9);
+    }
+}
@@ -0,0 +1,202 @@
+package com.custos.oauth.client;
+
+import com.custos.oauth.model.ClientRegistrationRequest;
+import com.custos.oauth.model.ClientRegistrationResponse;
+import com.custos.oauth.scope.ScopeRegistry;
+import com.custos.oauth.service.ClientRegistrationServiceImpl;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClientBulkTransferTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ClientRegistrationServiceImpl service = new ClientRegistrationServiceImpl(
+        new ScopeRegistry(), new ClientSecretVerifier(), 3600, 604800);
+    private final ClientBulkTransfer transfer = new ClientBulkTransfer(service, objectMapper, 2, 2);
+
+    @AfterEach
+    void tearDown() {
+        transfer.shutdown();
+    }
+
+    @Test
+    void importClients_ReportsEachLineInOrder() throws Exception {
+        String input = String.join("\n",
+            "{\"clientId\":\"billing\",\"clientName\":\"Billing\",\"clientType\":\"public\",\"grantTypes\":[\"client_credentials\"]}",
+            "not json",
+            "",
+            "{\"clientName\":\"Untyped\",\"grantTypes\":[\"client_credentials\"]}",
+            "{\"clientId\":\"a\",\"clientName\":\"A\",\"clientType\":\"public\",\"grantTypes\":[\"client_credentials\"],"
+                + "\"tlsClientAuthSubjectDn\":\"CN=shared\"}",
+            "{\"clientId\":\"b\",\"clientName\":\"B\",\"clientType\":\"public\",\"grantTypes\":[\"client_credentials\"],"
+                + "\"tlsClientAuthSubjectDn\":\"CN=shared\"}");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        ClientBulkTransfer.ImportSummary summary = transfer.importClients(stream(input), out, false);
+
+        assertEquals(2, summary.imported());
+        assertEquals(3, summary.rejected());
+        List<JsonNode> results = lines(out);
+        assertEquals(List.of(1L, 2L, 4L, 5L, 6L), results.stream().map(r -> r.get("line").asLong()).toList());
+        assertEquals("billing", results.get(0).get("clientId").asText());
+        assertFalse(results.get(0).has("error"));
+        assertEquals("invalid_request", results.get(1).get("error").asText());
+        assertEquals("invalid_client_metadata", results.get(2).get("error").asText());
+        assertEquals("a", results.get(3).get("clientId").asText());
+        assertEquals("invalid_client_metadata", results.get(4).get("error").asText());
+        assertEquals("Billing", service.getClient("billing").getClientName());
+        assertThrows(Exception.class, () -> service.getClient("b"));
+    }
+
+    @Test
+    void importClients_ConfidentialClients_KeepOrReceiveSecret() throws Exception {
+        String input = String.join("\n",
+            "{\"clientId\":\"kept\",\"clientSecret\":\"s3cret\",\"clientName\":\"Kept\",\"clientType\":\"confidential\","
+                + "\"grantTypes\":[\"client_credentials\"],\"jwksUri\":\"https://kept.example.com/jwks\"}",
+            "{\"clientId\":\"issued\",\"clientName\":\"Issued\",\"clientType\":\"confidential\","
+                + "\"grantTypes\":[\"client_credentials\"],\"jwksUri\":\"https://issued.example.com/jwks\"}");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        transfer.importClients(stream(input), out, false);
+
+        List<JsonNode> results = lines(out);
+        assertFalse(results.get(0).has("clientSecret"));
+        assertTrue(service.verifyClientSecret("kept", "s3cret"));
+        String issued = results.get(1).get("clientSecret").asText();
+        assertTrue(service.verifyClientSecret("issued", issued));
+        assertNull(service.getClient("issued").getClientSecret());
+    }
+
+    @Test
+    void importClients_ExistingClientId_RejectedUnlessOverwriting() throws Exception {
+        String original = "{\"clientId\":\"billing\",\"clientName\":\"Billing\",\"clientType\":\"public\","
+            + "\"grantTypes\":[\"client_credentials\"]}";
+        String replacement = "{\"clientId\":\"billing\",\"clientName\":\"Replaced\",\"clientType\":\"public\","
+            + "\"grantTypes\":[\"client_credentials\"]}";
+        transfer.importClients(stream(original), new ByteArrayOutputStream(), false);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        ClientBulkTransfer.ImportSummary summary = transfer.importClients(stream(replacement), out, false);
+
+        assertEquals(0, summary.imported());
+        assertEquals("invalid_client_metadata", lines(out).get(0).get("error").asText());
+        assertEquals("Billing", service.getClient("billing").getClientName());
+
+        summary = transfer.importClients(stream(replacement), new ByteArrayOutputStream(), true);
+
+        assertEquals(1, summary.imported());
+        assertEquals("Replaced", service.getClient("billing").getClientName());
+    }
+
+    @Test
+    void importClients_ClientIdRepeatedInInput_KeepsFirstUnlessOverwriting() throws Exception {
+        String input = String.join("\n",
+            "{\"clientId\":\"billing\",\"clientName\":\"First\",\"clientType\":\"public\",\"grantTypes\":[\"client_credentials\"]}",
+            "{\"clientId\":\"billing\",\"clientName\":\"Second\",\"clientType\":\"public\",\"grantTypes\":[\"client_credentials\"]}");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        ClientBulkTransfer.ImportSummary summary = transfer.importClients(stream(input), out, false);
+
+        assertEquals(1, summary.imported());
+        assertEquals("invalid_client_metadata", lines(out).get(1).get("error").asText());
+        assertEquals("First", service.getClient("billing").getClientName());
+    }
+
+    @Test
+    void exportClients_ImportsIntoAnotherRegistry() throws Exception {
+        List<String> clientIds = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            clientIds.add(service.registerClient(ClientRegistrationRequest.builder()
+                .clientName("Client " + i)
+                .clientType("public")
+                .grantTypes(new String[]{"authorization_code"})
+                .redirectUris(new String[]{"https://client" + i + ".example.com/callback"})
+                .build()).getClientId());
+        }
+        ByteArrayOutputStream exported = new ByteArrayOutputStream();
+
+        assertEquals(3, transfer.exportClients(exported));
+
+        ClientRegistrationServiceImpl target = new ClientRegistrationServiceImpl(
+            new ScopeRegistry(), new ClientSecretVerifier(), 3600, 604800);
+        ClientBulkTransfer targetTransfer = new ClientBulkTransfer(target, objectMapper, 2, 2);
+        try {
+            ClientBulkTransfer.ImportSummary summary = targetTransfer.importClients(
+                new ByteArrayInputStream(exported.toByteArray()), new ByteArrayOutputStream(), false);
+            assertEquals(3, summary.imported());
+        } finally {
+            targetTransfer.shutdown();
+        }
+        for (String clientId : clientIds) {
+            assertEquals(service.getClient(clientId).getClientName(), target.getClient(clientId).getClientName());
+            assertDoesNotThrow(() -> target.validateClient(clientId, service.getClient(clientId).getRedirectUris()[0]));
+        }
+        Set<String> exportedIds = lines(exported).stream().map(r -> r.get("clientId").asText()).collect(Collectors.toSet());
+        assertEquals(Set.copyOf(clientIds), exportedIds);
+    }
+
+    @Test
+    void exportClients_ConfidentialClient_KeepsSecretInAnotherRegistry() throws Exception {
+        ClientRegistrationResponse client = service.registerClient(ClientRegistrationRequest.builder()
+            .clientName("Billing")
+            .clientType("confidential")
+            .grantTypes(new String[]{"client_credentials"})
+            .jwksUri("https://billing.example.com/jwks")
+            .build());
+        ByteArrayOutputStream exported = new ByteArrayOutputStream();
+        transfer.exportClients(exported);
+
+        JsonNode line = lines(exported).get(0);
+        assertFalse(line.hasNonNull("clientSecret"));
+        assertTrue(line.hasNonNull("clientSecretHash"));
+
+        ClientRegistrationServiceImpl target = new ClientRegistrationServiceImpl(
+            new ScopeRegistry(), new ClientSecretVerifier(), 3600, 604800);
+        ClientBulkTransfer targetTransfer = new ClientBulkTransfer(target, objectMapper, 2, 2);
+        ByteArrayOutputStream results = new ByteArrayOutputStream();
+        try {
+            targetTransfer.importClients(new ByteArrayInputStream(exported.toByteArray()), results, false);
+        } finally {
+            targetTransfer.shutdown();
+        }
+        assertFalse(lines(results).get(0).has("clientSecret"));
+        assertTrue(target.verifyClientSecret(client.getClientId(), client.getClientSecret()));
+    }
+
+    @Test
+    void importClients_SecretAndSecretHash_Rejected() throws Exception {
+        String input = "{\"clientId\":\"billing\",\"clientSecret\":\"s3cret\",\"clientSecretHash\":\"$2a$10$x\","
+            + "\"clientName\":\"Billing\",\"clientType\":\"confidential\",\"grantTypes\":[\"client_credentials\"],"
+            + "\"jwksUri\":\"https://billing.example.com/jwks\"}";
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        ClientBulkTransfer.ImportSummary summary = transfer.importClients(stream(input), out, false);
+
+        assertEquals(0, summary.imported());
+        assertEquals("invalid_client_metadata", lines(out).get(0).get("error").asText());
+    }
+
+    private static ByteArrayInputStream stream(String input) {
+        return new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private List<JsonNode> lines(ByteArrayOutputStream out) throws Exception {
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            lines.add(objectMapper.readTree(line));
+        }
+        return lines;
+    }
+}
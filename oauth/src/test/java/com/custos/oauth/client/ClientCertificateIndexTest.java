@@ -0,0 +1,87 @@
+package com.custos.oauth.client;
+
+import com.custos.oauth.exception.OAuthException;
+import com.custos.oauth.model.ClientRegistrationRequest;
+import com.custos.oauth.model.ClientRegistrationResponse;
+import com.custos.oauth.scope.ScopeRegistry;
+import com.custos.oauth.service.ClientRegistrationServiceImpl;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.util.Base64;
+import org.junit.jupiter.api.Test;
+
+import java.security.cert.X509Certificate;
+import java.security.interfaces.RSAPublicKey;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClientCertificateIndexTest {
+
+    private final ClientRegistrationServiceImpl service = new ClientRegistrationServiceImpl(
+        new ScopeRegistry(), new ClientSecretVerifier(), 3600, 604800);
+
+    @Test
+    void findClientByCertificate_MatchesRegisteredSubjectDn() throws Exception {
+        ClientRegistrationResponse client = service.registerClient(ClientRegistrationRequest.builder()
+            .clientName("Billing")
+            .tlsClientAuthSubjectDn("CN=billing, O=Example")
+            .build());
+        ClientCertificate certificate = ClientCertificate.of(TestCertificates.selfSigned("cn=Billing,o=example"));
+
+        ClientCertificateIndex.Match match = service.findClientByCertificate(certificate);
+
+        assertEquals(client.getClientId(), match.clientId());
+        assertEquals(ClientAuthenticator.TLS_CLIENT_AUTH, match.method());
+        assertNull(service.findClientByCertificate(
+            ClientCertificate.of(TestCertificates.selfSigned("CN=billing, O=Elsewhere"))));
+    }
+
+    @Test
+    void findClientByCertificate_MatchesSelfSignedCertificateInJwks() throws Exception {
+        X509Certificate registered = TestCertificates.selfSigned("CN=billing");
+        ClientRegistrationResponse client = service.registerClient(ClientRegistrationRequest.builder()
+            .clientName("Billing")
+            .jwks(jwks(registered))
+            .build());
+
+        ClientCertificateIndex.Match match = service.findClientByCertificate(ClientCertificate.of(registered));
+
+        assertEquals(client.getClientId(), match.clientId());
+        assertEquals(ClientAuthenticator.SELF_SIGNED_TLS_CLIENT_AUTH, match.method());
+        // Same subject, different key
+        assertNull(service.findClientByCertificate(ClientCertificate.of(TestCertificates.selfSigned("CN=billing"))));
+    }
+
+    @Test
+    void registerClient_SubjectDnOfAnotherClient_Rejected() {
+        service.registerClient(ClientRegistrationRequest.builder().tlsClientAuthSubjectDn("CN=billing").build());
+
+        OAuthException e = assertThrows(OAuthException.class, () -> service.registerClient(
+            ClientRegistrationRequest.builder().tlsClientAuthSubjectDn("cn=BILLING").build()));
+        assertEquals("invalid_client_metadata", e.getErrorCode());
+    }
+
+    @Test
+    void updateAndDeleteClient_MaintainIndex() throws Exception {
+        ClientCertificate billing = ClientCertificate.of(TestCertificates.selfSigned("CN=billing"));
+        ClientCertificate invoicing = ClientCertificate.of(TestCertificates.selfSigned("CN=invoicing"));
+        String clientId = service.registerClient(ClientRegistrationRequest.builder()
+            .tlsClientAuthSubjectDn("CN=billing")
+            .build()).getClientId();
+
+        service.updateClient(clientId, ClientRegistrationRequest.builder().tlsClientAuthSubjectDn("CN=invoicing").build());
+        assertNull(service.findClientByCertificate(billing));
+        assertEquals(clientId, service.findClientByCertificate(invoicing).clientId());
+
+        service.deleteClient(clientId);
+        assertNull(service.findClientByCertificate(invoicing));
+    }
+
+    private static String jwks(X509Certificate certificate) throws Exception {
+        RSAKey key = new RSAKey.Builder((RSAPublicKey) certificate.getPublicKey())
+            .x509CertChain(List.of(Base64.encode(certificate.getEncoded())))
+            .build();
+        return new JWKSet(key).toString();
+    }
+}
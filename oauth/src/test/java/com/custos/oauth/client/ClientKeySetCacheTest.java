@@ -0,0 +1,128 @@
+package com.custos.oauth.client;
+
+import com.custos.oauth.MutableClock;
+import com.custos.oauth.model.ClientRegistrationResponse;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Exercises the cache against a local stub serving a client's JWK Set.
+ */
+class ClientKeySetCacheTest {
+
+    private final MutableClock clock = new MutableClock();
+    private final AtomicReference<String> published = new AtomicReference<>();
+    private final AtomicInteger fetches = new AtomicInteger();
+
+    private HttpServer server;
+    private ClientKeySetCache cache;
+    private ClientRegistrationResponse client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/jwks", exchange -> {
+            fetches.incrementAndGet();
+            byte[] body = published.get().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+
+        cache = new ClientKeySetCache(ClientKeySetCache.Fetcher.http(Duration.ofSeconds(2)),
+            Duration.ofMinutes(5), Duration.ofSeconds(30), clock);
+        client = ClientRegistrationResponse.builder()
+            .clientId("batch-job")
+            .jwksUri("http://127.0.0.1:" + server.getAddress().getPort() + "/jwks")
+            .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        cache.close();
+        server.stop(0);
+    }
+
+    @Test
+    void verifier_FetchesOnceAndReusesKeys() throws Exception {
+        publish(key("k1"));
+
+        assertNotNull(cache.verifier(client, "k1"));
+        assertNotNull(cache.verifier(client, "k1"));
+        assertNotNull(cache.verifier(client, null));
+
+        assertEquals(1, fetches.get());
+    }
+
+    @Test
+    void verifier_StaleKeys_RefreshedInBackground() throws Exception {
+        publish(key("k1"));
+        assertNotNull(cache.verifier(client, "k1"));
+        publish(key("k2"));
+
+        clock.advance(Duration.ofMinutes(5).toMillis());
+        // The stale keys are still served while the refresh runs
+        assertNotNull(cache.verifier(client, "k1"));
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (cache.verifier(client, "k2") == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertNotNull(cache.verifier(client, "k2"));
+        assertNull(cache.verifier(client, "k1"));
+        assertEquals(2, fetches.get());
+    }
+
+    @Test
+    void verifier_UnknownKey_RefetchesAtMostOncePerInterval() throws Exception {
+        publish(key("k1"));
+        assertNotNull(cache.verifier(client, "k1"));
+
+        assertNull(cache.verifier(client, "rotated"));
+        assertEquals(1, fetches.get());
+
+        publish(key("rotated"));
+        clock.advance(30_000);
+        assertNotNull(cache.verifier(client, "rotated"));
+        assertNull(cache.verifier(client, "other"));
+        assertEquals(2, fetches.get());
+    }
+
+    @Test
+    void verifier_InlineKeys_ParsedOnce() throws Exception {
+        ClientRegistrationResponse inline = ClientRegistrationResponse.builder()
+            .clientId("tv-app")
+            .jwks(new JWKSet(key("k1").toPublicJWK()).toString())
+            .build();
+
+        assertNotNull(cache.verifier(inline, "k1"));
+        assertNull(cache.verifier(inline, "k2"));
+        assertEquals(0, fetches.get());
+    }
+
+    private void publish(RSAKey key) {
+        published.set(new JWKSet(key.toPublicJWK()).toString());
+    }
+
+    private static RSAKey key(String keyId) throws Exception {
+        return new RSAKeyGenerator(2048).keyID(keyId).generate();
+    }
+}
@@ -0,0 +1,91 @@
+package com.custos.oauth.client;
+
+import com.custos.oauth.MutableClock;
+import com.custos.oauth.model.ClientRegistrationRequest;
+import com.custos.oauth.model.ClientRegistrationResponse;
+import com.custos.oauth.scope.ScopeRegistry;
+import com.custos.oauth.service.ClientRegistrationServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClientSecretVerifierTest {
+
+    private final MutableClock clock = new MutableClock();
+    private final CountingPasswordEncoder passwordEncoder = new CountingPasswordEncoder();
+    private final ClientSecretVerifier verifier =
+        new ClientSecretVerifier(passwordEncoder, Duration.ofMinutes(5), 100, clock);
+
+    @Test
+    void verify_RepeatedSecret_ChecksHashOnce() {
+        String hash = verifier.hash("s3cret");
+
+        assertTrue(verifier.verify("batch-job", hash, "s3cret"));
+        assertTrue(verifier.verify("batch-job", hash, "s3cret"));
+        assertEquals(1, passwordEncoder.matches);
+
+        assertFalse(verifier.verify("batch-job", hash, "wrong"));
+        assertFalse(verifier.verify("batch-job", null, "s3cret"));
+        assertEquals(2, passwordEncoder.matches);
+    }
+
+    @Test
+    void verify_AfterTtl_ChecksHashAgain() {
+        String hash = verifier.hash("s3cret");
+        verifier.verify("batch-job", hash, "s3cret");
+
+        clock.advance(Duration.ofMinutes(5).toMillis());
+
+        assertTrue(verifier.verify("batch-job", hash, "s3cret"));
+        assertEquals(2, passwordEncoder.matches);
+    }
+
+    @Test
+    void verify_StoredHashChanged_IgnoresCachedSecret() {
+        String hash = verifier.hash("s3cret");
+        verifier.verify("batch-job", hash, "s3cret");
+
+        assertFalse(verifier.verify("batch-job", verifier.hash("rotated"), "s3cret"));
+    }
+
+    @Test
+    void rotateClientSecret_OldSecretRejected() {
+        ClientRegistrationServiceImpl service = new ClientRegistrationServiceImpl(new ScopeRegistry(), verifier, 3600, 3600);
+        ClientRegistrationResponse registered = service.registerClient(ClientRegistrationRequest.builder()
+            .clientName("Billing")
+            .clientType("confidential")
+            .build());
+        String clientId = registered.getClientId();
+        assertNotNull(registered.getClientSecret());
+        assertNull(service.getClient(clientId).getClientSecret());
+        assertTrue(service.verifyClientSecret(clientId, registered.getClientSecret()));
+
+        ClientRegistrationResponse rotated = service.rotateClientSecret(clientId);
+
+        assertNotEquals(registered.getClientSecret(), rotated.getClientSecret());
+        assertFalse(service.verifyClientSecret(clientId, registered.getClientSecret()));
+        assertTrue(service.verifyClientSecret(clientId, rotated.getClientSecret()));
+        assertEquals(0L, service.getClient(clientId).getClientSecretExpiresAt());
+    }
+
+    private static final class CountingPasswordEncoder implements PasswordEncoder {
+
+        private final PasswordEncoder delegate = new BCryptPasswordEncoder(4);
+        private int matches;
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return delegate.encode(rawPassword);
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            matches++;
+            return delegate.matches(rawPassword, encodedPassword);
+        }
+    }
+}
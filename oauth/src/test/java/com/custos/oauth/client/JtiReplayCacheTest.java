@@ -0,0 +1,46 @@
+package com.custos.oauth.client;
+
+import com.custos.oauth.MutableClock;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JtiReplayCacheTest {
+
+    private final MutableClock clock = new MutableClock();
+
+    @Test
+    void tryRecord_SameAssertionTwice_Rejected() {
+        JtiReplayCache cache = new JtiReplayCache(4, 100, clock);
+
+        assertTrue(cache.tryRecord("batch-job", "jti-1", clock.millis() + 60_000));
+        assertFalse(cache.tryRecord("batch-job", "jti-1", clock.millis() + 60_000));
+        assertTrue(cache.tryRecord("other-job", "jti-1", clock.millis() + 60_000));
+    }
+
+    @Test
+    void tryRecord_ForgetsAssertionAtExpiry() {
+        JtiReplayCache cache = new JtiReplayCache(4, 100, clock);
+        cache.tryRecord("batch-job", "jti-1", clock.millis() + 60_000);
+
+        clock.advance(59_999);
+        assertFalse(cache.tryRecord("batch-job", "jti-1", clock.millis() + 60_000));
+
+        clock.advance(1);
+        assertTrue(cache.tryRecord("batch-job", "jti-1", clock.millis() + 60_000));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void tryRecord_FullShard_RefusesUntilEntriesExpire() {
+        JtiReplayCache cache = new JtiReplayCache(1, 2, clock);
+        assertTrue(cache.tryRecord("batch-job", "jti-1", clock.millis() + 10_000));
+        assertTrue(cache.tryRecord("batch-job", "jti-2", clock.millis() + 20_000));
+
+        assertFalse(cache.tryRecord("batch-job", "jti-3", clock.millis() + 20_000));
+
+        clock.advance(10_000);
+        assertTrue(cache.tryRecord("batch-job", "jti-3", clock.millis() + 20_000));
+        assertEquals(2, cache.size());
+    }
+}
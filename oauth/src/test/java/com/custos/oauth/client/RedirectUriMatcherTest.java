@@ -0,0 +1,58 @@
+package com.custos.oauth.client;
+
+import com.custos.oauth.exception.OAuthException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RedirectUriMatcherTest {
+
+    @Test
+    void matches_RegisteredUri_IgnoresCaseDefaultPortAndEmptyPath() {
+        RedirectUriMatcher matcher = RedirectUriMatcher.compile(new String[]{
+            "https://app.example.com/callback", "https://example.org"});
+
+        assertTrue(matcher.matches("https://app.example.com/callback"));
+        assertTrue(matcher.matches("HTTPS://App.Example.com:443/callback"));
+        assertTrue(matcher.matches("https://example.org/"));
+        assertFalse(matcher.matches("https://app.example.com/callback/other"));
+        assertFalse(matcher.matches("https://app.example.com:8443/callback"));
+        assertFalse(matcher.matches("https://app.example.com/callback#fragment"));
+        assertFalse(matcher.matches("not a uri"));
+        assertFalse(matcher.matches(null));
+    }
+
+    @Test
+    void matches_Loopback_AnyPort() {
+        RedirectUriMatcher matcher = RedirectUriMatcher.compile(new String[]{
+            "http://127.0.0.1/callback", "http://[::1]:8080/callback"});
+
+        assertTrue(matcher.matches("http://127.0.0.1:51004/callback"));
+        assertTrue(matcher.matches("http://[::1]:61023/callback"));
+        assertFalse(matcher.matches("http://127.0.0.1:51004/other"));
+        assertFalse(matcher.matches("https://127.0.0.1:51004/callback"));
+        assertFalse(matcher.matches("http://localhost:51004/callback"));
+    }
+
+    @Test
+    void matches_PrivateUseScheme() {
+        RedirectUriMatcher matcher = RedirectUriMatcher.compile(new String[]{"com.example.app:/oauth2redirect"});
+
+        assertTrue(matcher.matches("com.example.app:/oauth2redirect"));
+        assertFalse(matcher.matches("com.example.other:/oauth2redirect"));
+    }
+
+    @Test
+    void compile_RelativeOrFragment_Rejected() {
+        OAuthException relative = assertThrows(OAuthException.class,
+            () -> RedirectUriMatcher.compile(new String[]{"/callback"}));
+        assertEquals("invalid_redirect_uri", relative.getError());
+        assertThrows(OAuthException.class,
+            () -> RedirectUriMatcher.compile(new String[]{"https://app.example.com/callback#done"}));
+    }
+
+    @Test
+    void matches_NoneRegistered_RejectsEverything() {
+        assertFalse(RedirectUriMatcher.compile(null).matches("https://app.example.com/callback"));
+    }
+}
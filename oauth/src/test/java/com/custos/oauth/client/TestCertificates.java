@@ -0,0 +1,87 @@
+package com.custos.oauth.client;
+
+import javax.security.auth.x500.X500Principal;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Generates self-signed certificates for tests, encoding the few DER structures of an X.509 v1
+ * certificate by hand so that no certificate library is needed.
+ */
+public final class TestCertificates {
+
+    private static final byte[] SHA256_WITH_RSA = {
+        0x30, 0x0d, 0x06, 0x09, 0x2a, (byte) 0x86, 0x48, (byte) 0x86, (byte) 0xf7, 0x0d, 0x01, 0x01, 0x0b, 0x05, 0x00};
+
+    private static final DateTimeFormatter UTC_TIME = DateTimeFormatter.ofPattern("yyMMddHHmmss'Z'");
+
+    private TestCertificates() {
+    }
+
+    /**
+     * Generates an RSA key pair and a certificate for it, signed with its own key.
+     *
+     * @param subjectDn The subject and issuer of the certificate
+     * @return The certificate
+     */
+    public static X509Certificate selfSigned(String subjectDn) throws GeneralSecurityException {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        KeyPair keyPair = generator.generateKeyPair();
+
+        byte[] name = new X500Principal(subjectDn).getEncoded();
+        ZonedDateTime now = ZonedDateTime.now(ZoneOffset.UTC);
+        byte[] tbs = der(0x30,
+            der(0x02, BigInteger.valueOf(System.nanoTime()).toByteArray()),
+            SHA256_WITH_RSA,
+            name,
+            der(0x30, utcTime(now.minusDays(1)), utcTime(now.plusDays(1))),
+            name,
+            keyPair.getPublic().getEncoded());
+
+        Signature signature = Signature.getInstance("SHA256withRSA");
+        signature.initSign(keyPair.getPrivate());
+        signature.update(tbs);
+        byte[] signed = signature.sign();
+        byte[] bitString = new byte[signed.length + 1];
+        System.arraycopy(signed, 0, bitString, 1, signed.length);
+
+        byte[] certificate = der(0x30, tbs, SHA256_WITH_RSA, der(0x03, bitString));
+        return (X509Certificate) CertificateFactory.getInstance("X.509")
+            .generateCertificate(new ByteArrayInputStream(certificate));
+    }
+
+    private static byte[] utcTime(ZonedDateTime time) {
+        return der(0x17, UTC_TIME.format(time).getBytes());
+    }
+
+    private static byte[] der(int tag, byte[]... contents) {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        for (byte[] content : contents) {
+            body.writeBytes(content);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(tag);
+        int length = body.size();
+        if (length < 0x80) {
+            out.write(length);
+        } else {
+            byte[] lengthBytes = BigInteger.valueOf(length).toByteArray();
+            int offset = lengthBytes[0] == 0 ? 1 : 0;
+            out.write(0x80 | (lengthBytes.length - offset));
+            out.write(lengthBytes, offset, lengthBytes.length - offset);
+        }
+        out.writeBytes(body.toByteArray());
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,39 @@
+package com.custos.oauth.client;
+
+import com.custos.oauth.model.ClientRegistrationResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenPolicyTest {
+
+    private final TokenPolicy defaults = TokenPolicy.defaults(3600, 86_400);
+
+    @Test
+    void compile_NoOverrides_ReturnsDefaults() {
+        ClientRegistrationResponse registration = ClientRegistrationResponse.builder().clientId("plain").build();
+
+        assertSame(defaults, defaults.compile(registration));
+    }
+
+    @Test
+    void compile_Overrides_ReplaceOnlyWhatIsSet() {
+        ClientRegistrationResponse registration = ClientRegistrationResponse.builder()
+            .clientId("batch")
+            .accessTokenLifetime(43_200L)
+            .refreshTokenLifetime(0L)
+            .tokenClaims(Map.of("department", "billing"))
+            .build();
+
+        TokenPolicy policy = defaults.compile(registration);
+
+        assertEquals(43_200, policy.getAccessTokenLifetime());
+        assertEquals(0, policy.getRefreshTokenLifetime());
+        assertFalse(policy.issuesRefreshTokens());
+        assertTrue(policy.isRefreshTokenRotation());
+        assertNull(policy.getTokenReuseThreshold());
+        assertEquals(Map.of("department", "billing"), policy.getTokenClaims());
+    }
+}
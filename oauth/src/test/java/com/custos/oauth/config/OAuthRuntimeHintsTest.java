@@ -0,0 +1,35 @@
+package com.custos.oauth.config;
+
+import com.custos.oauth.TokenEndpoint;
+import com.custos.oauth.model.ClientRegistrationRequest;
+import com.custos.oauth.model.TokenRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OAuthRuntimeHintsTest {
+
+    private final RuntimeHints hints = new RuntimeHints();
+
+    OAuthRuntimeHintsTest() {
+        new OAuthRuntimeHints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    void registerHints_BindsRequestBodies() throws Exception {
+        assertTrue(RuntimeHintsPredicates.reflection().onType(TokenRequest.class)
+            .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection()
+            .onMethod(ClientRegistrationRequest.class.getMethod("getTokenClaims")).test(hints));
+    }
+
+    @Test
+    void registerHints_KeepsEndpointsAndScripts() {
+        assertTrue(RuntimeHintsPredicates.reflection().onType(TokenEndpoint.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.resource().forResource("sql/schema.sql").test(hints));
+        assertTrue(RuntimeHintsPredicates.resource().forResource("sql/data.sql").test(hints));
+    }
+}
@@ -1,6 +1,5 @@
 package com.custos.oauth.config;
 
-import com.custos.oauth.grant.*;
 import com.custos.oauth.service.*;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -30,28 +29,4 @@ public class TestConfig {
             }
         };
     }
-
-    @Bean
-    @Primary
-    public PasswordGrantHandler passwordGrantHandler(Authenticator authenticator, JwtTokenService jwtTokenService) {
-        return new PasswordGrantHandler(authenticator, jwtTokenService);
-    }
-
-    @Bean
-    @Primary
-    public ClientCredentialsGrantHandler clientCredentialsGrantHandler(ClientRegistrationService clientRegistrationService, JwtTokenService jwtTokenService) {
-        return new ClientCredentialsGrantHandler(clientRegistrationService, jwtTokenService);
-    }
-
-    @Bean
-    @Primary
-    public RefreshTokenGrantHandler refreshTokenGrantHandler(JwtTokenService jwtTokenService) {
-        return new RefreshTokenGrantHandler(jwtTokenService);
-    }
-
-    @Bean
-    @Primary
-    public AuthorizationCodeGrantHandler authorizationCodeGrantHandler(JwtTokenService jwtTokenService) {
-        return new AuthorizationCodeGrantHandler(jwtTokenService);
-    }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,109 @@
+package com.custos.oauth.device;
+
+import com.custos.oauth.MutableClock;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeviceAuthorizationStoreTest {
+
+    private final MutableClock clock = new MutableClock();
+    private final DeviceAuthorizationStore store = new DeviceAuthorizationStore(
+        Duration.ofMinutes(10), Duration.ofSeconds(5), Duration.ofSeconds(30), 10, clock);
+
+    @Test
+    void create_IndexesByDeviceCodeAndUserCode() {
+        DeviceAuthorization authorization = store.create("tv-app", "read");
+
+        assertSame(authorization, store.findByDeviceCode(authorization.getDeviceCode()));
+        assertSame(authorization, store.findByUserCode(authorization.getUserCode()));
+        assertEquals(8, authorization.getUserCode().length());
+        assertEquals(5, authorization.getInterval());
+    }
+
+    @Test
+    void findByUserCode_IgnoresCaseAndSeparators() {
+        DeviceAuthorization authorization = store.create("tv-app", "read");
+        String formatted = DeviceAuthorizationStore.format(authorization.getUserCode());
+
+        assertEquals(9, formatted.length());
+        assertSame(authorization, store.findByUserCode(formatted.toLowerCase()));
+        assertSame(authorization, store.findByUserCode(" " + formatted.replace("-", " ") + " "));
+    }
+
+    @Test
+    void find_ExpiresAfterLifetime() {
+        DeviceAuthorization authorization = store.create("tv-app", null);
+
+        clock.advance(Duration.ofMinutes(10).toMillis() - 1);
+        assertSame(authorization, store.findByDeviceCode(authorization.getDeviceCode()));
+
+        clock.advance(1);
+        assertNull(store.findByDeviceCode(authorization.getDeviceCode()));
+        assertNull(store.findByUserCode(authorization.getUserCode()));
+    }
+
+    @Test
+    void poll_TooEarly_IncreasesInterval() {
+        DeviceAuthorization authorization = store.create("tv-app", null);
+
+        assertTrue(store.poll(authorization));
+        clock.advance(4_999);
+        assertFalse(store.poll(authorization));
+        assertEquals(10, authorization.getInterval());
+
+        // The slower interval counts from the rejected poll
+        clock.advance(5_000);
+        assertFalse(store.poll(authorization));
+        assertEquals(15, authorization.getInterval());
+
+        clock.advance(15_000);
+        assertTrue(store.poll(authorization));
+        assertEquals(15, authorization.getInterval());
+    }
+
+    @Test
+    void approve_DecidesOnce() {
+        DeviceAuthorization authorization = store.create("tv-app", "read");
+
+        assertTrue(authorization.approve("alice"));
+        assertFalse(authorization.deny());
+        assertEquals(DeviceAuthorization.Status.APPROVED, authorization.getStatus());
+        assertEquals("alice", authorization.getUsername());
+        assertTrue(authorization.getDecision().isDone());
+
+        assertTrue(authorization.redeem());
+        assertFalse(authorization.redeem());
+    }
+
+    @Test
+    void remove_DropsBothIndexes() {
+        DeviceAuthorization authorization = store.create("tv-app", null);
+
+        store.remove(authorization);
+
+        assertNull(store.findByDeviceCode(authorization.getDeviceCode()));
+        assertNull(store.findByUserCode(authorization.getUserCode()));
+    }
+
+    @Test
+    void create_StoreFull_DropsAuthorizationsFromBothIndexes() {
+        List<DeviceAuthorization> authorizations = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            authorizations.add(store.create("tv-app", null));
+        }
+
+        int found = 0;
+        for (DeviceAuthorization authorization : authorizations) {
+            DeviceAuthorization byDeviceCode = store.findByDeviceCode(authorization.getDeviceCode());
+            DeviceAuthorization byUserCode = store.findByUserCode(authorization.getUserCode());
+            assertSame(byDeviceCode, byUserCode);
+            found += byDeviceCode == null ? 0 : 1;
+        }
+        assertTrue(found > 0 && found <= 10);
+    }
+}
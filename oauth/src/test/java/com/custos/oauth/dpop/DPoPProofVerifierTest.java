@@ -0,0 +1,137 @@
+package com.custos.oauth.dpop;
+
+import com.custos.oauth.exception.OAuthException;
+import com.nimbusds.jose.JOSEObjectType;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.ECDSASigner;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DPoPProofVerifierTest {
+
+    private static final String TOKEN_URI = "http://localhost:9000/oauth2/token";
+
+    private final Clock clock = Clock.fixed(Instant.ofEpochSecond(Instant.now().getEpochSecond()), ZoneOffset.UTC);
+
+    private ECKey key;
+    private DPoPProofVerifier verifier;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        key = new ECKeyGenerator(Curve.P_256).generate();
+        verifier = new DPoPProofVerifier(Duration.ofSeconds(60), 1_000, clock);
+    }
+
+    @Test
+    void verify_ValidProof_ReturnsKeyThumbprint() throws Exception {
+        String thumbprint = verifier.verify(proof(DPoPProofVerifier.PROOF_TYPE, "POST", TOKEN_URI, 0), "POST", TOKEN_URI);
+
+        assertEquals(key.computeThumbprint().toString(), thumbprint);
+    }
+
+    @Test
+    void verify_HtuWithQueryAndDifferentCase_Accepted() throws Exception {
+        String proof = proof(DPoPProofVerifier.PROOF_TYPE, "POST", "HTTP://LocalHost:9000/oauth2/token?x=1", 0);
+
+        assertDoesNotThrow(() -> verifier.verify(proof, "POST", TOKEN_URI));
+    }
+
+    @Test
+    void verify_ReplayedProof_Rejected() throws Exception {
+        String proof = proof(DPoPProofVerifier.PROOF_TYPE, "POST", TOKEN_URI, 0);
+        verifier.verify(proof, "POST", TOKEN_URI);
+
+        assertInvalid(proof);
+    }
+
+    @Test
+    void verify_InvalidProofs_Rejected() throws Exception {
+        assertInvalid(proof(JOSEObjectType.JWT, "POST", TOKEN_URI, 0));
+        assertInvalid(proof(DPoPProofVerifier.PROOF_TYPE, "GET", TOKEN_URI, 0));
+        assertInvalid(proof(DPoPProofVerifier.PROOF_TYPE, "POST", "http://localhost:9000/oauth2/introspect", 0));
+        assertInvalid(proof(DPoPProofVerifier.PROOF_TYPE, "POST", TOKEN_URI, -61_000));
+        assertInvalid(proof(DPoPProofVerifier.PROOF_TYPE, "POST", TOKEN_URI, DPoPProofVerifier.CLOCK_SKEW_MILLIS + 1_000));
+        assertInvalid("not-a-jwt");
+    }
+
+    @Test
+    void verify_SignedWithOtherKey_Rejected() throws Exception {
+        ECKey otherKey = new ECKeyGenerator(Curve.P_256).generate();
+        JWTClaimsSet claims = claims("POST", TOKEN_URI, 0);
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.ES256)
+            .type(DPoPProofVerifier.PROOF_TYPE)
+            .jwk(key.toPublicJWK())
+            .build(), claims);
+        jwt.sign(new ECDSASigner(otherKey));
+
+        assertInvalid(jwt.serialize());
+    }
+
+    @Test
+    void verify_WithAccessToken_RequiresMatchingAth() throws Exception {
+        String uri = "http://localhost:9000/oauth2/userinfo";
+        String withAth = sign(new JWTClaimsSet.Builder(claims("GET", uri, 0))
+            .claim("ath", DPoPProofVerifier.accessTokenHash("access-token"))
+            .build());
+
+        assertThrows(OAuthException.class, () -> verifier.verify(proof(DPoPProofVerifier.PROOF_TYPE, "GET", uri, 0),
+            "GET", uri, "access-token"));
+        assertThrows(OAuthException.class, () -> verifier.verify(withAth, "GET", uri, "other-token"));
+        assertEquals(key.computeThumbprint().toString(), verifier.verify(withAth, "GET", uri, "access-token"));
+    }
+
+    @Test
+    void sameUri_ComparesSchemeHostPortAndPath() {
+        assertTrue(DPoPProofVerifier.sameUri("https://as.example.com:443/token", "https://as.example.com/token"));
+        assertFalse(DPoPProofVerifier.sameUri("https://as.example.com/token", "http://as.example.com/token"));
+        assertFalse(DPoPProofVerifier.sameUri("https://as.example.com/token/", "https://as.example.com/token"));
+        assertFalse(DPoPProofVerifier.sameUri(null, "https://as.example.com/token"));
+    }
+
+    private void assertInvalid(String proof) {
+        OAuthException e = assertThrows(OAuthException.class, () -> verifier.verify(proof, "POST", TOKEN_URI));
+        assertEquals("invalid_dpop_proof", e.getErrorCode());
+    }
+
+    private String proof(JOSEObjectType type, String method, String uri, long issuedAtOffsetMillis) throws Exception {
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.ES256)
+            .type(type)
+            .jwk(key.toPublicJWK())
+            .build(), claims(method, uri, issuedAtOffsetMillis));
+        jwt.sign(new ECDSASigner(key));
+        return jwt.serialize();
+    }
+
+    private String sign(JWTClaimsSet claims) throws Exception {
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.ES256)
+            .type(DPoPProofVerifier.PROOF_TYPE)
+            .jwk(key.toPublicJWK())
+            .build(), claims);
+        jwt.sign(new ECDSASigner(key));
+        return jwt.serialize();
+    }
+
+    private JWTClaimsSet claims(String method, String uri, long issuedAtOffsetMillis) {
+        return new JWTClaimsSet.Builder()
+            .jwtID(UUID.randomUUID().toString())
+            .claim("htm", method)
+            .claim("htu", uri)
+            .issueTime(new Date(clock.millis() + issuedAtOffsetMillis))
+            .build();
+    }
+}
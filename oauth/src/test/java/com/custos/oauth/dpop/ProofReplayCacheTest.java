@@ -0,0 +1,53 @@
+package com.custos.oauth.dpop;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProofReplayCacheTest {
+
+    private static final long NOW = 1_000_000;
+
+    @Test
+    void tryRecord_SameProofTwice_Rejected() {
+        ProofReplayCache cache = new ProofReplayCache(Duration.ofSeconds(60), Duration.ofSeconds(1), 4, 1_000);
+
+        assertTrue(cache.tryRecord("key-1", "jti-1", NOW + 60_000, NOW));
+        assertFalse(cache.tryRecord("key-1", "jti-1", NOW + 60_000, NOW + 30_000));
+        assertTrue(cache.tryRecord("key-2", "jti-1", NOW + 60_000, NOW));
+    }
+
+    @Test
+    void tryRecord_ExpiredProof_Rejected() {
+        ProofReplayCache cache = new ProofReplayCache(Duration.ofSeconds(60), Duration.ofSeconds(1), 4, 1_000);
+
+        assertFalse(cache.tryRecord("key-1", "jti-1", NOW, NOW));
+    }
+
+    @Test
+    void tryRecord_ReusesSlotOnceItsBucketExpired() {
+        ProofReplayCache cache = new ProofReplayCache(Duration.ofSeconds(10), Duration.ofSeconds(1), 4, 1_000);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(cache.tryRecord("key-1", "jti-" + i, NOW + 10_000, NOW));
+        }
+        assertEquals(5, cache.size());
+
+        // A full retention period later the bucket of those proofs is replaced as a whole
+        long later = NOW + 12_000;
+        assertTrue(cache.tryRecord("key-1", "jti-new", later + 10_000, later));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void tryRecord_FullBucket_RefusesProofsForThatBucketOnly() {
+        // 10s retention in 1s buckets gives 12 buckets of 2 proofs each
+        ProofReplayCache cache = new ProofReplayCache(Duration.ofSeconds(10), Duration.ofSeconds(1), 1, 24);
+        assertTrue(cache.tryRecord("key-1", "jti-1", NOW + 10_000, NOW));
+        assertTrue(cache.tryRecord("key-1", "jti-2", NOW + 10_000, NOW));
+
+        assertFalse(cache.tryRecord("key-1", "jti-3", NOW + 10_000, NOW));
+        assertTrue(cache.tryRecord("key-1", "jti-3", NOW + 11_000, NOW + 1_000));
+    }
+}
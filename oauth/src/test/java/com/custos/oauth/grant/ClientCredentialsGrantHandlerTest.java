@@ -0,0 +1,141 @@
+package com.custos.oauth.grant;
+
+import com.custos.oauth.client.TokenPolicy;
+import com.custos.oauth.model.TokenRequest;
+import com.custos.oauth.model.TokenResponse;
+import com.custos.oauth.scope.ScopeRegistry;
+import com.custos.oauth.service.ClientRegistrationService;
+import com.custos.oauth.service.JwtTokenService;
+import com.nimbusds.jwt.JWTClaimsSet;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ClientCredentialsGrantHandlerTest {
+
+    private static final String CLIENT_ID = "legacy-service";
+
+    private static JwtTokenService jwtTokenService;
+
+    @Mock
+    private ClientRegistrationService clientRegistrationService;
+
+    private ClientCredentialsGrantHandler handler;
+
+    @BeforeAll
+    static void createTokenService() throws Exception {
+        jwtTokenService = new JwtTokenService();
+    }
+
+    @BeforeEach
+    void setUp() {
+        ScopeRegistry scopeRegistry = new ScopeRegistry();
+        scopeRegistry.compile(new String[] {"read", "write"});
+        handler = new ClientCredentialsGrantHandler(clientRegistrationService, jwtTokenService, scopeRegistry);
+    }
+
+    @Test
+    void handle_ReuseEnabled_ReturnsSameTokenForSameScopeSet() {
+        registerClient(0.5);
+
+        TokenResponse first = handler.handle(request("read write"));
+        TokenResponse second = handler.handle(request("write read"));
+        TokenResponse narrower = handler.handle(request("read"));
+
+        assertEquals(first.getAccessToken(), second.getAccessToken());
+        assertEquals("read write", second.getScope());
+        assertNotEquals(first.getAccessToken(), narrower.getAccessToken());
+        assertTrue(second.getExpiresIn() > 3500);
+    }
+
+    @Test
+    void handle_ReuseDisabled_MintsNewToken() {
+        registerClient(null);
+
+        TokenResponse first = handler.handle(request("read"));
+        TokenResponse second = handler.handle(request("read"));
+
+        assertNotEquals(first.getAccessToken(), second.getAccessToken());
+        assertEquals(3600L, second.getExpiresIn());
+    }
+
+    @Test
+    void handle_ThresholdCoversWholeLifetime_NeverReuses() {
+        registerClient(1.0);
+
+        TokenResponse first = handler.handle(request("read"));
+        TokenResponse second = handler.handle(request("read"));
+
+        assertNotEquals(first.getAccessToken(), second.getAccessToken());
+    }
+
+    @Test
+    void handle_RevokedToken_IsNotReused() {
+        registerClient(0.5);
+
+        TokenResponse first = handler.handle(request("read"));
+        jwtTokenService.revokeToken(jwtTokenService.validateToken(first.getAccessToken()));
+        TokenResponse second = handler.handle(request("read"));
+
+        assertNotEquals(first.getAccessToken(), second.getAccessToken());
+        assertDoesNotThrow(() -> jwtTokenService.validateToken(second.getAccessToken()));
+    }
+
+    @Test
+    void handle_ClientPolicy_SetsLifetimeAndClaims() throws Exception {
+        when(clientRegistrationService.getTokenPolicy(CLIENT_ID)).thenReturn(TokenPolicy.defaults(3600, 0)
+            .toBuilder()
+            .accessTokenLifetime(86_400)
+            .tokenClaims(Map.of("tenant_role", "batch", "sub", "ignored"))
+            .build());
+
+        TokenResponse response = handler.handle(request("read"));
+        JWTClaimsSet claims = jwtTokenService.validateToken(response.getAccessToken());
+
+        assertEquals(86_400L, response.getExpiresIn());
+        assertEquals("batch", claims.getStringClaim("tenant_role"));
+        assertEquals(CLIENT_ID, claims.getSubject());
+        long lifetime = claims.getExpirationTime().getTime() - claims.getIssueTime().getTime();
+        assertEquals(86_400_000L, lifetime);
+    }
+
+    @Test
+    void handle_CertificateBoundRequest_ConfirmsCertificateAndIsNotReusedForBearer() throws Exception {
+        registerClient(0.5);
+        TokenRequest bound = request("read");
+        bound.setConfirmation(Map.of("x5t#S256", "bwcK0esc3ACC3DB2Y5_lESsXE8o9ltc05O89jdN-dg2"));
+
+        TokenResponse boundResponse = handler.handle(bound);
+        TokenResponse bearerResponse = handler.handle(request("read"));
+        JWTClaimsSet claims = jwtTokenService.validateToken(boundResponse.getAccessToken());
+
+        assertEquals("bwcK0esc3ACC3DB2Y5_lESsXE8o9ltc05O89jdN-dg2", claims.getJSONObjectClaim("cnf").get("x5t#S256"));
+        assertNotEquals(boundResponse.getAccessToken(), bearerResponse.getAccessToken());
+        assertNull(jwtTokenService.validateToken(bearerResponse.getAccessToken()).getClaim("cnf"));
+    }
+
+    private void registerClient(Double tokenReuseThreshold) {
+        when(clientRegistrationService.getTokenPolicy(CLIENT_ID)).thenReturn(TokenPolicy.defaults(3600, 0)
+            .toBuilder()
+            .tokenReuseThreshold(tokenReuseThreshold)
+            .build());
+    }
+
+    private static TokenRequest request(String scope) {
+        return TokenRequest.builder()
+            .grantType("client_credentials")
+            .clientId(CLIENT_ID)
+            .clientSecret("secret")
+            .scope(scope)
+            .build();
+    }
+}
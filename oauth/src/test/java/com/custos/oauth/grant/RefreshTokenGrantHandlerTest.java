@@ -0,0 +1,114 @@
+package com.custos.oauth.grant;
+
+import com.custos.oauth.client.TokenPolicy;
+import com.custos.oauth.exception.OAuthException;
+import com.custos.oauth.model.TokenRequest;
+import com.custos.oauth.model.TokenResponse;
+import com.custos.oauth.service.ClientRegistrationService;
+import com.custos.oauth.service.JwtTokenService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RefreshTokenGrantHandlerTest {
+
+    private static final String CLIENT_ID = "mobile-app";
+
+    private static JwtTokenService jwtTokenService;
+
+    @Mock
+    private ClientRegistrationService clientRegistrationService;
+
+    private RefreshTokenGrantHandler handler;
+    private String refreshToken;
+
+    @BeforeAll
+    static void createTokenService() throws Exception {
+        jwtTokenService = new JwtTokenService();
+    }
+
+    @BeforeEach
+    void setUp() {
+        handler = new RefreshTokenGrantHandler(clientRegistrationService, jwtTokenService);
+        refreshToken = jwtTokenService.generateRefreshToken(CLIENT_ID, "alice", "read");
+    }
+
+    @Test
+    void handle_Rotation_ReturnsNewRefreshToken() {
+        when(clientRegistrationService.getTokenPolicy(CLIENT_ID)).thenReturn(TokenPolicy.defaults(600, 86_400));
+
+        TokenResponse response = handler.handle(request());
+
+        assertEquals(600L, response.getExpiresIn());
+        assertNotNull(response.getRefreshToken());
+        assertNotEquals(refreshToken, response.getRefreshToken());
+    }
+
+    @Test
+    void handle_Rotation_RejectsRotatedRefreshToken() {
+        when(clientRegistrationService.getTokenPolicy(CLIENT_ID)).thenReturn(TokenPolicy.defaults(600, 86_400));
+
+        TokenResponse response = handler.handle(request());
+
+        OAuthException exception = assertThrows(OAuthException.class, () -> handler.handle(request()));
+        assertEquals("invalid_grant", exception.getErrorCode());
+        refreshToken = response.getRefreshToken();
+        assertNotNull(handler.handle(request()).getAccessToken());
+    }
+
+    @Test
+    void handle_NoRotation_KeepsRefreshToken() {
+        when(clientRegistrationService.getTokenPolicy(CLIENT_ID)).thenReturn(TokenPolicy.defaults(600, 86_400)
+            .toBuilder()
+            .refreshTokenRotation(false)
+            .build());
+
+        TokenResponse response = handler.handle(request());
+
+        assertEquals(refreshToken, response.getRefreshToken());
+        assertNotNull(response.getAccessToken());
+    }
+
+    @Test
+    void handle_RefreshTokensDisabled_Rejects() {
+        when(clientRegistrationService.getTokenPolicy(CLIENT_ID)).thenReturn(TokenPolicy.defaults(600, 0));
+
+        OAuthException exception = assertThrows(OAuthException.class, () -> handler.handle(request()));
+        assertEquals("invalid_grant", exception.getErrorCode());
+    }
+
+    @Test
+    void handle_BoundRefreshToken_RequiresSameKey() throws Exception {
+        when(clientRegistrationService.getTokenPolicy(CLIENT_ID)).thenReturn(TokenPolicy.defaults(600, 86_400));
+        Map<String, Object> binding = Map.of("jkt", "0ZcOCORZNYy-DWpqq30jZyJGHTN0d2HglBV3uiguA4I");
+        refreshToken = jwtTokenService.generateRefreshToken(CLIENT_ID, "alice", "read", 86_400, binding);
+
+        assertEquals("invalid_grant", assertThrows(OAuthException.class, () -> handler.handle(request())).getErrorCode());
+        TokenRequest otherKey = request();
+        otherKey.setConfirmation(Map.of("jkt", "NzbLsXh8uDCcd-6MNwXF4W_7noWXFZAfHkxZsRGC9Xs"));
+        assertThrows(OAuthException.class, () -> handler.handle(otherKey));
+
+        TokenRequest sameKey = request();
+        sameKey.setConfirmation(binding);
+        sameKey.setRefreshTokenConfirmation(binding);
+        TokenResponse response = handler.handle(sameKey);
+        assertEquals(binding, jwtTokenService.validateToken(response.getRefreshToken()).getJSONObjectClaim("cnf"));
+    }
+
+    private TokenRequest request() {
+        return TokenRequest.builder()
+            .grantType("refresh_token")
+            .clientId(CLIENT_ID)
+            .refreshToken(refreshToken)
+            .build();
+    }
+}
@@ -0,0 +1,177 @@
+package com.custos.oauth.grant;
+
+import com.custos.oauth.dpop.DPoPProofVerifier;
+import com.custos.oauth.exception.OAuthException;
+import com.custos.oauth.model.TokenRequest;
+import com.custos.oauth.model.TokenResponse;
+import com.custos.oauth.scope.ScopeRegistry;
+import com.custos.oauth.service.JwtTokenService;
+import com.nimbusds.jose.JOSEObjectType;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.ECDSASigner;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenExchangeGrantHandlerTest {
+
+    private static JwtTokenService jwtTokenService;
+
+    private ScopeRegistry scopeRegistry;
+    private TokenExchangeGrantHandler handler;
+
+    @BeforeAll
+    static void createTokenService() throws Exception {
+        jwtTokenService = new JwtTokenService();
+    }
+
+    @BeforeEach
+    void setUp() {
+        scopeRegistry = new ScopeRegistry();
+        scopeRegistry.compile(new String[] {"read", "write", "admin"});
+        handler = new TokenExchangeGrantHandler(jwtTokenService, scopeRegistry);
+    }
+
+    @Test
+    void handle_IssuesAudienceRestrictedToken() throws Exception {
+        String subjectToken = jwtTokenService.generateAccessToken("frontend", "alice", "read write", 3600);
+
+        TokenResponse response = handler.handle(exchange(subjectToken, "orders", null));
+
+        JWTClaimsSet claims = jwtTokenService.validateToken(response.getAccessToken());
+        assertEquals(TokenExchangeGrantHandler.ACCESS_TOKEN_TYPE, response.getIssuedTokenType());
+        assertEquals("Bearer", response.getTokenType());
+        assertEquals("read write", response.getScope());
+        assertEquals("alice", claims.getSubject());
+        assertEquals(List.of("orders"), claims.getAudience());
+        assertEquals(Map.of("sub", "gateway"), claims.getJSONObjectClaim("act"));
+    }
+
+    @Test
+    void handle_RepeatedExchange_ReturnsCachedToken() {
+        String subjectToken = jwtTokenService.generateAccessToken("frontend", "alice", "read write", 3600);
+
+        TokenResponse first = handler.handle(exchange(subjectToken, "orders", "write read"));
+        TokenResponse second = handler.handle(exchange(subjectToken, "orders", "read write"));
+        TokenResponse otherAudience = handler.handle(exchange(subjectToken, "billing", "read write"));
+
+        assertEquals(first.getAccessToken(), second.getAccessToken());
+        assertNotEquals(first.getAccessToken(), otherAudience.getAccessToken());
+    }
+
+    @Test
+    void handle_WithDPoPProof_BindsTokenToProofKey() throws Exception {
+        String subjectToken = jwtTokenService.generateAccessToken("frontend", "alice", "read write", 3600);
+        ECKey key = new ECKeyGenerator(Curve.P_256).generate();
+        String thumbprint = new DPoPProofVerifier().verify(proof(key), "POST", jwtTokenService.getIssuer() + "/oauth2/token");
+
+        TokenRequest request = exchange(subjectToken, "orders", null);
+        request.setConfirmation(Map.of(DPoPProofVerifier.CONFIRMATION_METHOD, thumbprint));
+        JWTClaimsSet claims = jwtTokenService.validateToken(handler.handle(request).getAccessToken());
+
+        assertEquals(Map.of(DPoPProofVerifier.CONFIRMATION_METHOD, key.computeThumbprint().toString()),
+            claims.getJSONObjectClaim("cnf"));
+        assertEquals(DPoPProofVerifier.TOKEN_TYPE, claims.getStringClaim("token_type"));
+    }
+
+    @Test
+    void handle_BoundAndUnboundExchanges_AreCachedApart() throws Exception {
+        String subjectToken = jwtTokenService.generateAccessToken("frontend", "alice", "read write", 3600);
+        TokenRequest bound = exchange(subjectToken, "orders", null);
+        bound.setConfirmation(Map.of(DPoPProofVerifier.CONFIRMATION_METHOD, "thumbprint"));
+
+        String unboundToken = handler.handle(exchange(subjectToken, "orders", null)).getAccessToken();
+        String boundToken = handler.handle(bound).getAccessToken();
+
+        assertNotEquals(unboundToken, boundToken);
+        assertNull(jwtTokenService.validateToken(unboundToken).getJSONObjectClaim("cnf"));
+        assertNotNull(jwtTokenService.validateToken(boundToken).getJSONObjectClaim("cnf"));
+        assertEquals(unboundToken, handler.handle(exchange(subjectToken, "orders", null)).getAccessToken());
+    }
+
+    @Test
+    void handle_Downscoping_NarrowsScope() {
+        String subjectToken = jwtTokenService.generateAccessToken("frontend", "alice", "read write", 3600);
+
+        TokenResponse response = handler.handle(exchange(subjectToken, "orders", "read"));
+
+        assertEquals("read", response.getScope());
+    }
+
+    @Test
+    void handle_WideningScope_ThrowsInvalidScope() {
+        String subjectToken = jwtTokenService.generateAccessToken("frontend", "alice", "read", 3600);
+
+        OAuthException e = assertThrows(OAuthException.class,
+            () -> handler.handle(exchange(subjectToken, "orders", "read admin")));
+        assertEquals("invalid_scope", e.getError());
+    }
+
+    @Test
+    void handle_ChainedExchange_NestsActors() throws Exception {
+        String subjectToken = jwtTokenService.generateAccessToken("frontend", "alice", "read", 3600);
+        String firstHop = handler.handle(exchange(subjectToken, "orders", null)).getAccessToken();
+
+        TokenRequest secondHop = exchange(firstHop, "inventory", null);
+        secondHop.setClientId("orders");
+        JWTClaimsSet claims = jwtTokenService.validateToken(handler.handle(secondHop).getAccessToken());
+
+        assertEquals(Map.of("sub", "orders", "act", Map.of("sub", "gateway")), claims.getJSONObjectClaim("act"));
+    }
+
+    @Test
+    void handle_RefreshTokenAsSubject_IsRejected() {
+        String refreshToken = jwtTokenService.generateRefreshToken("frontend", "alice", "read");
+
+        OAuthException e = assertThrows(OAuthException.class,
+            () -> handler.handle(exchange(refreshToken, "orders", null)));
+        assertEquals("invalid_request", e.getError());
+    }
+
+    @Test
+    void handle_MissingAudience_ThrowsInvalidTarget() {
+        String subjectToken = jwtTokenService.generateAccessToken("frontend", "alice", "read", 3600);
+
+        OAuthException e = assertThrows(OAuthException.class,
+            () -> handler.handle(exchange(subjectToken, null, null)));
+        assertEquals("invalid_target", e.getError());
+    }
+
+    private String proof(ECKey key) throws Exception {
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.ES256)
+            .type(new JOSEObjectType("dpop+jwt"))
+            .jwk(key.toPublicJWK())
+            .build(), new JWTClaimsSet.Builder()
+            .jwtID(UUID.randomUUID().toString())
+            .claim("htm", "POST")
+            .claim("htu", jwtTokenService.getIssuer() + "/oauth2/token")
+            .issueTime(new Date())
+            .build());
+        jwt.sign(new ECDSASigner(key));
+        return jwt.serialize();
+    }
+
+    private static TokenRequest exchange(String subjectToken, String audience, String scope) {
+        return TokenRequest.builder()
+            .grantType(TokenExchangeGrantHandler.GRANT_TYPE)
+            .clientId("gateway")
+            .subjectToken(subjectToken)
+            .subjectTokenType(TokenExchangeGrantHandler.ACCESS_TOKEN_TYPE)
+            .audience(audience)
+            .scope(scope)
+            .build();
+    }
+}
@@ -0,0 +1,46 @@
+package com.custos.oauth.logging;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestLogFilterTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(5);
+
+    private final RequestLogFilter filter = new RequestLogFilter(new MockEnvironment()
+        .withProperty("custos.logging.requests.sample-rate", "0")
+        .withProperty("custos.logging.requests.sample-rates[/oauth2/authorize]", "1.0"));
+
+    @Test
+    void shouldLog_DefaultRateZero_SkipsOrdinaryRequest() {
+        assertFalse(filter.shouldLog("/oauth2/token", 200, FAST, false));
+        assertFalse(filter.shouldLog("/oauth2/token", 400, FAST, false));
+    }
+
+    @Test
+    void shouldLog_RouteRate_OverridesDefault() {
+        assertTrue(filter.shouldLog("/oauth2/authorize", 302, FAST, false));
+    }
+
+    @Test
+    void shouldLog_ServerErrorSlowOrTraced_AlwaysLogged() {
+        assertTrue(filter.shouldLog("/oauth2/token", 500, FAST, false));
+        assertTrue(filter.shouldLog("/oauth2/token", 200, TimeUnit.SECONDS.toNanos(1), false));
+        assertTrue(filter.shouldLog("/oauth2/token", 200, FAST, true));
+    }
+
+    @Test
+    void start_ClearsFieldsOfPreviousRequest() {
+        RequestLog.clientId("mobile-app");
+        RequestLog.error("invalid_grant");
+
+        RequestLog fields = RequestLog.start();
+
+        assertNull(fields.getClientId());
+        assertNull(fields.getError());
+    }
+}
@@ -0,0 +1,27 @@
+package com.custos.oauth.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenRequestTest {
+
+    @Test
+    void toString_OmitsSecrets() {
+        TokenRequest request = TokenRequest.builder()
+            .grantType("password")
+            .clientId("mobile-app")
+            .clientSecret("client-secret-value")
+            .username("alice")
+            .password("password-value")
+            .refreshToken("refresh-token-value")
+            .build();
+
+        String rendered = request.toString();
+
+        assertTrue(rendered.contains("mobile-app"));
+        assertFalse(rendered.contains("client-secret-value"));
+        assertFalse(rendered.contains("password-value"));
+        assertFalse(rendered.contains("refresh-token-value"));
+    }
+}
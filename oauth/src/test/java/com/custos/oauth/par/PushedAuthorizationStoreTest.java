@@ -0,0 +1,70 @@
+package com.custos.oauth.par;
+
+import com.custos.oauth.MutableClock;
+import com.custos.oauth.model.AuthorizationRequest;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PushedAuthorizationStoreTest {
+
+    private final MutableClock clock = new MutableClock();
+    private final PushedAuthorizationStore store = new PushedAuthorizationStore(Duration.ofSeconds(60), 10, clock);
+
+    private final AuthorizationRequest request = AuthorizationRequest.builder()
+        .clientId("web-app")
+        .responseType("code")
+        .redirectUri("https://app.example.com/callback")
+        .state("xyz")
+        .build();
+
+    @Test
+    void push_ReturnsUniqueRequestUris() {
+        String first = store.push(request);
+        String second = store.push(request);
+
+        assertTrue(first.startsWith(PushedAuthorizationStore.REQUEST_URI_PREFIX));
+        assertNotEquals(first, second);
+    }
+
+    @Test
+    void find_ExpiresAfterLifetime() {
+        String requestUri = store.push(request);
+
+        clock.advance(59_999);
+        assertSame(request, store.find(requestUri, "web-app"));
+
+        clock.advance(1);
+        assertNull(store.find(requestUri, "web-app"));
+    }
+
+    @Test
+    void find_OtherClient_ReturnsNull() {
+        String requestUri = store.push(request);
+
+        assertNull(store.find(requestUri, "other-app"));
+        assertSame(request, store.find(requestUri, "web-app"));
+    }
+
+    @Test
+    void findParked_OnlyForTheUserItWasParkedFor() {
+        String handle = store.park(request, "alice");
+
+        assertSame(request, store.findParked(handle, "web-app", "alice"));
+        assertNull(store.findParked(handle, "web-app", "mallory"));
+        assertNull(store.findParked(handle, "web-app", null));
+        assertNull(store.find(handle, "web-app"));
+        assertNull(store.findParked(store.push(request), "web-app", "alice"));
+    }
+
+    @Test
+    void consume_InvalidatesRequestUri() {
+        String requestUri = store.push(request);
+
+        store.consume(requestUri);
+
+        assertNull(store.find(requestUri, "web-app"));
+    }
+}
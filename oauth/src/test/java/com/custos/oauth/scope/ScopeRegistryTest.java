@@ -0,0 +1,93 @@
+package com.custos.oauth.scope;
+
+import com.custos.oauth.exception.OAuthException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScopeRegistryTest {
+
+    private ScopeRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new ScopeRegistry();
+    }
+
+    @Test
+    void intern_ReturnsStableIds() {
+        int read = registry.intern("read");
+        int write = registry.intern("write");
+
+        assertNotEquals(read, write);
+        assertEquals(read, registry.intern("read"));
+        assertEquals("write", registry.name(write));
+        assertEquals(read, registry.lookup("openid read profile", 7, 11));
+        assertEquals(-1, registry.lookup("admin", 0, 5));
+    }
+
+    @Test
+    void validate_AllowedScopes_Passes() {
+        ScopeSet allowed = registry.compile(new String[] {"read", "write", "profile"});
+
+        assertDoesNotThrow(() -> registry.validate(allowed, "write read"));
+        assertDoesNotThrow(() -> registry.validate(allowed, "read  profile"));
+        assertDoesNotThrow(() -> registry.validate(allowed, ""));
+        assertDoesNotThrow(() -> registry.validate(allowed, null));
+    }
+
+    @Test
+    void validate_UnknownOrDisallowedScope_Throws() {
+        ScopeSet allowed = registry.compile(new String[] {"read"});
+        registry.intern("write");
+
+        OAuthException unknown = assertThrows(OAuthException.class, () -> registry.validate(allowed, "read admin"));
+        assertEquals("invalid_scope", unknown.getError());
+        assertTrue(unknown.getErrorDescription().endsWith("admin"));
+
+        OAuthException disallowed = assertThrows(OAuthException.class, () -> registry.validate(allowed, "write"));
+        assertTrue(disallowed.getErrorDescription().endsWith("write"));
+
+        assertThrows(OAuthException.class, () -> registry.validate(ScopeSet.EMPTY, "read"));
+    }
+
+    @Test
+    void parse_MoreThanSixtyFourScopes() {
+        String[] scopes = new String[130];
+        for (int i = 0; i < scopes.length; i++) {
+            scopes[i] = "scope" + i;
+        }
+        ScopeSet all = registry.compile(scopes);
+
+        ScopeSet requested = registry.parse("scope129 scope0 scope64");
+
+        assertEquals(130, all.size());
+        assertEquals(3, requested.size());
+        assertTrue(all.containsAll(requested));
+        assertFalse(requested.containsAll(all));
+        assertEquals("scope0 scope64 scope129", registry.format(requested));
+    }
+
+    @Test
+    void intersect_DownscopesToCommonScopes() {
+        ScopeSet client = registry.compile(new String[] {"read", "write", "profile"});
+        ScopeSet token = registry.parse("profile read");
+        registry.intern("admin");
+
+        ScopeSet downscoped = client.intersect(registry.parse("admin profile"));
+
+        assertEquals(registry.parse("profile"), downscoped);
+        assertEquals(token, client.intersect(token));
+        assertTrue(client.intersect(registry.parse("admin")).isEmpty());
+        assertEquals(ScopeSet.EMPTY, client.intersect(registry.parse("admin")));
+    }
+
+    @Test
+    void format_IsIndependentOfRequestOrder() {
+        registry.compile(new String[] {"openid", "profile", "email"});
+
+        assertEquals(registry.format(registry.parse("email openid")), registry.format(registry.parse("openid email")));
+        assertNull(registry.format(ScopeSet.EMPTY));
+    }
+}
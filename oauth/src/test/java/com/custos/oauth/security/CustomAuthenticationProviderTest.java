@@ -0,0 +1,45 @@
+package com.custos.oauth.security;
+
+import com.custos.oauth.authenticators.PasswordAuthenticator;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CustomAuthenticationProviderTest {
+
+    private final PasswordAuthenticator passwordAuthenticator = mock(PasswordAuthenticator.class);
+    private final CustomAuthenticationProvider provider =
+        new CustomAuthenticationProvider(passwordAuthenticator, Set.of("root"));
+
+    @Test
+    void authenticate_ConfiguredAdmin_GrantsAdminAuthority() {
+        when(passwordAuthenticator.authenticate("root", "pw")).thenReturn("1");
+
+        Authentication authentication = provider.authenticate(
+            UsernamePasswordAuthenticationToken.unauthenticated("root", "pw"));
+
+        assertEquals("1", authentication.getName());
+        assertEquals(Set.of("ROLE_USER", CustomAuthenticationProvider.ADMIN_AUTHORITY), authorities(authentication));
+    }
+
+    @Test
+    void authenticate_OtherUser_GrantsUserAuthorityOnly() {
+        when(passwordAuthenticator.authenticate("alice", "pw")).thenReturn("2");
+
+        Authentication authentication = provider.authenticate(
+            UsernamePasswordAuthenticationToken.unauthenticated("alice", "pw"));
+
+        assertEquals(Set.of("ROLE_USER"), authorities(authentication));
+    }
+
+    private static Set<String> authorities(Authentication authentication) {
+        return Set.copyOf(authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+    }
+}
@@ -0,0 +1,118 @@
+package com.custos.oauth.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit.jupiter.web.SpringJUnitWebConfig;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+import static org.mockito.Mockito.mock;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks the access rules of the filter chain against stand-in endpoints.
+ */
+@SpringJUnitWebConfig(SecurityConfigTest.Config.class)
+class SecurityConfigTest {
+
+    @Autowired
+    private WebApplicationContext context;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).apply(springSecurity()).build();
+    }
+
+    @Test
+    void bulkEndpoints_User_Forbidden() throws Exception {
+        mockMvc.perform(post("/oauth2/register/import").with(user("alice").roles("USER")).with(csrf()))
+            .andExpect(status().isForbidden());
+        mockMvc.perform(get("/oauth2/register/export").with(user("alice").roles("USER")))
+            .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void bulkEndpoints_Admin_Allowed() throws Exception {
+        mockMvc.perform(post("/oauth2/register/import").with(user("root").roles("USER", "ADMIN")).with(csrf()))
+            .andExpect(status().isOk());
+        mockMvc.perform(get("/oauth2/register/export").with(user("root").roles("USER", "ADMIN")))
+            .andExpect(status().isOk());
+    }
+
+    @Test
+    void bulkEndpoints_Anonymous_RedirectedToLogin() throws Exception {
+        mockMvc.perform(get("/oauth2/register/export"))
+            .andExpect(status().is3xxRedirection());
+    }
+
+    @Test
+    void secretRotation_User_Forbidden() throws Exception {
+        mockMvc.perform(post("/oauth2/register/billing/secret").with(user("alice").roles("USER")).with(csrf()))
+            .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void secretRotation_Admin_Allowed() throws Exception {
+        mockMvc.perform(post("/oauth2/register/billing/secret").with(user("root").roles("USER", "ADMIN")).with(csrf()))
+            .andExpect(status().isOk());
+    }
+
+    @Test
+    void registration_User_Allowed() throws Exception {
+        mockMvc.perform(post("/oauth2/register").with(user("alice").roles("USER")).with(csrf()))
+            .andExpect(status().isOk());
+    }
+
+    @Configuration
+    @EnableWebMvc
+    @Import(SecurityConfig.class)
+    static class Config {
+
+        @Bean
+        CustomAuthenticationProvider customAuthenticationProvider() {
+            return mock(CustomAuthenticationProvider.class);
+        }
+
+        @Bean
+        RegistrationController registrationController() {
+            return new RegistrationController();
+        }
+    }
+
+    @RestController
+    static class RegistrationController {
+
+        @PostMapping("/oauth2/register")
+        void register() {
+        }
+
+        @PostMapping("/oauth2/register/import")
+        void importClients() {
+        }
+
+        @GetMapping("/oauth2/register/export")
+        void exportClients() {
+        }
+
+        @PostMapping("/oauth2/register/{clientId}/secret")
+        void rotateClientSecret(@PathVariable String clientId) {
+        }
+    }
+}
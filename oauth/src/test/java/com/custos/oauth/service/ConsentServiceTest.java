@@ -0,0 +1,91 @@
+package com.custos.oauth.service;
+
+import com.custos.oauth.model.Consent;
+import com.custos.oauth.repository.ConsentRepository;
+import com.custos.oauth.scope.ScopeRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ConsentServiceTest {
+
+    private ConsentRepository consentRepository;
+    private ConsentService consentService;
+
+    @BeforeEach
+    void setUp() {
+        ScopeRegistry scopeRegistry = new ScopeRegistry();
+        scopeRegistry.compile(new String[] {"openid", "profile", "email"});
+        consentRepository = mock(ConsentRepository.class);
+        consentService = new ConsentService(consentRepository, scopeRegistry);
+    }
+
+    @Test
+    void isGranted_RepeatedChecks_QueryOnce() {
+        when(consentRepository.findByTenantIdAndUsername("", "alice"))
+            .thenReturn(List.of(consent("web-app", "openid profile")));
+
+        assertTrue(consentService.isGranted("alice", "web-app", "profile openid"));
+        assertTrue(consentService.isGranted("alice", "web-app", null));
+        assertFalse(consentService.isGranted("alice", "web-app", "openid email"));
+        assertFalse(consentService.isGranted("alice", "other-app", "openid"));
+        verify(consentRepository, times(1)).findByTenantIdAndUsername("", "alice");
+    }
+
+    @Test
+    void isGranted_NoConsents_CachedToo() {
+        when(consentRepository.findByTenantIdAndUsername("", "bob")).thenReturn(List.of());
+
+        assertFalse(consentService.isGranted("bob", "web-app", "openid"));
+        assertFalse(consentService.isGranted("bob", "web-app", "openid"));
+        verify(consentRepository, times(1)).findByTenantIdAndUsername("", "bob");
+    }
+
+    @Test
+    void grant_AddsToPreviousScopesAndInvalidates() {
+        when(consentRepository.findByTenantIdAndUsername("", "alice")).thenReturn(List.of());
+        when(consentRepository.findByTenantIdAndUsernameAndClientId("", "alice", "web-app"))
+            .thenReturn(Optional.of(consent("web-app", "openid")));
+        assertFalse(consentService.isGranted("alice", "web-app", "openid"));
+
+        consentService.grant("alice", "web-app", "profile openid");
+
+        ArgumentCaptor<Consent> saved = ArgumentCaptor.forClass(Consent.class);
+        verify(consentRepository).save(saved.capture());
+        assertEquals("openid profile", saved.getValue().getScopes());
+        consentService.isGranted("alice", "web-app", "openid");
+        verify(consentRepository, times(2)).findByTenantIdAndUsername("", "alice");
+    }
+
+    @Test
+    void revoke_InvalidatesCachedDecision() {
+        when(consentRepository.findByTenantIdAndUsername("", "alice"))
+            .thenReturn(List.of(consent("web-app", "openid")))
+            .thenReturn(List.of());
+        when(consentRepository.deleteByTenantIdAndUsernameAndClientId("", "alice", "web-app")).thenReturn(1L);
+        assertTrue(consentService.isGranted("alice", "web-app", "openid"));
+
+        assertTrue(consentService.revoke("alice", "web-app"));
+
+        assertFalse(consentService.isGranted("alice", "web-app", "openid"));
+        verify(consentRepository, never()).save(any());
+    }
+
+    private static Consent consent(String clientId, String scopes) {
+        Consent consent = new Consent();
+        consent.setTenantId("");
+        consent.setUsername("alice");
+        consent.setClientId(clientId);
+        consent.setScopes(scopes);
+        consent.setGrantedAt(Instant.now());
+        return consent;
+    }
+}
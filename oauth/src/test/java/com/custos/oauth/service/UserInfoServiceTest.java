@@ -0,0 +1,75 @@
+package com.custos.oauth.service;
+
+import com.custos.oauth.exception.OAuthException;
+import com.custos.oauth.model.User;
+import com.custos.oauth.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class UserInfoServiceTest {
+
+    private UserRepository userRepository;
+    private UserInfoService userInfoService;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        userInfoService = new UserInfoService(userRepository);
+    }
+
+    @Test
+    void getClaims_RepeatedLookups_QueryOnce() {
+        when(userRepository.findByUsername("alice")).thenReturn(Optional.of(user("alice", "alice@custos.com")));
+
+        Map<String, Object> first = userInfoService.getClaims("alice");
+        Map<String, Object> second = userInfoService.getClaims("alice");
+
+        assertEquals("alice", first.get("sub"));
+        assertEquals("alice@custos.com", first.get("email"));
+        assertSame(first, second);
+        verify(userRepository, times(1)).findByUsername("alice");
+    }
+
+    @Test
+    void getClaims_AfterInvalidate_ReadsUserAgain() {
+        when(userRepository.findByUsername("alice"))
+            .thenReturn(Optional.of(user("alice", "old@custos.com")))
+            .thenReturn(Optional.of(user("alice", "new@custos.com")));
+        userInfoService.getClaims("alice");
+
+        userInfoService.invalidate("alice");
+
+        assertEquals("new@custos.com", userInfoService.getClaims("alice").get("email"));
+        verify(userRepository, times(2)).findByUsername("alice");
+    }
+
+    @Test
+    void getClaims_UnknownSubject_Throws() {
+        when(userRepository.findByUsername("test-client")).thenReturn(Optional.empty());
+
+        OAuthException e = assertThrows(OAuthException.class, () -> userInfoService.getClaims("test-client"));
+        assertEquals("invalid_token", e.getErrorCode());
+    }
+
+    @Test
+    void getClaims_DisabledUser_Throws() {
+        User user = user("alice", "alice@custos.com");
+        user.setEnabled(false);
+        when(userRepository.findByUsername("alice")).thenReturn(Optional.of(user));
+
+        assertThrows(OAuthException.class, () -> userInfoService.getClaims("alice"));
+    }
+
+    private static User user(String username, String email) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(email);
+        return user;
+    }
+}
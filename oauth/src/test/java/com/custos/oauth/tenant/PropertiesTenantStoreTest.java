@@ -0,0 +1,47 @@
+package com.custos.oauth.tenant;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PropertiesTenantStoreTest {
+
+    @Test
+    void find_ConfiguredTenant_UsesConfiguredIssuer() {
+        PropertiesTenantStore store = new PropertiesTenantStore(new MockEnvironment()
+            .withProperty("custos.tenants.acme.issuer", "https://acme.example.com"));
+
+        TenantDefinition acme = store.find("acme");
+
+        assertEquals("https://acme.example.com", acme.issuer());
+        assertSame(acme, store.find("acme"));
+        assertNull(store.find("globex"));
+    }
+
+    @Test
+    void find_AutoCreate_OnlyForMatchingIds() {
+        PropertiesTenantStore store = new PropertiesTenantStore(new MockEnvironment()
+            .withProperty("oauth2.authorization-server.issuer", "https://auth.example.com")
+            .withProperty("custos.tenants.auto-create", "true")
+            .withProperty("custos.tenants.auto-create-pattern", "[a-z]+-sandbox"));
+
+        assertEquals("https://auth.example.com/t/acme-sandbox", store.find("acme-sandbox").issuer());
+        assertNull(store.find("acme"));
+    }
+
+    @Test
+    void find_AutoCreate_StopsAtLimit() {
+        PropertiesTenantStore store = new PropertiesTenantStore(new MockEnvironment()
+            .withProperty("custos.tenants.auto-create", "true")
+            .withProperty("custos.tenants.auto-create-max", "2")
+            .withProperty("custos.tenants.acme.issuer", "https://acme.example.com"));
+
+        assertNotNull(store.find("first"));
+        assertNotNull(store.find("second"));
+        assertNull(store.find("third"));
+        // Tenants created before the limit, and configured tenants, are still found
+        assertNotNull(store.find("first"));
+        assertNotNull(store.find("acme"));
+    }
+}
@@ -0,0 +1,76 @@
+package com.custos.oauth.tenant;
+
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TenantFilterTest {
+
+    private TenantRegistry registry;
+    private TenantContext acme;
+    private MockHttpServletResponse response;
+
+    @BeforeEach
+    void setUp() {
+        registry = mock(TenantRegistry.class);
+        acme = mock(TenantContext.class);
+        when(registry.resolve("acme")).thenReturn(acme);
+        response = new MockHttpServletResponse();
+    }
+
+    @Test
+    void doFilter_TenantPath_ForwardsToEndpoint() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/t/acme/oauth2/token");
+        MockFilterChain chain = new MockFilterChain();
+
+        new TenantFilter(registry, "").doFilter(request, response, chain);
+
+        assertEquals("/oauth2/token", response.getForwardedUrl());
+        assertNull(chain.getRequest());
+        assertNull(TenantContextHolder.get());
+    }
+
+    @Test
+    void doFilter_UnknownTenantPath_ReturnsNotFound() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/t/unknown/oauth2/jwks");
+
+        new TenantFilter(registry, "").doFilter(request, response, new MockFilterChain());
+
+        assertEquals(404, response.getStatus());
+        assertNull(response.getForwardedUrl());
+    }
+
+    @Test
+    void doFilter_TenantHost_BindsTenantForChain() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/oauth2/jwks");
+        request.setServerName("ACME.auth.example.com");
+        AtomicReference<TenantContext> seen = new AtomicReference<>();
+        FilterChain chain = (req, res) -> seen.set(TenantContextHolder.get());
+
+        new TenantFilter(registry, ".auth.example.com").doFilter(request, response, chain);
+
+        assertSame(acme, seen.get());
+        assertNull(TenantContextHolder.get());
+    }
+
+    @Test
+    void doFilter_OtherRequest_UsesDefaultTenant() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/oauth2/jwks");
+        request.setServerName("auth.example.com");
+        AtomicReference<TenantContext> seen = new AtomicReference<>(acme);
+        FilterChain chain = (req, res) -> seen.set(TenantContextHolder.get());
+
+        new TenantFilter(registry, ".auth.example.com").doFilter(request, response, chain);
+
+        assertNull(seen.get());
+        verifyNoInteractions(registry);
+    }
+}
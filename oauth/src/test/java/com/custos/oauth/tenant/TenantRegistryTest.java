@@ -0,0 +1,131 @@
+package com.custos.oauth.tenant;
+
+import com.custos.oauth.MutableClock;
+import com.custos.oauth.client.ClientCertificate;
+import com.custos.oauth.client.ClientSecretVerifier;
+import com.custos.oauth.client.TestCertificates;
+import com.custos.oauth.exception.OAuthException;
+import com.custos.oauth.model.ClientRegistrationRequest;
+import com.custos.oauth.scope.ScopeRegistry;
+import com.custos.oauth.service.ClientRegistrationServiceImpl;
+import com.custos.oauth.service.JwtTokenService;
+import com.nimbusds.jwt.JWTClaimsSet;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TenantRegistryTest {
+
+    private final MutableClock clock = new MutableClock();
+    private final AtomicInteger lookups = new AtomicInteger();
+    private final Map<String, TenantDefinition> definitions = new ConcurrentHashMap<>();
+
+    private TenantRegistry registry;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        definitions.put("acme", new TenantDefinition("acme", "https://acme.example.com", KeyRing.generateKey(),
+            new ConcurrentHashMap<>()));
+        TenantStore store = tenantId -> {
+            lookups.incrementAndGet();
+            return definitions.get(tenantId);
+        };
+        registry = new TenantRegistry(store, Duration.ofMinutes(30), clock, null);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TenantContextHolder.clear();
+    }
+
+    @Test
+    void resolve_LoadsTenantOnce() {
+        TenantContext first = registry.resolve("acme");
+        TenantContext second = registry.resolve("acme");
+
+        assertNotNull(first);
+        assertSame(first, second);
+        assertEquals("https://acme.example.com", first.getIssuer());
+        assertEquals(1, lookups.get());
+        assertEquals(1, registry.size());
+    }
+
+    @Test
+    void resolve_UnknownTenant_ReturnsNull() {
+        assertNull(registry.resolve("unknown"));
+        assertEquals(0, registry.size());
+    }
+
+    @Test
+    void resolve_MalformedId_DoesNotReachStore() {
+        assertNull(registry.resolve("Acme"));
+        assertNull(registry.resolve("-acme"));
+        assertNull(registry.resolve("acme/../other"));
+        assertNull(registry.resolve("a".repeat(64)));
+        assertEquals(0, lookups.get());
+    }
+
+    @Test
+    void evictIdle_DropsOnlyIdleTenants() throws Exception {
+        definitions.put("globex", new TenantDefinition("globex", "https://globex.example.com",
+            KeyRing.generateKey(), new ConcurrentHashMap<>()));
+        TenantContext acme = registry.resolve("acme");
+        registry.resolve("globex");
+
+        clock.advance(Duration.ofMinutes(20).toMillis());
+        registry.resolve("globex");
+        clock.advance(Duration.ofMinutes(15).toMillis());
+
+        assertEquals(1, registry.evictIdle());
+        assertEquals(1, registry.size());
+
+        // Reloading rebuilds the context from the store, keeping the same key and clients
+        TenantContext reloaded = registry.resolve("acme");
+        assertNotSame(acme, reloaded);
+        assertEquals(acme.getKeyRing().getKeyId(), reloaded.getKeyRing().getKeyId());
+        assertSame(acme.getClients(), reloaded.getClients());
+    }
+
+    @Test
+    void evictIdle_DropsCertificateIndexAndReloadRebuildsIt() throws Exception {
+        ClientRegistrationServiceImpl service = new ClientRegistrationServiceImpl(
+            new ScopeRegistry(), new ClientSecretVerifier(), 3600, 604800);
+        ClientCertificate certificate = ClientCertificate.of(TestCertificates.selfSigned("CN=billing"));
+        TenantContext acme = registry.resolve("acme");
+        TenantContextHolder.set(acme);
+        String clientId = service.registerClient(ClientRegistrationRequest.builder()
+            .tlsClientAuthSubjectDn("CN=billing")
+            .build()).getClientId();
+        TenantContextHolder.clear();
+        assertNull(service.findClientByCertificate(certificate));
+
+        clock.advance(Duration.ofMinutes(31).toMillis());
+        assertEquals(1, registry.evictIdle());
+
+        TenantContext reloaded = registry.resolve("acme");
+        assertNotSame(acme.getCertificateIndex(), reloaded.getCertificateIndex());
+        TenantContextHolder.set(reloaded);
+        assertEquals(clientId, service.findClientByCertificate(certificate).clientId());
+    }
+
+    @Test
+    void tokens_AreIsolatedBetweenTenants() throws Exception {
+        JwtTokenService jwtTokenService = new JwtTokenService("http://localhost:9000");
+
+        TenantContextHolder.set(registry.resolve("acme"));
+        String token = jwtTokenService.generateAccessToken("client", "user", "read", 3600L);
+        JWTClaimsSet claims = jwtTokenService.validateToken(token);
+        assertEquals("https://acme.example.com", claims.getIssuer());
+        TenantContextHolder.clear();
+
+        OAuthException exception = assertThrows(OAuthException.class, () -> jwtTokenService.validateToken(token));
+        assertEquals("invalid_token", exception.getError());
+    }
+}
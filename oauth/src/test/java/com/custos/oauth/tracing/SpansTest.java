@@ -0,0 +1,107 @@
+package com.custos.oauth.tracing;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpansTest {
+
+    private final RecentSpanExporter exporter = new RecentSpanExporter(16);
+    private SdkTracerProvider tracerProvider;
+
+    @AfterEach
+    void tearDown() {
+        Spans.install(OpenTelemetry.noop().getTracer(Spans.INSTRUMENTATION_NAME));
+        tracerProvider.close();
+    }
+
+    @Test
+    void call_Nested_RecordsChildOfCurrentSpan() {
+        install(Sampler.alwaysOn());
+
+        String result = Spans.call("grant password", () -> Spans.call("jwt.sign", () -> "token"));
+
+        assertEquals("token", result);
+        List<SpanData> spans = exporter.getSpans();
+        assertEquals(2, spans.size());
+        SpanData sign = spans.get(0);
+        SpanData grant = spans.get(1);
+        assertEquals("jwt.sign", sign.getName());
+        assertEquals(grant.getSpanId(), sign.getParentSpanId());
+        assertEquals(grant.getTraceId(), sign.getTraceId());
+    }
+
+    @Test
+    void run_Failure_RecordsErrorAndRethrows() {
+        install(Sampler.alwaysOn());
+
+        IllegalStateException exception = new IllegalStateException("boom");
+        assertSame(exception, assertThrows(IllegalStateException.class, () -> Spans.run("client.validate", () -> {
+            throw exception;
+        })));
+
+        SpanData span = exporter.getSpans().get(0);
+        assertEquals(StatusCode.ERROR, span.getStatus().getStatusCode());
+        assertEquals("exception", span.getEvents().get(0).getName());
+    }
+
+    @Test
+    void wrap_Executor_PropagatesContext() throws Exception {
+        install(Sampler.alwaysOn());
+        ExecutorService executor = Spans.wrap(Executors.newSingleThreadExecutor());
+        try {
+            Spans.run("request", () -> executor.submit(() -> Spans.run("async", () -> { })).get());
+        } finally {
+            executor.shutdown();
+        }
+
+        List<SpanData> spans = exporter.getSpans();
+        SpanData async = spans.get(0);
+        SpanData request = spans.get(1);
+        assertEquals("async", async.getName());
+        assertEquals(request.getSpanId(), async.getParentSpanId());
+    }
+
+    @Test
+    void call_NotSampled_ExportsNothing() {
+        install(Sampler.parentBased(Sampler.traceIdRatioBased(0)));
+
+        int result = Spans.call("grant password", () -> Spans.call("jwt.sign", () -> 42));
+
+        assertEquals(42, result);
+        assertTrue(exporter.getSpans().isEmpty());
+    }
+
+    @Test
+    void export_Full_DropsOldest() {
+        install(Sampler.alwaysOn());
+
+        for (int i = 0; i < 20; i++) {
+            Spans.run("span-" + i, () -> { });
+        }
+
+        List<SpanData> spans = exporter.getSpans();
+        assertEquals(16, spans.size());
+        assertEquals("span-4", spans.get(0).getName());
+        assertEquals(1, exporter.getTrace(spans.get(15).getTraceId()).size());
+    }
+
+    private void install(Sampler sampler) {
+        tracerProvider = SdkTracerProvider.builder()
+            .setSampler(sampler)
+            .addSpanProcessor(SimpleSpanProcessor.create(exporter))
+            .build();
+        Spans.install(tracerProvider.get(Spans.INSTRUMENTATION_NAME));
+    }
+}
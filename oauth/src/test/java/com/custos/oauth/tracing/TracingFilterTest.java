@@ -0,0 +1,116 @@
+package com.custos.oauth.tracing;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.propagation.ContextPropagators;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TracingFilterTest {
+
+    private static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+
+    private final RecentSpanExporter exporter = new RecentSpanExporter(16);
+    private OpenTelemetrySdk openTelemetry;
+    private TracingFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        openTelemetry = OpenTelemetrySdk.builder()
+            .setTracerProvider(SdkTracerProvider.builder()
+                .setSampler(Sampler.parentBased(Sampler.traceIdRatioBased(0)))
+                .addSpanProcessor(SimpleSpanProcessor.create(exporter))
+                .build())
+            .setPropagators(ContextPropagators.create(W3CTraceContextPropagator.getInstance()))
+            .build();
+        filter = new TracingFilter(openTelemetry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        openTelemetry.close();
+    }
+
+    @Test
+    void doFilter_SampledParent_ContinuesTrace() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/t/acme/oauth2/token");
+        request.addHeader("traceparent", "00-" + TRACE_ID + "-00f067aa0ba902b7-01");
+
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        SpanData span = exporter.getSpans().get(0);
+        assertEquals(TRACE_ID, span.getTraceId());
+        assertEquals("00f067aa0ba902b7", span.getParentSpanId());
+        assertEquals(SpanKind.SERVER, span.getKind());
+        assertEquals("POST /t/{tenant}/oauth2/token", span.getName());
+    }
+
+    @Test
+    void doFilter_ServerError_MarksSpan() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/oauth2/token");
+        request.addHeader("traceparent", "00-" + TRACE_ID + "-00f067aa0ba902b7-01");
+        FilterChain chain = (req, res) -> ((MockHttpServletResponse) res).setStatus(500);
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertEquals(StatusCode.ERROR, exporter.getSpans().get(0).getStatus().getStatusCode());
+    }
+
+    @Test
+    void doFilter_HeldPoll_EndsSpanWhenResponseCompletes() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/oauth2/token");
+        request.addHeader("traceparent", "00-" + TRACE_ID + "-00f067aa0ba902b7-01");
+        request.addHeader("Prefer", "wait=5");
+        request.setAsyncSupported(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, (req, res) -> req.startAsync());
+
+        assertTrue(exporter.getSpans().isEmpty());
+
+        // The user decides: the result is dispatched and written under the same server span
+        Tracer tracer = openTelemetry.getTracer("test");
+        request.setDispatcherType(DispatcherType.ASYNC);
+        filter.doFilter(request, response, (req, res) -> {
+            tracer.spanBuilder("grant urn:ietf:params:oauth:grant-type:device_code").startSpan().end();
+            ((MockHttpServletResponse) res).setStatus(200);
+        });
+        ((MockAsyncContext) request.getAsyncContext()).complete();
+
+        List<SpanData> spans = exporter.getSpans();
+        assertEquals(2, spans.size());
+        SpanData grant = spans.get(0);
+        SpanData server = spans.get(1);
+        assertEquals("POST /oauth2/token", server.getName());
+        assertEquals(server.getSpanId(), grant.getParentSpanId());
+        assertEquals(200L, server.getAttributes().get(AttributeKey.longKey("http.response.status_code")));
+        assertFalse(server.getEndEpochNanos() < grant.getEndEpochNanos());
+    }
+
+    @Test
+    void doFilter_NoParent_FollowsSampler() throws Exception {
+        filter.doFilter(new MockHttpServletRequest("GET", "/oauth2/jwks"), new MockHttpServletResponse(),
+            new MockFilterChain());
+
+        assertTrue(exporter.getSpans().isEmpty());
+    }
+}
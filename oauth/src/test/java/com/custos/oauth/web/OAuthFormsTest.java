@@ -0,0 +1,189 @@
+package com.custos.oauth.web;
+
+import com.custos.oauth.client.ClientCertificate;
+import com.custos.oauth.client.TestCertificates;
+import com.custos.oauth.exception.OAuthException;
+import com.custos.oauth.model.TokenIntrospectionRequest;
+import com.custos.oauth.model.TokenRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.security.cert.X509Certificate;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OAuthFormsTest {
+
+    @Test
+    void readTokenRequest_DecodesKnownParameters() {
+        MockHttpServletRequest request = formRequest(
+            "grant_type=authorization_code&code=abc%2Fdef&redirect_uri=https%3A%2F%2Fclient.example.com%2Fcb"
+                + "&client_id=test-client&client_secret=s3cr%C3%A9t&scope=read+write&unknown=ignored");
+
+        TokenRequest tokenRequest = OAuthForms.readTokenRequest(request);
+
+        assertEquals("authorization_code", tokenRequest.getGrantType());
+        assertEquals("abc/def", tokenRequest.getCode());
+        assertEquals("https://client.example.com/cb", tokenRequest.getRedirectUri());
+        assertEquals("test-client", tokenRequest.getClientId());
+        assertEquals("s3crét", tokenRequest.getClientSecret());
+        assertEquals("read write", tokenRequest.getScope());
+        assertNull(tokenRequest.getRefreshToken());
+    }
+
+    @Test
+    void readTokenRequest_BasicAuthorization_SuppliesClientCredentials() {
+        MockHttpServletRequest request = formRequest("grant_type=client_credentials&scope=read");
+        request.addHeader(HttpHeaders.AUTHORIZATION, basic("test%3Aclient", "secret+value"));
+
+        TokenRequest tokenRequest = OAuthForms.readTokenRequest(request);
+
+        assertEquals("test:client", tokenRequest.getClientId());
+        assertEquals("secret value", tokenRequest.getClientSecret());
+    }
+
+    @Test
+    void readTokenRequest_BasicAndBodySecret_Rejected() {
+        MockHttpServletRequest request = formRequest("grant_type=client_credentials&client_secret=other");
+        request.addHeader(HttpHeaders.AUTHORIZATION, basic("test-client", "secret"));
+
+        OAuthException e = assertThrows(OAuthException.class, () -> OAuthForms.readTokenRequest(request));
+        assertEquals("invalid_request", e.getErrorCode());
+    }
+
+    @Test
+    void readTokenRequest_ClientAssertion() {
+        MockHttpServletRequest request = formRequest("grant_type=client_credentials"
+            + "&client_assertion_type=urn%3Aietf%3Aparams%3Aoauth%3Aclient-assertion-type%3Ajwt-bearer"
+            + "&client_assertion=eyJhbGciOiJSUzI1NiJ9.e30.c2ln");
+
+        TokenRequest tokenRequest = OAuthForms.readTokenRequest(request);
+
+        assertNull(tokenRequest.getClientId());
+        assertEquals("urn:ietf:params:oauth:client-assertion-type:jwt-bearer", tokenRequest.getClientAssertionType());
+        assertEquals("eyJhbGciOiJSUzI1NiJ9.e30.c2ln", tokenRequest.getClientAssertion());
+    }
+
+    @Test
+    void readTokenRequest_TlsClientCertificate() throws Exception {
+        X509Certificate certificate = TestCertificates.selfSigned("CN=batch-job");
+        MockHttpServletRequest request = formRequest("grant_type=client_credentials");
+        request.setAttribute("jakarta.servlet.request.X509Certificate", new X509Certificate[] {certificate});
+
+        TokenRequest tokenRequest = OAuthForms.readTokenRequest(request);
+
+        assertEquals(ClientCertificate.of(certificate), tokenRequest.getClientCertificate());
+        assertNull(OAuthForms.readTokenRequest(formRequest("grant_type=client_credentials")).getClientCertificate());
+    }
+
+    @Test
+    void readTokenRequest_DPoPProof() {
+        MockHttpServletRequest request = formRequest("grant_type=client_credentials");
+        request.addHeader("DPoP", "eyJ0eXAiOiJkcG9wK2p3dCJ9.e30.c2ln");
+
+        assertEquals("eyJ0eXAiOiJkcG9wK2p3dCJ9.e30.c2ln", OAuthForms.readTokenRequest(request).getDpopProof());
+
+        request.addHeader("DPoP", "eyJ0eXAiOiJkcG9wK2p3dCJ9.e30.b3RoZXI");
+        OAuthException e = assertThrows(OAuthException.class, () -> OAuthForms.readTokenRequest(request));
+        assertEquals("invalid_dpop_proof", e.getErrorCode());
+    }
+
+    @Test
+    void readTokenRequest_DuplicateParameter_Rejected() {
+        MockHttpServletRequest request = formRequest("grant_type=password&grant_type=client_credentials");
+
+        OAuthException e = assertThrows(OAuthException.class, () -> OAuthForms.readTokenRequest(request));
+        assertEquals("invalid_request", e.getErrorCode());
+    }
+
+    @Test
+    void readTokenRequest_MalformedEscape_Rejected() {
+        MockHttpServletRequest request = formRequest("grant_type=password&password=%G1");
+
+        assertThrows(OAuthException.class, () -> OAuthForms.readTokenRequest(request));
+    }
+
+    @Test
+    void readIntrospectionRequest_FallsBackToParameterMap() {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/oauth2/introspect");
+        request.setContentType(MediaType.APPLICATION_FORM_URLENCODED_VALUE);
+        request.addParameter("token", "abc");
+        request.addParameter("client_id", "test-client");
+
+        TokenIntrospectionRequest introspectionRequest = OAuthForms.readIntrospectionRequest(request);
+
+        assertEquals("abc", introspectionRequest.getToken());
+        assertEquals("test-client", introspectionRequest.getClientId());
+        assertNull(introspectionRequest.getClientSecret());
+    }
+
+    @Test
+    void readTokenRequest_BodyAtSizeLimit_Accepted() {
+        String body = bodyOfSize(OAuthForms.MAX_BODY_SIZE);
+
+        assertEquals(OAuthForms.MAX_BODY_SIZE - 36, OAuthForms.readTokenRequest(formRequest(body)).getScope().length());
+        assertEquals("client_credentials", OAuthForms.readTokenRequest(chunked(formRequest(body))).getGrantType());
+    }
+
+    @Test
+    void readTokenRequest_BodyPastSizeLimit_Rejected() {
+        String body = bodyOfSize(OAuthForms.MAX_BODY_SIZE + 1);
+
+        OAuthException declared = assertThrows(OAuthException.class, () -> OAuthForms.readTokenRequest(formRequest(body)));
+        assertEquals("invalid_request", declared.getErrorCode());
+        OAuthException streamed = assertThrows(OAuthException.class,
+            () -> OAuthForms.readTokenRequest(chunked(formRequest(body))));
+        assertEquals("invalid_request", streamed.getErrorCode());
+    }
+
+    @Test
+    void parse_EmptyValuesAndPairs() {
+        FormParameters parameters = new FormParameters("a", "b", "c");
+        byte[] body = "a=&&b&c=x%3Dy".getBytes(StandardCharsets.US_ASCII);
+
+        String[] values = parameters.parse(body, body.length);
+
+        assertEquals("", values[0]);
+        assertEquals("", values[1]);
+        assertEquals("x=y", values[2]);
+    }
+
+    private static MockHttpServletRequest formRequest(String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/oauth2/token");
+        request.setContentType(MediaType.APPLICATION_FORM_URLENCODED_VALUE);
+        request.setContent(body.getBytes(StandardCharsets.US_ASCII));
+        return request;
+    }
+
+    /**
+     * Returns a form of exactly the given size, padded with a long scope.
+     */
+    private static String bodyOfSize(int size) {
+        String prefix = "grant_type=client_credentials&scope=";
+        return prefix + "a".repeat(size - prefix.length());
+    }
+
+    /**
+     * Hides the content length, as for a chunked request body.
+     */
+    private static MockHttpServletRequest chunked(MockHttpServletRequest request) {
+        MockHttpServletRequest chunked = new MockHttpServletRequest("POST", "/oauth2/token") {
+            @Override
+            public int getContentLength() {
+                return -1;
+            }
+        };
+        chunked.setContentType(request.getContentType());
+        chunked.setContent(request.getContentAsByteArray());
+        return chunked;
+    }
+
+    private static String basic(String clientId, String clientSecret) {
+        return "Basic " + Base64.getEncoder()
+            .encodeToString((clientId + ":" + clientSecret).getBytes(StandardCharsets.UTF_8));
+    }
+}
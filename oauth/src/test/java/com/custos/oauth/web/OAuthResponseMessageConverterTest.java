@@ -0,0 +1,115 @@
+package com.custos.oauth.web;
+
+import com.custos.oauth.model.TokenIntrospectionResponse;
+import com.custos.oauth.model.TokenResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OAuthResponseMessageConverterTest {
+
+    private final OAuthResponseMessageConverter converter = new OAuthResponseMessageConverter();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void write_TokenResponse_MatchesJacksonOutput() throws Exception {
+        TokenResponse response = TokenResponse.builder()
+            .accessToken("eyJhbGciOiJSUzI1NiJ9.eyJzdWIiOiJ1c2VyIn0.c2ln")
+            .tokenType("Bearer")
+            .expiresIn(3600L)
+            .refreshToken("refresh-token-123")
+            .scope("read write")
+            .build();
+
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        converter.write(response, MediaType.APPLICATION_JSON, output);
+
+        assertEquals(objectMapper.readTree(objectMapper.writeValueAsBytes(response)),
+            objectMapper.readTree(output.getBodyAsBytes()));
+        assertEquals(output.getBodyAsBytes().length, output.getHeaders().getContentLength());
+    }
+
+    @Test
+    void write_ErrorResponse_OmitsNullFields() throws Exception {
+        TokenResponse response = TokenResponse.builder()
+            .error("invalid_client")
+            .errorDescription("Client not found")
+            .build();
+
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        converter.write(response, MediaType.APPLICATION_JSON, output);
+
+        assertEquals("{\"error\":\"invalid_client\",\"error_description\":\"Client not found\"}",
+            output.getBodyAsString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void write_IntrospectionResponse_MatchesJacksonOutput() throws Exception {
+        TokenIntrospectionResponse response = TokenIntrospectionResponse.builder()
+            .active(true)
+            .scope("read write")
+            .clientId("test-client")
+            .username("test-user")
+            .tokenType("Bearer")
+            .exp(1700003600L)
+            .iat(1700000000L)
+            .nbf(1700000000L)
+            .sub("test-user")
+            .aud("test-client")
+            .iss("https://auth.custos.com")
+            .jti("8f14e45f-ceea-4e67-a1c5-6b0e2a6c4f3d")
+            .cnf(Map.of("x5t#S256", "bwcK0esc3ACC3DB2Y5_lESsXE8o9ltc05O89jdN-dg2"))
+            .build();
+
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        converter.write(response, MediaType.APPLICATION_JSON, output);
+
+        assertEquals(objectMapper.readTree(objectMapper.writeValueAsBytes(response)),
+            objectMapper.readTree(output.getBodyAsBytes()));
+    }
+
+    @Test
+    void write_InactiveIntrospectionResponse_WritesActiveFalseOnly() throws Exception {
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        converter.write(TokenIntrospectionResponse.INACTIVE, MediaType.APPLICATION_JSON, output);
+
+        assertEquals("{\"active\":false}", output.getBodyAsString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void writeString_EscapesControlAndNonAsciiCharacters() throws Exception {
+        String description = "line\nbreak \"quoted\" \\ café € 😀 \u0001";
+        JsonByteWriter writer = JsonByteWriter.acquire()
+            .beginObject()
+            .field(JsonByteWriter.name("error_description"), description)
+            .field(JsonByteWriter.name("expires_in"), Long.MIN_VALUE)
+            .endObject();
+
+        var tree = objectMapper.readTree(writer.toByteArray());
+        assertEquals(description, tree.get("error_description").asText());
+        assertEquals(Long.MIN_VALUE, tree.get("expires_in").asLong());
+    }
+
+    @Test
+    void writeString_UnpairedSurrogate_IsEscaped() {
+        JsonByteWriter writer = JsonByteWriter.acquire()
+            .beginObject()
+            .field(JsonByteWriter.name("scope"), "a\uD800b")
+            .endObject();
+
+        assertEquals("{\"scope\":\"a\\ud800b\"}", new String(writer.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void canRead_AlwaysFalse() {
+        assertFalse(converter.canRead(TokenResponse.class, MediaType.APPLICATION_JSON));
+        assertTrue(converter.canWrite(TokenResponse.class, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canWrite(String.class, MediaType.APPLICATION_JSON));
+    }
+}
@@ -0,0 +1,107 @@
+package com.custos.oauth.web;
+
+import com.custos.oauth.model.TokenIntrospectionResponse;
+import com.custos.oauth.model.TokenResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the bytes allocated per serialized response between Jackson and
+ * {@link OAuthResponseMessageConverter}. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class OAuthResponseSerializationBenchmark {
+
+    private static final int WARMUP_ITERATIONS = 20_000;
+    private static final int MEASURED_ITERATIONS = 100_000;
+
+    private final TokenResponse tokenResponse = TokenResponse.builder()
+        .accessToken("eyJraWQiOiIxIiwiYWxnIjoiUlMyNTYifQ.eyJzdWIiOiJ0ZXN0LXVzZXIiLCJhdWQiOiJ0ZXN0LWNsaWVudCJ9."
+            + "c2lnbmF0dXJlLXNpZ25hdHVyZS1zaWduYXR1cmUtc2lnbmF0dXJlLXNpZ25hdHVyZQ")
+        .tokenType("Bearer")
+        .expiresIn(3600L)
+        .refreshToken("eyJraWQiOiIxIiwiYWxnIjoiUlMyNTYifQ.eyJ0b2tlbl90eXBlIjoicmVmcmVzaF90b2tlbiJ9.c2ln")
+        .scope("read write")
+        .build();
+
+    private final TokenIntrospectionResponse introspectionResponse = TokenIntrospectionResponse.builder()
+        .active(true)
+        .scope("read write")
+        .clientId("test-client")
+        .username("test-user")
+        .tokenType("Bearer")
+        .exp(1700003600L)
+        .iat(1700000000L)
+        .nbf(1700000000L)
+        .sub("test-user")
+        .aud("test-client")
+        .iss("https://auth.custos.com")
+        .jti("8f14e45f-ceea-4e67-a1c5-6b0e2a6c4f3d")
+        .build();
+
+    @Test
+    void bytesAllocatedPerResponse() throws Exception {
+        MappingJackson2HttpMessageConverter jackson = new MappingJackson2HttpMessageConverter(new ObjectMapper());
+        OAuthResponseMessageConverter streaming = new OAuthResponseMessageConverter();
+
+        long jacksonToken = measure(jackson, tokenResponse);
+        long streamingToken = measure(streaming, tokenResponse);
+        long jacksonIntrospection = measure(jackson, introspectionResponse);
+        long streamingIntrospection = measure(streaming, introspectionResponse);
+
+        System.out.printf("TokenResponse:              jackson=%d B/op, streaming=%d B/op%n",
+            jacksonToken, streamingToken);
+        System.out.printf("TokenIntrospectionResponse: jackson=%d B/op, streaming=%d B/op%n",
+            jacksonIntrospection, streamingIntrospection);
+
+        assertTrue(streamingToken < jacksonToken);
+        assertTrue(streamingIntrospection < jacksonIntrospection);
+    }
+
+    /**
+     * Returns the average number of bytes allocated by the current thread per write.
+     * The output message is reused so that only the converter's own allocations are counted.
+     */
+    @SuppressWarnings("unchecked")
+    private static long measure(HttpMessageConverter<?> converter, Object body) throws Exception {
+        HttpMessageConverter<Object> target = (HttpMessageConverter<Object>) converter;
+        com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            target.write(body, MediaType.APPLICATION_JSON, new NullOutputMessage());
+        }
+
+        NullOutputMessage output = new NullOutputMessage();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            output.getHeaders().clear();
+            target.write(body, MediaType.APPLICATION_JSON, output);
+        }
+        long after = threads.getThreadAllocatedBytes(threadId);
+        return (after - before) / MEASURED_ITERATIONS;
+    }
+
+    /**
+     * Output message that discards the body, standing in for the servlet output stream.
+     */
+    private static class NullOutputMessage extends MockHttpOutputMessage {
+        private static final OutputStream NULL_STREAM = OutputStream.nullOutputStream();
+
+        @Override
+        public OutputStream getBody() {
+            return NULL_STREAM;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.custos.resource;
+
+import com.nimbusds.jwt.JWTClaimsSet;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+
+/**
+ * Servlet filter that admits only requests carrying a valid bearer token (RFC 6750).
+ * The token's claims are exposed to the rest of the chain as a request attribute;
+ * requests without a valid token are answered with 401 and a {@code WWW-Authenticate} challenge.
+ */
+public class BearerTokenFilter implements Filter {
+
+    /**
+     * Request attribute holding the {@link JWTClaimsSet} of the validated token.
+     */
+    public static final String CLAIMS_ATTRIBUTE = BearerTokenFilter.class.getName() + ".CLAIMS";
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final JwtValidator validator;
+
+    public BearerTokenFilter(JwtValidator validator) {
+        this.validator = validator;
+    }
+
+    /**
+     * Returns the claims of the token that authorized a request.
+     *
+     * @param request A request that passed through this filter
+     * @return The claims, or null if the request was not filtered
+     */
+    public static JWTClaimsSet claims(HttpServletRequest request) {
+        return (JWTClaimsSet) request.getAttribute(CLAIMS_ATTRIBUTE);
+    }
+
+    @Override
+    public void doFilter(ServletRequest servletRequest, ServletResponse servletResponse, FilterChain chain)
+        throws IOException, ServletException {
+        HttpServletRequest request = (HttpServletRequest) servletRequest;
+        HttpServletResponse response = (HttpServletResponse) servletResponse;
+
+        String authorization = request.getHeader("Authorization");
+        if (authorization == null || !authorization.regionMatches(true, 0, BEARER_PREFIX, 0, BEARER_PREFIX.length())) {
+            // No credentials at all: the challenge carries no error code
+            response.setHeader("WWW-Authenticate", "Bearer");
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+            return;
+        }
+
+        try {
+            JWTClaimsSet claims = validator.validate(authorization.substring(BEARER_PREFIX.length()).trim());
+            request.setAttribute(CLAIMS_ATTRIBUTE, claims);
+        } catch (InvalidTokenException e) {
+            response.setHeader("WWW-Authenticate",
+                "Bearer error=\"invalid_token\", error_description=\"" + e.getMessage() + "\"");
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,96 @@
+package com.custos.resource;
+
+import com.nimbusds.jwt.JWTClaimsSet;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Claims of tokens that have already been verified, keyed by the SHA-256 hash of the token so
+ * that the tokens themselves are not retained. Entries are kept until the token expires.
+ */
+class ClaimsCache {
+
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    });
+
+    private final Map<TokenHash, Entry> entries = new ConcurrentHashMap<>();
+    private final int maxSize;
+
+    ClaimsCache(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive");
+        }
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns the cached claims, or null if the token is unknown or has expired.
+     */
+    JWTClaimsSet get(TokenHash hash, long now) {
+        Entry entry = entries.get(hash);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt <= now) {
+            entries.remove(hash, entry);
+            return null;
+        }
+        return entry.claims;
+    }
+
+    /**
+     * Caches claims until the given instant in epoch milliseconds.
+     */
+    void put(TokenHash hash, JWTClaimsSet claims, long expiresAt, long now) {
+        if (expiresAt <= now) {
+            return;
+        }
+        if (entries.size() >= maxSize && !entries.containsKey(hash)) {
+            evict(now);
+        }
+        entries.put(hash, new Entry(claims, expiresAt));
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    /**
+     * Drops expired entries, then arbitrary ones until there is room for a batch of new tokens.
+     */
+    private void evict(long now) {
+        entries.values().removeIf(entry -> entry.expiresAt <= now);
+        int target = maxSize - Math.max(1, maxSize / 10);
+        Iterator<TokenHash> keys = entries.keySet().iterator();
+        while (entries.size() > target && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    private record Entry(JWTClaimsSet claims, long expiresAt) {
+    }
+
+    /**
+     * SHA-256 of a token, held as four longs so that lookups need no string allocation.
+     */
+    record TokenHash(long h0, long h1, long h2, long h3) {
+
+        static TokenHash of(String token) {
+            MessageDigest digest = SHA256.get();
+            ByteBuffer hash = ByteBuffer.wrap(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+            return new TokenHash(hash.getLong(), hash.getLong(), hash.getLong(), hash.getLong());
+        }
+    }
+}
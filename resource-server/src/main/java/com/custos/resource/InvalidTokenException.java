@@ -0,0 +1,12 @@
+package com.custos.resource;
+
+/**
+ * Thrown when a bearer token cannot be accepted. The message is safe to return to the caller
+ * as the {@code error_description} of an {@code invalid_token} challenge.
+ */
+public class InvalidTokenException extends RuntimeException {
+
+    public InvalidTokenException(String message) {
+        super(message);
+    }
+}
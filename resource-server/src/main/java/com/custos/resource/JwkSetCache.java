@@ -0,0 +1,206 @@
+package com.custos.resource;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.ECDSAVerifier;
+import com.nimbusds.jose.crypto.RSASSAVerifier;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyType;
+import com.nimbusds.jose.jwk.KeyUse;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.text.ParseException;
+import java.time.Clock;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Caches the authorization server's signing keys as ready-to-use verifiers, one per key ID.
+ * <p>
+ * Lookups read an immutable snapshot and never block. A token signed with a key that is not in
+ * the snapshot triggers a refresh, which is shared by all concurrent callers and rate limited so
+ * that tokens with made-up key IDs cannot be used to flood the authorization server. Callers wait
+ * a short time for that refresh; if it takes longer it completes in the background.
+ */
+@Slf4j
+public class JwkSetCache implements AutoCloseable {
+
+    private final JwkSetSource source;
+    private final Clock clock;
+    private final long minRefreshIntervalMillis;
+    private final long unknownKeyTimeoutMillis;
+    private final ScheduledExecutorService executor;
+
+    private final Object lock = new Object();
+    private volatile Keys keys;
+    private CompletableFuture<Keys> pendingRefresh;
+    private long lastRefreshAttempt = Long.MIN_VALUE;
+
+    public JwkSetCache(ResourceServerSettings settings) {
+        this(settings, JwkSetSource.http(settings.getJwksUri(), settings.getFetchTimeout()));
+    }
+
+    public JwkSetCache(ResourceServerSettings settings, JwkSetSource source) {
+        this.source = source;
+        this.clock = settings.getClock();
+        this.minRefreshIntervalMillis = settings.getMinRefreshInterval().toMillis();
+        this.unknownKeyTimeoutMillis = settings.getUnknownKeyTimeout().toMillis();
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "jwks-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        long refreshMillis = settings.getRefreshInterval().toMillis();
+        if (refreshMillis > 0) {
+            executor.scheduleWithFixedDelay(this::loadQuietly, refreshMillis, refreshMillis, TimeUnit.MILLISECONDS);
+        }
+        // Load eagerly so that the first request finds the keys in place
+        refreshIfAllowed();
+    }
+
+    /**
+     * Returns the verifier for a key, refreshing the key set if the key is unknown.
+     *
+     * @param keyId The {@code kid} from the token header, or null
+     * @return The verifier, or null if no such key is published
+     */
+    public JWSVerifier verifier(String keyId) {
+        Keys current = keys;
+        JWSVerifier verifier = current == null ? null : current.find(keyId);
+        if (verifier != null) {
+            return verifier;
+        }
+
+        CompletableFuture<Keys> refresh = refreshIfAllowed();
+        if (refresh == null) {
+            return null;
+        }
+        Keys refreshed = await(refresh);
+        return refreshed == null ? null : refreshed.find(keyId);
+    }
+
+    /**
+     * Returns the number of keys currently cached.
+     */
+    public int size() {
+        Keys current = keys;
+        return current == null ? 0 : current.byKeyId().size();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Starts a refresh unless one is already running or the last one started too recently.
+     *
+     * @return The refresh in progress, or null if none may be started
+     */
+    private CompletableFuture<Keys> refreshIfAllowed() {
+        synchronized (lock) {
+            if (pendingRefresh != null) {
+                return pendingRefresh;
+            }
+            long now = clock.millis();
+            if (lastRefreshAttempt != Long.MIN_VALUE && now - lastRefreshAttempt < minRefreshIntervalMillis) {
+                return null;
+            }
+            lastRefreshAttempt = now;
+            pendingRefresh = CompletableFuture.supplyAsync(this::refresh, executor);
+            return pendingRefresh;
+        }
+    }
+
+    private Keys refresh() {
+        try {
+            return loadQuietly();
+        } finally {
+            synchronized (lock) {
+                pendingRefresh = null;
+            }
+        }
+    }
+
+    /**
+     * Fetches the key set and publishes it, keeping the previous keys if that fails.
+     */
+    private Keys loadQuietly() {
+        try {
+            Keys loaded = Keys.parse(source.fetch());
+            keys = loaded;
+            log.debug("Loaded {} signing keys", loaded.byKeyId().size());
+            return loaded;
+        } catch (IOException | ParseException e) {
+            log.warn("Failed to refresh signing keys: {}", e.getMessage());
+            return keys;
+        }
+    }
+
+    private Keys await(CompletableFuture<Keys> refresh) {
+        try {
+            return refresh.get(unknownKeyTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return keys;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return keys;
+        } catch (ExecutionException e) {
+            return keys;
+        }
+    }
+
+    /**
+     * An immutable snapshot of the signing keys.
+     *
+     * @param byKeyId Verifiers for keys that carry a key ID
+     * @param onlyKey The verifier to use for tokens without a key ID when exactly one key is published
+     */
+    private record Keys(Map<String, JWSVerifier> byKeyId, JWSVerifier onlyKey) {
+
+        JWSVerifier find(String keyId) {
+            return keyId == null ? onlyKey : byKeyId.get(keyId);
+        }
+
+        static Keys parse(String json) throws ParseException {
+            Map<String, JWSVerifier> byKeyId = new HashMap<>();
+            JWSVerifier last = null;
+            int count = 0;
+            for (JWK jwk : JWKSet.parse(json).getKeys()) {
+                boolean signing = jwk.getKeyUse() == null || KeyUse.SIGNATURE.equals(jwk.getKeyUse());
+                JWSVerifier verifier = signing ? toVerifier(jwk) : null;
+                if (verifier != null) {
+                    count++;
+                    last = verifier;
+                    if (jwk.getKeyID() != null) {
+                        byKeyId.put(jwk.getKeyID(), verifier);
+                    }
+                }
+            }
+            return new Keys(Map.copyOf(byKeyId), count == 1 ? last : null);
+        }
+
+        private static JWSVerifier toVerifier(JWK jwk) {
+            try {
+                if (KeyType.RSA.equals(jwk.getKeyType())) {
+                    return new RSASSAVerifier(jwk.toRSAKey());
+                }
+                if (KeyType.EC.equals(jwk.getKeyType())) {
+                    return new ECDSAVerifier(jwk.toECKey());
+                }
+            } catch (JOSEException e) {
+                log.warn("Ignoring unusable signing key {}: {}", jwk.getKeyID(), e.getMessage());
+            }
+            return null;
+        }
+    }
+}
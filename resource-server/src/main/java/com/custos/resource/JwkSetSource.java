@@ -0,0 +1,54 @@
+package com.custos.resource;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/**
+ * Supplies the JSON form of a JWK Set.
+ */
+@FunctionalInterface
+public interface JwkSetSource {
+
+    /**
+     * Fetches the current key set.
+     *
+     * @return The key set as JSON
+     * @throws IOException if the key set cannot be retrieved
+     */
+    String fetch() throws IOException;
+
+    /**
+     * Returns a source that fetches the key set over HTTP.
+     *
+     * @param jwksUri The location of the key set
+     * @param timeout Timeout for connecting and for the whole request
+     * @return The source
+     */
+    static JwkSetSource http(URI jwksUri, Duration timeout) {
+        HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(timeout)
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build();
+        HttpRequest request = HttpRequest.newBuilder(jwksUri)
+            .timeout(timeout)
+            .header("Accept", "application/json")
+            .GET()
+            .build();
+        return () -> {
+            try {
+                HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                if (response.statusCode() != 200) {
+                    throw new IOException("Unexpected status " + response.statusCode() + " from " + jwksUri);
+                }
+                return response.body();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while fetching " + jwksUri, e);
+            }
+        };
+    }
+}
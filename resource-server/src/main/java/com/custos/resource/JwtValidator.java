@@ -0,0 +1,139 @@
+package com.custos.resource;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import lombok.extern.slf4j.Slf4j;
+
+import java.text.ParseException;
+import java.time.Clock;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Validates Custos access tokens locally, without calling the introspection endpoint.
+ * <p>
+ * Signatures are checked with the keys held by a {@link JwkSetCache}. Once a token has been
+ * verified its claims are cached by token hash until it expires, so repeated requests with the
+ * same token cost one hash and one map lookup. Because validation is local, a token revoked at
+ * the authorization server is accepted here until it expires; resources that need immediate
+ * revocation should keep using introspection.
+ * <p>
+ * Only bearer tokens are accepted. Tokens bound to a DPoP key or a client certificate (those with
+ * a {@code cnf} claim) are refused, since their holder cannot be checked from the token alone and
+ * anyone who intercepted one could otherwise use it as a bearer token.
+ */
+@Slf4j
+public class JwtValidator {
+
+    /**
+     * The {@code token_type} claims of access tokens. Refresh tokens carry {@code refresh_token}
+     * and authorization codes none, and are signed with the same keys.
+     */
+    private static final Set<String> ACCESS_TOKEN_TYPES = Set.of("Bearer", "DPoP");
+
+    private final JwkSetCache jwkSetCache;
+    private final ResourceServerSettings settings;
+    private final ClaimsCache claimsCache;
+    private final Clock clock;
+    private final long clockSkewMillis;
+
+    public JwtValidator(ResourceServerSettings settings, JwkSetCache jwkSetCache) {
+        this.settings = settings;
+        this.jwkSetCache = jwkSetCache;
+        this.claimsCache = new ClaimsCache(settings.getMaxCachedTokens());
+        this.clock = settings.getClock();
+        this.clockSkewMillis = settings.getClockSkew().toMillis();
+    }
+
+    /**
+     * Validates a bearer token.
+     *
+     * @param token The serialized JWT
+     * @return The token's claims
+     * @throws InvalidTokenException if the token is malformed, not signed by a published key,
+     *                               expired, not yet valid, not an access token, bound to a key
+     *                               or certificate, or issued for another issuer or audience
+     */
+    public JWTClaimsSet validate(String token) {
+        if (token == null || token.isEmpty()) {
+            throw new InvalidTokenException("Missing token");
+        }
+
+        long now = clock.millis();
+        ClaimsCache.TokenHash hash = ClaimsCache.TokenHash.of(token);
+        JWTClaimsSet cached = claimsCache.get(hash, now);
+        if (cached != null) {
+            return cached;
+        }
+
+        JWTClaimsSet claims = verify(token);
+        checkClaims(claims, now);
+        claimsCache.put(hash, claims, claims.getExpirationTime().getTime(), now);
+        return claims;
+    }
+
+    /**
+     * Returns the number of tokens whose claims are cached.
+     */
+    public int cachedTokens() {
+        return claimsCache.size();
+    }
+
+    private JWTClaimsSet verify(String token) {
+        try {
+            SignedJWT jwt = SignedJWT.parse(token);
+            JWSHeader header = jwt.getHeader();
+            if (!settings.getAlgorithms().contains(header.getAlgorithm())) {
+                throw new InvalidTokenException("Unsupported signing algorithm");
+            }
+
+            JWSVerifier verifier = jwkSetCache.verifier(header.getKeyID());
+            if (verifier == null || !verifier.supportedJWSAlgorithms().contains(header.getAlgorithm())) {
+                throw new InvalidTokenException("Unknown signing key");
+            }
+            if (!jwt.verify(verifier)) {
+                throw new InvalidTokenException("Invalid token signature");
+            }
+            return jwt.getJWTClaimsSet();
+        } catch (ParseException | JOSEException e) {
+            log.debug("Rejected malformed token: {}", e.getMessage());
+            throw new InvalidTokenException("Invalid token");
+        }
+    }
+
+    private void checkClaims(JWTClaimsSet claims, long now) {
+        Object tokenType = claims.getClaim("token_type");
+        if (!(tokenType instanceof String type) || !ACCESS_TOKEN_TYPES.contains(type)) {
+            throw new InvalidTokenException("Not an access token");
+        }
+        if (claims.getClaim("cnf") != null) {
+            throw new InvalidTokenException("Sender-constrained token presented as a bearer token");
+        }
+
+        Date expiration = claims.getExpirationTime();
+        if (expiration == null) {
+            throw new InvalidTokenException("Token has no expiration");
+        }
+        if (expiration.getTime() + clockSkewMillis <= now) {
+            throw new InvalidTokenException("Token has expired");
+        }
+
+        Date notBefore = claims.getNotBeforeTime();
+        if (notBefore != null && notBefore.getTime() - clockSkewMillis > now) {
+            throw new InvalidTokenException("Token not yet valid");
+        }
+
+        if (settings.getIssuer() != null && !settings.getIssuer().equals(claims.getIssuer())) {
+            throw new InvalidTokenException("Token was issued by another issuer");
+        }
+
+        List<String> audience = claims.getAudience();
+        if (settings.getAudience() != null && !audience.contains(settings.getAudience())) {
+            throw new InvalidTokenException("Token is not intended for this resource");
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.custos.resource;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.net.URI;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Settings for validating access tokens locally against the authorization server's signing keys.
+ */
+@Getter
+@Builder
+public class ResourceServerSettings {
+
+    /**
+     * Location of the authorization server's JWK Set.
+     */
+    private final URI jwksUri;
+
+    /**
+     * Expected {@code iss} claim, or null to accept any issuer.
+     */
+    private final String issuer;
+
+    /**
+     * Value that must appear in the {@code aud} claim, or null to accept any audience.
+     */
+    private final String audience;
+
+    /**
+     * Signing algorithms accepted in the token header.
+     */
+    @Builder.Default
+    private final Set<JWSAlgorithm> algorithms = Set.of(JWSAlgorithm.RS256);
+
+    /**
+     * Tolerance applied to {@code exp} and {@code nbf}.
+     */
+    @Builder.Default
+    private final Duration clockSkew = Duration.ofSeconds(60);
+
+    /**
+     * Interval between background refreshes of the key set; zero disables them.
+     */
+    @Builder.Default
+    private final Duration refreshInterval = Duration.ofMinutes(5);
+
+    /**
+     * Shortest interval between refreshes triggered by tokens signed with an unknown key.
+     */
+    @Builder.Default
+    private final Duration minRefreshInterval = Duration.ofSeconds(30);
+
+    /**
+     * How long a request waits for a refresh triggered by an unknown key before it is rejected.
+     */
+    @Builder.Default
+    private final Duration unknownKeyTimeout = Duration.ofSeconds(2);
+
+    /**
+     * Timeout for fetching the key set.
+     */
+    @Builder.Default
+    private final Duration fetchTimeout = Duration.ofSeconds(5);
+
+    /**
+     * Maximum number of validated tokens whose claims are kept.
+     */
+    @Builder.Default
+    private final int maxCachedTokens = 10_000;
+
+    @Builder.Default
+    private final Clock clock = Clock.systemUTC();
+}
@@ -0,0 +1,75 @@
+package com.custos.resource;
+
+import com.nimbusds.jwt.JWTClaimsSet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class BearerTokenFilterTest {
+
+    private JwtValidator validator;
+    private BearerTokenFilter filter;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+    private MockFilterChain chain;
+
+    @BeforeEach
+    void setUp() {
+        validator = mock(JwtValidator.class);
+        filter = new BearerTokenFilter(validator);
+        request = new MockHttpServletRequest("GET", "/api/me");
+        response = new MockHttpServletResponse();
+        chain = new MockFilterChain();
+    }
+
+    @Test
+    void doFilter_ValidToken_ExposesClaims() throws Exception {
+        JWTClaimsSet claims = new JWTClaimsSet.Builder().subject("user").build();
+        when(validator.validate("abc")).thenReturn(claims);
+        request.addHeader("Authorization", "Bearer abc");
+
+        filter.doFilter(request, response, chain);
+
+        assertSame(claims, BearerTokenFilter.claims(request));
+        assertSame(request, chain.getRequest());
+        assertEquals(200, response.getStatus());
+    }
+
+    @Test
+    void doFilter_LowercaseScheme_IsAccepted() throws Exception {
+        when(validator.validate("abc")).thenReturn(new JWTClaimsSet.Builder().build());
+        request.addHeader("Authorization", "bearer abc");
+
+        filter.doFilter(request, response, chain);
+
+        assertNotNull(chain.getRequest());
+    }
+
+    @Test
+    void doFilter_MissingToken_ChallengesWithoutError() throws Exception {
+        filter.doFilter(request, response, chain);
+
+        assertEquals(401, response.getStatus());
+        assertEquals("Bearer", response.getHeader("WWW-Authenticate"));
+        assertNull(chain.getRequest());
+        verifyNoInteractions(validator);
+    }
+
+    @Test
+    void doFilter_InvalidToken_ChallengesWithInvalidToken() throws Exception {
+        when(validator.validate("abc")).thenThrow(new InvalidTokenException("Token has expired"));
+        request.addHeader("Authorization", "Bearer abc");
+
+        filter.doFilter(request, response, chain);
+
+        assertEquals(401, response.getStatus());
+        assertEquals("Bearer error=\"invalid_token\", error_description=\"Token has expired\"",
+            response.getHeader("WWW-Authenticate"));
+        assertNull(chain.getRequest());
+    }
+}
@@ -0,0 +1,235 @@
+package com.custos.resource;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.MACSigner;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtValidatorTest {
+
+    private static final String ISSUER = "https://auth.custos.com";
+
+    private static RSAKey firstKey;
+    private static RSAKey secondKey;
+
+    private final MutableClock clock = new MutableClock();
+    private final AtomicReference<String> published = new AtomicReference<>();
+    private final AtomicInteger fetches = new AtomicInteger();
+
+    private JwkSetCache jwkSetCache;
+    private JwtValidator validator;
+
+    @BeforeAll
+    static void generateKeys() throws JOSEException {
+        firstKey = new RSAKeyGenerator(2048).keyID("first").generate();
+        secondKey = new RSAKeyGenerator(2048).keyID("second").generate();
+    }
+
+    @BeforeEach
+    void setUp() {
+        published.set(new JWKSet(firstKey.toPublicJWK()).toString());
+        ResourceServerSettings settings = ResourceServerSettings.builder()
+            .jwksUri(URI.create("http://localhost:9000/oauth2/jwks"))
+            .issuer(ISSUER)
+            .refreshInterval(Duration.ZERO)
+            .clock(clock)
+            .build();
+        jwkSetCache = new JwkSetCache(settings, () -> {
+            fetches.incrementAndGet();
+            return published.get();
+        });
+        validator = new JwtValidator(settings, jwkSetCache);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jwkSetCache.close();
+    }
+
+    @Test
+    void validate_ValidToken_ReturnsClaims() throws Exception {
+        JWTClaimsSet claims = validator.validate(sign(firstKey, claims(ISSUER, 3600)));
+
+        assertEquals("user", claims.getSubject());
+        assertEquals("read", claims.getStringClaim("scope"));
+        assertEquals(1, fetches.get());
+    }
+
+    @Test
+    void validate_SameTokenTwice_UsesCachedClaims() throws Exception {
+        String token = sign(firstKey, claims(ISSUER, 3600));
+        JWTClaimsSet first = validator.validate(token);
+
+        // Unpublishing the key would fail a second verification; the cached claims are used instead
+        published.set(new JWKSet(secondKey.toPublicJWK()).toString());
+        clock.advance(60_000);
+
+        assertSame(first, validator.validate(token));
+        assertEquals(1, validator.cachedTokens());
+    }
+
+    @Test
+    void validate_CachedTokenAfterExpiry_IsRejected() throws Exception {
+        String token = sign(firstKey, claims(ISSUER, 120));
+        validator.validate(token);
+
+        clock.advance(Duration.ofMinutes(4).toMillis());
+
+        InvalidTokenException e = assertThrows(InvalidTokenException.class, () -> validator.validate(token));
+        assertEquals("Token has expired", e.getMessage());
+    }
+
+    @Test
+    void validate_RotatedKey_RefreshesKeySet() throws Exception {
+        validator.validate(sign(firstKey, claims(ISSUER, 3600)));
+        published.set(new JWKSet(List.of(firstKey.toPublicJWK(), secondKey.toPublicJWK())).toString());
+        clock.advance(Duration.ofSeconds(30).toMillis());
+
+        JWTClaimsSet claims = validator.validate(sign(secondKey, claims(ISSUER, 3600)));
+
+        assertEquals("user", claims.getSubject());
+        assertEquals(2, fetches.get());
+        assertEquals(2, jwkSetCache.size());
+    }
+
+    @Test
+    void validate_UnknownKeys_RefreshAtMostOncePerInterval() throws Exception {
+        RSAKey unknown = new RSAKeyGenerator(2048).keyID("unknown").generate();
+        validator.validate(sign(firstKey, claims(ISSUER, 3600)));
+
+        for (int i = 0; i < 5; i++) {
+            String token = sign(unknown, claims(ISSUER, 3600));
+            InvalidTokenException e = assertThrows(InvalidTokenException.class, () -> validator.validate(token));
+            assertEquals("Unknown signing key", e.getMessage());
+        }
+        assertEquals(1, fetches.get());
+
+        clock.advance(Duration.ofSeconds(30).toMillis());
+        assertThrows(InvalidTokenException.class, () -> validator.validate(sign(unknown, claims(ISSUER, 3600))));
+        assertEquals(2, fetches.get());
+    }
+
+    @Test
+    void validate_TokenWithoutKeyId_UsesOnlyPublishedKey() throws Exception {
+        SignedJWT jwt = new SignedJWT(new JWSHeader(JWSAlgorithm.RS256), claims(ISSUER, 3600));
+        jwt.sign(new RSASSASigner(firstKey));
+
+        assertEquals("user", validator.validate(jwt.serialize()).getSubject());
+    }
+
+    @Test
+    void validate_TamperedSignature_Throws() throws Exception {
+        String token = sign(firstKey, claims(ISSUER, 3600));
+        String tampered = token.substring(0, token.length() - 4) + (token.endsWith("AAAA") ? "BBBB" : "AAAA");
+
+        InvalidTokenException e = assertThrows(InvalidTokenException.class, () -> validator.validate(tampered));
+        assertEquals("Invalid token signature", e.getMessage());
+        assertEquals(0, validator.cachedTokens());
+    }
+
+    @Test
+    void validate_OtherIssuer_Throws() throws Exception {
+        String token = sign(firstKey, claims("https://evil.example.com", 3600));
+
+        assertThrows(InvalidTokenException.class, () -> validator.validate(token));
+    }
+
+    @Test
+    void validate_SymmetricAlgorithm_Throws() throws Exception {
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.HS256).keyID("first").build(),
+            claims(ISSUER, 3600));
+        jwt.sign(new MACSigner(new byte[32]));
+
+        InvalidTokenException e = assertThrows(InvalidTokenException.class, () -> validator.validate(jwt.serialize()));
+        assertEquals("Unsupported signing algorithm", e.getMessage());
+    }
+
+    @Test
+    void validate_RefreshToken_Throws() throws Exception {
+        JWTClaimsSet refreshToken = new JWTClaimsSet.Builder(claims(ISSUER, 3600))
+            .claim("token_type", "refresh_token")
+            .build();
+
+        InvalidTokenException e = assertThrows(InvalidTokenException.class,
+            () -> validator.validate(sign(firstKey, refreshToken)));
+        assertEquals("Not an access token", e.getMessage());
+    }
+
+    @Test
+    void validate_SenderConstrainedToken_Throws() throws Exception {
+        JWTClaimsSet dpopToken = new JWTClaimsSet.Builder(claims(ISSUER, 3600))
+            .claim("token_type", "DPoP")
+            .claim("cnf", Map.of("jkt", "0ZcOCORZNYy-DWpqq30jZyJGHTN0d2HglBV3uiguA4I"))
+            .build();
+        JWTClaimsSet certificateBoundToken = new JWTClaimsSet.Builder(claims(ISSUER, 3600))
+            .claim("cnf", Map.of("x5t#S256", "bwcK0esc3ACC3DB2Y5_lESsXE8o9ltc05O89jdN-dg2"))
+            .build();
+
+        for (JWTClaimsSet token : List.of(dpopToken, certificateBoundToken)) {
+            InvalidTokenException e = assertThrows(InvalidTokenException.class,
+                () -> validator.validate(sign(firstKey, token)));
+            assertEquals("Sender-constrained token presented as a bearer token", e.getMessage());
+        }
+    }
+
+    @Test
+    void validate_AuthorizationCode_Throws() throws Exception {
+        JWTClaimsSet code = new JWTClaimsSet.Builder(claims(ISSUER, 300))
+            .claim("token_type", null)
+            .claim("redirect_uri", "https://client.example.com/callback")
+            .claim("code_challenge", "E9Melhoa2OwvFrEMTJguCHaoeK1t8URWbuGJSstw-cM")
+            .build();
+
+        InvalidTokenException e = assertThrows(InvalidTokenException.class,
+            () -> validator.validate(sign(firstKey, code)));
+        assertEquals("Not an access token", e.getMessage());
+        assertEquals(0, validator.cachedTokens());
+    }
+
+    @Test
+    void validate_Garbage_Throws() {
+        assertThrows(InvalidTokenException.class, () -> validator.validate("not-a-token"));
+        assertThrows(InvalidTokenException.class, () -> validator.validate(""));
+    }
+
+    private JWTClaimsSet claims(String issuer, long expiresInSeconds) {
+        Instant now = clock.instant();
+        return new JWTClaimsSet.Builder()
+            .issuer(issuer)
+            .subject("user")
+            .audience("test-client")
+            .issueTime(Date.from(now))
+            .notBeforeTime(Date.from(now))
+            .expirationTime(Date.from(now.plusSeconds(expiresInSeconds)))
+            .claim("scope", "read")
+            .claim("token_type", "Bearer")
+            .build();
+    }
+
+    private static String sign(RSAKey key, JWTClaimsSet claims) throws JOSEException {
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(key.getKeyID()).build(), claims);
+        jwt.sign(new RSASSASigner(key));
+        return jwt.serialize();
+    }
+}
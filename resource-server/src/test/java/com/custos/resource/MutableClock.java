@@ -0,0 +1,44 @@
+package com.custos.resource;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/**
+ * A UTC clock that starts at the current time and stands still until a test moves it forward,
+ * for checking expiry without sleeping.
+ */
+public final class MutableClock extends Clock {
+
+    private volatile long millis = System.currentTimeMillis();
+
+    /**
+     * Moves the clock.
+     *
+     * @param delta The milliseconds to add
+     */
+    public void advance(long delta) {
+        millis += delta;
+    }
+
+    @Override
+    public long millis() {
+        return millis;
+    }
+
+    @Override
+    public Instant instant() {
+        return Instant.ofEpochMilli(millis);
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+        return this;
+    }
+}